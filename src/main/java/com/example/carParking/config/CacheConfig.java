@@ -0,0 +1,12 @@
+package com.example.carParking.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PARKINGS_CACHE = "parkings";
+    public static final String CARS_CACHE = "cars";
+}
@@ -0,0 +1,46 @@
+package com.example.carParking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Puts a {@link FairConnectionLimiter} in front of the connection pool. Enabled by the
+ * {@code virtual-threads} profile, where request concurrency is no longer capped by Tomcat's
+ * thread pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "carparking.datasource.fair-limiter.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor fairConnectionLimiterPostProcessor(
+            @Value("${carparking.datasource.fair-limiter.timeout:PT2S}") Duration timeout) {
+        return new FairConnectionLimiterPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new FairConnectionLimiter(hikari, hikari.getMaximumPoolSize(), timeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Ordered, so it wraps the pool before unordered post processors wrap the data source.
+     */
+    private abstract static class FairConnectionLimiterPostProcessor implements BeanPostProcessor, Ordered {
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.carParking.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the {@link EndpointStats} of every request to the instrumented controllers, tagged with
+ * the handler method as {@code endpoint=CarController.getAllCars}:
+ * <ul>
+ *     <li>{@code carparking.endpoint.statements} - SQL statements executed</li>
+ *     <li>{@code carparking.endpoint.jdbc} - time spent executing them</li>
+ *     <li>{@code carparking.endpoint.entity.loads} - entities Hibernate loaded</li>
+ *     <li>{@code carparking.endpoint.mapping} - time spent in the MapStruct mappers</li>
+ *     <li>{@code carparking.endpoint.serialization} - time spent writing the JSON response</li>
+ * </ul>
+ * Requests that go asynchronous, like the availability stream, are not recorded.
+ */
+public class EndpointMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry meterRegistry;
+    private final Set<Class<?>> controllers;
+    private final Map<String, EndpointMeters> meters = new ConcurrentHashMap<>();
+
+    public EndpointMetricsInterceptor(MeterRegistry meterRegistry, Set<Class<?>> controllers) {
+        this.meterRegistry = meterRegistry;
+        this.controllers = controllers;
+    }
+
+    public static String endpointName(Class<?> controller, Method method) {
+        return controller.getSimpleName() + "." + method.getName();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod && controllers.contains(handlerMethod.getBeanType())) {
+            EndpointStats.begin();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        EndpointStats.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        EndpointStats stats = EndpointStats.end();
+        if (stats == null || !(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        EndpointMeters endpointMeters = meters.computeIfAbsent(endpointName(handlerMethod.getBeanType(), handlerMethod.getMethod()),
+                this::register);
+        endpointMeters.statements().record(stats.getStatements());
+        endpointMeters.jdbc().record(stats.getJdbcNanos(), TimeUnit.NANOSECONDS);
+        endpointMeters.entityLoads().record(stats.getEntityLoads());
+        endpointMeters.mapping().record(stats.getMappingNanos(), TimeUnit.NANOSECONDS);
+        endpointMeters.serialization().record(stats.getSerializationNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private EndpointMeters register(String endpoint) {
+        return new EndpointMeters(
+                summary("carparking.endpoint.statements", "SQL statements executed per request", "statements", endpoint),
+                timer("carparking.endpoint.jdbc", "Time per request spent executing SQL statements", endpoint),
+                summary("carparking.endpoint.entity.loads", "Entities loaded per request", "entities", endpoint),
+                timer("carparking.endpoint.mapping", "Time per request spent mapping between entities and DTOs", endpoint),
+                timer("carparking.endpoint.serialization", "Time per request spent writing the response body", endpoint));
+    }
+
+    private DistributionSummary summary(String name, String description, String baseUnit, String endpoint) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer timer(String name, String description, String endpoint) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("endpoint", endpoint)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record EndpointMeters(DistributionSummary statements, Timer jdbc, DistributionSummary entityLoads,
+                                  Timer mapping, Timer serialization) {
+    }
+}
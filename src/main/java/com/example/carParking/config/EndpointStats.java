@@ -0,0 +1,86 @@
+package com.example.carParking.config;
+
+/**
+ * What one instrumented request cost so far: statements executed, time spent in JDBC, entities
+ * loaded and time spent mapping and serializing. Bound to the request thread between
+ * {@link #begin()} and {@link #end()}; work on other threads is not attributed to the request.
+ */
+public final class EndpointStats {
+
+    private static final ThreadLocal<EndpointStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long jdbcNanos;
+    private int entityLoads;
+    private long mappingNanos;
+    private int mappingDepth;
+    private long serializationNanos;
+
+    private EndpointStats() {
+    }
+
+    public static EndpointStats begin() {
+        EndpointStats stats = new EndpointStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return the stats of the request running on this thread, or {@code null} outside of one
+     */
+    public static EndpointStats current() {
+        return CURRENT.get();
+    }
+
+    public static EndpointStats end() {
+        EndpointStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    public void statementExecuted(long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+    }
+
+    public void entityLoaded() {
+        entityLoads++;
+    }
+
+    public void mappingStarted() {
+        mappingDepth++;
+    }
+
+    /**
+     * Mappers call each other, so only the outermost call adds its time.
+     */
+    public void mappingFinished(long startedNanos) {
+        if (--mappingDepth == 0) {
+            mappingNanos += System.nanoTime() - startedNanos;
+        }
+    }
+
+    public void serialized(long nanos) {
+        serializationNanos += nanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getMappingNanos() {
+        return mappingNanos;
+    }
+
+    public long getSerializationNanos() {
+        return serializationNanos;
+    }
+}
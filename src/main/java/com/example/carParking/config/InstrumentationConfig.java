@@ -0,0 +1,141 @@
+package com.example.carParking.config;
+
+import com.example.carParking.controller.CarController;
+import com.example.carParking.controller.ParkingController;
+import com.example.carParking.controller.ReservationController;
+import com.example.carParking.mapper.CarMapper;
+import com.example.carParking.mapper.ParkingMapper;
+import com.example.carParking.mapper.ReservationMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Interceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.type.Type;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+
+/**
+ * Collects {@link EndpointStats} for the requests of {@link CarController},
+ * {@link ParkingController} and {@link ReservationController} and publishes them per endpoint through
+ * {@link EndpointMetricsInterceptor}. On by default; {@code carparking.instrumentation.enabled=false}
+ * leaves the data source, mappers and JSON converter unwrapped.
+ */
+@Configuration
+@ConditionalOnProperty(name = "carparking.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class InstrumentationConfig implements WebMvcConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    public InstrumentationConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EndpointMetricsInterceptor(meterRegistry,
+                Set.of(CarController.class, ParkingController.class, ReservationController.class)));
+    }
+
+    /**
+     * Unordered, so it runs after the ordered fair limiter, which still finds the pool.
+     */
+    @Bean
+    public static BeanPostProcessor statementTimingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return new StatementTimingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor mappingTimingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CarMapper || bean instanceof ParkingMapper || bean instanceof ReservationMapper) {
+                    return timingMapper(bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityLoadCounter() {
+        Interceptor interceptor = new Interceptor() {
+            @Override
+            public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+                EndpointStats stats = EndpointStats.current();
+                if (stats != null) {
+                    stats.entityLoaded();
+                }
+                return false;
+            }
+        };
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.INTERCEPTOR, interceptor);
+    }
+
+    /**
+     * Replaces Spring Boot's JSON converter with one that times the responses it writes.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, java.lang.reflect.Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                EndpointStats stats = EndpointStats.current();
+                if (stats == null) {
+                    super.writeInternal(object, type, outputMessage);
+                    return;
+                }
+                long started = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    stats.serialized(System.nanoTime() - started);
+                }
+            }
+        };
+    }
+
+    private static Object timingMapper(Object mapper) {
+        return Proxy.newProxyInstance(mapper.getClass().getClassLoader(), ClassUtils.getAllInterfaces(mapper),
+                (proxy, method, args) -> {
+                    EndpointStats stats = EndpointStats.current();
+                    long started = System.nanoTime();
+                    if (stats != null) {
+                        stats.mappingStarted();
+                    }
+                    try {
+                        return method.invoke(mapper, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if (stats != null) {
+                            stats.mappingFinished(started);
+                        }
+                    }
+                });
+    }
+}
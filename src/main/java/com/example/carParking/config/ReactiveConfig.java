@@ -0,0 +1,22 @@
+package com.example.carParking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class ReactiveConfig {
+
+    /**
+     * Runs the blocking JDBC work behind the reactive API. One thread per pooled connection, since
+     * more could only wait for the pool, and a bounded queue so a burst is rejected instead of
+     * piling up.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${carparking.reactive.jdbc-threads:${spring.datasource.hikari.maximum-pool-size:10}}") int threads,
+                                   @Value("${carparking.reactive.max-queued:10000}") int maxQueued) {
+        return Schedulers.newBoundedElastic(threads, maxQueued, "jdbc");
+    }
+}
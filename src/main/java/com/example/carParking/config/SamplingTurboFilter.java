@@ -0,0 +1,55 @@
+package com.example.carParking.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in {@code rate} events of the loggers under {@code category} that are below
+ * {@code threshold}, so hot-path DEBUG logging can be switched on under load. Events at or above
+ * the threshold always pass. A turbo filter runs before the event is built, so a dropped event
+ * costs a counter increment. Configured in {@code logback-spring.xml}, one filter per category.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong events = new AtomicLong();
+
+    private String category = "";
+    private int rate = 1;
+    private Level threshold = Level.WARN;
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public void setThreshold(String threshold) {
+        this.threshold = Level.toLevel(threshold, Level.WARN);
+    }
+
+    @Override
+    public void start() {
+        if (rate < 1) {
+            addError("Sampling rate of " + category + " must be at least 1");
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // Level checks such as isDebugEnabled() pass a null format; only sample the events themselves.
+        if (!isStarted() || format == null || rate == 1 || level.isGreaterOrEqual(threshold)
+                || !logger.getName().startsWith(category) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return events.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
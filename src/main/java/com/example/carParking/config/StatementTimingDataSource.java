@@ -0,0 +1,76 @@
+package com.example.carParking.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Counts and times the statements an instrumented request executes, whether they come from
+ * Hibernate or from a {@code JdbcTemplate}. A batch is one statement, as it is one round trip.
+ * Statements created outside of a request are handed out unwrapped.
+ */
+public class StatementTimingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> CREATE_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    public StatementTimingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timing(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timing(super.getConnection(username, password));
+    }
+
+    private static Connection timing(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && CREATE_METHODS.contains(method.getName())
+                            && EndpointStats.current() != null) {
+                        return timing(statement, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private static Object timing(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!EXECUTE_METHODS.contains(method.getName())) {
+                        return invoke(statement, method, args);
+                    }
+                    long started = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        EndpointStats stats = EndpointStats.current();
+                        if (stats != null) {
+                            stats.statementExecuted(System.nanoTime() - started);
+                        }
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -1,61 +1,92 @@
 package com.example.carParking.controller;
 
 import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.CarImportReportDTO;
 import com.example.carParking.dto.CarWithoutParkingDTO;
+import com.example.carParking.dto.CursorPageDTO;
+import com.example.carParking.mapper.CarMapper;
 import com.example.carParking.model.CarEntity;
+import com.example.carParking.service.CachedLookupService;
+import com.example.carParking.service.CarImportService;
 import com.example.carParking.service.CarService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/cars")
 public class CarController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final CarService carService;
-    private final ModelMapper modelMapper;
+    private final CarImportService carImportService;
+    private final CachedLookupService cachedLookupService;
+    private final CarMapper carMapper;
 
-    public CarController(CarService carService, ModelMapper modelMapper) {
+    public CarController(CarService carService, CarImportService carImportService,
+                         CachedLookupService cachedLookupService, CarMapper carMapper) {
         this.carService = carService;
-        this.modelMapper = modelMapper;
+        this.carImportService = carImportService;
+        this.cachedLookupService = cachedLookupService;
+        this.carMapper = carMapper;
     }
 
     @PostMapping
     public ResponseEntity<CarWithoutParkingDTO> createCar(@Valid @RequestBody CarWithoutParkingDTO carDTO) {
-        CarEntity carRequest = modelMapper.map(carDTO, CarEntity.class);
+        CarEntity carRequest = carMapper.toCarEntity(carDTO);
         CarEntity createdCar = carService.createCar(carRequest);
-        CarWithoutParkingDTO carResponse = modelMapper.map(createdCar, CarWithoutParkingDTO.class);
+        CarWithoutParkingDTO carResponse = carMapper.toCarWithoutParkingDTO(createdCar);
 
         return ResponseEntity.status(HttpStatus.CREATED).body(carResponse);
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<CarImportReportDTO> importCars(HttpServletRequest request) throws IOException {
+        CarImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_JSON) ? CarImportService.Format.JSON : CarImportService.Format.CSV;
+        CarImportReportDTO report = carImportService.importCars(request.getInputStream(), format);
+
+        return ResponseEntity.ok(report);
+    }
+
     @GetMapping
     public ResponseEntity<Page<CarDTO>> getAllCars(@PageableDefault Pageable pageable) {
-        Page<CarEntity> carRequest = carService.getAllCars(pageable);
-        Page<CarDTO> carResponse = carRequest.map(car -> modelMapper.map(car, CarDTO.class));
+        Page<CarDTO> carResponse = carService.getAllCars(pageable);
+
+        return ResponseEntity.ok(carResponse);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<CarDTO>> scrollCars(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "100") int size,
+                                                            @RequestParam(defaultValue = "false") boolean withTotal) {
+        CursorPageDTO<CarDTO> carResponse = carService.scrollCars(cursor, size, withTotal);
 
         return ResponseEntity.ok(carResponse);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<CarDTO> getCarById(@PathVariable Long id) {
-        CarEntity carRequest = carService.getCarById(id);
-        CarDTO carResponse = modelMapper.map(carRequest, CarDTO.class);
+        CarDTO carResponse = cachedLookupService.getCar(id);
 
         return ResponseEntity.ok(carResponse);
     }
 
     @PatchMapping("/{id}")
     public ResponseEntity<CarWithoutParkingDTO> updateCar(@PathVariable Long id, @Valid @RequestBody CarWithoutParkingDTO carDTO) {
-        CarEntity carRequest = modelMapper.map(carDTO, CarEntity.class);
+        CarEntity carRequest = carMapper.toCarEntity(carDTO);
         CarEntity updatedCar = carService.updateCar(id, carRequest);
 
-        CarWithoutParkingDTO carResponse = modelMapper.map(updatedCar, CarWithoutParkingDTO.class);
+        CarWithoutParkingDTO carResponse = carMapper.toCarWithoutParkingDTO(updatedCar);
         return ResponseEntity.ok(carResponse);
     }
 
@@ -1,94 +1,255 @@
 package com.example.carParking.controller;
 
+import com.example.carParking.dto.ChargerAssignmentDTO;
+import com.example.carParking.dto.ChargerScheduleDTO;
+import com.example.carParking.dto.CursorPageDTO;
+import com.example.carParking.dto.ParkingAvailabilityDTO;
 import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.dto.ParkingOperationDTO;
+import com.example.carParking.dto.ParkingOperationResultDTO;
+import com.example.carParking.dto.ParkingSearchResultDTO;
+import com.example.carParking.dto.ParkingSlotDTO;
 import com.example.carParking.dto.ParkingWithoutCarsDTO;
+import com.example.carParking.dto.UtilizationDTO;
+import com.example.carParking.exceptions.GlobalExceptionHandler;
+import com.example.carParking.mapper.ParkingMapper;
 import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingOperation;
+import com.example.carParking.model.ParkingOperationResult;
+import com.example.carParking.model.ParkingSlotEntity;
+import com.example.carParking.model.UtilizationWindow;
+import com.example.carParking.service.AvailabilityFeed;
+import com.example.carParking.service.AvailabilityService;
+import com.example.carParking.service.CachedLookupService;
+import com.example.carParking.service.ChargerScheduler;
+import com.example.carParking.service.ParkingSearchService;
 import com.example.carParking.service.ParkingService;
+import com.example.carParking.service.UtilizationAnalytics;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.List;
+
+@Validated
 @RestController
 @RequestMapping("/parkings")
 public class ParkingController {
 
     private static final Logger logger = LoggerFactory.getLogger(ParkingController.class);
     private final ParkingService parkingService;
-    private final ModelMapper modelMapper;
+    private final CachedLookupService cachedLookupService;
+    private final AvailabilityService availabilityService;
+    private final AvailabilityFeed availabilityFeed;
+    private final ParkingSearchService parkingSearchService;
+    private final UtilizationAnalytics utilizationAnalytics;
+    private final ChargerScheduler chargerScheduler;
+    private final ParkingMapper parkingMapper;
 
-    public ParkingController(ParkingService parkingService, ModelMapper modelMapper) {
+    public ParkingController(ParkingService parkingService, CachedLookupService cachedLookupService,
+                             AvailabilityService availabilityService, AvailabilityFeed availabilityFeed,
+                             ParkingSearchService parkingSearchService,
+                             UtilizationAnalytics utilizationAnalytics, ChargerScheduler chargerScheduler,
+                             ParkingMapper parkingMapper) {
         this.parkingService = parkingService;
-        this.modelMapper = modelMapper;
+        this.cachedLookupService = cachedLookupService;
+        this.availabilityService = availabilityService;
+        this.availabilityFeed = availabilityFeed;
+        this.parkingSearchService = parkingSearchService;
+        this.utilizationAnalytics = utilizationAnalytics;
+        this.chargerScheduler = chargerScheduler;
+        this.parkingMapper = parkingMapper;
     }
 
     @PostMapping
     public ResponseEntity<ParkingWithoutCarsDTO> createParking(@Valid @RequestBody ParkingWithoutCarsDTO parkingDTO) {
-        logger.info("Creating a new parking: {}", parkingDTO.getName());
+        logger.debug("Creating a new parking: {}", parkingDTO.getName());
 
-        ParkingEntity parkingRequest = modelMapper.map(parkingDTO, ParkingEntity.class);
+        ParkingEntity parkingRequest = parkingMapper.toParkingEntity(parkingDTO);
         ParkingEntity createdParking = parkingService.createParking(parkingRequest);
-        ParkingWithoutCarsDTO parkingResponse = modelMapper.map(createdParking, ParkingWithoutCarsDTO.class);
-        logger.info("Successfully created parking with ID: {}", createdParking.getId());
+        ParkingWithoutCarsDTO parkingResponse = parkingMapper.toParkingWithoutCarsDTO(createdParking);
+        logger.debug("Successfully created parking with ID: {}", createdParking.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(parkingResponse);
     }
 
     @GetMapping
     public ResponseEntity<Page<ParkingDTO>> getAllParkings(@PageableDefault Pageable pageable) {
-        logger.info("Fetching all parkings with pageable: {}", pageable);
-        Page<ParkingEntity> parkingPage = parkingService.getAllParkings(pageable);
-        Page<ParkingDTO> responsePage = parkingPage.map(parking -> modelMapper.map(parking, ParkingDTO.class));
-        logger.info("Retrieved {} parkings", responsePage.getTotalElements());
+        logger.debug("Fetching all parkings with pageable: {}", pageable);
+        Page<ParkingDTO> responsePage = parkingService.getAllParkings(pageable);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Retrieved {} parkings", responsePage.getTotalElements());
+        }
+        return ResponseEntity.ok(responsePage);
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<ParkingDTO>> scrollParkings(@RequestParam(required = false) String cursor,
+                                                                    @RequestParam(defaultValue = "100") int size,
+                                                                    @RequestParam(defaultValue = "false") boolean withTotal) {
+        logger.debug("Scrolling parkings after cursor: {}", cursor);
+        CursorPageDTO<ParkingDTO> responsePage = parkingService.scrollParkings(cursor, size, withTotal);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Retrieved {} parkings", responsePage.getSize());
+        }
         return ResponseEntity.ok(responsePage);
     }
 
+    @GetMapping("/{id}/slots")
+    public ResponseEntity<List<ParkingSlotDTO>> getSlots(@PathVariable Long id) {
+        logger.debug("Fetching slots of parking with ID: {}", id);
+        List<ParkingSlotDTO> slotResponse = parkingService.getSlots(id).stream()
+                .map(slot -> parkingMapper.toParkingSlotDTO(slot, parkingService.isSlotOccupied(id, slot.getId())))
+                .toList();
+        return ResponseEntity.ok(slotResponse);
+    }
+
+    @PutMapping("/{id}/slots")
+    public ResponseEntity<List<ParkingSlotDTO>> replaceSlots(@PathVariable Long id,
+                                                             @RequestBody List<@Valid ParkingSlotDTO> slotDTOs) {
+        logger.debug("Replacing slots of parking with ID: {}", id);
+        List<ParkingSlotEntity> slotRequest = slotDTOs.stream().map(parkingMapper::toParkingSlotEntity).toList();
+        List<ParkingSlotDTO> slotResponse = parkingService.replaceSlots(id, new ArrayList<>(slotRequest)).stream()
+                .map(slot -> parkingMapper.toParkingSlotDTO(slot, false))
+                .toList();
+        return ResponseEntity.ok(slotResponse);
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<List<ParkingAvailabilityDTO>> getAvailability() {
+        return ResponseEntity.ok(availabilityService.getAvailability());
+    }
+
+    @GetMapping(path = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam List<Long> ids) {
+        logger.debug("Subscribing to availability of parkings with IDs: {}", ids);
+        return availabilityFeed.subscribe(ids);
+    }
+
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<ParkingAvailabilityDTO> getAvailabilityById(@PathVariable Long id) {
+        return ResponseEntity.ok(availabilityService.getAvailability(id));
+    }
+
+    @GetMapping("/{id}/utilization")
+    public ResponseEntity<UtilizationDTO> getUtilization(@PathVariable Long id,
+                                                         @RequestParam(defaultValue = "HOUR") UtilizationWindow window) {
+        return ResponseEntity.ok(utilizationAnalytics.getUtilization(id, window));
+    }
+
+    @GetMapping("/{id}/chargers")
+    public ResponseEntity<ChargerScheduleDTO> getChargers(@PathVariable Long id) {
+        return ResponseEntity.ok(chargerScheduler.getSchedule(id));
+    }
+
+    @GetMapping("/{id}/chargers/{carId}")
+    public ResponseEntity<ChargerAssignmentDTO> getCharger(@PathVariable Long id, @PathVariable Long carId) {
+        return ResponseEntity.ok(chargerScheduler.getAssignment(id, carId));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ParkingSearchResultDTO>> searchParkings(@RequestParam Long carId,
+                                                                       @RequestParam(required = false) Double latitude,
+                                                                       @RequestParam(required = false) Double longitude,
+                                                                       @RequestParam(defaultValue = "5") int limit) {
+        logger.debug("Searching parkings for car with ID: {}", carId);
+        List<ParkingSearchResultDTO> results = parkingSearchService.search(carId, latitude, longitude, limit);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found {} parkings for car with ID: {}", results.size(), carId);
+        }
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ParkingDTO> getParkingById(@PathVariable Long id) {
-        logger.info("Fetching parking with ID: {}", id);
-        ParkingEntity parkingRequest = parkingService.getParkingById(id);
-        ParkingDTO parkingResponse = modelMapper.map(parkingRequest, ParkingDTO.class);
+        logger.debug("Fetching parking with ID: {}", id);
+        ParkingDTO parkingResponse = cachedLookupService.getParking(id);
         return ResponseEntity.ok(parkingResponse);
     }
 
     @PatchMapping("/{id}")
     public ResponseEntity<ParkingWithoutCarsDTO> updateParking(@PathVariable Long id, @Valid @RequestBody ParkingWithoutCarsDTO parkingDTO) {
-        logger.info("Updating parking with ID: {}", id);
-        ParkingEntity parkingRequest = modelMapper.map(parkingDTO, ParkingEntity.class);
+        logger.debug("Updating parking with ID: {}", id);
+        ParkingEntity parkingRequest = parkingMapper.toParkingEntity(parkingDTO);
         ParkingEntity updatedParking = parkingService.updateParking(id, parkingRequest);
-        ParkingWithoutCarsDTO parkingResponse = modelMapper.map(updatedParking, ParkingWithoutCarsDTO.class);
-        logger.info("Successfully updated parking with ID: {}", id);
+        ParkingWithoutCarsDTO parkingResponse = parkingMapper.toParkingWithoutCarsDTO(updatedParking);
+        logger.debug("Successfully updated parking with ID: {}", id);
         return ResponseEntity.ok(parkingResponse);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteParking(@PathVariable Long id) {
-        logger.info("Deleting parking with ID: {}", id);
+        logger.debug("Deleting parking with ID: {}", id);
         parkingService.deleteParking(id);
-        logger.info("Successfully deleted parking with ID: {}", id);
+        logger.debug("Successfully deleted parking with ID: {}", id);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/{parkingId}/addCar/{carId}")
     public ResponseEntity<ParkingDTO> addCarToParking(@PathVariable Long parkingId, @Valid @PathVariable Long carId) {
-        logger.info("Adding car to parking with ID: {}", parkingId);
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .log("Adding car to parking");
         ParkingEntity updatedParking = parkingService.addCarToParking(parkingId, carId);
-        ParkingDTO parkingResponse = modelMapper.map(updatedParking, ParkingDTO.class);
-        logger.info("Successfully added car to parking with ID: {}", parkingId);
+        ParkingDTO parkingResponse = parkingMapper.toParkingDTO(updatedParking);
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .log("Added car to parking");
         return ResponseEntity.ok(parkingResponse);
     }
 
     @DeleteMapping("/{parkingId}/deleteCar/{carId}")
     public ResponseEntity<ParkingDTO> deleteCarFromParking(@PathVariable Long parkingId, @Valid @PathVariable Long carId) {
-        logger.info("Deleting car from parking with ID: {}", parkingId);
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .log("Deleting car from parking");
         ParkingEntity updatedParking = parkingService.deleteCarFromParking(parkingId, carId);
-        ParkingDTO parkingResponse = modelMapper.map(updatedParking, ParkingDTO.class);
-        logger.info("Successfully deleted car from parking with ID: {}", parkingId);
+        ParkingDTO parkingResponse = parkingMapper.toParkingDTO(updatedParking);
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .log("Deleted car from parking");
         return ResponseEntity.ok(parkingResponse);
     }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<ParkingOperationResultDTO>> applyOperations(@RequestBody List<@Valid ParkingOperationDTO> operationDTOs) {
+        logger.atDebug()
+                .addKeyValue("operations", operationDTOs.size())
+                .log("Applying batch of parking operations");
+        List<ParkingOperation> operations = operationDTOs.stream()
+                .map(parkingMapper::toParkingOperation)
+                .toList();
+        List<ParkingOperationResultDTO> results = parkingService.applyOperations(operations).stream()
+                .map(this::toResultDTO)
+                .toList();
+        logger.atDebug()
+                .addKeyValue("operations", results.size())
+                .log("Applied batch of parking operations");
+        return ResponseEntity.ok(results);
+    }
+
+    private ParkingOperationResultDTO toResultDTO(ParkingOperationResult result) {
+        ParkingOperation operation = result.getOperation();
+        return ParkingOperationResultDTO.builder()
+                .parkingId(operation.getParkingId())
+                .carId(operation.getCarId())
+                .action(operation.getAction())
+                .success(result.isSuccess())
+                .status(result.isSuccess() ? HttpStatus.OK : GlobalExceptionHandler.resolveStatus(result.getError()))
+                .message(result.isSuccess() ? null : result.getError().getMessage())
+                .build();
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.carParking.controller;
+
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.CarWithoutParkingDTO;
+import com.example.carParking.mapper.CarMapper;
+import com.example.carParking.service.ReactiveParkingOperations;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link CarController} for reactive clients. The listing is streamed as
+ * newline-delimited JSON instead of pages.
+ */
+@RestController
+@RequestMapping("/reactive/cars")
+public class ReactiveCarController {
+
+    private final ReactiveParkingOperations reactiveParkingOperations;
+    private final CarMapper carMapper;
+
+    public ReactiveCarController(ReactiveParkingOperations reactiveParkingOperations, CarMapper carMapper) {
+        this.reactiveParkingOperations = reactiveParkingOperations;
+        this.carMapper = carMapper;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<CarWithoutParkingDTO>> createCar(@Valid @RequestBody CarWithoutParkingDTO carDTO) {
+        return reactiveParkingOperations.createCar(carMapper.toCarEntity(carDTO))
+                .map(car -> ResponseEntity.status(HttpStatus.CREATED).body(car));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CarDTO> streamCars(@RequestParam(defaultValue = "100") int pageSize) {
+        return reactiveParkingOperations.streamCars(pageSize);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<CarDTO> getCarById(@PathVariable Long id) {
+        return reactiveParkingOperations.getCar(id);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<CarWithoutParkingDTO> updateCar(@PathVariable Long id, @Valid @RequestBody CarWithoutParkingDTO carDTO) {
+        return reactiveParkingOperations.updateCar(id, carMapper.toCarEntity(carDTO));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCar(@PathVariable Long id) {
+        return reactiveParkingOperations.deleteCar(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
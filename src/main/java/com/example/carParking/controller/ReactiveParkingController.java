@@ -0,0 +1,60 @@
+package com.example.carParking.controller;
+
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.dto.ParkingWithoutCarsDTO;
+import com.example.carParking.mapper.ParkingMapper;
+import com.example.carParking.service.ReactiveParkingOperations;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking variant of {@link ParkingController} for reactive clients. Requests, responses and
+ * error statuses are the same as on {@code /parkings}.
+ */
+@RestController
+@RequestMapping("/reactive/parkings")
+public class ReactiveParkingController {
+
+    private final ReactiveParkingOperations reactiveParkingOperations;
+    private final ParkingMapper parkingMapper;
+
+    public ReactiveParkingController(ReactiveParkingOperations reactiveParkingOperations, ParkingMapper parkingMapper) {
+        this.reactiveParkingOperations = reactiveParkingOperations;
+        this.parkingMapper = parkingMapper;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<ParkingWithoutCarsDTO>> createParking(@Valid @RequestBody ParkingWithoutCarsDTO parkingDTO) {
+        return reactiveParkingOperations.createParking(parkingMapper.toParkingEntity(parkingDTO))
+                .map(parking -> ResponseEntity.status(HttpStatus.CREATED).body(parking));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ParkingDTO> getParkingById(@PathVariable Long id) {
+        return reactiveParkingOperations.getParking(id);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ParkingWithoutCarsDTO> updateParking(@PathVariable Long id, @Valid @RequestBody ParkingWithoutCarsDTO parkingDTO) {
+        return reactiveParkingOperations.updateParking(id, parkingMapper.toParkingEntity(parkingDTO));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteParking(@PathVariable Long id) {
+        return reactiveParkingOperations.deleteParking(id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @PostMapping("/{parkingId}/addCar/{carId}")
+    public Mono<ParkingDTO> addCarToParking(@PathVariable Long parkingId, @PathVariable Long carId) {
+        return reactiveParkingOperations.addCarToParking(parkingId, carId);
+    }
+
+    @DeleteMapping("/{parkingId}/deleteCar/{carId}")
+    public Mono<ParkingDTO> deleteCarFromParking(@PathVariable Long parkingId, @PathVariable Long carId) {
+        return reactiveParkingOperations.deleteCarFromParking(parkingId, carId);
+    }
+}
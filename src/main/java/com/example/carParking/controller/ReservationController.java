@@ -0,0 +1,55 @@
+package com.example.carParking.controller;
+
+import com.example.carParking.dto.ReservationDTO;
+import com.example.carParking.mapper.ReservationMapper;
+import com.example.carParking.model.ReservationEntity;
+import com.example.carParking.service.ReservationService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/reservations")
+public class ReservationController {
+
+    private final ReservationService reservationService;
+    private final ReservationMapper reservationMapper;
+
+    public ReservationController(ReservationService reservationService, ReservationMapper reservationMapper) {
+        this.reservationService = reservationService;
+        this.reservationMapper = reservationMapper;
+    }
+
+    @PostMapping
+    public ResponseEntity<ReservationDTO> createReservation(@Valid @RequestBody ReservationDTO reservationDTO) {
+        ReservationEntity reservationRequest = reservationMapper.toReservationEntity(reservationDTO);
+        ReservationEntity createdReservation = reservationService.createReservation(reservationRequest);
+        ReservationDTO reservationResponse = reservationMapper.toReservationDTO(createdReservation);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservationResponse);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReservationDTO> getReservation(@PathVariable Long id) {
+        ReservationDTO reservationResponse = reservationMapper.toReservationDTO(reservationService.getReservation(id));
+
+        return ResponseEntity.ok(reservationResponse);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ReservationDTO>> getReservations(@RequestParam Long parkingId) {
+        List<ReservationDTO> reservationResponse =
+                reservationMapper.toReservationDTOs(reservationService.getReservations(parkingId));
+
+        return ResponseEntity.ok(reservationResponse);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelReservation(@PathVariable Long id) {
+        reservationService.cancelReservation(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.carParking.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Message of the availability feed. A removed lot is sent with its ID only.
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AvailabilityDeltaDTO {
+
+    Long parkingId;
+
+    Integer freeSpaces;
+
+    Integer freeChargers;
+
+    @JsonIgnore
+    boolean removed;
+}
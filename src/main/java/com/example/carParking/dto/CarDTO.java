@@ -38,5 +38,7 @@ public class CarDTO {
     private FuelType fuelType;
 
     private Long parkingId;
+
+    private Long slotId;
 }
 
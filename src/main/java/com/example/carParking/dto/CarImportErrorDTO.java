@@ -0,0 +1,17 @@
+package com.example.carParking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CarImportErrorDTO {
+
+    private long row;
+
+    private String message;
+}
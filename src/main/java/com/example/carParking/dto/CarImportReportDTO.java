@@ -0,0 +1,25 @@
+package com.example.carParking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CarImportReportDTO {
+
+    private long importedRows;
+
+    private long failedRows;
+
+    private long elapsedMillis;
+
+    private double rowsPerSecond;
+
+    private List<CarImportErrorDTO> errors;
+}
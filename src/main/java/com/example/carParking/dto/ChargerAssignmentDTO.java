@@ -0,0 +1,31 @@
+package com.example.carParking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Where an electric car stands in the charger schedule of its parking: either on a charger, with
+ * the end of its current slice when chargers rotate, or on the waitlist with an estimated start.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChargerAssignmentDTO {
+
+    private Long carId;
+
+    private Integer charger;
+
+    private Instant chargingSince;
+
+    private Instant chargingUntil;
+
+    private Integer waitlistPosition;
+
+    private Instant estimatedStart;
+}
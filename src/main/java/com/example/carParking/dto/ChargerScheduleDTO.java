@@ -0,0 +1,34 @@
+package com.example.carParking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChargerScheduleDTO {
+
+    private Long parkingId;
+
+    private String policy;
+
+    private int numberOfChargers;
+
+    private int freeChargers;
+
+    /**
+     * When an electric car arriving now would get a charger, or {@code null} when it cannot be told.
+     */
+    private Instant nextChargerFreeAt;
+
+    /**
+     * Cars on chargers by charger number, followed by the waitlist in order.
+     */
+    private List<ChargerAssignmentDTO> cars;
+}
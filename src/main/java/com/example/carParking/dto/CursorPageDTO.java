@@ -0,0 +1,29 @@
+package com.example.carParking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset listing. {@code nextCursor} is {@code null} on the last slice and
+ * {@code totalElements} is only present when the caller asked for it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageDTO<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private String nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+}
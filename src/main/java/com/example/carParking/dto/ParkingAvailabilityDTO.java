@@ -0,0 +1,33 @@
+package com.example.carParking.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Free capacity of one lot as shown on signage. Instances are immutable because the same
+ * object is shared by every reader of an availability snapshot.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ParkingAvailabilityDTO {
+
+    Long parkingId;
+
+    String name;
+
+    int totalSpaces;
+
+    int freeSpaces;
+
+    int numberOfChargers;
+
+    int freeChargers;
+
+    boolean lpgAllowed;
+
+    double widthOfParkingSpace;
+
+    Double latitude;
+
+    Double longitude;
+}
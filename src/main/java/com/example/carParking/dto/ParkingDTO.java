@@ -1,5 +1,6 @@
 package com.example.carParking.dto;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -38,5 +39,13 @@ public class ParkingDTO {
     @Min(value = 0, message = "Width of parking space must be a non-negative number")
     private Double widthOfParkingSpace;
 
+    @Min(value = -90, message = "Latitude must be between -90 and 90")
+    @Max(value = 90, message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @Min(value = -180, message = "Longitude must be between -180 and 180")
+    @Max(value = 180, message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
     private List<CarDTO> cars;
 }
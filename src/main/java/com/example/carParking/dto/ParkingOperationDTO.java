@@ -0,0 +1,24 @@
+package com.example.carParking.dto;
+
+import com.example.carParking.model.ParkingAction;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParkingOperationDTO {
+
+    @NotNull(message = "Parking ID cannot be null")
+    private Long parkingId;
+
+    @NotNull(message = "Car ID cannot be null")
+    private Long carId;
+
+    @NotNull(message = "Action cannot be null")
+    private ParkingAction action;
+}
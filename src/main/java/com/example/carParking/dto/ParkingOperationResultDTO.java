@@ -0,0 +1,27 @@
+package com.example.carParking.dto;
+
+import com.example.carParking.model.ParkingAction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParkingOperationResultDTO {
+
+    private Long parkingId;
+
+    private Long carId;
+
+    private ParkingAction action;
+
+    private boolean success;
+
+    private HttpStatus status;
+
+    private String message;
+}
@@ -0,0 +1,33 @@
+package com.example.carParking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A lot the searched car can park in right now. {@code distanceKm} is left out when either the
+ * search or the lot has no location.
+ */
+@Value
+@Builder
+public class ParkingSearchResultDTO {
+
+    Long parkingId;
+
+    String name;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Double distanceKm;
+
+    int freeSpaces;
+
+    int freeChargers;
+
+    boolean lpgAllowed;
+
+    double widthOfParkingSpace;
+
+    Double latitude;
+
+    Double longitude;
+}
@@ -0,0 +1,35 @@
+package com.example.carParking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParkingSlotDTO {
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long id;
+
+    @NotNull(message = "Label cannot be null")
+    @Size(min = 1, max = 20, message = "Label must be between 1 and 20 characters")
+    private String label;
+
+    @NotNull(message = "Width cannot be null")
+    @Min(value = 0, message = "Width must be a non-negative number")
+    private Double width;
+
+    private boolean charger;
+
+    private boolean lpgAllowed;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private boolean occupied;
+}
@@ -0,0 +1,37 @@
+package com.example.carParking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationDTO {
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long id;
+
+    @NotNull(message = "Car ID cannot be null")
+    private Long carId;
+
+    @NotNull(message = "Parking ID cannot be null")
+    private Long parkingId;
+
+    @NotNull(message = "Start cannot be null")
+    private Instant startsAt;
+
+    @NotNull(message = "End cannot be null")
+    private Instant endsAt;
+
+    private boolean needsCharger;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Instant claimedAt;
+}
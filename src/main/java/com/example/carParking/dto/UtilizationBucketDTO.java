@@ -0,0 +1,33 @@
+package com.example.carParking.dto;
+
+import com.example.carParking.model.FuelType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Utilization of a lot during one bucket. Averages only cover the part of the bucket the
+ * analytics observed, and {@code averageDwellSeconds} is left out when no session ended in it.
+ */
+@Value
+@Builder
+public class UtilizationBucketDTO {
+
+    Instant start;
+
+    double averageOccupancy;
+
+    int peakOccupancy;
+
+    int peakChargerUsage;
+
+    long completedSessions;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    Double averageDwellSeconds;
+
+    Map<FuelType, Double> averageOccupancyByFuelType;
+}
@@ -0,0 +1,18 @@
+package com.example.carParking.dto;
+
+import com.example.carParking.model.UtilizationWindow;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+@Builder
+public class UtilizationDTO {
+
+    Long parkingId;
+
+    UtilizationWindow window;
+
+    List<UtilizationBucketDTO> buckets;
+}
@@ -0,0 +1,11 @@
+package com.example.carParking.exceptions;
+
+public class AssignmentsNotWrittenException extends RuntimeException {
+    public AssignmentsNotWrittenException(String message) {
+        super(message);
+    }
+
+    public AssignmentsNotWrittenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
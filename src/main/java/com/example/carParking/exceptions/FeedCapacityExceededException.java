@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class FeedCapacityExceededException extends RuntimeException {
+    public FeedCapacityExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,53 +1,105 @@
 package com.example.carParking.exceptions;
 
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 
 @ControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
-    @ExceptionHandler({
-            EntityNotFoundException.class,
-            NoParkingFoundException.class,
-            NoCarFoundException.class
-    })
-    public ResponseEntity<ApiError> handleNotFoundException(RuntimeException ex) {
-        logError(ex);
-        ApiError apiError = buildApiError(HttpStatus.NOT_FOUND, ex.getMessage());
-        return new ResponseEntity<>(apiError, apiError.getStatus());
-    }
+    /**
+     * The status each exception is answered with, matched by its class or nearest superclass.
+     * {@link #handleException} and {@link #resolveStatus} both read it, so an error gets the same
+     * status whether it is thrown or reported among the results of a batch.
+     */
+    private static final Map<Class<? extends Exception>, HttpStatus> STATUSES = new HashMap<>();
 
-    @ExceptionHandler({
-            ParkingFullException.class,
-            NoFreeSpaceParkingException.class,
-            LpgNotAllowedException.class,
-            CarTooWideException.class,
-            NoFreeChargersParkingException.class,
-            CarParkedException.class
-    })
-    public ResponseEntity<ApiError> handleBadRequestException(RuntimeException ex) {
-        logWarning(ex);
-        ApiError apiError = buildApiError(HttpStatus.BAD_REQUEST, ex.getMessage());
-        return new ResponseEntity<>(apiError, apiError.getStatus());
+    private static final String CONFLICT_MESSAGE = "Resource was modified concurrently, please retry.";
+
+    static {
+        map(HttpStatus.NOT_FOUND,
+                EntityNotFoundException.class,
+                NoParkingFoundException.class,
+                NoCarFoundException.class,
+                NoReservationFoundException.class);
+        map(HttpStatus.BAD_REQUEST,
+                ParkingFullException.class,
+                NoFreeSpaceParkingException.class,
+                LpgNotAllowedException.class,
+                CarTooWideException.class,
+                NoFreeChargersParkingException.class,
+                CarParkedException.class,
+                InvalidImportFileException.class,
+                InvalidCursorException.class,
+                InvalidSlotLayoutException.class,
+                InvalidSearchException.class,
+                InvalidSubscriptionException.class,
+                InvalidReservationException.class,
+                ParkingFullyReservedException.class,
+                ConstraintViolationException.class,
+                IllegalArgumentException.class);
+        map(HttpStatus.CONFLICT,
+                ObjectOptimisticLockingFailureException.class,
+                OptimisticLockException.class);
+        map(HttpStatus.SERVICE_UNAVAILABLE,
+                FeedCapacityExceededException.class,
+                ServerBusyException.class,
+                AssignmentsNotWrittenException.class);
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ApiError> handleGenericException(Exception ex) {
-        logError(ex);
-        ApiError apiError = buildApiError(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred.");
+    public ResponseEntity<ApiError> handleException(Exception ex) {
+        HttpStatus status = resolveStatus(ex);
+        String message;
+        if (status == HttpStatus.INTERNAL_SERVER_ERROR) {
+            logError(ex);
+            message = "An unexpected error occurred.";
+        } else if (status == HttpStatus.NOT_FOUND) {
+            logError(ex);
+            message = ex.getMessage();
+        } else {
+            logWarning(ex);
+            message = status == HttpStatus.CONFLICT ? CONFLICT_MESSAGE : ex.getMessage();
+        }
+        ApiError apiError = buildApiError(status, message);
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
 
+    /**
+     * Resolves the status {@link #handleException} answers with, for responses that report
+     * several outcomes at once instead of throwing.
+     */
+    public static HttpStatus resolveStatus(Exception ex) {
+        for (Class<?> type = ex.getClass(); type != null; type = type.getSuperclass()) {
+            HttpStatus status = STATUSES.get(type);
+            if (status != null) {
+                return status;
+            }
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    @SafeVarargs
+    private static void map(HttpStatus status, Class<? extends Exception>... types) {
+        for (Class<? extends Exception> type : types) {
+            STATUSES.put(type, status);
+        }
+    }
+
     private ApiError buildApiError(HttpStatus status, String message) {
         return ApiError.builder()
                 .status(status)
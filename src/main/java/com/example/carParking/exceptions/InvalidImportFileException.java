@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class InvalidReservationException extends RuntimeException {
+    public InvalidReservationException(String message) {
+        super(message);
+    }
+}
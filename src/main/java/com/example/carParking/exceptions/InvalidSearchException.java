@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class InvalidSearchException extends RuntimeException {
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class InvalidSlotLayoutException extends RuntimeException {
+    public InvalidSlotLayoutException(String message) {
+        super(message);
+    }
+}
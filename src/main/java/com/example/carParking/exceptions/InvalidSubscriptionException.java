@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class InvalidSubscriptionException extends RuntimeException {
+    public InvalidSubscriptionException(String message) {
+        super(message);
+    }
+}
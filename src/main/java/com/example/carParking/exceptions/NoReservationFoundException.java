@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class NoReservationFoundException extends RuntimeException {
+    public NoReservationFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class ParkingFullyReservedException extends RuntimeException {
+    public ParkingFullyReservedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.carParking.exceptions;
+
+public class ServerBusyException extends RuntimeException {
+    public ServerBusyException(String message) {
+        super(message);
+    }
+}
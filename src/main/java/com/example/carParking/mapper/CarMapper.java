@@ -0,0 +1,27 @@
+package com.example.carParking.mapper;
+
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.CarWithoutParkingDTO;
+import com.example.carParking.model.CarEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface CarMapper {
+
+    @Mapping(target = "parkingId", source = "parking.id")
+    @Mapping(target = "slotId", source = "slot.id")
+    CarDTO toCarDTO(CarEntity carEntity);
+
+    List<CarDTO> toCarDTOs(List<CarEntity> carEntities);
+
+    CarWithoutParkingDTO toCarWithoutParkingDTO(CarEntity carEntity);
+
+    @Mapping(target = "parking", ignore = true)
+    @Mapping(target = "slot", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    CarEntity toCarEntity(CarWithoutParkingDTO carDTO);
+}
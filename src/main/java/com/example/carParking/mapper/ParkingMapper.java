@@ -0,0 +1,39 @@
+package com.example.carParking.mapper;
+
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.dto.ParkingOperationDTO;
+import com.example.carParking.dto.ParkingSlotDTO;
+import com.example.carParking.dto.ParkingWithoutCarsDTO;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingOperation;
+import com.example.carParking.model.ParkingSlotEntity;
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", uses = CarMapper.class, injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+        unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ParkingMapper {
+
+    ParkingDTO toParkingDTO(ParkingEntity parkingEntity);
+
+    ParkingWithoutCarsDTO toParkingWithoutCarsDTO(ParkingEntity parkingEntity);
+
+    ParkingDTO toParkingDTO(ParkingWithoutCarsDTO parking, List<CarDTO> cars);
+
+    @Mapping(target = "cars", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    ParkingEntity toParkingEntity(ParkingWithoutCarsDTO parkingDTO);
+
+    ParkingOperation toParkingOperation(ParkingOperationDTO operationDTO);
+
+    ParkingSlotDTO toParkingSlotDTO(ParkingSlotEntity slotEntity, boolean occupied);
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "parking", ignore = true)
+    ParkingSlotEntity toParkingSlotEntity(ParkingSlotDTO slotDTO);
+}
@@ -0,0 +1,18 @@
+package com.example.carParking.mapper;
+
+import com.example.carParking.dto.ReservationDTO;
+import com.example.carParking.model.ReservationEntity;
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ReservationMapper {
+
+    ReservationDTO toReservationDTO(ReservationEntity reservationEntity);
+
+    List<ReservationDTO> toReservationDTOs(List<ReservationEntity> reservationEntities);
+
+    ReservationEntity toReservationEntity(ReservationDTO reservationDTO);
+}
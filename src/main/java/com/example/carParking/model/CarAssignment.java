@@ -0,0 +1,23 @@
+package com.example.carParking.model;
+
+import lombok.Value;
+
+/**
+ * Where a car is parked: its lot and, in lots with a slot layout, its slot. Both are {@code null}
+ * for a car that is not parked.
+ */
+@Value
+public class CarAssignment {
+
+    Long carId;
+
+    Long parkingId;
+
+    Long slotId;
+
+    public static CarAssignment of(CarEntity car) {
+        return new CarAssignment(car.getId(),
+                car.getParking() != null ? car.getParking().getId() : null,
+                car.getSlot() != null ? car.getSlot().getId() : null);
+    }
+}
@@ -16,7 +16,8 @@ import lombok.*;
 public class CarEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "car_seq")
+    @SequenceGenerator(name = "car_seq", sequenceName = "cars_seq", allocationSize = 50)
     @Column(name = "car_id")
     private Long id;
 
@@ -37,11 +38,20 @@ public class CarEntity {
     @Column(length = 8)
     private FuelType fuelType;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parking_id")
     @JsonBackReference
     private ParkingEntity parking;
 
+    // Not unique in the schema: a batch may free and reuse a slot in one flush, and SlotAllocator
+    // already hands every slot to one car at a time.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "slot_id")
+    private ParkingSlotEntity slot;
+
+    @Version
+    private Long version;
+
     @Override
     public String toString() {
         return "CarEntity{" +
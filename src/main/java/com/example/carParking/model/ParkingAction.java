@@ -0,0 +1,14 @@
+package com.example.carParking.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+public enum ParkingAction {
+    PARK,
+    UNPARK;
+
+
+    @JsonCreator
+    public static ParkingAction fromValue(String value) {
+        return ParkingAction.valueOf(value.toUpperCase());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.carParking.model;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -46,6 +47,17 @@ public class ParkingEntity {
     @Min(value = 0, message = "Width of parking space must be a non-negative number")
     private Double widthOfParkingSpace;
 
+    @Min(value = -90, message = "Latitude must be between -90 and 90")
+    @Max(value = 90, message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @Min(value = -180, message = "Longitude must be between -180 and 180")
+    @Max(value = 180, message = "Longitude must be between -180 and 180")
+    private Double longitude;
+
     @OneToMany(mappedBy = "parking")
     private List<CarEntity> cars;
+
+    @Version
+    private Long version;
 }
\ No newline at end of file
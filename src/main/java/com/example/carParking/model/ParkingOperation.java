@@ -0,0 +1,19 @@
+package com.example.carParking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParkingOperation {
+
+    private Long parkingId;
+
+    private Long carId;
+
+    private ParkingAction action;
+}
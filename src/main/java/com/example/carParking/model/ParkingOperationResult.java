@@ -0,0 +1,25 @@
+package com.example.carParking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ParkingOperationResult {
+
+    private ParkingOperation operation;
+
+    private RuntimeException error;
+
+    public static ParkingOperationResult success(ParkingOperation operation) {
+        return new ParkingOperationResult(operation, null);
+    }
+
+    public static ParkingOperationResult failure(ParkingOperation operation, RuntimeException error) {
+        return new ParkingOperationResult(operation, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
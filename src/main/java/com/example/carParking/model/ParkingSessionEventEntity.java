@@ -0,0 +1,44 @@
+package com.example.carParking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One entry of the append-only parking session log. Car and parking are plain IDs, not
+ * associations, so the history outlives deleted cars and lots.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "parking_session_events", indexes = {
+        @Index(name = "idx_session_events_car", columnList = "car_id"),
+        @Index(name = "idx_session_events_parking", columnList = "parking_id")
+})
+public class ParkingSessionEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long id;
+
+    @Column(name = "car_id", nullable = false, updatable = false)
+    private Long carId;
+
+    @Column(name = "parking_id", nullable = false, updatable = false)
+    private Long parkingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 5, nullable = false, updatable = false)
+    private ParkingSessionEventType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "fuel_type", length = 8, nullable = false, updatable = false)
+    private FuelType fuelType;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private Instant occurredAt;
+}
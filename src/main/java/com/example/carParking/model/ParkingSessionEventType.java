@@ -0,0 +1,6 @@
+package com.example.carParking.model;
+
+public enum ParkingSessionEventType {
+    ENTER,
+    EXIT
+}
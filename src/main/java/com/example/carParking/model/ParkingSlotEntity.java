@@ -0,0 +1,39 @@
+package com.example.carParking.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "parking_slots")
+public class ParkingSlotEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "slot_id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "parking_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ParkingEntity parking;
+
+    @NotNull(message = "Label cannot be null")
+    @Size(min = 1, max = 20, message = "Label must be between 1 and 20 characters")
+    private String label;
+
+    @NotNull(message = "Width cannot be null")
+    @Min(value = 0, message = "Width must be a non-negative number")
+    private Double width;
+
+    private boolean charger;
+
+    private boolean lpgAllowed;
+}
@@ -0,0 +1,46 @@
+package com.example.carParking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A car's booking of a space, and optionally a charger, in a lot for {@code [startsAt, endsAt)}.
+ * Car and parking are plain IDs, as in the session log. A reservation is claimed when the car
+ * parks in the lot during its window and from then on no longer holds capacity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_car", columnList = "car_id"),
+        @Index(name = "idx_reservations_parking", columnList = "parking_id, starts_at")
+})
+public class ReservationEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "reservation_id")
+    private Long id;
+
+    @Column(name = "car_id", nullable = false, updatable = false)
+    private Long carId;
+
+    @Column(name = "parking_id", nullable = false, updatable = false)
+    private Long parkingId;
+
+    @Column(name = "starts_at", nullable = false, updatable = false)
+    private Instant startsAt;
+
+    @Column(name = "ends_at", nullable = false, updatable = false)
+    private Instant endsAt;
+
+    @Column(name = "needs_charger", nullable = false, updatable = false)
+    private boolean needsCharger;
+
+    @Column(name = "claimed_at")
+    private Instant claimedAt;
+}
@@ -0,0 +1,46 @@
+package com.example.carParking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One closed hour of one lot, written by the utilization analytics. {@code fuelType} is
+ * {@code null} for the row covering all cars of the lot.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "utilization_rollups", indexes = @Index(name = "idx_rollups_parking", columnList = "parking_id, bucket_start"))
+public class UtilizationRollupEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long id;
+
+    @Column(name = "parking_id", nullable = false)
+    private Long parkingId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "fuel_type", length = 8)
+    private FuelType fuelType;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "occupied_millis", nullable = false)
+    private long occupiedMillis;
+
+    @Column(name = "peak_occupancy", nullable = false)
+    private int peakOccupancy;
+
+    @Column(name = "completed_sessions", nullable = false)
+    private long completedSessions;
+
+    @Column(name = "dwell_millis", nullable = false)
+    private long dwellMillis;
+}
@@ -0,0 +1,35 @@
+package com.example.carParking.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.time.Duration;
+
+/**
+ * Bucket sizes kept by the utilization analytics, with how many buckets of each are retained.
+ */
+public enum UtilizationWindow {
+    MINUTE(Duration.ofMinutes(1), 60),
+    HOUR(Duration.ofHours(1), 24),
+    DAY(Duration.ofDays(1), 30);
+
+    private final Duration length;
+    private final int retained;
+
+    UtilizationWindow(Duration length, int retained) {
+        this.length = length;
+        this.retained = retained;
+    }
+
+    public Duration getLength() {
+        return length;
+    }
+
+    public int getRetained() {
+        return retained;
+    }
+
+    @JsonCreator
+    public static UtilizationWindow fromValue(String value) {
+        return UtilizationWindow.valueOf(value.toUpperCase());
+    }
+}
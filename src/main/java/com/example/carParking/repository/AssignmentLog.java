@@ -0,0 +1,315 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.CarAssignment;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead journal of car moves, kept in memory-mapped segment files of a fixed size.
+ * Every record has the same layout, so appending is a copy into the mapping and reading needs no
+ * framing:
+ * <pre>
+ *  0  car ID            long
+ *  8  parking ID        long, -1 when unparked
+ * 16  slot ID           long, -1 when none
+ * 24  timestamp         long, epoch millis
+ * 32  action            byte, {@link ParkingAction} ordinal + 1; 0 marks the unwritten rest of a segment
+ * 33  fuel type         byte, {@link FuelType} ordinal
+ * 34  reserved          short
+ * 36  CRC32 of 0..35    int
+ * </pre>
+ * A record is in the page cache as soon as {@link #append} returns, so it survives a crash of the
+ * process. The {@link SyncPolicy} decides when it is also forced to disk to survive a crash of the
+ * machine; with {@link SyncPolicy#COMMIT}, callers that arrive while a force is running share the
+ * next one.
+ * <p>
+ * Positions combine the segment number and the offset in it, so they keep growing across
+ * segments. {@link #checkpoint(long)} records that everything before a position is in the database
+ * and deletes the segments that lie wholly before it; {@link #replay} reads only what follows the
+ * last checkpoint. Replay of a segment stops at the first record that fails its checksum, which is
+ * where a crash interrupted the last write.
+ */
+public class AssignmentLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentLog.class);
+
+    public static final int RECORD_SIZE = 40;
+
+    private static final int ACTION_OFFSET = 32;
+    private static final int CHECKSUM_OFFSET = 36;
+    private static final long NONE = -1;
+    private static final String PREFIX = "assignments-";
+    private static final String SUFFIX = ".wal";
+    private static final String CHECKPOINT = "checkpoint";
+
+    /**
+     * When appended records are forced to disk.
+     */
+    public enum SyncPolicy {
+        /** Before the appending request commits. */
+        COMMIT,
+        /** By the flusher, once per flush interval. */
+        INTERVAL,
+        /** Only when a segment is full and on shutdown; the operating system writes the rest back. */
+        NEVER
+    }
+
+    /**
+     * One replayed record.
+     */
+    public record Entry(CarAssignment assignment, FuelType fuelType, long timestamp) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final SyncPolicy syncPolicy;
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+    private final CRC32 checksum = new CRC32();
+    private final Object syncMonitor = new Object();
+
+    private MappedByteBuffer segment;
+    private long segmentNumber;
+    private int offset;
+    private volatile long syncedPosition;
+
+    public AssignmentLog(Path directory, int segmentSize, SyncPolicy syncPolicy) {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must hold at least one record");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncPolicy = syncPolicy;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open write-ahead log in " + directory, e);
+        }
+        // Always continue in a new segment: the last one may end in a torn record.
+        openSegment(segments().stream().mapToLong(AssignmentLog::segmentNumberOf).max().orElse(0) + 1);
+    }
+
+    /**
+     * Copies one record into the current segment without forcing it to disk.
+     *
+     * @return the position to pass to {@link #sync(long)}
+     */
+    public synchronized long append(CarAssignment assignment, FuelType fuelType, long timestamp) {
+        if (offset + RECORD_SIZE > segmentSize) {
+            segment.force(0, offset);
+            openSegment(segmentNumber + 1);
+        }
+        ParkingAction action = assignment.getParkingId() != null ? ParkingAction.PARK : ParkingAction.UNPARK;
+        scratchBuffer.clear();
+        scratchBuffer.putLong(assignment.getCarId())
+                .putLong(assignment.getParkingId() != null ? assignment.getParkingId() : NONE)
+                .putLong(assignment.getSlotId() != null ? assignment.getSlotId() : NONE)
+                .putLong(timestamp)
+                .put((byte) (action.ordinal() + 1))
+                .put((byte) fuelType.ordinal())
+                .putShort((short) 0);
+        checksum.reset();
+        checksum.update(scratch, 0, CHECKSUM_OFFSET);
+        scratchBuffer.putInt((int) checksum.getValue());
+        segment.put(offset, scratch, 0, RECORD_SIZE);
+        offset += RECORD_SIZE;
+        return position(segmentNumber, offset);
+    }
+
+    /**
+     * Position just after the last appended record.
+     */
+    public synchronized long position() {
+        return position(segmentNumber, offset);
+    }
+
+    /**
+     * With {@link SyncPolicy#COMMIT}, returns once every record up to {@code position} is on disk.
+     */
+    public void sync(long position) {
+        if (syncPolicy == SyncPolicy.COMMIT) {
+            forceUpTo(position);
+        }
+    }
+
+    /**
+     * Forces everything appended so far to disk, whatever the policy.
+     */
+    public void force() {
+        forceUpTo(position());
+    }
+
+    /**
+     * Records that everything before {@code position} is in the database, so replay starts there,
+     * and deletes the segments that end before it.
+     */
+    public void checkpoint(long position) {
+        try {
+            Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+            ByteBuffer content = ByteBuffer.allocate(Long.BYTES + Integer.BYTES).putLong(position);
+            content.putInt(checksum(content.array(), Long.BYTES));
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(content.flip());
+                channel.force(false);
+            }
+            Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write write-ahead log checkpoint", e);
+        }
+        for (Path file : segments()) {
+            if (segmentNumberOf(file) < position >>> 32) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.error("Cannot delete write-ahead log segment {}", file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads every intact record after the last checkpoint, oldest first.
+     */
+    public void replay(Consumer<Entry> consumer) {
+        long checkpoint = readCheckpoint();
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[RECORD_SIZE];
+        ByteBuffer entry = ByteBuffer.wrap(buffer);
+        for (Path file : segments()) {
+            long number = segmentNumberOf(file);
+            if (number < checkpoint >>> 32) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int start = number == checkpoint >>> 32 ? (int) checkpoint : 0;
+                for (int at = start; at + RECORD_SIZE <= content.limit() && content.get(at + ACTION_OFFSET) != 0;
+                     at += RECORD_SIZE) {
+                    content.get(at, buffer);
+                    crc.reset();
+                    crc.update(buffer, 0, CHECKSUM_OFFSET);
+                    if (entry.getInt(CHECKSUM_OFFSET) != (int) crc.getValue()) {
+                        logger.warn("Write-ahead log segment {} is corrupt at offset {}", file, at);
+                        break;
+                    }
+                    long parkingId = entry.getLong(8);
+                    long slotId = entry.getLong(16);
+                    consumer.accept(new Entry(
+                            new CarAssignment(entry.getLong(0), parkingId == NONE ? null : parkingId,
+                                    slotId == NONE ? null : slotId),
+                            FuelType.values()[entry.get(ACTION_OFFSET + 1)],
+                            entry.getLong(24)));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read write-ahead log segment " + file, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        force();
+    }
+
+    private void forceUpTo(long position) {
+        if (syncedPosition >= position) {
+            return;
+        }
+        synchronized (syncMonitor) {
+            if (syncedPosition >= position) {
+                return;
+            }
+            MappedByteBuffer target;
+            long targetPosition;
+            synchronized (this) {
+                target = segment;
+                targetPosition = position(segmentNumber, offset);
+            }
+            long synced = syncedPosition;
+            // A full segment is forced before the next one is opened.
+            int from = synced >>> 32 == targetPosition >>> 32 ? (int) synced : 0;
+            int to = (int) targetPosition;
+            if (to > from) {
+                target.force(from, to - from);
+            }
+            syncedPosition = Math.max(syncedPosition, targetPosition);
+        }
+    }
+
+    private void openSegment(long number) {
+        Path file = directory.resolve(String.format("%s%019d%s", PREFIX, number, SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create write-ahead log segment " + file, e);
+        }
+        segmentNumber = number;
+        offset = 0;
+        syncedPosition = position(number, 0);
+    }
+
+    private long readCheckpoint() {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try {
+            ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (content.limit() != Long.BYTES + Integer.BYTES
+                    || content.getInt(Long.BYTES) != checksum(content.array(), Long.BYTES)) {
+                logger.warn("Ignoring damaged write-ahead log checkpoint, replaying all segments");
+                return 0;
+            }
+            return content.getLong(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read write-ahead log checkpoint", e);
+        }
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().startsWith(PREFIX))
+                    .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list write-ahead log in " + directory, e);
+        }
+    }
+
+    private static int checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return (int) crc.getValue();
+    }
+
+    private static long position(long segmentNumber, int offset) {
+        return segmentNumber << 32 | offset;
+    }
+
+    private static long segmentNumberOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
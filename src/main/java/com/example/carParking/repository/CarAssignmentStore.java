@@ -0,0 +1,41 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.CarAssignment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Writes car assignments straight to the cars table. The version is bumped like a JPA update
+ * would, so an entity loaded before the write fails its optimistic check instead of overwriting it.
+ */
+@Repository
+public class CarAssignmentStore {
+
+    private static final String UPDATE = "update cars set parking_id = ?, slot_id = ?, version = version + 1 " +
+            "where car_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CarAssignmentStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void updateAll(List<CarAssignment> assignments, int batchSize) {
+        jdbcTemplate.batchUpdate(UPDATE, assignments, batchSize, CarAssignmentStore::bind);
+    }
+
+    public void update(CarAssignment assignment) {
+        jdbcTemplate.update(UPDATE, statement -> bind(statement, assignment));
+    }
+
+    private static void bind(PreparedStatement statement, CarAssignment assignment) throws SQLException {
+        statement.setObject(1, assignment.getParkingId(), Types.BIGINT);
+        statement.setObject(2, assignment.getSlotId(), Types.BIGINT);
+        statement.setLong(3, assignment.getCarId());
+    }
+}
@@ -1,10 +1,64 @@
 package com.example.carParking.repository;
 
 
+import com.example.carParking.dto.CarDTO;
 import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CarRepository extends JpaRepository<CarEntity, Long> {
+
+    @Query("select c.parking.id as parkingId, c.fuelType as fuelType, count(c) as carCount " +
+            "from CarEntity c where c.parking is not null group by c.parking.id, c.fuelType")
+    List<ParkedCarsCount> countParkedCarsByParkingAndFuelType();
+
+    @Query("select c.parking.id as parkingId, c.fuelType as fuelType, count(c) as carCount " +
+            "from CarEntity c where c.parking.id = :parkingId group by c.parking.id, c.fuelType")
+    List<ParkedCarsCount> countParkedCarsByFuelType(Long parkingId);
+
+    @Query("select c.parking.id as parkingId, c.id as carId from CarEntity c " +
+            "where c.parking is not null and c.fuelType = :fuelType order by c.id")
+    List<ParkedCar> findParkedCarsByFuelType(FuelType fuelType);
+
+    @Query("select c.parking.id as parkingId, c.id as carId from CarEntity c " +
+            "where c.parking.id = :parkingId and c.fuelType = :fuelType order by c.id")
+    List<ParkedCar> findParkedCarsByParkingIdAndFuelType(Long parkingId, FuelType fuelType);
+
+    @Query("select c.slot.id from CarEntity c where c.slot is not null")
+    List<Long> findOccupiedSlotIds();
+
+    @Query("select c.slot.id from CarEntity c where c.parking.id = :parkingId and c.slot is not null")
+    List<Long> findOccupiedSlotIdsByParkingId(Long parkingId);
+
+    /*
+     * Listing projections: only the columns of CarDTO, with the parking and slot IDs read from the
+     * foreign keys of the cars table, so no parking or slot row is loaded.
+     */
+
+    @Query(value = "select new com.example.carParking.dto.CarDTO(c.id, c.brand, c.model, c.width, c.fuelType, " +
+            "c.parking.id, c.slot.id) from CarEntity c",
+            countQuery = "select count(c) from CarEntity c")
+    Page<CarDTO> findCarDTOs(Pageable pageable);
+
+    @Query("select new com.example.carParking.dto.CarDTO(c.id, c.brand, c.model, c.width, c.fuelType, " +
+            "c.parking.id, c.slot.id) from CarEntity c where c.id > :id order by c.id")
+    List<CarDTO> findCarDTOsAfter(Long id, Limit limit);
+
+    @Query("select new com.example.carParking.dto.CarDTO(c.id, c.brand, c.model, c.width, c.fuelType, " +
+            "c.parking.id, c.slot.id) from CarEntity c where c.id = :id")
+    Optional<CarDTO> findCarDTOById(Long id);
+
+    @Query("select new com.example.carParking.dto.CarDTO(c.id, c.brand, c.model, c.width, c.fuelType, " +
+            "c.parking.id, c.slot.id) from CarEntity c where c.parking.id in :parkingIds order by c.id")
+    List<CarDTO> findCarDTOsByParkingIdIn(Collection<Long> parkingIds);
 }
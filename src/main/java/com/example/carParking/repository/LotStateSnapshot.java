@@ -0,0 +1,452 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingSlotEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Point-in-time copy of every lot, slot and car position, stored column by column so a file of a
+ * million cars is read with a handful of bulk copies out of a memory mapping. Little-endian layout:
+ * <pre>
+ *  0  magic                      int, "LOTS"
+ *  4  format version             int
+ *  8  created at                 long, epoch millis
+ * 16  lot, slot and car counts   3 ints
+ * 28  name bytes                 int
+ * 32  CRC32C of 40..end          int
+ * 36  reserved                   int
+ * 40  lots   ID long, latitude and longitude double (NaN when unset), space width double,
+ *            total spaces int, chargers int, end of name int, LPG allowed byte
+ *     slots  ID long, parking ID long, width double, flags byte (1 charger, 2 LPG allowed)
+ *     cars   ID long, parking ID long (-1 when unparked), slot ID long (-1 when none),
+ *            fuel type byte ({@link FuelType} ordinal, -1 when unset)
+ *     names  UTF-8 bytes of all lot names
+ * </pre>
+ * Files are written next to their final name and moved over it, so a reader sees either the old
+ * or the new snapshot. A file that fails its checksum is rejected as a whole.
+ */
+public final class LotStateSnapshot {
+
+    private static final int MAGIC = 0x4C4F5453;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 40;
+    private static final int CHECKSUM_OFFSET = 32;
+    private static final long NONE = -1;
+    private static final byte CHARGER = 1;
+    private static final byte LPG_ALLOWED = 2;
+
+    private final long createdAt;
+
+    private final int lotCount;
+    private final long[] lotIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] spaceWidths;
+    private final int[] totalSpaces;
+    private final int[] chargers;
+    private final int[] nameEnds;
+    private final byte[] lpgAllowed;
+    private final byte[] names;
+
+    private final int slotCount;
+    private final long[] slotIds;
+    private final long[] slotParkingIds;
+    private final double[] slotWidths;
+    private final byte[] slotFlags;
+
+    private final int carCount;
+    private final long[] carIds;
+    private final long[] carParkingIds;
+    private final long[] carSlotIds;
+    private final byte[] carFuelTypes;
+
+    private LotStateSnapshot(long createdAt, int lotCount, int slotCount, int carCount, int nameBytes) {
+        this.createdAt = createdAt;
+        this.lotCount = lotCount;
+        this.lotIds = new long[lotCount];
+        this.latitudes = new double[lotCount];
+        this.longitudes = new double[lotCount];
+        this.spaceWidths = new double[lotCount];
+        this.totalSpaces = new int[lotCount];
+        this.chargers = new int[lotCount];
+        this.nameEnds = new int[lotCount];
+        this.lpgAllowed = new byte[lotCount];
+        this.names = new byte[nameBytes];
+        this.slotCount = slotCount;
+        this.slotIds = new long[slotCount];
+        this.slotParkingIds = new long[slotCount];
+        this.slotWidths = new double[slotCount];
+        this.slotFlags = new byte[slotCount];
+        this.carCount = carCount;
+        this.carIds = new long[carCount];
+        this.carParkingIds = new long[carCount];
+        this.carSlotIds = new long[carCount];
+        this.carFuelTypes = new byte[carCount];
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getCarCount() {
+        return carCount;
+    }
+
+    /**
+     * The lots as detached entities carrying what availability needs; addresses and cars are not
+     * part of a snapshot.
+     */
+    public List<ParkingEntity> parkings() {
+        List<ParkingEntity> parkings = new ArrayList<>(lotCount);
+        for (int i = 0; i < lotCount; i++) {
+            int nameStart = i == 0 ? 0 : nameEnds[i - 1];
+            parkings.add(ParkingEntity.builder()
+                    .id(lotIds[i])
+                    .name(new String(names, nameStart, nameEnds[i] - nameStart, StandardCharsets.UTF_8))
+                    .totalSpaces(totalSpaces[i])
+                    .numberOfChargers(chargers[i])
+                    .lpgAllowed(lpgAllowed[i] != 0)
+                    .widthOfParkingSpace(spaceWidths[i])
+                    .latitude(Double.isNaN(latitudes[i]) ? null : latitudes[i])
+                    .longitude(Double.isNaN(longitudes[i]) ? null : longitudes[i])
+                    .build());
+        }
+        return parkings;
+    }
+
+    public long[] parkingIds() {
+        return lotIds.clone();
+    }
+
+    /**
+     * The slot layouts as detached entities whose parking is a bare reference; labels are not
+     * part of a snapshot.
+     */
+    public List<ParkingSlotEntity> slots() {
+        Map<Long, ParkingEntity> parkings = new HashMap<>();
+        List<ParkingSlotEntity> slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(ParkingSlotEntity.builder()
+                    .id(slotIds[i])
+                    .parking(parkings.computeIfAbsent(slotParkingIds[i], id -> ParkingEntity.builder().id(id).build()))
+                    .width(slotWidths[i])
+                    .charger((slotFlags[i] & CHARGER) != 0)
+                    .lpgAllowed((slotFlags[i] & LPG_ALLOWED) != 0)
+                    .build());
+        }
+        return slots;
+    }
+
+    public List<ParkedCarsCount> countParkedCarsByParkingAndFuelType() {
+        FuelType[] fuelTypes = FuelType.values();
+        Map<Long, long[]> countsByParking = new HashMap<>();
+        for (int i = 0; i < carCount; i++) {
+            if (carParkingIds[i] != NONE && carFuelTypes[i] >= 0) {
+                countsByParking.computeIfAbsent(carParkingIds[i], id -> new long[fuelTypes.length])[carFuelTypes[i]]++;
+            }
+        }
+        List<ParkedCarsCount> counts = new ArrayList<>();
+        countsByParking.forEach((parkingId, byFuelType) -> {
+            for (FuelType fuelType : fuelTypes) {
+                if (byFuelType[fuelType.ordinal()] > 0) {
+                    counts.add(new Count(parkingId, fuelType, byFuelType[fuelType.ordinal()]));
+                }
+            }
+        });
+        return counts;
+    }
+
+    public List<ParkedCar> findParkedCarsByFuelType(FuelType fuelType) {
+        List<ParkedCar> cars = new ArrayList<>();
+        for (int i = 0; i < carCount; i++) {
+            if (carParkingIds[i] != NONE && carFuelTypes[i] == fuelType.ordinal()) {
+                cars.add(new Car(carParkingIds[i], carIds[i]));
+            }
+        }
+        return cars;
+    }
+
+    public List<Long> findOccupiedSlotIds() {
+        List<Long> occupied = new ArrayList<>();
+        for (int i = 0; i < carCount; i++) {
+            if (carSlotIds[i] != NONE) {
+                occupied.add(carSlotIds[i]);
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Writes the snapshot to a temporary file, forces it to disk and moves it over {@code file}.
+     */
+    public void write(Path file) {
+        long size = HEADER_SIZE
+                + (long) lotCount * (4 * Long.BYTES + 3 * Integer.BYTES + 1)
+                + (long) slotCount * (3 * Long.BYTES + 1)
+                + (long) carCount * (3 * Long.BYTES + 1)
+                + names.length;
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                content.order(ByteOrder.LITTLE_ENDIAN);
+                content.position(HEADER_SIZE);
+                putLongs(content, lotIds);
+                putDoubles(content, latitudes);
+                putDoubles(content, longitudes);
+                putDoubles(content, spaceWidths);
+                putInts(content, totalSpaces);
+                putInts(content, chargers);
+                putInts(content, nameEnds);
+                content.put(lpgAllowed);
+                putLongs(content, slotIds);
+                putLongs(content, slotParkingIds);
+                putDoubles(content, slotWidths);
+                content.put(slotFlags);
+                putLongs(content, carIds);
+                putLongs(content, carParkingIds);
+                putLongs(content, carSlotIds);
+                content.put(carFuelTypes);
+                content.put(names);
+                content.putInt(0, MAGIC)
+                        .putInt(4, VERSION)
+                        .putLong(8, createdAt)
+                        .putInt(16, lotCount)
+                        .putInt(20, slotCount)
+                        .putInt(24, carCount)
+                        .putInt(28, names.length)
+                        .putInt(CHECKSUM_OFFSET, checksum(content))
+                        .putInt(36, 0);
+                content.force();
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write lot state snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Maps {@code file} and copies its columns into memory.
+     *
+     * @throws IllegalStateException when the file is not a snapshot of this version or fails its checksum
+     */
+    public static LotStateSnapshot read(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IllegalStateException("Lot state snapshot " + file + " is truncated");
+            }
+            MappedByteBuffer content = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            content.order(ByteOrder.LITTLE_ENDIAN);
+            if (content.getInt(0) != MAGIC || content.getInt(4) != VERSION) {
+                throw new IllegalStateException("Lot state snapshot " + file + " has an unknown format");
+            }
+            if (content.getInt(CHECKSUM_OFFSET) != checksum(content)) {
+                throw new IllegalStateException("Lot state snapshot " + file + " fails its checksum");
+            }
+            LotStateSnapshot snapshot = new LotStateSnapshot(content.getLong(8), content.getInt(16),
+                    content.getInt(20), content.getInt(24), content.getInt(28));
+            content.position(HEADER_SIZE);
+            getLongs(content, snapshot.lotIds);
+            getDoubles(content, snapshot.latitudes);
+            getDoubles(content, snapshot.longitudes);
+            getDoubles(content, snapshot.spaceWidths);
+            getInts(content, snapshot.totalSpaces);
+            getInts(content, snapshot.chargers);
+            getInts(content, snapshot.nameEnds);
+            content.get(snapshot.lpgAllowed);
+            getLongs(content, snapshot.slotIds);
+            getLongs(content, snapshot.slotParkingIds);
+            getDoubles(content, snapshot.slotWidths);
+            content.get(snapshot.slotFlags);
+            getLongs(content, snapshot.carIds);
+            getLongs(content, snapshot.carParkingIds);
+            getLongs(content, snapshot.carSlotIds);
+            content.get(snapshot.carFuelTypes);
+            content.get(snapshot.names);
+            return snapshot;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read lot state snapshot " + file, e);
+        } catch (RuntimeException e) {
+            if (e instanceof IllegalStateException) {
+                throw e;
+            }
+            throw new IllegalStateException("Lot state snapshot " + file + " is truncated", e);
+        }
+    }
+
+    private static int checksum(ByteBuffer content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content.slice(HEADER_SIZE, content.limit() - HEADER_SIZE));
+        return (int) crc.getValue();
+    }
+
+    private static void putLongs(ByteBuffer content, long[] column) {
+        content.asLongBuffer().put(column);
+        content.position(content.position() + column.length * Long.BYTES);
+    }
+
+    private static void putDoubles(ByteBuffer content, double[] column) {
+        content.asDoubleBuffer().put(column);
+        content.position(content.position() + column.length * Double.BYTES);
+    }
+
+    private static void putInts(ByteBuffer content, int[] column) {
+        content.asIntBuffer().put(column);
+        content.position(content.position() + column.length * Integer.BYTES);
+    }
+
+    private static void getLongs(ByteBuffer content, long[] column) {
+        content.asLongBuffer().get(column);
+        content.position(content.position() + column.length * Long.BYTES);
+    }
+
+    private static void getDoubles(ByteBuffer content, double[] column) {
+        content.asDoubleBuffer().get(column);
+        content.position(content.position() + column.length * Double.BYTES);
+    }
+
+    private static void getInts(ByteBuffer content, int[] column) {
+        content.asIntBuffer().get(column);
+        content.position(content.position() + column.length * Integer.BYTES);
+    }
+
+    private record Count(Long parkingId, FuelType fuelType, long carCount) implements ParkedCarsCount {
+
+        @Override
+        public Long getParkingId() {
+            return parkingId;
+        }
+
+        @Override
+        public FuelType getFuelType() {
+            return fuelType;
+        }
+
+        @Override
+        public Long getCarCount() {
+            return carCount;
+        }
+    }
+
+    private record Car(Long parkingId, Long carId) implements ParkedCar {
+
+        @Override
+        public Long getParkingId() {
+            return parkingId;
+        }
+
+        @Override
+        public Long getCarId() {
+            return carId;
+        }
+    }
+
+    /**
+     * Collects rows into growing columns. Rows of each kind may be added in any order.
+     */
+    public static final class Builder {
+
+        private final List<LotRow> lots = new ArrayList<>();
+        private final List<SlotRow> slots = new ArrayList<>();
+        private long[] carIds = new long[1024];
+        private long[] carParkingIds = new long[1024];
+        private long[] carSlotIds = new long[1024];
+        private byte[] carFuelTypes = new byte[1024];
+        private int carCount;
+
+        private Builder() {
+        }
+
+        public Builder addLot(long id, String name, int totalSpaces, int numberOfChargers, boolean lpgAllowed,
+                              double widthOfParkingSpace, Double latitude, Double longitude) {
+            lots.add(new LotRow(id, name != null ? name.getBytes(StandardCharsets.UTF_8) : new byte[0], totalSpaces,
+                    numberOfChargers, lpgAllowed, widthOfParkingSpace, latitude, longitude));
+            return this;
+        }
+
+        public Builder addSlot(long id, long parkingId, double width, boolean charger, boolean lpgAllowed) {
+            slots.add(new SlotRow(id, parkingId, width, charger, lpgAllowed));
+            return this;
+        }
+
+        public Builder addCar(long id, Long parkingId, Long slotId, FuelType fuelType) {
+            if (carCount == carIds.length) {
+                int capacity = carCount * 2;
+                carIds = Arrays.copyOf(carIds, capacity);
+                carParkingIds = Arrays.copyOf(carParkingIds, capacity);
+                carSlotIds = Arrays.copyOf(carSlotIds, capacity);
+                carFuelTypes = Arrays.copyOf(carFuelTypes, capacity);
+            }
+            carIds[carCount] = id;
+            carParkingIds[carCount] = parkingId != null ? parkingId : NONE;
+            carSlotIds[carCount] = slotId != null ? slotId : NONE;
+            carFuelTypes[carCount] = fuelType != null ? (byte) fuelType.ordinal() : (byte) NONE;
+            carCount++;
+            return this;
+        }
+
+        public LotStateSnapshot build(long createdAt) {
+            int nameBytes = lots.stream().mapToInt(lot -> lot.name().length).sum();
+            LotStateSnapshot snapshot = new LotStateSnapshot(createdAt, lots.size(), slots.size(), carCount, nameBytes);
+            int nameEnd = 0;
+            for (int i = 0; i < lots.size(); i++) {
+                LotRow lot = lots.get(i);
+                snapshot.lotIds[i] = lot.id();
+                snapshot.totalSpaces[i] = lot.totalSpaces();
+                snapshot.chargers[i] = lot.numberOfChargers();
+                snapshot.lpgAllowed[i] = lot.lpgAllowed() ? (byte) 1 : 0;
+                snapshot.spaceWidths[i] = lot.widthOfParkingSpace();
+                snapshot.latitudes[i] = lot.latitude() != null ? lot.latitude() : Double.NaN;
+                snapshot.longitudes[i] = lot.longitude() != null ? lot.longitude() : Double.NaN;
+                System.arraycopy(lot.name(), 0, snapshot.names, nameEnd, lot.name().length);
+                nameEnd += lot.name().length;
+                snapshot.nameEnds[i] = nameEnd;
+            }
+            for (int i = 0; i < slots.size(); i++) {
+                SlotRow slot = slots.get(i);
+                snapshot.slotIds[i] = slot.id();
+                snapshot.slotParkingIds[i] = slot.parkingId();
+                snapshot.slotWidths[i] = slot.width();
+                snapshot.slotFlags[i] = (byte) ((slot.charger() ? CHARGER : 0) | (slot.lpgAllowed() ? LPG_ALLOWED : 0));
+            }
+            System.arraycopy(carIds, 0, snapshot.carIds, 0, carCount);
+            System.arraycopy(carParkingIds, 0, snapshot.carParkingIds, 0, carCount);
+            System.arraycopy(carSlotIds, 0, snapshot.carSlotIds, 0, carCount);
+            System.arraycopy(carFuelTypes, 0, snapshot.carFuelTypes, 0, carCount);
+            return snapshot;
+        }
+
+        private record LotRow(long id, byte[] name, int totalSpaces, int numberOfChargers, boolean lpgAllowed,
+                              double widthOfParkingSpace, Double latitude, Double longitude) {
+        }
+
+        private record SlotRow(long id, long parkingId, double width, boolean charger, boolean lpgAllowed) {
+        }
+    }
+}
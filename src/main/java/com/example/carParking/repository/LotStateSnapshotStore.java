@@ -0,0 +1,42 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.FuelType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads lots, slots and car positions straight into a {@link LotStateSnapshot}, streaming rows
+ * instead of materializing a million entities. Run inside one transaction so the three tables are
+ * read at the same point in time.
+ */
+@Repository
+public class LotStateSnapshotStore {
+
+    private static final String LOTS = "select parking_id, name, total_spaces, number_of_chargers, lpg_allowed, " +
+            "width_of_parking_space, latitude, longitude from parkings";
+    private static final String SLOTS = "select slot_id, parking_id, width, charger, lpg_allowed from parking_slots";
+    private static final String CARS = "select car_id, parking_id, slot_id, fuel_type from cars";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LotStateSnapshotStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public LotStateSnapshot capture(long createdAt) {
+        LotStateSnapshot.Builder builder = LotStateSnapshot.builder();
+        jdbcTemplate.query(LOTS, row -> {
+            builder.addLot(row.getLong(1), row.getString(2), row.getInt(3), row.getInt(4), row.getBoolean(5),
+                    row.getDouble(6), row.getObject(7, Double.class), row.getObject(8, Double.class));
+        });
+        jdbcTemplate.query(SLOTS, row -> {
+            builder.addSlot(row.getLong(1), row.getLong(2), row.getDouble(3), row.getBoolean(4), row.getBoolean(5));
+        });
+        jdbcTemplate.query(CARS, row -> {
+            String fuelType = row.getString(4);
+            builder.addCar(row.getLong(1), row.getObject(2, Long.class), row.getObject(3, Long.class),
+                    fuelType != null ? FuelType.valueOf(fuelType) : null);
+        });
+        return builder.build(createdAt);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.carParking.repository;
+
+public interface ParkedCar {
+
+    Long getParkingId();
+
+    Long getCarId();
+}
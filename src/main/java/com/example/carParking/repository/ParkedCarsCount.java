@@ -0,0 +1,12 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.FuelType;
+
+public interface ParkedCarsCount {
+
+    Long getParkingId();
+
+    FuelType getFuelType();
+
+    Long getCarCount();
+}
@@ -1,15 +1,48 @@
 package com.example.carParking.repository;
 
+import com.example.carParking.dto.ParkingWithoutCarsDTO;
 import com.example.carParking.model.ParkingEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ParkingRepository extends JpaRepository<ParkingEntity, Long> {
 
+    @Query("select p.id from ParkingEntity p")
+    List<Long> findAllIds();
+
+    /**
+     * Loads parkings with their cars in a single query, for operations that change them.
+     */
     @EntityGraph(attributePaths = {"cars"})
-    Page<ParkingEntity> findAll(Pageable pageable);
+    List<ParkingEntity> findWithCarsByIdIn(Collection<Long> ids);
+
+    /**
+     * Listing projection of the parking columns. Without a fetched collection, LIMIT/OFFSET runs
+     * in SQL directly; the cars of the page are read with {@link CarRepository#findCarDTOsByParkingIdIn}.
+     */
+    @Query(value = "select new com.example.carParking.dto.ParkingWithoutCarsDTO(p.id, p.name, p.address, " +
+            "p.totalSpaces, p.numberOfChargers, p.lpgAllowed, p.widthOfParkingSpace, p.latitude, p.longitude) " +
+            "from ParkingEntity p",
+            countQuery = "select count(p) from ParkingEntity p")
+    Page<ParkingWithoutCarsDTO> findParkingDTOs(Pageable pageable);
+
+    @Query("select new com.example.carParking.dto.ParkingWithoutCarsDTO(p.id, p.name, p.address, " +
+            "p.totalSpaces, p.numberOfChargers, p.lpgAllowed, p.widthOfParkingSpace, p.latitude, p.longitude) " +
+            "from ParkingEntity p where p.id > :id order by p.id")
+    List<ParkingWithoutCarsDTO> findParkingDTOsAfter(Long id, Limit limit);
+
+    @Query("select new com.example.carParking.dto.ParkingWithoutCarsDTO(p.id, p.name, p.address, " +
+            "p.totalSpaces, p.numberOfChargers, p.lpgAllowed, p.widthOfParkingSpace, p.latitude, p.longitude) " +
+            "from ParkingEntity p where p.id = :id")
+    Optional<ParkingWithoutCarsDTO> findParkingDTOById(Long id);
 }
@@ -0,0 +1,57 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingSessionEventEntity;
+import com.example.carParking.model.ParkingSessionEventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only access to the parking session log. Rows are only ever inserted, in batches, and
+ * read back in insertion order; there is no update or delete.
+ */
+@Repository
+public class ParkingSessionStore {
+
+    private static final String INSERT = "insert into parking_session_events " +
+            "(car_id, parking_id, type, fuel_type, occurred_at) values (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_ALL = "select event_id, car_id, parking_id, type, fuel_type, occurred_at " +
+            "from parking_session_events order by event_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ParkingSessionStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void appendAll(List<ParkingSessionEventEntity> events) {
+        jdbcTemplate.batchUpdate(INSERT, events, events.size(), (statement, event) -> {
+            statement.setLong(1, event.getCarId());
+            statement.setLong(2, event.getParkingId());
+            statement.setString(3, event.getType().name());
+            statement.setString(4, event.getFuelType().name());
+            statement.setTimestamp(5, Timestamp.from(event.getOccurredAt()));
+        });
+    }
+
+    /**
+     * Streams every event, oldest first, without holding the log in memory.
+     */
+    public void forEach(Consumer<ParkingSessionEventEntity> consumer) {
+        jdbcTemplate.query(SELECT_ALL, resultSet -> {
+            consumer.accept(ParkingSessionEventEntity.builder()
+                    .id(resultSet.getLong("event_id"))
+                    .carId(resultSet.getLong("car_id"))
+                    .parkingId(resultSet.getLong("parking_id"))
+                    .type(ParkingSessionEventType.valueOf(resultSet.getString("type")))
+                    .fuelType(FuelType.valueOf(resultSet.getString("fuel_type")))
+                    .occurredAt(resultSet.getTimestamp("occurred_at").toInstant())
+                    .build());
+        });
+    }
+}
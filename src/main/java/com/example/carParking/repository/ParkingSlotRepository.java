@@ -0,0 +1,15 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.ParkingSlotEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ParkingSlotRepository extends JpaRepository<ParkingSlotEntity, Long> {
+
+    List<ParkingSlotEntity> findByParkingIdOrderById(Long parkingId);
+
+    void deleteByParkingId(Long parkingId);
+}
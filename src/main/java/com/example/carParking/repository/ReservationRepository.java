@@ -0,0 +1,38 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.ReservationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<ReservationEntity, Long> {
+
+    /**
+     * Reservations that still hold capacity: not claimed and not over.
+     */
+    @Query("select r from ReservationEntity r where r.claimedAt is null and r.endsAt > :now")
+    List<ReservationEntity> findOpen(Instant now);
+
+    @Query("select r from ReservationEntity r where r.parkingId = :parkingId and r.claimedAt is null " +
+            "and r.endsAt > :now order by r.startsAt, r.id")
+    List<ReservationEntity> findOpenByParkingId(Long parkingId, Instant now);
+
+    List<ReservationEntity> findByCarId(Long carId);
+
+    @Modifying
+    @Query("update ReservationEntity r set r.claimedAt = :claimedAt where r.id = :id")
+    void markClaimed(Long id, Instant claimedAt);
+
+    @Modifying
+    @Query("delete from ReservationEntity r where r.parkingId = :parkingId")
+    void deleteByParkingId(Long parkingId);
+
+    @Modifying
+    @Query("delete from ReservationEntity r where r.carId = :carId")
+    void deleteByCarId(Long carId);
+}
@@ -0,0 +1,43 @@
+package com.example.carParking.repository;
+
+import com.example.carParking.model.UtilizationRollupEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+@Repository
+public class UtilizationRollupStore {
+
+    private static final String INSERT = "insert into utilization_rollups (parking_id, fuel_type, bucket_start, " +
+            "occupied_millis, peak_occupancy, completed_sessions, dwell_millis) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UtilizationRollupStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void appendAll(List<UtilizationRollupEntity> rollups) {
+        jdbcTemplate.batchUpdate(INSERT, rollups, rollups.size(), (statement, rollup) -> {
+            statement.setLong(1, rollup.getParkingId());
+            if (rollup.getFuelType() == null) {
+                statement.setNull(2, Types.VARCHAR);
+            } else {
+                statement.setString(2, rollup.getFuelType().name());
+            }
+            statement.setTimestamp(3, Timestamp.from(rollup.getBucketStart()));
+            statement.setLong(4, rollup.getOccupiedMillis());
+            statement.setInt(5, rollup.getPeakOccupancy());
+            statement.setLong(6, rollup.getCompletedSessions());
+            statement.setLong(7, rollup.getDwellMillis());
+        });
+    }
+
+    public int count() {
+        Integer count = jdbcTemplate.queryForObject("select count(*) from utilization_rollups", Integer.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,396 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.AvailabilityDeltaDTO;
+import com.example.carParking.dto.ParkingAvailabilityDTO;
+import com.example.carParking.exceptions.FeedCapacityExceededException;
+import com.example.carParking.exceptions.InvalidSubscriptionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes free spaces and free chargers of subscribed lots as server-sent events. Changes reported
+ * by the {@link AvailabilityService} only mark a lot dirty; {@link #dispatch()} publishes each dirty
+ * lot once per coalesce interval, so a burst of parks costs one message per subscriber.
+ * <p>
+ * Every subscriber has a mailbox holding the latest unsent message per lot, so a slow consumer
+ * skips intermediate values instead of queueing them and never holds more than one message per
+ * subscribed lot. A small pool of sender threads writes the mailboxes; a subscriber whose write
+ * stays blocked longer than {@code carparking.feed.max-send-time} is disconnected.
+ * <p>
+ * Dispatch runs on a thread of its own, not on the shared scheduler, and never writes to or
+ * completes an emitter: both take the emitter's monitor, which a blocked write holds. A stalled
+ * subscriber is only marked closed, its sender thread is interrupted and completes the emitter
+ * once the write returns, which the container's socket write timeout bounds. Meanwhile the pool
+ * gets a replacement thread, up to {@code carparking.feed.max-stalled-senders}, so stalled
+ * clients do not starve the others.
+ */
+@Component
+public class AvailabilityFeed implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityFeed.class);
+
+    private final AvailabilityService availabilityService;
+    private final int maxSubscribers;
+    private final int maxLotsPerSubscriber;
+    private final Duration emitterTimeout;
+    private final long maxSendNanos;
+    private final int senderThreads;
+    private final int maxStalledSenders;
+    private final Duration coalesceInterval;
+    private final ConcurrentMap<Long, Topic> topics = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyLots = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter disconnectedSlowSubscribers;
+
+    private volatile ThreadPoolExecutor senders;
+    private volatile ScheduledExecutorService dispatcher;
+    private int stalledSenders;
+
+    public AvailabilityFeed(AvailabilityService availabilityService, MeterRegistry meterRegistry,
+                            @Value("${carparking.feed.max-subscribers:50000}") int maxSubscribers,
+                            @Value("${carparking.feed.max-lots-per-subscriber:100}") int maxLotsPerSubscriber,
+                            @Value("${carparking.feed.emitter-timeout:PT30M}") Duration emitterTimeout,
+                            @Value("${carparking.feed.max-send-time:PT5S}") Duration maxSendTime,
+                            @Value("${carparking.feed.sender-threads:4}") int senderThreads,
+                            @Value("${carparking.feed.max-stalled-senders:64}") int maxStalledSenders,
+                            @Value("${carparking.feed.coalesce-interval:PT0.25S}") Duration coalesceInterval) {
+        this.availabilityService = availabilityService;
+        this.maxSubscribers = maxSubscribers;
+        this.maxLotsPerSubscriber = maxLotsPerSubscriber;
+        this.emitterTimeout = emitterTimeout;
+        this.maxSendNanos = maxSendTime.toNanos();
+        this.senderThreads = senderThreads;
+        this.maxStalledSenders = maxStalledSenders;
+        this.coalesceInterval = coalesceInterval;
+        Gauge.builder("carparking.feed.subscribers", subscribers, Set::size)
+                .description("Open availability feed connections")
+                .register(meterRegistry);
+        this.disconnectedSlowSubscribers = Counter.builder("carparking.feed.disconnected")
+                .description("Availability feed subscribers dropped for not keeping up")
+                .register(meterRegistry);
+        availabilityService.addListener(this::availabilityChanged);
+    }
+
+    /**
+     * Opens a feed for the given lots. The current availability of every lot is sent right away,
+     * later messages only when it changes.
+     */
+    public SseEmitter subscribe(Collection<Long> parkingIds) {
+        Set<Long> lots = new LinkedHashSet<>(parkingIds);
+        if (lots.isEmpty() || lots.size() > maxLotsPerSubscriber) {
+            throw new InvalidSubscriptionException("Subscribe to between 1 and " + maxLotsPerSubscriber + " parkings!");
+        }
+        lots.forEach(availabilityService::getAvailability);
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            logger.warn("Availability feed is at its limit of {} subscribers", maxSubscribers);
+            throw new FeedCapacityExceededException("Availability feed is at capacity, please retry later.");
+        }
+
+        SseEmitter emitter = newEmitter(emitterTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, lots);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        for (Long parkingId : lots) {
+            topics.compute(parkingId, (id, topic) -> {
+                Topic current = topic != null ? topic : new Topic();
+                current.subscribers.add(subscriber);
+                return current;
+            });
+            subscriber.offer(toDelta(parkingId, availabilityService.findAvailability(parkingId)));
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Publishes every lot that changed since the last run to its subscribers, skipping lots whose
+     * free spaces and chargers ended up where they were. Runs every coalesce interval on the
+     * feed's dispatcher thread.
+     */
+    public void dispatch() {
+        disconnectSlowSubscribers();
+        for (Iterator<Long> dirty = dirtyLots.iterator(); dirty.hasNext(); ) {
+            Long parkingId = dirty.next();
+            dirty.remove();
+            Topic topic = topics.get(parkingId);
+            if (topic == null) {
+                continue;
+            }
+            AvailabilityDeltaDTO delta = toDelta(parkingId, availabilityService.findAvailability(parkingId));
+            if (delta.equals(topic.lastPublished)) {
+                continue;
+            }
+            topic.lastPublished = delta;
+            for (Subscriber subscriber : topic.subscribers) {
+                subscriber.offer(delta);
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), threadFactory("availability-feed-sender-"));
+        dispatcher = Executors.newSingleThreadScheduledExecutor(threadFactory("availability-feed-dispatcher-"));
+        long interval = coalesceInterval.toMillis();
+        dispatcher.scheduleWithFixedDelay(this::dispatchQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Closes every open feed, so clients reconnect to another node instead of waiting for a timeout.
+     * Feeds in the middle of a write are completed by their sender thread once the write returns.
+     */
+    @Override
+    public void stop() {
+        ThreadPoolExecutor current = senders;
+        senders = null;
+        if (current == null) {
+            return;
+        }
+        dispatcher.shutdownNow();
+        current.shutdownNow();
+        List<Subscriber> open = new ArrayList<>(subscribers);
+        for (Subscriber subscriber : open) {
+            unsubscribe(subscriber);
+            boolean idle;
+            synchronized (subscriber) {
+                idle = subscriber.sender == null;
+            }
+            if (idle) {
+                subscriber.emitter.complete();
+            }
+        }
+        logger.info("Closed {} availability feed subscriptions", open.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return senders != null;
+    }
+
+    /**
+     * Creates the emitter of a new subscriber.
+     */
+    protected SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            // An exception would cancel the periodic run.
+            logger.error("Availability feed dispatch failed", e);
+        }
+    }
+
+    private void availabilityChanged(Long parkingId) {
+        if (topics.containsKey(parkingId)) {
+            dirtyLots.add(parkingId);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        ExecutorService current = senders;
+        if (current == null || subscriber.closed || !subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            current.execute(() -> send(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private void send(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                subscriber.scheduled.set(false);
+                return;
+            }
+            subscriber.sender = Thread.currentThread();
+            subscriber.sendingSince = System.nanoTime();
+            sending.add(subscriber);
+        }
+        boolean replaced;
+        try {
+            for (Long parkingId : subscriber.mailbox.keySet()) {
+                AvailabilityDeltaDTO delta = subscriber.mailbox.remove(parkingId);
+                if (delta == null) {
+                    continue;
+                }
+                if (subscriber.closed) {
+                    break;
+                }
+                subscriber.emitter.send(SseEmitter.event()
+                        .name(delta.isRemoved() ? "removed" : "availability")
+                        .data(delta, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away.
+            unsubscribe(subscriber);
+        } finally {
+            synchronized (subscriber) {
+                sending.remove(subscriber);
+                subscriber.sender = null;
+                subscriber.sendingSince = 0;
+                replaced = subscriber.replaced;
+            }
+            // Clears an interrupt by disconnectSlowSubscribers() that the write did not notice.
+            Thread.interrupted();
+            subscriber.scheduled.set(false);
+        }
+        if (replaced) {
+            removeStalledSender();
+        }
+        if (subscriber.closed) {
+            subscriber.emitter.complete();
+        } else if (!subscriber.mailbox.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Marks subscribers whose write has been blocked too long as closed and interrupts their
+     * sender, which completes the emitter when the write returns. Never touches the emitter itself.
+     */
+    private void disconnectSlowSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : sending) {
+            boolean stalled;
+            long since;
+            synchronized (subscriber) {
+                since = subscriber.sendingSince;
+                stalled = subscriber.sender != null && !subscriber.closed && now - since > maxSendNanos;
+                if (stalled) {
+                    subscriber.closed = true;
+                    subscriber.replaced = addStalledSender();
+                    subscriber.sender.interrupt();
+                }
+            }
+            if (stalled) {
+                logger.warn("Disconnecting availability feed subscriber blocked for {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(now - since));
+                disconnectedSlowSubscribers.increment();
+                unsubscribe(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Grows the sender pool by one thread to stand in for a stalled one, unless too many are.
+     */
+    private synchronized boolean addStalledSender() {
+        ThreadPoolExecutor current = senders;
+        if (current == null || stalledSenders >= maxStalledSenders) {
+            return false;
+        }
+        stalledSenders++;
+        current.setMaximumPoolSize(senderThreads + stalledSenders);
+        current.setCorePoolSize(senderThreads + stalledSenders);
+        return true;
+    }
+
+    private synchronized void removeStalledSender() {
+        stalledSenders--;
+        ThreadPoolExecutor current = senders;
+        if (current != null) {
+            current.setCorePoolSize(senderThreads + stalledSenders);
+            current.setMaximumPoolSize(senderThreads + stalledSenders);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.unsubscribed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriber.closed = true;
+        subscriber.mailbox.clear();
+        subscribers.remove(subscriber);
+        subscriberCount.decrementAndGet();
+        sending.remove(subscriber);
+        for (Long parkingId : subscriber.parkingIds) {
+            topics.computeIfPresent(parkingId, (id, topic) -> {
+                topic.subscribers.remove(subscriber);
+                return topic.subscribers.isEmpty() ? null : topic;
+            });
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static AvailabilityDeltaDTO toDelta(Long parkingId, ParkingAvailabilityDTO availability) {
+        if (availability == null) {
+            return AvailabilityDeltaDTO.builder().parkingId(parkingId).removed(true).build();
+        }
+        return AvailabilityDeltaDTO.builder()
+                .parkingId(parkingId)
+                .freeSpaces(availability.getFreeSpaces())
+                .freeChargers(availability.getFreeChargers())
+                .build();
+    }
+
+    private static final class Topic {
+
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+        // Only read and written by dispatch(), which the dispatcher never runs concurrently.
+        private AvailabilityDeltaDTO lastPublished;
+    }
+
+    /**
+     * {@code sender}, {@code sendingSince} and {@code replaced} are guarded by the subscriber's
+     * monitor, which is never held during a write.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Long> parkingIds;
+        private final ConcurrentMap<Long, AvailabilityDeltaDTO> mailbox = new ConcurrentHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean unsubscribed = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile long sendingSince;
+        private Thread sender;
+        private boolean replaced;
+
+        private Subscriber(SseEmitter emitter, Set<Long> parkingIds) {
+            this.emitter = emitter;
+            this.parkingIds = parkingIds;
+        }
+
+        void offer(AvailabilityDeltaDTO delta) {
+            if (!closed) {
+                mailbox.put(delta.getParkingId(), delta);
+            }
+        }
+    }
+}
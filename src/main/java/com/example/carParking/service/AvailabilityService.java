@@ -0,0 +1,184 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.ParkingAvailabilityDTO;
+import com.example.carParking.exceptions.NoParkingFoundException;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.OccupancyEngine.OccupancyCounts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves per-lot availability without touching the database. Each lot is held as an immutable
+ * {@link ParkingAvailabilityDTO} that is replaced whenever the {@link OccupancyEngine} reports a
+ * park or unpark, or a lot is created, updated or deleted. The sorted list of all lots is built
+ * lazily and reused until the next change. Registered {@link Listener}s hear about every change.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private final OccupancyEngine occupancyEngine;
+
+    private final ParkingSearchIndex searchIndex;
+
+    private final ChargerScheduler chargerScheduler;
+
+    private final ConcurrentMap<Long, ParkingAvailabilityDTO> lots = new ConcurrentHashMap<>();
+
+    private final AtomicLong modCount = new AtomicLong();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(-1, List.of()));
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Called after a lot's availability was replaced or the lot was removed. Like the
+     * {@link OccupancyEngine.Listener} it only carries the lot ID; read the current value with
+     * {@link #findAvailability(Long)}.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void availabilityChanged(Long parkingId);
+    }
+
+    public AvailabilityService(OccupancyEngine occupancyEngine, ParkingSearchIndex searchIndex,
+                               ChargerScheduler chargerScheduler) {
+        this.occupancyEngine = occupancyEngine;
+        this.searchIndex = searchIndex;
+        this.chargerScheduler = chargerScheduler;
+        occupancyEngine.addListener(this::refreshCounts);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public List<ParkingAvailabilityDTO> getAvailability() {
+        long expectedModCount = modCount.get();
+        Snapshot current = snapshot.get();
+        if (current.modCount == expectedModCount) {
+            return current.lots;
+        }
+        List<ParkingAvailabilityDTO> sorted = lots.values().stream()
+                .sorted(Comparator.comparing(ParkingAvailabilityDTO::getParkingId))
+                .toList();
+        // A change after expectedModCount was read leaves the snapshot stale, so the next call rebuilds it.
+        snapshot.compareAndSet(current, new Snapshot(expectedModCount, sorted));
+        return sorted;
+    }
+
+    public ParkingAvailabilityDTO getAvailability(Long parkingId) {
+        ParkingAvailabilityDTO availability = lots.get(parkingId);
+        if (availability == null) {
+            logger.error("Parking with ID: {} does not exist", parkingId);
+            throw new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
+        }
+        return availability;
+    }
+
+    /**
+     * Returns the availability of a lot, or {@code null} when it is unknown.
+     */
+    public ParkingAvailabilityDTO findAvailability(Long parkingId) {
+        return lots.get(parkingId);
+    }
+
+    /**
+     * Publishes the lot's name, capacity and location once the surrounding transaction commits.
+     */
+    public void updateLot(ParkingEntity parking) {
+        ParkingAvailabilityDTO profile = ParkingAvailabilityDTO.builder()
+                .parkingId(parking.getId())
+                .name(parking.getName())
+                .totalSpaces(parking.getTotalSpaces())
+                .numberOfChargers(parking.getNumberOfChargers())
+                .lpgAllowed(parking.isLpgAllowed())
+                .widthOfParkingSpace(parking.getWidthOfParkingSpace())
+                .latitude(parking.getLatitude())
+                .longitude(parking.getLongitude())
+                .build();
+        afterCommit(() -> {
+            lots.compute(profile.getParkingId(), (id, current) -> withCounts(profile));
+            searchIndex.put(profile);
+            modCount.incrementAndGet();
+            notifyListeners(profile.getParkingId());
+        });
+    }
+
+    public void removeLot(Long parkingId) {
+        afterCommit(() -> {
+            lots.remove(parkingId);
+            searchIndex.remove(parkingId);
+            modCount.incrementAndGet();
+            notifyListeners(parkingId);
+        });
+    }
+
+    public void reload(Collection<ParkingEntity> parkings) {
+        lots.clear();
+        searchIndex.clear();
+        parkings.forEach(this::updateLot);
+        logger.info("Loaded availability for {} parkings", lots.size());
+    }
+
+    private void refreshCounts(Long parkingId) {
+        // Reading the counts inside compute makes the last refresh of a lot win, whatever order listeners ran in.
+        if (lots.computeIfPresent(parkingId, (id, current) -> withCounts(current)) != null) {
+            modCount.incrementAndGet();
+            notifyListeners(parkingId);
+        }
+    }
+
+    private void notifyListeners(Long parkingId) {
+        for (Listener listener : listeners) {
+            listener.availabilityChanged(parkingId);
+        }
+    }
+
+    private ParkingAvailabilityDTO withCounts(ParkingAvailabilityDTO profile) {
+        OccupancyCounts counts = occupancyEngine.getCounts(profile.getParkingId());
+        return profile.toBuilder()
+                .freeSpaces(Math.max(0, profile.getTotalSpaces() - counts.getTotal()))
+                .freeChargers(chargerScheduler.freeChargers(profile.getNumberOfChargers(),
+                        counts.getCount(FuelType.ELECTRIC)))
+                .build();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class Snapshot {
+
+        private final long modCount;
+        private final List<ParkingAvailabilityDTO> lots;
+
+        private Snapshot(long modCount, List<ParkingAvailabilityDTO> lots) {
+            this.modCount = modCount;
+            this.lots = lots;
+        }
+    }
+}
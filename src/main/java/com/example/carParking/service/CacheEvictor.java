@@ -0,0 +1,116 @@
+package com.example.carParking.service;
+
+import com.example.carParking.config.CacheConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Evicts single entries from the lookup caches when a parking or car changes, and fills them on
+ * a miss. The entry is evicted right away and once more after the transaction completes.
+ * <p>
+ * Every eviction also moves the key's generation on, and a loaded value is only put if the
+ * generation it was loaded in is still current. A reader that loaded the old row before the
+ * commit therefore cannot put it back after the second eviction. Generations are kept per stripe
+ * of keys, so an eviction may also skip the put of an unrelated key, which only costs a miss.
+ */
+@Component
+public class CacheEvictor {
+
+    private static final int STRIPES = 1024;
+
+    private final CacheManager cacheManager;
+    private final Counter parkingInvalidations;
+    private final Counter carInvalidations;
+    private final Object[] locks = new Object[STRIPES];
+    // Guarded by the lock of the same stripe.
+    private final long[] generations = new long[STRIPES];
+
+    public CacheEvictor(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.parkingInvalidations = invalidationCounter(meterRegistry, CacheConfig.PARKINGS_CACHE);
+        this.carInvalidations = invalidationCounter(meterRegistry, CacheConfig.CARS_CACHE);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public void evictParking(Long parkingId) {
+        evict(CacheConfig.PARKINGS_CACHE, parkingId, parkingInvalidations);
+    }
+
+    public void evictCar(Long carId) {
+        evict(CacheConfig.CARS_CACHE, carId, carInvalidations);
+    }
+
+    /**
+     * Returns the cached value of {@code key}, or loads it and caches it unless the key was
+     * evicted while it loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, Long key, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return loader.get();
+        }
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        int stripe = stripe(cacheName, key);
+        long generation;
+        synchronized (locks[stripe]) {
+            generation = generations[stripe];
+        }
+        T value = loader.get();
+        synchronized (locks[stripe]) {
+            if (generations[stripe] == generation) {
+                cache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    private void evict(String cacheName, Long key, Counter invalidations) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || key == null) {
+            return;
+        }
+        int stripe = stripe(cacheName, key);
+        invalidate(cache, key, stripe);
+        invalidations.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(cache, key, stripe);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Cache cache, Long key, int stripe) {
+        synchronized (locks[stripe]) {
+            generations[stripe]++;
+            cache.evict(key);
+        }
+    }
+
+    private static int stripe(String cacheName, Long key) {
+        int hash = 31 * cacheName.hashCode() + key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static Counter invalidationCounter(MeterRegistry meterRegistry, String cacheName) {
+        return Counter.builder("carparking.cache.invalidations")
+                .description("Entries evicted because the underlying parking or car changed")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+}
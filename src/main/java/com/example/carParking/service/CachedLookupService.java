@@ -0,0 +1,33 @@
+package com.example.carParking.service;
+
+import com.example.carParking.config.CacheConfig;
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.ParkingDTO;
+import org.springframework.stereotype.Service;
+
+/**
+ * Read-through cache for the single parking and car lookups polled by kiosks. Entries are the
+ * projected DTOs, never managed entities, and are filled and evicted by {@link CacheEvictor}, so
+ * a lookup racing with a change cannot cache the row from before it. Hits need no transaction.
+ */
+@Service
+public class CachedLookupService {
+
+    private final ParkingService parkingService;
+    private final CarService carService;
+    private final CacheEvictor cacheEvictor;
+
+    public CachedLookupService(ParkingService parkingService, CarService carService, CacheEvictor cacheEvictor) {
+        this.parkingService = parkingService;
+        this.carService = carService;
+        this.cacheEvictor = cacheEvictor;
+    }
+
+    public ParkingDTO getParking(Long id) {
+        return cacheEvictor.get(CacheConfig.PARKINGS_CACHE, id, () -> parkingService.getParkingDTOById(id));
+    }
+
+    public CarDTO getCar(Long id) {
+        return cacheEvictor.get(CacheConfig.CARS_CACHE, id, () -> carService.getCarDTOById(id));
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.CarImportErrorDTO;
+import com.example.carParking.dto.CarImportReportDTO;
+import com.example.carParking.dto.CarWithoutParkingDTO;
+import com.example.carParking.exceptions.InvalidImportFileException;
+import com.example.carParking.mapper.CarMapper;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Streams cars out of a JSON array or CSV body and inserts them in batches. Rows are parsed
+ * one at a time, so the size of the import is bounded by the database, not by the heap.
+ * <p>
+ * Every batch commits in a transaction of its own, so an import that fails part-way keeps the
+ * batches before the failure; the error says how many cars that were.
+ */
+@Service
+public class CarImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CarImportService.class);
+
+    private static final List<String> CSV_COLUMNS = List.of("brand", "model", "width", "fuelType");
+
+    public enum Format {
+        JSON,
+        CSV
+    }
+
+    private final CarService carService;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final Validator validator;
+    private final CarMapper carMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public CarImportService(CarService carService, ObjectMapper objectMapper, Validator validator,
+                            CarMapper carMapper, EntityManager entityManager,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${carparking.import.batch-size:500}") int batchSize,
+                            @Value("${carparking.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.carService = carService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.carMapper = carMapper;
+        this.entityManager = entityManager;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public CarImportReportDTO importCars(InputStream inputStream, Format format) throws IOException {
+        logger.info("Importing cars from {} stream", format);
+        ImportRun run = new ImportRun();
+        try {
+            if (format == Format.JSON) {
+                readJson(inputStream, run);
+            } else {
+                readCsv(inputStream, run);
+            }
+            run.flush();
+        } catch (InvalidImportFileException e) {
+            if (run.importedRows == 0) {
+                throw e;
+            }
+            throw new InvalidImportFileException(e.getMessage() + " " + run.importedRows
+                    + " cars before it were already imported.");
+        } catch (RuntimeException e) {
+            logger.error("Import failed after {} cars were imported", run.importedRows);
+            throw e;
+        }
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - run.startNanos);
+        CarImportReportDTO report = CarImportReportDTO.builder()
+                .importedRows(run.importedRows)
+                .failedRows(run.failedRows)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond((run.importedRows + run.failedRows) * 1_000_000_000d / elapsedNanos)
+                .errors(run.errors)
+                .build();
+        logger.info("Imported {} cars, {} rows failed, {} rows/s", report.getImportedRows(), report.getFailedRows(),
+                Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    private void readJson(InputStream inputStream, ImportRun run) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidImportFileException("Expected a JSON array of cars!");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                long row = run.nextRow();
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    run.accept(row, objectMapper.treeToValue(node, CarWithoutParkingDTO.class));
+                } catch (IOException | IllegalArgumentException e) {
+                    run.reject(row, "Malformed row: " + describe(e));
+                }
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new InvalidImportFileException("Expected a JSON object for row " + (run.rows + 1)
+                        + " but found " + (token == null ? "the end of the input" : "'" + parser.getText() + "'") + "!");
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportFileException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Reads records as lists of fields, so quoted fields may contain commas, quotes and line
+     * breaks, and a row with missing or extra fields is still read and validated on its own.
+     */
+    private void readCsv(InputStream inputStream, ImportRun run) throws IOException {
+        Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        try (MappingIterator<List<String>> records = csvMapper.readerForListOf(String.class)
+                .with(CsvParser.Feature.WRAP_AS_ARRAY)
+                .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .with(CsvParser.Feature.TRIM_SPACES)
+                .readValues(reader)) {
+            if (!records.hasNextValue()) {
+                return;
+            }
+            List<String> columns = records.nextValue();
+            int[] positions = CSV_COLUMNS.stream().mapToInt(columns::indexOf).toArray();
+            if (Arrays.stream(positions).anyMatch(position -> position < 0)) {
+                throw new InvalidImportFileException("CSV header must contain columns: " + String.join(",", CSV_COLUMNS));
+            }
+
+            while (records.hasNextValue()) {
+                List<String> values = records.nextValue();
+                if (values.stream().allMatch(String::isBlank)) {
+                    continue;
+                }
+                long row = run.nextRow();
+                readCsvRow(run, row, values, positions);
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportFileException("Malformed CSV: " + e.getOriginalMessage());
+        }
+    }
+
+    private void readCsvRow(ImportRun run, long row, List<String> values, int[] positions) {
+        try {
+            run.accept(row, CarWithoutParkingDTO.builder()
+                    .brand(value(values, positions[0]))
+                    .model(value(values, positions[1]))
+                    .width(value(values, positions[2]) != null ? Double.valueOf(value(values, positions[2])) : null)
+                    .fuelType(value(values, positions[3]) != null ? FuelType.fromValue(value(values, positions[3])) : null)
+                    .build());
+        } catch (IllegalArgumentException e) {
+            run.reject(row, "Malformed row: " + e.getMessage());
+        }
+    }
+
+    private static String value(List<String> values, int position) {
+        if (position >= values.size() || values.get(position).isBlank()) {
+            return null;
+        }
+        return values.get(position).trim();
+    }
+
+    private static String describe(Exception e) {
+        return e instanceof JsonProcessingException jsonException
+                ? jsonException.getOriginalMessage()
+                : e.getMessage();
+    }
+
+    private class ImportRun {
+
+        private final long startNanos = System.nanoTime();
+        private final List<CarEntity> batch = new ArrayList<>(batchSize);
+        private final List<CarImportErrorDTO> errors = new ArrayList<>();
+        private long rows;
+        private long importedRows;
+        private long failedRows;
+
+        long nextRow() {
+            return ++rows;
+        }
+
+        void accept(long row, CarWithoutParkingDTO carDTO) {
+            Set<ConstraintViolation<CarWithoutParkingDTO>> violations = validator.validate(carDTO);
+            if (!violations.isEmpty()) {
+                reject(row, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            CarEntity carEntity = carMapper.toCarEntity(carDTO);
+            carEntity.setId(null);
+            batch.add(carEntity);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failedRows++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new CarImportErrorDTO(row, message));
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            batchTransaction.executeWithoutResult(status -> {
+                carService.createCars(batch);
+                // Imported cars are not needed afterwards; keep the request's persistence context small.
+                entityManager.flush();
+                entityManager.clear();
+            });
+            importedRows += batch.size();
+            batch.clear();
+        }
+    }
+}
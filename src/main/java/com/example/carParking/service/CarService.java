@@ -1,51 +1,101 @@
 package com.example.carParking.service;
 
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.CursorPageDTO;
 import com.example.carParking.exceptions.*;
 import com.example.carParking.model.CarEntity;
 import com.example.carParking.model.FuelType;
 import com.example.carParking.model.ParkingEntity;
 import com.example.carParking.repository.CarRepository;
+import com.example.carParking.service.OccupancyEngine.Admission;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Transactional
 @Service
 public class CarService {
 
     private static final Logger logger = LoggerFactory.getLogger(CarService.class);
     private final CarRepository carRepository;
+    private final OccupancyEngine occupancyEngine;
+    private final ParkingLocks parkingLocks;
+    private final CacheEvictor cacheEvictor;
+    private final SlotAllocator slotAllocator;
+    private final ChargerScheduler chargerScheduler;
+    private final ParkingSessionLedger parkingSessionLedger;
+    private final WriteBehindAssignments writeBehindAssignments;
+    private final ReservationService reservationService;
 
-    public CarService(final CarRepository carRepository) {
+    public CarService(final CarRepository carRepository, OccupancyEngine occupancyEngine, ParkingLocks parkingLocks,
+                      CacheEvictor cacheEvictor, SlotAllocator slotAllocator, ChargerScheduler chargerScheduler,
+                      ParkingSessionLedger parkingSessionLedger, WriteBehindAssignments writeBehindAssignments,
+                      ReservationService reservationService) {
         this.carRepository = carRepository;
+        this.occupancyEngine = occupancyEngine;
+        this.parkingLocks = parkingLocks;
+        this.cacheEvictor = cacheEvictor;
+        this.slotAllocator = slotAllocator;
+        this.chargerScheduler = chargerScheduler;
+        this.parkingSessionLedger = parkingSessionLedger;
+        this.writeBehindAssignments = writeBehindAssignments;
+        this.reservationService = reservationService;
     }
 
     public CarEntity createCar(CarEntity carEntity) {
-        logger.info("Creating car: {}", carEntity);
         carEntity.setParking(null);
-        return carRepository.save(carEntity);
+        CarEntity savedCar = carRepository.save(carEntity);
+        logger.debug("Created car with ID: {}", savedCar.getId());
+        return savedCar;
+    }
+
+    public List<CarEntity> createCars(List<CarEntity> carEntities) {
+        logger.info("Creating {} cars", carEntities.size());
+        carEntities.forEach(carEntity -> carEntity.setParking(null));
+        return carRepository.saveAll(carEntities);
     }
 
-    public Page<CarEntity> getAllCars(final Pageable pageable) {
-        logger.info("Fetching all cars with pagination: {}", pageable);
-        return carRepository.findAll(pageable);
+    public Page<CarDTO> getAllCars(final Pageable pageable) {
+        logger.debug("Fetching all cars with pagination: {}", pageable);
+        return carRepository.findCarDTOs(pageable);
+    }
+
+    public CursorPageDTO<CarDTO> scrollCars(String cursor, int size, boolean withTotal) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Scrolling cars after cursor: {} with size: {}", cursor, size);
+        }
+        int limit = KeysetCursor.clampSize(size);
+        List<CarDTO> cars = carRepository.findCarDTOsAfter(KeysetCursor.decode(cursor), Limit.of(limit + 1));
+        return KeysetCursor.slice(cars, limit, CarDTO::getId, withTotal ? carRepository.count() : null);
     }
 
     public CarEntity updateCar(Long id, CarEntity carEntity) {
-        logger.info("Updating car with ID: {}", id);
+        logger.debug("Updating car with ID: {}", id);
 
+        writeBehindAssignments.settle(List.of(id));
         return carRepository.findById(id).map(existingCar -> {
+            FuelType previousFuelType = existingCar.getFuelType();
             existingCar.setBrand(carEntity.getBrand());
             existingCar.setModel(carEntity.getModel());
             existingCar.setWidth(carEntity.getWidth());
             existingCar.setFuelType(carEntity.getFuelType());
             if (existingCar.getParking() != null) {
-                validateCarAddition(existingCar.getParking(), existingCar);
+                parkingLocks.lockUntilCompletion(existingCar.getParking().getId());
+                validateCarAddition(existingCar.getParking(), existingCar, previousFuelType);
+                if (previousFuelType != existingCar.getFuelType()) {
+                    parkingSessionLedger.recordFuelTypeChange(existingCar, existingCar.getParking().getId(), previousFuelType);
+                    updateCharger(existingCar, previousFuelType);
+                }
+                cacheEvictor.evictParking(existingCar.getParking().getId());
             }
-            logger.info("Updated car details: {}", existingCar);
+            cacheEvictor.evictCar(id);
+            logger.debug("Updated car with ID: {}", id);
             return carRepository.save(existingCar);
         }).orElseThrow(() -> {
             logger.error("No car found with ID: {}", id);
@@ -54,14 +104,26 @@ public class CarService {
     }
 
     public CarEntity getCarById(Long id) {
-        logger.info("Fetching car with ID: {}", id);
+        logger.debug("Fetching car with ID: {}", id);
         return carRepository.findById(id).orElseThrow(() -> {
             logger.error("No car found with ID: {}", id);
             return new NoCarFoundException("Car with ID: " + id + " not found!");
         });
     }
 
+    /**
+     * Reads the car as a projection, without loading the entity or its parking.
+     */
+    public CarDTO getCarDTOById(Long id) {
+        logger.debug("Fetching car with ID: {}", id);
+        return carRepository.findCarDTOById(id).orElseThrow(() -> {
+            logger.error("No car found with ID: {}", id);
+            return new NoCarFoundException("Car with ID: " + id + " not found!");
+        });
+    }
+
     public void deleteCar(Long id) {
+        writeBehindAssignments.settle(List.of(id));
         CarEntity carEntity = carRepository.findById(id).orElseThrow(() -> {
             logger.error("Cannot delete. No car found with ID: {}", id);
             return new NoCarFoundException("Car with ID: " + id + " not found!");
@@ -70,11 +132,21 @@ public class CarService {
         if (carEntity.getParking() != null)
             throw new CarParkedException("First u need to delete car from parking!");
 
-        logger.info("Deleting car with ID: {}", id);
+        logger.debug("Deleting car with ID: {}", id);
+        reservationService.deleteByCar(id);
         carRepository.deleteById(id);
+        cacheEvictor.evictCar(id);
+    }
+
+    private void updateCharger(CarEntity car, FuelType previousFuelType) {
+        if (previousFuelType == FuelType.ELECTRIC) {
+            chargerScheduler.leave(car.getParking().getId(), car.getId());
+        } else if (car.getFuelType() == FuelType.ELECTRIC) {
+            chargerScheduler.arrive(car.getParking().getId(), car.getId());
+        }
     }
 
-    private void validateCarAddition(ParkingEntity parking, CarEntity car) {
+    private void validateCarAddition(ParkingEntity parking, CarEntity car, FuelType previousFuelType) {
         if (car.getFuelType().equals(FuelType.LPG) && !parking.isLpgAllowed() ) {
             logger.error("LPG cars are not allowed in parking with ID: {}", parking.getId());
             throw new LpgNotAllowedException("You can't park LPG car here!");
@@ -85,14 +157,17 @@ public class CarService {
             throw new CarTooWideException("Your car is too wide to park here!");
         }
 
-        if (car.getFuelType().equals(FuelType.ELECTRIC)) {
-            long numberOfElectricCarsParked = parking.getCars().stream()
-                    .filter(c -> c.getFuelType().equals(FuelType.ELECTRIC))
-                    .count();
-            if (numberOfElectricCarsParked > parking.getNumberOfChargers()) {
-                logger.error("No free chargers available in parking with ID: {}", parking.getId());
-                throw new NoFreeChargersParkingException("There are no free chargers!");
-            }
+        if (car.getSlot() != null
+                && !slotAllocator.fits(parking.getId(), car.getSlot().getId(), car.getFuelType(), car.getWidth())) {
+            logger.error("Car with ID: {} no longer fits its slot in parking with ID: {}", car.getId(), parking.getId());
+            throw new NoFreeSpaceParkingException("Your car no longer fits its slot!");
+        }
+
+        Admission admission = occupancyEngine.tryChangeFuelType(parking.getId(), previousFuelType,
+                car.getFuelType(), chargerScheduler.electricCarLimit(parking.getNumberOfChargers()));
+        if (admission == Admission.NO_FREE_CHARGERS) {
+            logger.error("No free chargers available in parking with ID: {}", parking.getId());
+            throw new NoFreeChargersParkingException("There are no free chargers!");
         }
     }
 }
@@ -0,0 +1,634 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.ChargerAssignmentDTO;
+import com.example.carParking.dto.ChargerScheduleDTO;
+import com.example.carParking.exceptions.NoCarFoundException;
+import com.example.carParking.exceptions.NoParkingFoundException;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.repository.ParkedCar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns the chargers of every lot, numbered from 0, to the electric cars parked there. A car
+ * that finds every charger taken waits on the lot's waitlist, a binary heap, and gets the next
+ * charger that frees up. Under a rotating {@link Policy} a session lasts one slice, after which
+ * {@link #tick()} hands the charger to the first waiting car and puts its car back on the waitlist.
+ * <p>
+ * A lot keeps its chargers and its waitlist in primitive arrays that only grow with the waitlist,
+ * so a tick over every lot allocates nothing. Each lot remembers when its next slice ends, and a
+ * tick skips lots that are not due with a single read.
+ * <p>
+ * Arrivals, departures and charger changes are applied once the surrounding transaction commits.
+ */
+@Component
+public class ChargerScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChargerScheduler.class);
+
+    private static final long NO_CAR = -1;
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    public enum Policy {
+        /**
+         * A car keeps its charger until it leaves. Electric cars are only admitted while a charger
+         * is free, so nobody waits.
+         */
+        DEDICATED,
+        /**
+         * Electric cars are admitted while there is space. Sessions last one slice, then the charger
+         * goes to the car that has waited longest.
+         */
+        ROUND_ROBIN,
+        /**
+         * Like {@link #ROUND_ROBIN}, but the charger goes to the waiting car that has charged least.
+         */
+        FAIR_SHARE
+    }
+
+    private final ConcurrentMap<Long, LotChargers> lots = new ConcurrentHashMap<>();
+
+    /**
+     * The values of {@link #lots}, replaced whenever a lot is added or removed, so a tick iterates
+     * an array instead of allocating an iterator.
+     */
+    private volatile LotChargers[] tickOrder = new LotChargers[0];
+
+    private final Clock clock;
+    private final Policy policy;
+    private final long sliceMillis;
+
+    public ChargerScheduler(Clock clock,
+                            @Value("${carparking.chargers.policy:DEDICATED}") Policy policy,
+                            @Value("${carparking.chargers.slice:PT30M}") Duration slice) {
+        this.clock = clock;
+        this.policy = policy;
+        this.sliceMillis = policy == Policy.DEDICATED ? NEVER : slice.toMillis();
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * How many electric cars a lot with {@code numberOfChargers} chargers admits. Rotating policies
+     * admit them while there is space and let the ones without a charger wait.
+     */
+    public int electricCarLimit(int numberOfChargers) {
+        return policy == Policy.DEDICATED ? numberOfChargers : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Chargers of a lot that no car is on. A parked electric car is never left waiting while a
+     * charger is free, so under every policy these are the chargers its electric cars leave over.
+     */
+    public int freeChargers(int numberOfChargers, int electricCars) {
+        return Math.max(0, numberOfChargers - electricCars);
+    }
+
+    /**
+     * Tells whether a lot with {@code electricCars} parked electric cars takes one more, as far as
+     * its chargers go. Under rotating policies it does even when no charger is free.
+     */
+    public boolean admitsElectricCar(int numberOfChargers, int electricCars) {
+        return electricCars < electricCarLimit(numberOfChargers);
+    }
+
+    /**
+     * Adds a lot or changes its number of chargers. Cars on chargers that no longer exist go back
+     * to the waitlist; new chargers are handed to waiting cars.
+     */
+    public void define(Long parkingId, int numberOfChargers) {
+        afterCommit(() -> {
+            LotChargers lot = lots.putIfAbsent(parkingId, newLot(numberOfChargers));
+            if (lot == null) {
+                refreshTickOrder();
+                return;
+            }
+            synchronized (lot) {
+                lot.resize(numberOfChargers, clock.millis());
+            }
+        });
+    }
+
+    public void remove(Long parkingId) {
+        afterCommit(() -> {
+            if (lots.remove(parkingId) != null) {
+                refreshTickOrder();
+            }
+        });
+    }
+
+    /**
+     * Gives the car a free charger of the lot, or puts it on the waitlist.
+     */
+    public void arrive(Long parkingId, Long carId) {
+        afterCommit(() -> {
+            LotChargers lot = lots.get(parkingId);
+            if (lot != null) {
+                synchronized (lot) {
+                    lot.arrive(carId, clock.millis());
+                }
+            }
+        });
+    }
+
+    /**
+     * Takes the car off its charger, which goes to the first waiting car, or off the waitlist.
+     */
+    public void leave(Long parkingId, Long carId) {
+        afterCommit(() -> {
+            LotChargers lot = lots.get(parkingId);
+            if (lot != null) {
+                synchronized (lot) {
+                    lot.leave(carId, clock.millis());
+                }
+            }
+        });
+    }
+
+    public void rebuild(Collection<ParkingEntity> parkings, Collection<? extends ParkedCar> electricCars) {
+        lots.clear();
+        for (ParkingEntity parking : parkings) {
+            lots.put(parking.getId(), newLot(parking.getNumberOfChargers()));
+        }
+        long now = clock.millis();
+        for (ParkedCar car : electricCars) {
+            LotChargers lot = lots.get(car.getParkingId());
+            if (lot != null) {
+                lot.arrive(car.getCarId(), now);
+            }
+        }
+        refreshTickOrder();
+        logger.info("Rebuilt charger schedules for {} parkings", lots.size());
+    }
+
+    /**
+     * Brings the chargers and electric cars of one lot in line with the database: cars no longer
+     * parked there leave and cars missing from the schedule arrive.
+     */
+    public void reconcile(Long parkingId, int numberOfChargers, Collection<? extends ParkedCar> electricCars) {
+        LotChargers lot = lots.get(parkingId);
+        if (lot == null) {
+            lot = lots.computeIfAbsent(parkingId, id -> newLot(numberOfChargers));
+            refreshTickOrder();
+        }
+        Set<Long> carIds = new LinkedHashSet<>();
+        electricCars.forEach(car -> carIds.add(car.getCarId()));
+        synchronized (lot) {
+            long now = clock.millis();
+            boolean changed = lot.chargerCount() != numberOfChargers;
+            lot.resize(numberOfChargers, now);
+            for (long carId : lot.carIds()) {
+                if (!carIds.contains(carId)) {
+                    changed |= lot.leave(carId, now);
+                }
+            }
+            for (Long carId : carIds) {
+                changed |= lot.arrive(carId, now);
+            }
+            if (changed) {
+                logger.warn("Corrected charger schedule of parking with ID: {}", parkingId);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${carparking.chargers.tick-interval:PT1S}")
+    public void tick() {
+        int handedOver = rotate(clock.millis());
+        if (handedOver > 0 && logger.isDebugEnabled()) {
+            logger.debug("Handed over {} chargers", handedOver);
+        }
+    }
+
+    /**
+     * Hands every charger whose slice ended by {@code now} to the first waiting car, when that car
+     * goes before the one charging.
+     *
+     * @return the number of chargers that changed cars
+     */
+    public int rotate(long now) {
+        int handedOver = 0;
+        for (LotChargers lot : tickOrder) {
+            if (lot.isDue(now)) {
+                synchronized (lot) {
+                    handedOver += lot.rotate(now);
+                }
+            }
+        }
+        return handedOver;
+    }
+
+    public ChargerScheduleDTO getSchedule(Long parkingId) {
+        LotChargers lot = lot(parkingId);
+        long now = clock.millis();
+        synchronized (lot) {
+            return ChargerScheduleDTO.builder()
+                    .parkingId(parkingId)
+                    .policy(policy.name())
+                    .numberOfChargers(lot.chargerCount())
+                    .freeChargers(lot.freeChargers())
+                    .nextChargerFreeAt(instant(lot.estimatedStart(lot.waitingCount(), now)))
+                    .cars(lot.assignments(now))
+                    .build();
+        }
+    }
+
+    public ChargerAssignmentDTO getAssignment(Long parkingId, Long carId) {
+        LotChargers lot = lot(parkingId);
+        long now = clock.millis();
+        synchronized (lot) {
+            return lot.assignments(now).stream()
+                    .filter(assignment -> assignment.getCarId().equals(carId))
+                    .findFirst()
+                    .orElseThrow(() -> {
+                        logger.error("Car with ID: {} has no charger in parking with ID: {}", carId, parkingId);
+                        return new NoCarFoundException("Car with ID: " + carId
+                                + " is not charging or waiting in parking with ID: " + parkingId + "!");
+                    });
+        }
+    }
+
+    private LotChargers lot(Long parkingId) {
+        LotChargers lot = lots.get(parkingId);
+        if (lot == null) {
+            logger.error("Parking with ID: {} does not exist", parkingId);
+            throw new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
+        }
+        return lot;
+    }
+
+    private LotChargers newLot(int numberOfChargers) {
+        return new LotChargers(numberOfChargers, sliceMillis, policy == Policy.FAIR_SHARE);
+    }
+
+    private synchronized void refreshTickOrder() {
+        tickOrder = lots.values().toArray(new LotChargers[0]);
+    }
+
+    private static Instant instant(long millis) {
+        return millis == NEVER ? null : Instant.ofEpochMilli(millis);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * The chargers and waitlist of one lot. Callers hold the lot's monitor; only
+     * {@link #isDue} is read without it.
+     */
+    private static final class LotChargers {
+
+        private static final int MIN_WAITLIST_CAPACITY = 8;
+
+        private final long sliceMillis;
+        private final boolean fairShare;
+
+        // Per charger: the car on it, when its session started and how long it charged before.
+        private long[] holders;
+        private long[] sessionStarts;
+        private long[] chargedBefore;
+
+        // Waitlist heap ordered by key, then by the order cars joined. The key is the time the car
+        // joined for round robin and the time it charged so far for fair share.
+        private long[] waitingCars;
+        private long[] waitingKeys;
+        private long[] waitingOrder;
+        private long[] waitingCharged;
+        private int waiting;
+        private long joined;
+
+        private volatile long nextRotation = NEVER;
+
+        LotChargers(int chargers, long sliceMillis, boolean fairShare) {
+            this.sliceMillis = sliceMillis;
+            this.fairShare = fairShare;
+            holders = new long[chargers];
+            Arrays.fill(holders, NO_CAR);
+            sessionStarts = new long[chargers];
+            chargedBefore = new long[chargers];
+            int capacity = Math.max(MIN_WAITLIST_CAPACITY, chargers);
+            waitingCars = new long[capacity];
+            waitingKeys = new long[capacity];
+            waitingOrder = new long[capacity];
+            waitingCharged = new long[capacity];
+        }
+
+        boolean isDue(long now) {
+            return now >= nextRotation;
+        }
+
+        int chargerCount() {
+            return holders.length;
+        }
+
+        int waitingCount() {
+            return waiting;
+        }
+
+        int freeChargers() {
+            int free = 0;
+            for (long holder : holders) {
+                if (holder == NO_CAR) {
+                    free++;
+                }
+            }
+            return free;
+        }
+
+        boolean arrive(long carId, long now) {
+            if (chargerOf(carId) >= 0 || waitlistIndexOf(carId) >= 0) {
+                return false;
+            }
+            int free = chargerOf(NO_CAR);
+            if (free >= 0) {
+                start(free, carId, 0, now);
+            } else {
+                enqueue(carId, 0, now);
+            }
+            scheduleRotation();
+            return true;
+        }
+
+        boolean leave(long carId, long now) {
+            int charger = chargerOf(carId);
+            if (charger >= 0) {
+                holders[charger] = NO_CAR;
+                if (waiting > 0) {
+                    startNext(charger, now);
+                }
+            } else {
+                int index = waitlistIndexOf(carId);
+                if (index < 0) {
+                    return false;
+                }
+                removeAt(index);
+            }
+            scheduleRotation();
+            return true;
+        }
+
+        void resize(int chargers, long now) {
+            int current = holders.length;
+            if (chargers == current) {
+                return;
+            }
+            for (int i = chargers; i < current; i++) {
+                if (holders[i] != NO_CAR) {
+                    enqueue(holders[i], chargedBefore[i] + now - sessionStarts[i], now);
+                }
+            }
+            holders = Arrays.copyOf(holders, chargers);
+            sessionStarts = Arrays.copyOf(sessionStarts, chargers);
+            chargedBefore = Arrays.copyOf(chargedBefore, chargers);
+            for (int i = current; i < chargers; i++) {
+                holders[i] = NO_CAR;
+            }
+            for (int i = 0; i < chargers && waiting > 0; i++) {
+                if (holders[i] == NO_CAR) {
+                    startNext(i, now);
+                }
+            }
+            scheduleRotation();
+        }
+
+        int rotate(long now) {
+            int handedOver = 0;
+            for (int i = 0; i < holders.length && waiting > 0; i++) {
+                if (holders[i] == NO_CAR) {
+                    startNext(i, now);
+                    handedOver++;
+                    continue;
+                }
+                if (now - sessionStarts[i] < sliceMillis) {
+                    continue;
+                }
+                long charged = chargedBefore[i] + now - sessionStarts[i];
+                long key = fairShare ? charged : now;
+                // On a tie the car charging keeps the charger, so a car that just left one does not
+                // take another back in the same tick.
+                if (waitingKeys[0] < key) {
+                    long next = waitingCars[0];
+                    long nextCharged = waitingCharged[0];
+                    // The car leaving the charger takes the head's place and sinks to its position.
+                    set(0, holders[i], key, joined++, charged);
+                    siftDown(0);
+                    start(i, next, nextCharged, now);
+                    handedOver++;
+                } else {
+                    start(i, holders[i], charged, now);
+                }
+            }
+            scheduleRotation();
+            return handedOver;
+        }
+
+        /**
+         * When the car at {@code rank} on the waitlist, 0 being next, should get a charger,
+         * assuming every car ahead of it charges one slice. Chargers free up at the end of their
+         * current slice, which is at most one slice away, so the chargers taken in turn repeat
+         * in the same order one slice later.
+         *
+         * @return epoch millis, or {@link #NEVER} when chargers do not rotate and none is free
+         */
+        long estimatedStart(int rank, long now) {
+            int chargers = holders.length;
+            if (chargers == 0) {
+                return NEVER;
+            }
+            long[] freeAt = new long[chargers];
+            for (int i = 0; i < chargers; i++) {
+                freeAt[i] = holders[i] == NO_CAR ? now
+                        : sliceMillis == NEVER ? NEVER : Math.max(now, sessionStarts[i] + sliceMillis);
+            }
+            Arrays.sort(freeAt);
+            long first = freeAt[rank % chargers];
+            int round = rank / chargers;
+            if (first == NEVER || (round > 0 && sliceMillis == NEVER)) {
+                return NEVER;
+            }
+            return first + round * sliceMillis;
+        }
+
+        List<ChargerAssignmentDTO> assignments(long now) {
+            List<ChargerAssignmentDTO> assignments = new ArrayList<>(holders.length + waiting);
+            for (int i = 0; i < holders.length; i++) {
+                if (holders[i] != NO_CAR) {
+                    assignments.add(ChargerAssignmentDTO.builder()
+                            .carId(holders[i])
+                            .charger(i)
+                            .chargingSince(Instant.ofEpochMilli(sessionStarts[i]))
+                            .chargingUntil(sliceMillis == NEVER ? null : Instant.ofEpochMilli(sessionStarts[i] + sliceMillis))
+                            .build());
+                }
+            }
+            Integer[] order = new Integer[waiting];
+            for (int i = 0; i < waiting; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> less(a, b) ? -1 : less(b, a) ? 1 : 0);
+            for (int rank = 0; rank < waiting; rank++) {
+                assignments.add(ChargerAssignmentDTO.builder()
+                        .carId(waitingCars[order[rank]])
+                        .waitlistPosition(rank + 1)
+                        .estimatedStart(instant(estimatedStart(rank, now)))
+                        .build());
+            }
+            return assignments;
+        }
+
+        long[] carIds() {
+            long[] carIds = new long[holders.length + waiting];
+            int count = 0;
+            for (long holder : holders) {
+                if (holder != NO_CAR) {
+                    carIds[count++] = holder;
+                }
+            }
+            System.arraycopy(waitingCars, 0, carIds, count, waiting);
+            return Arrays.copyOf(carIds, count + waiting);
+        }
+
+        private void start(int charger, long carId, long charged, long now) {
+            holders[charger] = carId;
+            sessionStarts[charger] = now;
+            chargedBefore[charger] = charged;
+        }
+
+        private void startNext(int charger, long now) {
+            long carId = waitingCars[0];
+            long charged = waitingCharged[0];
+            removeAt(0);
+            start(charger, carId, charged, now);
+        }
+
+        /**
+         * Due when someone waits and a slice has ended, or a charger is free; never otherwise.
+         */
+        private void scheduleRotation() {
+            long next = NEVER;
+            if (waiting > 0 && sliceMillis != NEVER) {
+                for (int i = 0; i < holders.length; i++) {
+                    next = Math.min(next, holders[i] == NO_CAR ? Long.MIN_VALUE : sessionStarts[i] + sliceMillis);
+                }
+            }
+            nextRotation = next;
+        }
+
+        private int chargerOf(long carId) {
+            for (int i = 0; i < holders.length; i++) {
+                if (holders[i] == carId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int waitlistIndexOf(long carId) {
+            for (int i = 0; i < waiting; i++) {
+                if (waitingCars[i] == carId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void enqueue(long carId, long charged, long now) {
+            if (waiting == waitingCars.length) {
+                int capacity = waiting * 2;
+                waitingCars = Arrays.copyOf(waitingCars, capacity);
+                waitingKeys = Arrays.copyOf(waitingKeys, capacity);
+                waitingOrder = Arrays.copyOf(waitingOrder, capacity);
+                waitingCharged = Arrays.copyOf(waitingCharged, capacity);
+            }
+            set(waiting, carId, fairShare ? charged : now, joined++, charged);
+            siftUp(waiting++);
+        }
+
+        private void removeAt(int index) {
+            int last = --waiting;
+            if (index == last) {
+                return;
+            }
+            set(index, waitingCars[last], waitingKeys[last], waitingOrder[last], waitingCharged[last]);
+            siftDown(index);
+            siftUp(index);
+        }
+
+        private void set(int index, long carId, long key, long order, long charged) {
+            waitingCars[index] = carId;
+            waitingKeys[index] = key;
+            waitingOrder[index] = order;
+            waitingCharged[index] = charged;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!less(index, parent)) {
+                    return;
+                }
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= waiting) {
+                    return;
+                }
+                if (child + 1 < waiting && less(child + 1, child)) {
+                    child++;
+                }
+                if (!less(child, index)) {
+                    return;
+                }
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            return waitingKeys[a] < waitingKeys[b]
+                    || (waitingKeys[a] == waitingKeys[b] && waitingOrder[a] < waitingOrder[b]);
+        }
+
+        private void swap(int a, int b) {
+            swap(waitingCars, a, b);
+            swap(waitingKeys, a, b);
+            swap(waitingOrder, a, b);
+            swap(waitingCharged, a, b);
+        }
+
+        private static void swap(long[] column, int a, int b) {
+            long value = column[a];
+            column[a] = column[b];
+            column[b] = value;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.CursorPageDTO;
+import com.example.carParking.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodes the last primary key of a listing slice as an opaque token, so clients cannot depend
+ * on what the cursor contains.
+ */
+final class KeysetCursor {
+
+    static final int MAX_SIZE = 1000;
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the key to seek after, or {@link Long#MIN_VALUE} when the listing starts from the beginning.
+     */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new InvalidCursorException("Invalid cursor!");
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor!");
+        }
+    }
+
+    static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * Builds a slice from rows fetched with a limit of {@code size + 1}; the extra row only
+     * tells whether another slice follows.
+     */
+    static <T> CursorPageDTO<T> slice(List<T> rows, int size, Function<T, Long> idOf, Long totalElements) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        return CursorPageDTO.<T>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(hasNext ? encode(idOf.apply(content.get(content.size() - 1))) : null)
+                .totalElements(totalElements)
+                .build();
+    }
+}
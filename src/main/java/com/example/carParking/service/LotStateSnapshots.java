@@ -0,0 +1,295 @@
+package com.example.carParking.service;
+
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.repository.CarRepository;
+import com.example.carParking.repository.LotStateSnapshot;
+import com.example.carParking.repository.LotStateSnapshotStore;
+import com.example.carParking.repository.ParkingRepository;
+import com.example.carParking.repository.ParkingSlotRepository;
+import com.example.carParking.service.OccupancyEngine.OccupancyCounts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes periodic {@link LotStateSnapshot}s of lots, slots and car positions and restores the
+ * in-memory lot state from the latest one at startup, so a restart does not scan the cars table
+ * before it admits the first car.
+ * <p>
+ * A snapshot is as old as the last write, so once the application runs every lot is reconciled
+ * with the database in the background: the lot is locked, its counts, occupied slots and charging
+ * cars are read from the database and replace the restored ones unless a request changed the lot meanwhile, in
+ * which case the lot is retried later, with a growing pause between rounds, until it succeeds.
+ * Lots still not reconciled after {@link #ADMIT_UNRECONCILED_ROUNDS} rounds admit no cars until
+ * they are. Lots created after the snapshot are added and deleted ones removed the same way.
+ */
+@Component
+public class LotStateSnapshots implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LotStateSnapshots.class);
+
+    static final int ADMIT_UNRECONCILED_ROUNDS = 10;
+    private static final long RECONCILE_RETRY_MILLIS = 10;
+    private static final long MAX_RECONCILE_RETRY_MILLIS = 1000;
+
+    private final LotStateSnapshotStore lotStateSnapshotStore;
+    private final ParkingRepository parkingRepository;
+    private final CarRepository carRepository;
+    private final ParkingSlotRepository parkingSlotRepository;
+    private final OccupancyEngine occupancyEngine;
+    private final SlotAllocator slotAllocator;
+    private final ChargerScheduler chargerScheduler;
+    private final AvailabilityService availabilityService;
+    private final ParkingLocks parkingLocks;
+    private final WriteBehindAssignments writeBehindAssignments;
+    private final TransactionTemplate captureTransaction;
+    private final TransactionTemplate reconcileTransaction;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Path path;
+
+    private volatile boolean running;
+    private volatile long[] restoredParkingIds;
+    private Thread reconciler;
+
+    public LotStateSnapshots(LotStateSnapshotStore lotStateSnapshotStore, ParkingRepository parkingRepository,
+                             CarRepository carRepository, ParkingSlotRepository parkingSlotRepository,
+                             OccupancyEngine occupancyEngine, SlotAllocator slotAllocator,
+                             ChargerScheduler chargerScheduler, AvailabilityService availabilityService,
+                             ParkingLocks parkingLocks, WriteBehindAssignments writeBehindAssignments,
+                             PlatformTransactionManager transactionManager, Clock clock,
+                             @Value("${carparking.snapshot.enabled:false}") boolean enabled,
+                             @Value("${carparking.snapshot.path:data/lot-state.snapshot}") Path path) {
+        this.lotStateSnapshotStore = lotStateSnapshotStore;
+        this.parkingRepository = parkingRepository;
+        this.carRepository = carRepository;
+        this.parkingSlotRepository = parkingSlotRepository;
+        this.occupancyEngine = occupancyEngine;
+        this.slotAllocator = slotAllocator;
+        this.chargerScheduler = chargerScheduler;
+        this.availabilityService = availabilityService;
+        this.parkingLocks = parkingLocks;
+        this.writeBehindAssignments = writeBehindAssignments;
+        // The three tables must be read at the same point in time.
+        this.captureTransaction = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        if (captureTransaction != null) {
+            captureTransaction.setReadOnly(true);
+            captureTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        }
+        this.reconcileTransaction = transactionManager == null ? null : new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.enabled = enabled;
+        this.path = path;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(fixedDelayString = "${carparking.snapshot.interval:PT5M}",
+            initialDelayString = "${carparking.snapshot.interval:PT5M}")
+    public void writePeriodically() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            write();
+        } catch (RuntimeException e) {
+            logger.error("Failed to write lot state snapshot {}", path, e);
+        }
+    }
+
+    /**
+     * Captures the current database state and replaces the snapshot file with it. Assignments
+     * still waiting in write-behind mode are written first.
+     */
+    public synchronized void write() {
+        long started = System.nanoTime();
+        writeBehindAssignments.settleAll();
+        LotStateSnapshot snapshot = captureTransaction.execute(status -> lotStateSnapshotStore.capture(clock.millis()));
+        snapshot.write(path);
+        logger.info("Wrote lot state snapshot of {} cars in {} ms", snapshot.getCarCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Restores the occupancy counts, slot occupancy and availability of every lot from the
+     * snapshot file.
+     *
+     * @return {@code false} when snapshots are disabled or there is no intact snapshot, so the
+     * caller has to load from the database
+     */
+    public boolean load() {
+        if (!enabled || !Files.exists(path)) {
+            return false;
+        }
+        long started = System.nanoTime();
+        LotStateSnapshot snapshot;
+        try {
+            snapshot = LotStateSnapshot.read(path);
+        } catch (IllegalStateException e) {
+            logger.warn("Ignoring lot state snapshot: {}", e.getMessage());
+            return false;
+        }
+        occupancyEngine.rebuild(snapshot.countParkedCarsByParkingAndFuelType());
+        slotAllocator.rebuild(snapshot.slots(), snapshot.findOccupiedSlotIds());
+        List<ParkingEntity> parkings = snapshot.parkings();
+        chargerScheduler.rebuild(parkings, snapshot.findParkedCarsByFuelType(FuelType.ELECTRIC));
+        availabilityService.reload(parkings);
+        restoredParkingIds = snapshot.parkingIds();
+        logger.info("Restored lot state of {} cars from snapshot taken at {} in {} ms", snapshot.getCarCount(),
+                snapshot.getCreatedAt(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return true;
+    }
+
+    /**
+     * Reconciles every lot of the restored snapshot and of the database, retrying lots that are
+     * busy until every lot is done or the thread is interrupted. Runs on the reconciler thread
+     * after {@link #load()}; callable directly as well.
+     */
+    public void reconcile() {
+        long[] restored = restoredParkingIds;
+        TreeSet<Long> parkingIds = new TreeSet<>(parkingRepository.findAllIds());
+        if (restored != null) {
+            Arrays.stream(restored).forEach(parkingIds::add);
+        }
+        List<Long> remaining = new ArrayList<>(parkingIds);
+        long retryMillis = RECONCILE_RETRY_MILLIS;
+        for (int round = 1; !remaining.isEmpty(); round++) {
+            List<Long> busy = new ArrayList<>();
+            for (Long parkingId : remaining) {
+                if (reconcileLotLogged(parkingId)) {
+                    occupancyEngine.markReconciled(parkingId);
+                } else {
+                    busy.add(parkingId);
+                }
+            }
+            remaining = busy;
+            if (round == ADMIT_UNRECONCILED_ROUNDS && !busy.isEmpty()) {
+                logger.warn("{} parkings are not reconciled after {} rounds, refusing admissions to them until they are: {}",
+                        busy.size(), round, busy);
+                busy.forEach(occupancyEngine::markUnreconciled);
+            }
+            if (remaining.isEmpty() || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            retryMillis = Math.min(retryMillis * 2, MAX_RECONCILE_RETRY_MILLIS);
+        }
+        if (!remaining.isEmpty()) {
+            logger.warn("Stopped reconciling with {} parkings left: {}", remaining.size(), remaining);
+            return;
+        }
+        restoredParkingIds = null;
+        logger.info("Reconciled {} parkings with the database", parkingIds.size());
+    }
+
+    private boolean reconcileLotLogged(Long parkingId) {
+        try {
+            return Boolean.TRUE.equals(reconcileTransaction.execute(status -> reconcileLot(parkingId)));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to reconcile parking with ID: {}, retrying", parkingId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Holding the lot lock keeps cars from being parked in the lot and its profile and layout
+     * from changing. Cars leaving it do not take the lock, which the unchanged counts detect.
+     */
+    private boolean reconcileLot(Long parkingId) {
+        parkingLocks.lockUntilCompletion(parkingId);
+        OccupancyCounts expected = occupancyEngine.getCounts(parkingId);
+        if (!occupancyEngine.isUnchanged(parkingId, expected)) {
+            return false;
+        }
+        // Moves committed before the counts were read must be in the database when it is counted.
+        writeBehindAssignments.settleAll();
+        Optional<ParkingEntity> parking = parkingRepository.findById(parkingId);
+        if (parking.isEmpty()) {
+            if (availabilityService.findAvailability(parkingId) != null) {
+                logger.info("Removing parking with ID: {} deleted after the snapshot", parkingId);
+                occupancyEngine.remove(parkingId);
+                slotAllocator.remove(parkingId);
+                chargerScheduler.remove(parkingId);
+                availabilityService.removeLot(parkingId);
+            }
+            return true;
+        }
+        List<Long> occupiedSlotIds = carRepository.findOccupiedSlotIdsByParkingId(parkingId);
+        if (!slotAllocator.reconcile(parkingId, parkingSlotRepository.findByParkingIdOrderById(parkingId),
+                occupiedSlotIds, () -> occupancyEngine.isUnchanged(parkingId, expected))) {
+            return false;
+        }
+        if (!occupancyEngine.reconcile(parkingId, expected, carRepository.countParkedCarsByFuelType(parkingId))) {
+            return false;
+        }
+        chargerScheduler.reconcile(parkingId, parking.get().getNumberOfChargers(),
+                carRepository.findParkedCarsByParkingIdAndFuelType(parkingId, FuelType.ELECTRIC));
+        availabilityService.updateLot(parking.get());
+        return true;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled || restoredParkingIds == null) {
+            return;
+        }
+        reconciler = new Thread(this::reconcileLogged, "lot-state-reconciler");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+
+    /**
+     * Writes a last snapshot, so a clean restart restores exactly the state it stopped with.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (reconciler != null) {
+            reconciler.interrupt();
+            try {
+                reconciler.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        writePeriodically();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void reconcileLogged() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            logger.error("Failed to reconcile restored lot state with the database", e);
+        }
+    }
+}
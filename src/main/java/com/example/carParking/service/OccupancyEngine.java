@@ -0,0 +1,324 @@
+package com.example.carParking.service;
+
+import com.example.carParking.model.FuelType;
+import com.example.carParking.repository.ParkedCarsCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps per-parking occupancy counters in memory so admission checks do not have to load
+ * the {@code cars} collection. Every lot holds an immutable {@link OccupancyCounts} that is
+ * replaced with a compare-and-set, so updates never block.
+ * <p>
+ * Changes made inside a transaction are undone automatically if that transaction rolls back.
+ * Registered {@link Listener}s are told which lot changed after every successful update.
+ * <p>
+ * Every lot also counts the transactions that touched it and have not completed, so counts read
+ * from the database can be {@link #reconcile reconciled} only while they agree with memory. Lots
+ * whose counts could not be reconciled for a while are {@link #markUnreconciled marked}, and admit
+ * no cars until they are.
+ */
+@Component
+public class OccupancyEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyEngine.class);
+
+    private final ConcurrentMap<Long, AtomicReference<OccupancyCounts>> lots = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, AtomicInteger> uncommitted = new ConcurrentHashMap<>();
+
+    private final Set<Long> unreconciled = ConcurrentHashMap.newKeySet();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Called on the updating thread after the counts of a lot changed. Calls for the same lot may
+     * arrive out of order, so listeners should read {@link #getCounts(Long)} instead of tracking deltas.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void occupancyChanged(Long parkingId);
+    }
+
+    public enum Admission {
+        ADMITTED,
+        NO_FREE_CHARGERS,
+        NO_FREE_SPACE,
+        NOT_RECONCILED
+    }
+
+    public Admission tryAdmit(Long parkingId, FuelType fuelType, int totalSpaces, int numberOfChargers) {
+        if (unreconciled.contains(parkingId)) {
+            return Admission.NOT_RECONCILED;
+        }
+        trackUntilCompletion(parkingId);
+        AtomicReference<OccupancyCounts> lot = lot(parkingId);
+        while (true) {
+            OccupancyCounts current = lot.get();
+            if (fuelType == FuelType.ELECTRIC && current.getCount(FuelType.ELECTRIC) >= numberOfChargers) {
+                return Admission.NO_FREE_CHARGERS;
+            }
+            if (current.getTotal() >= totalSpaces) {
+                return Admission.NO_FREE_SPACE;
+            }
+            if (lot.compareAndSet(current, current.plus(fuelType))) {
+                notifyListeners(parkingId);
+                onRollback(() -> update(parkingId, fuelType, -1));
+                return Admission.ADMITTED;
+            }
+        }
+    }
+
+    public void release(Long parkingId, FuelType fuelType) {
+        trackUntilCompletion(parkingId);
+        update(parkingId, fuelType, -1);
+        onRollback(() -> update(parkingId, fuelType, 1));
+    }
+
+    public Admission tryChangeFuelType(Long parkingId, FuelType from, FuelType to, int numberOfChargers) {
+        if (from == to) {
+            return Admission.ADMITTED;
+        }
+        trackUntilCompletion(parkingId);
+        AtomicReference<OccupancyCounts> lot = lot(parkingId);
+        while (true) {
+            OccupancyCounts current = lot.get();
+            if (to == FuelType.ELECTRIC && current.getCount(FuelType.ELECTRIC) >= numberOfChargers) {
+                return Admission.NO_FREE_CHARGERS;
+            }
+            if (lot.compareAndSet(current, current.minus(from).plus(to))) {
+                warnOnUnderflow(parkingId, current, from, -1);
+                notifyListeners(parkingId);
+                onRollback(() -> {
+                    update(parkingId, to, -1);
+                    update(parkingId, from, 1);
+                });
+                return Admission.ADMITTED;
+            }
+        }
+    }
+
+    public OccupancyCounts getCounts(Long parkingId) {
+        AtomicReference<OccupancyCounts> lot = lots.get(parkingId);
+        return lot != null ? lot.get() : OccupancyCounts.EMPTY;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void register(Long parkingId) {
+        lot(parkingId);
+    }
+
+    /**
+     * Refuses admissions to the lot until {@link #markReconciled}, as its counts may be stale.
+     */
+    public void markUnreconciled(Long parkingId) {
+        unreconciled.add(parkingId);
+    }
+
+    public void markReconciled(Long parkingId) {
+        unreconciled.remove(parkingId);
+    }
+
+    public void remove(Long parkingId) {
+        afterCommit(() -> {
+            lots.remove(parkingId);
+            uncommitted.remove(parkingId);
+            unreconciled.remove(parkingId);
+            notifyListeners(parkingId);
+        });
+    }
+
+    public void rebuild(Collection<? extends ParkedCarsCount> parkedCars) {
+        lots.clear();
+        unreconciled.clear();
+        for (ParkedCarsCount count : parkedCars) {
+            lot(count.getParkingId()).updateAndGet(current ->
+                    current.plus(count.getFuelType(), Math.toIntExact(count.getCarCount())));
+        }
+        lots.keySet().forEach(this::notifyListeners);
+        logger.info("Rebuilt occupancy for {} parkings", lots.size());
+    }
+
+    /**
+     * Tells whether the counts of a lot are still {@code expected} and no transaction that changed
+     * them is still running, so every change they reflect is committed.
+     */
+    public boolean isUnchanged(Long parkingId, OccupancyCounts expected) {
+        AtomicInteger running = uncommitted.get(parkingId);
+        return (running == null || running.get() == 0) && getCounts(parkingId) == expected;
+    }
+
+    /**
+     * Replaces the counts of a lot with ones counted in the database after {@code expected} was
+     * read. Fails without changing anything when the lot changed in the meantime, in which case
+     * the caller should count again later.
+     */
+    public boolean reconcile(Long parkingId, OccupancyCounts expected, Collection<? extends ParkedCarsCount> committed) {
+        int[] counts = new int[FuelType.values().length];
+        for (ParkedCarsCount count : committed) {
+            counts[count.getFuelType().ordinal()] += Math.toIntExact(count.getCarCount());
+        }
+        OccupancyCounts actual = new OccupancyCounts(counts, Arrays.stream(counts).sum());
+        if (!isUnchanged(parkingId, expected)) {
+            return false;
+        }
+        if (actual.equals(expected)) {
+            return true;
+        }
+        if (!lot(parkingId).compareAndSet(expected, actual)) {
+            return false;
+        }
+        logger.warn("Corrected occupancy of parking with ID: {} from {} to {}", parkingId, expected, actual);
+        notifyListeners(parkingId);
+        return true;
+    }
+
+    private void update(Long parkingId, FuelType fuelType, int delta) {
+        OccupancyCounts previous = lot(parkingId).getAndUpdate(current -> current.plus(fuelType, delta));
+        warnOnUnderflow(parkingId, previous, fuelType, delta);
+        notifyListeners(parkingId);
+    }
+
+    /**
+     * A count dropping below zero means memory lost track of the lot; the count stays at zero
+     * until the lot is reconciled with the database.
+     */
+    private static void warnOnUnderflow(Long parkingId, OccupancyCounts previous, FuelType fuelType, int delta) {
+        if (previous.getCount(fuelType) + delta < 0) {
+            logger.warn("Occupancy of parking with ID: {} would drop below zero for {} cars, keeping {} at zero",
+                    parkingId, fuelType, previous);
+        }
+    }
+
+    private void notifyListeners(Long parkingId) {
+        for (Listener listener : listeners) {
+            listener.occupancyChanged(parkingId);
+        }
+    }
+
+    private AtomicReference<OccupancyCounts> lot(Long parkingId) {
+        return lots.computeIfAbsent(parkingId, id -> new AtomicReference<>(OccupancyCounts.EMPTY));
+    }
+
+    /**
+     * Counted before the lot's counts change, so a reader never sees the change without also
+     * seeing the transaction as running.
+     */
+    private void trackUntilCompletion(Long parkingId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        AtomicInteger running = uncommitted.computeIfAbsent(parkingId, id -> new AtomicInteger());
+        running.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                running.decrementAndGet();
+            }
+        });
+    }
+
+    private static void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Counts are restored before the transaction's lot locks are released, so the next
+            // admission never sees a space freed by a rolled-back unpark.
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public static final class OccupancyCounts {
+
+        public static final OccupancyCounts EMPTY = new OccupancyCounts(new int[FuelType.values().length], 0);
+
+        private final int[] byFuelType;
+        private final int total;
+
+        private OccupancyCounts(int[] byFuelType, int total) {
+            this.byFuelType = byFuelType;
+            this.total = total;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getCount(FuelType fuelType) {
+            return byFuelType[fuelType.ordinal()];
+        }
+
+        OccupancyCounts plus(FuelType fuelType) {
+            return plus(fuelType, 1);
+        }
+
+        OccupancyCounts minus(FuelType fuelType) {
+            return plus(fuelType, -1);
+        }
+
+        /**
+         * Counts never drop below zero; callers warn when they would.
+         */
+        OccupancyCounts plus(FuelType fuelType, int delta) {
+            int[] counts = Arrays.copyOf(byFuelType, byFuelType.length);
+            counts[fuelType.ordinal()] = Math.max(0, counts[fuelType.ordinal()] + delta);
+            return new OccupancyCounts(counts, total - byFuelType[fuelType.ordinal()] + counts[fuelType.ordinal()]);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof OccupancyCounts other && total == other.total && Arrays.equals(byFuelType, other.byFuelType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * total + Arrays.hashCode(byFuelType);
+        }
+
+        @Override
+        public String toString() {
+            return "OccupancyCounts{total=" + total + ", byFuelType=" + Arrays.toString(byFuelType) + '}';
+        }
+    }
+}
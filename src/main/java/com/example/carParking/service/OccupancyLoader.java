@@ -0,0 +1,67 @@
+package com.example.carParking.service;
+
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.repository.CarRepository;
+import com.example.carParking.repository.ParkingRepository;
+import com.example.carParking.repository.ParkingSlotRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills the {@link OccupancyEngine}, the {@link SlotAllocator}, the {@link ChargerScheduler}, the
+ * {@link ReservationIndex} and the {@link AvailabilityService} from the database once all beans are created, before the web
+ * server starts accepting requests. The cars table is the only source of occupancy; the parking
+ * session log is history for analytics and may miss events. With
+ * {@code carparking.snapshot.enabled} an intact {@link LotStateSnapshots snapshot} replaces the counting and
+ * is reconciled with the database once the application runs. Car assignments left in the
+ * write-behind log by a crash are written to the database first.
+ */
+@Component
+public class OccupancyLoader implements SmartInitializingSingleton {
+
+    private final OccupancyEngine occupancyEngine;
+    private final CarRepository carRepository;
+    private final ParkingRepository parkingRepository;
+    private final AvailabilityService availabilityService;
+    private final ParkingSlotRepository parkingSlotRepository;
+    private final SlotAllocator slotAllocator;
+    private final ChargerScheduler chargerScheduler;
+    private final WriteBehindAssignments writeBehindAssignments;
+    private final LotStateSnapshots lotStateSnapshots;
+    private final ReservationService reservationService;
+
+    public OccupancyLoader(OccupancyEngine occupancyEngine, CarRepository carRepository,
+                           ParkingRepository parkingRepository, AvailabilityService availabilityService,
+                           ParkingSlotRepository parkingSlotRepository, SlotAllocator slotAllocator,
+                           ChargerScheduler chargerScheduler,
+                           WriteBehindAssignments writeBehindAssignments, LotStateSnapshots lotStateSnapshots,
+                           ReservationService reservationService) {
+        this.occupancyEngine = occupancyEngine;
+        this.carRepository = carRepository;
+        this.parkingRepository = parkingRepository;
+        this.availabilityService = availabilityService;
+        this.parkingSlotRepository = parkingSlotRepository;
+        this.slotAllocator = slotAllocator;
+        this.chargerScheduler = chargerScheduler;
+        this.writeBehindAssignments = writeBehindAssignments;
+        this.lotStateSnapshots = lotStateSnapshots;
+        this.reservationService = reservationService;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        writeBehindAssignments.recover();
+        reservationService.reload();
+        if (lotStateSnapshots.load()) {
+            return;
+        }
+        occupancyEngine.rebuild(carRepository.countParkedCarsByParkingAndFuelType());
+        slotAllocator.rebuild(parkingSlotRepository.findAll(), carRepository.findOccupiedSlotIds());
+        List<ParkingEntity> parkings = parkingRepository.findAll();
+        chargerScheduler.rebuild(parkings, carRepository.findParkedCarsByFuelType(FuelType.ELECTRIC));
+        availabilityService.reload(parkings);
+    }
+}
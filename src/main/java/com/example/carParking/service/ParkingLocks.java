@@ -0,0 +1,94 @@
+package com.example.carParking.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped in-JVM locks keyed by parking id. A lock taken with {@link #lockUntilCompletion(Long)}
+ * is held until the surrounding transaction commits or rolls back, so concurrent admissions to
+ * the same lot are serialized while different lots proceed in parallel. A separate set of stripes
+ * keyed by car id serializes changes to one car where no database row lock does it.
+ * <p>
+ * The locks only cover this JVM. Several instances sharing a database each admit against their
+ * own counts, so the capacity of a lot only holds when a single instance serves it.
+ */
+@Component
+public class ParkingLocks {
+
+    private final ReentrantLock[] stripes;
+
+    private final ReentrantLock[] carStripes;
+
+    public ParkingLocks(@Value("${carparking.locks.stripes:64}") int numberOfStripes) {
+        if (numberOfStripes <= 0) {
+            throw new IllegalArgumentException("Number of lock stripes must be positive");
+        }
+        this.stripes = newStripes(numberOfStripes);
+        this.carStripes = newStripes(numberOfStripes);
+    }
+
+    /**
+     * Locks the stripe of the given parking until the current transaction completes.
+     * Outside a transaction there is no commit to wait for, so nothing is locked.
+     */
+    public void lockUntilCompletion(Long parkingId) {
+        lockUntilCompletion(stripes[stripeIndex(parkingId)]);
+    }
+
+    /**
+     * Locks the stripes of the given parkings until the current transaction completes. Stripes
+     * are taken in index order, so a transaction that needs several lots has to lock all of them
+     * with one call; two such transactions then cannot deadlock.
+     */
+    public void lockUntilCompletion(Collection<Long> parkingIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        new TreeSet<>(parkingIds.stream().map(this::stripeIndex).toList())
+                .forEach(index -> lockUntilCompletion(stripes[index]));
+    }
+
+    /**
+     * Locks the stripes of the given cars until the current transaction completes. Stripes are
+     * taken in index order, so two transactions locking overlapping sets of cars cannot deadlock.
+     * Car locks are always taken before parking locks.
+     */
+    public void lockCarsUntilCompletion(Collection<Long> carIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        new TreeSet<>(carIds.stream().map(this::stripeIndex).toList())
+                .forEach(index -> lockUntilCompletion(carStripes[index]));
+    }
+
+    private static void lockUntilCompletion(ReentrantLock lock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int stripeIndex(Long id) {
+        return Math.floorMod(Long.hashCode(id) * 0x9E3779B9, stripes.length);
+    }
+
+    private static ReentrantLock[] newStripes(int numberOfStripes) {
+        ReentrantLock[] locks = new ReentrantLock[numberOfStripes];
+        for (int i = 0; i < numberOfStripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
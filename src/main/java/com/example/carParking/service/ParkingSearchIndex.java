@@ -0,0 +1,324 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.ParkingAvailabilityDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongPredicate;
+import java.util.function.LongToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory index of parking locations used to find lots a car can use. Lots are kept in a grid
+ * of {@value #CELL_DEGREES}-degree cells, so a nearest-lot query only visits cells around the
+ * query point. Inside a cell lots are partitioned by what they accept (LPG, chargers) and sorted by
+ * space width, widest first, so lots a car cannot use are skipped without being looked at.
+ * <p>
+ * Cells are immutable and replaced on change; reads never lock. The grid does not wrap around the
+ * antimeridian.
+ */
+@Component
+public class ParkingSearchIndex {
+
+    static final double CELL_DEGREES = 0.01;
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private static final int LPG = 1;
+    private static final int CHARGERS = 2;
+    private static final int PARTITIONS = 4;
+
+    private static final long UNLOCATED = Long.MIN_VALUE;
+
+    private final ConcurrentMap<Long, Cell> cells = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, Lot> lots = new ConcurrentHashMap<>();
+
+    private volatile Bounds bounds;
+
+    /**
+     * A lot returned by {@link #search}; {@code distanceKm} is {@link Double#NaN} when the query or
+     * the lot has no location.
+     */
+    public record Match(long parkingId, double distanceKm) {
+    }
+
+    public synchronized void put(ParkingAvailabilityDTO profile) {
+        Lot lot = new Lot(profile.getParkingId(), profile.getLatitude(), profile.getLongitude(),
+                profile.getWidthOfParkingSpace(), profile.isLpgAllowed(), profile.getNumberOfChargers() > 0);
+        Lot previous = lots.put(lot.parkingId, lot);
+        if (previous != null) {
+            cells.computeIfPresent(previous.cellKey, (key, cell) -> cell.without(previous));
+        }
+        cells.compute(lot.cellKey, (key, cell) -> (cell == null ? Cell.EMPTY : cell).with(lot));
+        if (lot.located) {
+            bounds = Bounds.including(bounds, cellY(lot.latitude), cellX(lot.longitude));
+        }
+    }
+
+    public synchronized void remove(Long parkingId) {
+        Lot previous = lots.remove(parkingId);
+        if (previous != null) {
+            cells.computeIfPresent(previous.cellKey, (key, cell) -> cell.without(previous));
+        }
+    }
+
+    public synchronized void clear() {
+        lots.clear();
+        cells.clear();
+        bounds = null;
+    }
+
+    public int size() {
+        return lots.size();
+    }
+
+    /**
+     * Returns up to {@code limit} lots that can take a car of the given width and needs and for which
+     * {@code available} holds. With a location the nearest lots come first, followed by lots without
+     * a location; without one the lots with most free spaces come first.
+     */
+    public List<Match> search(double carWidth, boolean needsLpg, boolean needsCharger, Double latitude, Double longitude,
+                              int limit, LongPredicate available, LongToIntFunction freeSpaces) {
+        Query query = new Query(carWidth, needsLpg, needsCharger, available, limit);
+        if (latitude == null || longitude == null) {
+            return query.mostFreeSpaces(cells.values(), freeSpaces);
+        }
+        List<Match> matches = query.nearest(latitude, longitude);
+        Cell unlocated = cells.get(UNLOCATED);
+        if (matches.size() < limit && unlocated != null) {
+            matches = new ArrayList<>(matches);
+            matches.addAll(new Query(carWidth, needsLpg, needsCharger, available, limit - matches.size())
+                    .mostFreeSpaces(List.of(unlocated), freeSpaces));
+        }
+        return matches;
+    }
+
+    private static int cellY(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static int cellX(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static long cellKey(int cellY, int cellX) {
+        return ((long) cellY << 32) | (cellX & 0xFFFFFFFFL);
+    }
+
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private final class Query {
+
+        private final double carWidth;
+        private final int[] partitions;
+        private final LongPredicate available;
+        private final int limit;
+
+        private Query(double carWidth, boolean needsLpg, boolean needsCharger, LongPredicate available, int limit) {
+            this.carWidth = carWidth;
+            this.partitions = IntStream.range(0, PARTITIONS)
+                    .filter(partition -> (!needsLpg || (partition & LPG) != 0)
+                            && (!needsCharger || (partition & CHARGERS) != 0))
+                    .toArray();
+            this.available = available;
+            this.limit = limit;
+        }
+
+        /**
+         * Visits rings of cells around the query cell until the {@code limit} nearest matches are
+         * known. Once more cells have been looked up than there are lots, which happens when lots
+         * are sparse around the query point, scanning all lots is cheaper.
+         */
+        List<Match> nearest(double latitude, double longitude) {
+            Bounds current = bounds;
+            if (current == null) {
+                return List.of();
+            }
+            PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::distanceKm).reversed());
+            int centerY = cellY(latitude);
+            int centerX = cellX(longitude);
+            int maxRing = current.maxRing(centerY, centerX);
+            long lookups = 0;
+            for (int ring = 0; ring <= maxRing; ring++) {
+                lookups += ring == 0 ? 1 : 8L * ring;
+                if (lookups > lots.size()) {
+                    best.clear();
+                    cells.forEach((key, cell) -> {
+                        if (key != UNLOCATED) {
+                            offerAll(best, cell, latitude, longitude);
+                        }
+                    });
+                    break;
+                }
+                for (int dy = -ring; dy <= ring; dy++) {
+                    int step = Math.abs(dy) == ring ? 1 : 2 * ring;
+                    for (int dx = -ring; dx <= ring; dx += step) {
+                        Cell cell = cells.get(cellKey(centerY + dy, centerX + dx));
+                        if (cell != null) {
+                            offerAll(best, cell, latitude, longitude);
+                        }
+                    }
+                }
+                if (best.size() == limit
+                        && best.peek().distanceKm() <= ringLowerBoundKm(ring, centerY, centerX, latitude, longitude)) {
+                    break;
+                }
+            }
+            List<Match> matches = new ArrayList<>(best);
+            matches.sort(Comparator.comparingDouble(Match::distanceKm));
+            return matches;
+        }
+
+        List<Match> mostFreeSpaces(Collection<Cell> scanned, LongToIntFunction freeSpaces) {
+            Comparator<Lot> byFreeSpaces = Comparator.comparingInt((Lot lot) -> freeSpaces.applyAsInt(lot.parkingId))
+                    .thenComparing(lot -> -lot.parkingId);
+            PriorityQueue<Lot> best = new PriorityQueue<>(byFreeSpaces);
+            for (Cell cell : scanned) {
+                for (int partition : partitions) {
+                    for (Lot lot : cell.partitions[partition]) {
+                        if (lot.width < carWidth) {
+                            break;
+                        }
+                        if (!available.test(lot.parkingId)) {
+                            continue;
+                        }
+                        if (best.size() < limit) {
+                            best.add(lot);
+                        } else if (byFreeSpaces.compare(lot, best.peek()) > 0) {
+                            best.poll();
+                            best.add(lot);
+                        }
+                    }
+                }
+            }
+            List<Lot> sorted = new ArrayList<>(best);
+            sorted.sort(byFreeSpaces.reversed());
+            return sorted.stream().map(lot -> new Match(lot.parkingId, Double.NaN)).toList();
+        }
+
+        /**
+         * Offers every usable lot of a cell; availability is only checked for lots close enough to
+         * make the list, since it is the more expensive test.
+         */
+        private void offerAll(PriorityQueue<Match> best, Cell cell, double latitude, double longitude) {
+            for (int partition : partitions) {
+                for (Lot lot : cell.partitions[partition]) {
+                    if (lot.width < carWidth) {
+                        break;
+                    }
+                    double distance = distanceKm(latitude, longitude, lot.latitude, lot.longitude);
+                    if (best.size() == limit && distance >= best.peek().distanceKm()) {
+                        continue;
+                    }
+                    if (!available.test(lot.parkingId)) {
+                        continue;
+                    }
+                    if (best.size() == limit) {
+                        best.poll();
+                    }
+                    best.add(new Match(lot.parkingId, distance));
+                }
+            }
+        }
+
+        /**
+         * Every lot outside the cells visited up to {@code ring} is at least this far from the query
+         * point: the distance to the nearest edge of the visited block, with longitude degrees
+         * shortened for the most poleward latitude the block reaches.
+         */
+        private double ringLowerBoundKm(int ring, int centerY, int centerX, double latitude, double longitude) {
+            double latitudeMargin = Math.min(latitude - (centerY - ring) * CELL_DEGREES,
+                    (centerY + ring + 1) * CELL_DEGREES - latitude);
+            double longitudeMargin = Math.min(longitude - (centerX - ring) * CELL_DEGREES,
+                    (centerX + ring + 1) * CELL_DEGREES - longitude);
+            double farthestLatitude = Math.min(90, Math.abs(latitude) + latitudeMargin + CELL_DEGREES);
+            return Math.min(latitudeMargin, longitudeMargin * Math.cos(Math.toRadians(farthestLatitude))) * KM_PER_DEGREE;
+        }
+    }
+
+    /**
+     * Cells that ever held a located lot; ring expansion never needs to go past them.
+     */
+    private record Bounds(int minCellY, int maxCellY, int minCellX, int maxCellX) {
+
+        static Bounds including(Bounds bounds, int cellY, int cellX) {
+            if (bounds == null) {
+                return new Bounds(cellY, cellY, cellX, cellX);
+            }
+            return new Bounds(Math.min(bounds.minCellY, cellY), Math.max(bounds.maxCellY, cellY),
+                    Math.min(bounds.minCellX, cellX), Math.max(bounds.maxCellX, cellX));
+        }
+
+        int maxRing(int cellY, int cellX) {
+            return Math.max(Math.max(Math.abs(cellY - minCellY), Math.abs(cellY - maxCellY)),
+                    Math.max(Math.abs(cellX - minCellX), Math.abs(cellX - maxCellX)));
+        }
+    }
+
+    private static final class Cell {
+
+        private static final Comparator<Lot> WIDEST_FIRST = Comparator.comparingDouble((Lot lot) -> lot.width).reversed();
+
+        static final Cell EMPTY = new Cell(new Lot[PARTITIONS][0]);
+
+        private final Lot[][] partitions;
+
+        private Cell(Lot[][] partitions) {
+            this.partitions = partitions;
+        }
+
+        Cell with(Lot lot) {
+            Lot[][] copy = partitions.clone();
+            Lot[] partition = Arrays.copyOf(partitions[lot.partition], partitions[lot.partition].length + 1);
+            partition[partition.length - 1] = lot;
+            Arrays.sort(partition, WIDEST_FIRST);
+            copy[lot.partition] = partition;
+            return new Cell(copy);
+        }
+
+        /**
+         * Returns {@code null} when the cell becomes empty, which drops it from the grid.
+         */
+        Cell without(Lot lot) {
+            Lot[][] copy = partitions.clone();
+            copy[lot.partition] = Arrays.stream(partitions[lot.partition])
+                    .filter(other -> other != lot)
+                    .toArray(Lot[]::new);
+            return Arrays.stream(copy).allMatch(partition -> partition.length == 0) ? null : new Cell(copy);
+        }
+    }
+
+    private static final class Lot {
+
+        private final long parkingId;
+        private final boolean located;
+        private final double latitude;
+        private final double longitude;
+        private final double width;
+        private final int partition;
+        private final long cellKey;
+
+        private Lot(long parkingId, Double latitude, Double longitude, double width, boolean lpgAllowed,
+                    boolean hasChargers) {
+            this.parkingId = parkingId;
+            this.located = latitude != null && longitude != null;
+            this.latitude = located ? latitude : 0;
+            this.longitude = located ? longitude : 0;
+            this.width = width;
+            this.partition = (lpgAllowed ? LPG : 0) | (hasChargers ? CHARGERS : 0);
+            this.cellKey = located ? cellKey(cellY(this.latitude), cellX(this.longitude)) : UNLOCATED;
+        }
+    }
+}
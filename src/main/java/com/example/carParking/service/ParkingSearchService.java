@@ -0,0 +1,101 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.ParkingAvailabilityDTO;
+import com.example.carParking.dto.ParkingSearchResultDTO;
+import com.example.carParking.exceptions.InvalidSearchException;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.service.ParkingSearchIndex.Match;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Finds lots a car can park in right now. Static eligibility (LPG, chargers, width) and distance
+ * come from {@link ParkingSearchIndex}; free spaces, free chargers and free slots are checked
+ * against the in-memory availability while the index is walked, so a search never hits the database
+ * once the car is cached.
+ */
+@Service
+public class ParkingSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParkingSearchService.class);
+
+    static final int MAX_LIMIT = 50;
+
+    private final ParkingSearchIndex searchIndex;
+    private final AvailabilityService availabilityService;
+    private final OccupancyEngine occupancyEngine;
+    private final ChargerScheduler chargerScheduler;
+    private final SlotAllocator slotAllocator;
+    private final CachedLookupService cachedLookupService;
+
+    public ParkingSearchService(ParkingSearchIndex searchIndex, AvailabilityService availabilityService,
+                                OccupancyEngine occupancyEngine, ChargerScheduler chargerScheduler,
+                                SlotAllocator slotAllocator, CachedLookupService cachedLookupService) {
+        this.searchIndex = searchIndex;
+        this.availabilityService = availabilityService;
+        this.occupancyEngine = occupancyEngine;
+        this.chargerScheduler = chargerScheduler;
+        this.slotAllocator = slotAllocator;
+        this.cachedLookupService = cachedLookupService;
+    }
+
+    public List<ParkingSearchResultDTO> search(Long carId, Double latitude, Double longitude, int limit) {
+        if ((latitude == null) != (longitude == null)) {
+            logger.error("Search for car with ID: {} has only one coordinate", carId);
+            throw new InvalidSearchException("Latitude and longitude must be given together!");
+        }
+        if (latitude != null && (Math.abs(latitude) > 90 || Math.abs(longitude) > 180)) {
+            logger.error("Search for car with ID: {} has invalid coordinates", carId);
+            throw new InvalidSearchException("Latitude must be within [-90, 90] and longitude within [-180, 180]!");
+        }
+        CarDTO car = cachedLookupService.getCar(carId);
+        FuelType fuelType = car.getFuelType();
+        double width = car.getWidth();
+        boolean electric = fuelType == FuelType.ELECTRIC;
+        int clampedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        List<Match> matches = searchIndex.search(width, fuelType == FuelType.LPG, electric, latitude, longitude,
+                clampedLimit,
+                parkingId -> {
+                    ParkingAvailabilityDTO availability = availabilityService.findAvailability(parkingId);
+                    return availability != null && availability.getFreeSpaces() > 0
+                            && (!electric || chargerScheduler.admitsElectricCar(availability.getNumberOfChargers(),
+                                    occupancyEngine.getCounts(parkingId).getCount(FuelType.ELECTRIC)))
+                            && slotAllocator.hasFreeSlot(parkingId, fuelType, width);
+                },
+                parkingId -> {
+                    ParkingAvailabilityDTO availability = availabilityService.findAvailability(parkingId);
+                    return availability == null ? 0 : availability.getFreeSpaces();
+                });
+        return matches.stream()
+                .map(this::toResult)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Returns {@code null} for a lot deleted since it was matched.
+     */
+    private ParkingSearchResultDTO toResult(Match match) {
+        ParkingAvailabilityDTO availability = availabilityService.findAvailability(match.parkingId());
+        if (availability == null) {
+            return null;
+        }
+        return ParkingSearchResultDTO.builder()
+                .parkingId(availability.getParkingId())
+                .name(availability.getName())
+                .distanceKm(Double.isNaN(match.distanceKm()) ? null : match.distanceKm())
+                .freeSpaces(availability.getFreeSpaces())
+                .freeChargers(availability.getFreeChargers())
+                .lpgAllowed(availability.isLpgAllowed())
+                .widthOfParkingSpace(availability.getWidthOfParkingSpace())
+                .latitude(availability.getLatitude())
+                .longitude(availability.getLongitude())
+                .build();
+    }
+}
@@ -1,20 +1,43 @@
 package com.example.carParking.service;
 
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.CursorPageDTO;
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.dto.ParkingWithoutCarsDTO;
 import com.example.carParking.exceptions.*;
+import com.example.carParking.mapper.ParkingMapper;
+import com.example.carParking.model.CarAssignment;
 import com.example.carParking.model.CarEntity;
 import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingAction;
 import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingOperation;
+import com.example.carParking.model.ParkingOperationResult;
+import com.example.carParking.model.ParkingSlotEntity;
 import com.example.carParking.repository.CarRepository;
 import com.example.carParking.repository.ParkingRepository;
+import com.example.carParking.repository.ParkingSlotRepository;
+import com.example.carParking.service.OccupancyEngine.Admission;
+import com.example.carParking.service.OccupancyEngine.OccupancyCounts;
+import com.example.carParking.service.ReservationIndex.Reserved;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 @Transactional
 @Service
@@ -26,55 +49,162 @@ public class ParkingService {
 
     private final CarRepository carRepository;
 
-    public ParkingService(final ParkingRepository parkingRepository, CarRepository carRepository) {
+    private final OccupancyEngine occupancyEngine;
+
+    private final ParkingLocks parkingLocks;
+
+    private final CacheEvictor cacheEvictor;
+
+    private final AvailabilityService availabilityService;
+
+    private final ParkingSlotRepository parkingSlotRepository;
+
+    private final SlotAllocator slotAllocator;
+
+    private final ChargerScheduler chargerScheduler;
+
+    private final ParkingSessionLedger parkingSessionLedger;
+
+    private final WriteBehindAssignments writeBehindAssignments;
+
+    private final ReservationService reservationService;
+
+    private final ParkingMapper parkingMapper;
+
+    private final TransactionTemplate batchTransaction;
+
+    public ParkingService(final ParkingRepository parkingRepository, CarRepository carRepository,
+                          OccupancyEngine occupancyEngine, ParkingLocks parkingLocks, CacheEvictor cacheEvictor,
+                          AvailabilityService availabilityService, ParkingSlotRepository parkingSlotRepository,
+                          SlotAllocator slotAllocator, ChargerScheduler chargerScheduler,
+                          ParkingSessionLedger parkingSessionLedger, WriteBehindAssignments writeBehindAssignments,
+                          ReservationService reservationService, ParkingMapper parkingMapper,
+                          PlatformTransactionManager transactionManager) {
         this.parkingRepository = parkingRepository;
         this.carRepository = carRepository;
+        this.occupancyEngine = occupancyEngine;
+        this.parkingLocks = parkingLocks;
+        this.cacheEvictor = cacheEvictor;
+        this.availabilityService = availabilityService;
+        this.parkingSlotRepository = parkingSlotRepository;
+        this.slotAllocator = slotAllocator;
+        this.chargerScheduler = chargerScheduler;
+        this.parkingSessionLedger = parkingSessionLedger;
+        this.writeBehindAssignments = writeBehindAssignments;
+        this.reservationService = reservationService;
+        this.parkingMapper = parkingMapper;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
     }
 
     public ParkingEntity createParking(ParkingEntity parkingEntity) {
-        logger.info("Creating new parking with details: {}", parkingEntity);
+        logger.debug("Creating new parking: {}", parkingEntity.getName());
         ParkingEntity parking = parkingRepository.save(parkingEntity);
+        occupancyEngine.register(parking.getId());
+        chargerScheduler.define(parking.getId(), parking.getNumberOfChargers());
+        availabilityService.updateLot(parking);
 
         logger.info("Successfully created parking with ID: {}", parking.getId());
         return parking;
     }
 
-    public Page<ParkingEntity> getAllParkings(final Pageable pageable) {
-        logger.info("Fetching all parkings with pagination: {}", pageable);
-        Page<ParkingEntity> parkings = parkingRepository.findAll(pageable);
-        logger.info("Successfully retrieved {} parkings", parkings.getTotalElements());
+    public Page<ParkingDTO> getAllParkings(final Pageable pageable) {
+        logger.debug("Fetching all parkings with pagination: {}", pageable);
+        // OFFSET paging needs a stable order.
+        Pageable orderedPageable = pageable.isPaged() && pageable.getSort().isUnsorted()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"))
+                : pageable;
+        Page<ParkingWithoutCarsDTO> page = parkingRepository.findParkingDTOs(orderedPageable);
+        Page<ParkingDTO> parkings = new PageImpl<>(withCars(page.getContent()), page.getPageable(),
+                page.getTotalElements());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Successfully retrieved {} parkings", parkings.getTotalElements());
+        }
         return parkings;
     }
 
 
+    public CursorPageDTO<ParkingDTO> scrollParkings(String cursor, int size, boolean withTotal) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Scrolling parkings after cursor: {} with size: {}", cursor, size);
+        }
+        int limit = KeysetCursor.clampSize(size);
+        CursorPageDTO<ParkingWithoutCarsDTO> slice = KeysetCursor.slice(
+                parkingRepository.findParkingDTOsAfter(KeysetCursor.decode(cursor), Limit.of(limit + 1)), limit,
+                ParkingWithoutCarsDTO::getId, withTotal ? parkingRepository.count() : null);
+        return new CursorPageDTO<>(withCars(slice.getContent()), slice.getSize(), slice.getNextCursor(),
+                slice.getTotalElements());
+    }
+
+    /**
+     * Reads the parking and its cars as projections, without loading entities.
+     */
+    public ParkingDTO getParkingDTOById(Long id) {
+        logger.debug("Fetching parking with ID: {}", id);
+        ParkingWithoutCarsDTO parking = parkingRepository.findParkingDTOById(id)
+                .orElseThrow(() -> {
+                    logger.error("Parking with ID: {} does not exist", id);
+                    return new NoParkingFoundException("Parking with ID: " + id + " does not exist!");
+                });
+        return parkingMapper.toParkingDTO(parking, carRepository.findCarDTOsByParkingIdIn(List.of(id)));
+    }
+
     public ParkingEntity getParkingById(Long id) {
-        logger.info("Fetching parking with ID: {}", id);
+        logger.debug("Fetching parking with ID: {}", id);
         ParkingEntity parkingEntity = parkingRepository.findById(id)
                 .orElseThrow(() -> {
                     logger.error("Parking with ID: {} does not exist", id);
                     return new NoParkingFoundException("Parking with ID: " + id + " does not exist!");
                 });
-        logger.info("Successfully retrieved parking with ID: {}", id);
+        logger.debug("Successfully retrieved parking with ID: {}", id);
         return parkingEntity;
     }
 
     public ParkingEntity updateParking(Long id, ParkingEntity parkingEntity) {
-        logger.info("Updating parking with ID: {}", id);
+        logger.debug("Updating parking with ID: {}", id);
 
+        parkingLocks.lockUntilCompletion(id);
         return parkingRepository.findById(id)
                 .map(existingParking -> {
                     existingParking.setName(parkingEntity.getName());
                     existingParking.setAddress(parkingEntity.getAddress());
-                    existingParking.setTotalSpaces(parkingEntity.getTotalSpaces());
-                    existingParking.setNumberOfChargers(parkingEntity.getNumberOfChargers());
-                    existingParking.setWidthOfParkingSpace(parkingEntity.getWidthOfParkingSpace());
-                    existingParking.setLpgAllowed(parkingEntity.isLpgAllowed());
+                    existingParking.setLatitude(parkingEntity.getLatitude());
+                    existingParking.setLongitude(parkingEntity.getLongitude());
+                    if (slotAllocator.hasSlots(id)) {
+                        logger.info("Parking with ID: {} has a slot layout, keeping its capacity", id);
+                    } else {
+                        existingParking.setTotalSpaces(parkingEntity.getTotalSpaces());
+                        existingParking.setNumberOfChargers(parkingEntity.getNumberOfChargers());
+                        existingParking.setWidthOfParkingSpace(parkingEntity.getWidthOfParkingSpace());
+                        existingParking.setLpgAllowed(parkingEntity.isLpgAllowed());
+                    }
                     if (existingParking.getCars() != null) {
                         for (CarEntity car: existingParking.getCars()){
                             validateCarAddition(existingParking, car);
                         }
                     }
+                    OccupancyCounts parked = occupancyEngine.getCounts(id);
+                    if (parked.getTotal() > existingParking.getTotalSpaces()) {
+                        logger.error("Parking with ID: {} has {} cars parked, more than the new number of spaces",
+                                id, parked.getTotal());
+                        throw new NoFreeSpaceParkingException("There are more cars parked than the new number of spaces!");
+                    }
+                    int electricCarsParked = parked.getCount(FuelType.ELECTRIC);
+                    if (electricCarsParked > chargerScheduler.electricCarLimit(existingParking.getNumberOfChargers())) {
+                        logger.error("Parking with ID: {} has {} electric cars parked, more than the new number of chargers",
+                                id, electricCarsParked);
+                        throw new NoFreeChargersParkingException("There are more electric cars parked than chargers!");
+                    }
+                    Reserved reserved = reservationService.peak(id);
+                    if (reserved.spaces() > existingParking.getTotalSpaces()
+                            || reserved.chargers() > existingParking.getNumberOfChargers()) {
+                        logger.error("Parking with ID: {} has up to {} spaces and {} chargers reserved, more than its new capacity",
+                                id, reserved.spaces(), reserved.chargers());
+                        throw new ParkingFullyReservedException("There are more reservations than the new capacity!");
+                    }
                     ParkingEntity savedParking = parkingRepository.save(existingParking);
+                    cacheEvictor.evictParking(id);
+                    chargerScheduler.define(id, savedParking.getNumberOfChargers());
+                    availabilityService.updateLot(savedParking);
                     logger.info("Parking with ID: {} updated successfully", id);
                     return savedParking;
                 })
@@ -85,8 +215,11 @@ public class ParkingService {
     }
 
     public void deleteParking(Long id) {
-        logger.info("Deleting parking with ID: {}", id);
+        logger.debug("Deleting parking with ID: {}", id);
 
+        // No car may be queued for this parking once its cars are read.
+        parkingLocks.lockUntilCompletion(id);
+        writeBehindAssignments.settleAll();
         ParkingEntity parkingEntity = parkingRepository.findById(id).orElseThrow(()-> {
             logger.error("Parking with ID: {} does not exist for deletion", id);
             return new NoParkingFoundException("Parking with ID: " + id + " does not exist!");
@@ -94,68 +227,397 @@ public class ParkingService {
 
         if (parkingEntity.getCars() != null) {
             for (CarEntity car : parkingEntity.getCars()) {
+                parkingSessionLedger.recordExit(car, id);
                 car.setParking(null);
+                car.setSlot(null);
+                cacheEvictor.evictCar(car.getId());
             }
         }
 
+        parkingSlotRepository.deleteByParkingId(id);
+        reservationService.deleteByParking(id);
         parkingRepository.deleteById(id);
+        occupancyEngine.remove(id);
+        slotAllocator.remove(id);
+        chargerScheduler.remove(id);
+        cacheEvictor.evictParking(id);
+        availabilityService.removeLot(id);
         logger.info("Successfully deleted parking with ID: {}", id);
     }
 
-    public ParkingEntity addCarToParking(Long parkingId, Long carId) {
-        logger.info("Adding car to parking with ID: {} with car details: {}", parkingId, carId);
+    public List<ParkingSlotEntity> getSlots(Long parkingId) {
+        logger.debug("Fetching slots of parking with ID: {}", parkingId);
+        if (!parkingRepository.existsById(parkingId)) {
+            logger.error("Parking with ID: {} does not exist", parkingId);
+            throw new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
+        }
+        return parkingSlotRepository.findByParkingIdOrderById(parkingId);
+    }
 
+    public boolean isSlotOccupied(Long parkingId, Long slotId) {
+        return slotAllocator.isOccupied(parkingId, slotId);
+    }
+
+    /**
+     * Replaces the slot layout of an empty parking. The parking's capacity fields are derived from
+     * the slots; an empty layout turns it back into a parking validated by those fields alone.
+     */
+    public List<ParkingSlotEntity> replaceSlots(Long parkingId, List<ParkingSlotEntity> slots) {
+        logger.info("Replacing slots of parking with ID: {} with {} slots", parkingId, slots.size());
+
+        parkingLocks.lockUntilCompletion(parkingId);
         ParkingEntity parking = parkingRepository.findById(parkingId)
                 .orElseThrow(() -> {
-                    logger.error("Parking with ID: {} does not exist for adding car", parkingId);
+                    logger.error("Parking with ID: {} does not exist for replacing slots", parkingId);
                     return new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
                 });
+        if (occupancyEngine.getCounts(parkingId).getTotal() > 0) {
+            logger.error("Parking with ID: {} still has parked cars", parkingId);
+            throw new InvalidSlotLayoutException("Slots can only be changed while the parking is empty!");
+        }
+
+        parkingSlotRepository.deleteByParkingId(parkingId);
+        slots.forEach(slot -> slot.setParking(parking));
+        List<ParkingSlotEntity> savedSlots = parkingSlotRepository.saveAll(slots);
+        if (!savedSlots.isEmpty()) {
+            parking.setTotalSpaces(savedSlots.size());
+            parking.setNumberOfChargers((int) savedSlots.stream().filter(ParkingSlotEntity::isCharger).count());
+            parking.setWidthOfParkingSpace(savedSlots.stream().mapToDouble(ParkingSlotEntity::getWidth).max().getAsDouble());
+            parking.setLpgAllowed(savedSlots.stream().anyMatch(ParkingSlotEntity::isLpgAllowed));
+        }
+
+        slotAllocator.define(parkingId, savedSlots);
+        chargerScheduler.define(parkingId, parking.getNumberOfChargers());
+        availabilityService.updateLot(parking);
+        cacheEvictor.evictParking(parkingId);
+        logger.info("Parking with ID: {} now has {} slots", parkingId, savedSlots.size());
+        return savedSlots;
+    }
+
+    public ParkingEntity addCarToParking(Long parkingId, Long carId) {
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .log("Adding car to parking");
+        if (writeBehindAssignments.isEnabled()) {
+            return moveCarWriteBehind(parkingId, carId, ParkingAction.PARK);
+        }
 
+        parkingLocks.lockCarsUntilCompletion(List.of(carId));
         CarEntity carEntity = carRepository.findById(carId).orElseThrow(() -> {
             logger.error("Car with ID: {} does not exist", carId);
             return new NoCarFoundException("Car with ID: " + carId + " not found!");
         });
 
-        validateCarAddition(parking, carEntity);
-        if (parking.getCars().size() >= parking.getTotalSpaces()) {
-            logger.error("No free space available in parking with ID: {}", parking.getId());
-            throw new NoFreeSpaceParkingException("You can't park here, parking is full");
-        }
-
-        List<CarEntity> cars = new ArrayList<>(parking.getCars());
+        lockMove(parkingId, carEntity.getParking() != null ? carEntity.getParking().getId() : null);
+        ParkingEntity parking = parkingRepository.findById(parkingId)
+                .orElseThrow(() -> {
+                    logger.error("Parking with ID: {} does not exist for adding car", parkingId);
+                    return new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
+                });
 
-        carEntity.setParking(parking);
-        cars.add(carEntity);
-        parking.setCars(cars);
+        parkCar(parking, carEntity);
 
         ParkingEntity updatedParking = parkingRepository.save(parking);
-        logger.info("Successfully added car with ID: {} to parking with ID: {}", carEntity.getId(), parkingId);
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .log("Added car to parking");
 
         return updatedParking;
     }
 
     public ParkingEntity deleteCarFromParking(Long parkingId, Long carId) {
-        logger.info("Deleting car from parking with ID: {} with car details: {}", parkingId, carId);
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .log("Deleting car from parking");
+        if (writeBehindAssignments.isEnabled()) {
+            return moveCarWriteBehind(parkingId, carId, ParkingAction.UNPARK);
+        }
+
+        // The freed space is visible to admissions before commit, so the lot the car leaves stays
+        // locked until the unpark commits or rolls back.
+        parkingLocks.lockCarsUntilCompletion(List.of(carId));
+        CarEntity carEntity = carRepository.findById(carId).orElseThrow(() -> {
+            logger.error("Car with ID: {} does not exist", carId);
+            return new NoCarFoundException("Car with ID: " + carId + " not found!");
+        });
 
+        lockMove(parkingId, carEntity.getParking() != null ? carEntity.getParking().getId() : null);
         ParkingEntity parking = parkingRepository.findById(parkingId)
                 .orElseThrow(() -> {
                     logger.error("Parking with ID: {} does not exist for deleting car", parkingId);
                     return new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
                 });
 
+        unparkCar(parking, carEntity);
+
+        ParkingEntity updatedParking = parkingRepository.save(parking);
+
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .log("Deleted car from parking");
+
+        return updatedParking;
+    }
+
+    /**
+     * Applies the operations in one transaction and reports a result per operation. A failure
+     * that only shows when the changes are written, such as a constraint violation, rolls back
+     * every operation; the operations are then applied again one at a time, each in its own
+     * transaction, so only those that fail again are reported as failed.
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public List<ParkingOperationResult> applyOperations(List<ParkingOperation> operations) {
+        try {
+            return batchTransaction.execute(status -> applyOperationsTogether(operations));
+        } catch (DataAccessException | TransactionException e) {
+            logger.warn("Batch of {} parking operations could not be written, applying them one at a time",
+                    operations.size(), e);
+        }
+        List<ParkingOperationResult> results = new ArrayList<>(operations.size());
+        for (ParkingOperation operation : operations) {
+            try {
+                results.add(batchTransaction.execute(status -> applyOperationsTogether(List.of(operation))).get(0));
+            } catch (DataAccessException | TransactionException e) {
+                logger.warn("Parking operation {} could not be written: {}", operation, e.getMessage());
+                results.add(ParkingOperationResult.failure(operation, e));
+            }
+        }
+        return results;
+    }
+
+    private List<ParkingOperationResult> applyOperationsTogether(List<ParkingOperation> operations) {
+        logger.atDebug()
+                .addKeyValue("operations", operations.size())
+                .log("Applying parking operations");
+
+        Map<Long, List<Integer>> operationsByParking = new TreeMap<>();
+        Set<Long> carIds = new HashSet<>();
+        ParkingOperationResult[] results = new ParkingOperationResult[operations.size()];
+        for (int i = 0; i < operations.size(); i++) {
+            ParkingOperation operation = operations.get(i);
+            if (operation.getParkingId() == null || operation.getCarId() == null || operation.getAction() == null) {
+                results[i] = ParkingOperationResult.failure(operation,
+                        new IllegalArgumentException("Parking ID, car ID and action are required!"));
+                continue;
+            }
+            operationsByParking.computeIfAbsent(operation.getParkingId(), id -> new ArrayList<>()).add(i);
+            carIds.add(operation.getCarId());
+        }
+
+        writeBehindAssignments.settle(carIds);
+        Map<Long, CarEntity> cars = new HashMap<>();
+        for (CarEntity car : carRepository.findAllById(carIds)) {
+            cars.put(car.getId(), car);
+        }
+
+        // Every lot of the batch and every lot a parked or unparked car leaves is locked in one
+        // call, so concurrent batches cannot deadlock.
+        Set<Long> lockedParkingIds = new HashSet<>(operationsByParking.keySet());
+        for (ParkingOperation operation : operations) {
+            CarEntity car = operation.getCarId() != null ? cars.get(operation.getCarId()) : null;
+            if (car != null && car.getParking() != null) {
+                lockedParkingIds.add(car.getParking().getId());
+            }
+        }
+        parkingLocks.lockUntilCompletion(lockedParkingIds);
+        for (Map.Entry<Long, List<Integer>> entry : operationsByParking.entrySet()) {
+            Long parkingId = entry.getKey();
+            ParkingEntity parking = parkingRepository.findById(parkingId).orElse(null);
+
+            for (Integer index : entry.getValue()) {
+                ParkingOperation operation = operations.get(index);
+                try {
+                    if (parking == null) {
+                        throw new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
+                    }
+                    CarEntity car = cars.get(operation.getCarId());
+                    if (car == null) {
+                        throw new NoCarFoundException("Car with ID: " + operation.getCarId() + " not found!");
+                    }
+                    if (operation.getAction() == ParkingAction.PARK) {
+                        parkCar(parking, car);
+                    } else {
+                        unparkCar(parking, car);
+                    }
+                    results[index] = ParkingOperationResult.success(operation);
+                } catch (RuntimeException e) {
+                    logger.warn("Parking operation {} failed: {}", operation, e.getMessage());
+                    results[index] = ParkingOperationResult.failure(operation, e);
+                }
+            }
+        }
+
+        logger.atDebug()
+                .addKeyValue("parkings", operationsByParking.size())
+                .log("Applied parking operations");
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Write-behind variant of {@link #addCarToParking} and {@link #deleteCarFromParking}. Admission
+     * runs as usual, but on a detached parking and car, so the transaction writes nothing; the new
+     * assignment is handed to {@link WriteBehindAssignments}. The returned parking lists its cars
+     * including moves that are not written yet.
+     */
+    private ParkingEntity moveCarWriteBehind(Long parkingId, Long carId, ParkingAction action) {
+        writeBehindAssignments.lockCar(carId);
         CarEntity carEntity = carRepository.findById(carId).orElseThrow(() -> {
             logger.error("Car with ID: {} does not exist", carId);
             return new NoCarFoundException("Car with ID: " + carId + " not found!");
         });
+        lockMove(parkingId, writeBehindAssignments.parkingIdOf(carEntity));
+        ParkingEntity parking = fetchWithCars(List.of(parkingId)).stream().findFirst()
+                .orElseThrow(() -> {
+                    logger.error("Parking with ID: {} does not exist for {}", parkingId, action);
+                    return new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
+                });
+
+        writeBehindAssignments.applyPending(parking);
+        writeBehindAssignments.applyPending(carEntity);
+        CarAssignment before = CarAssignment.of(carEntity);
+        if (action == ParkingAction.PARK) {
+            parkCar(parking, carEntity);
+        } else {
+            unparkCar(parking, carEntity);
+        }
+        writeBehindAssignments.record(before, carEntity);
 
+        logger.atDebug()
+                .addKeyValue("parkingId", parkingId)
+                .addKeyValue("carId", carId)
+                .addKeyValue("action", action)
+                .log("Queued car move");
+        return parking;
+    }
+
+    /**
+     * Locks the parking a car is parked in and, when it moves there from another parking, the
+     * parking it leaves, so both lots' counts change under their locks. The caller holds the
+     * car's lock, so the car cannot move elsewhere meanwhile.
+     */
+    private void lockMove(Long parkingId, Long previousParkingId) {
+        if (previousParkingId == null || previousParkingId.equals(parkingId)) {
+            parkingLocks.lockUntilCompletion(parkingId);
+        } else {
+            parkingLocks.lockUntilCompletion(List.of(parkingId, previousParkingId));
+        }
+    }
+
+    /**
+     * Attaches their cars to the given parkings, read with one query for all of them.
+     */
+    private List<ParkingDTO> withCars(List<ParkingWithoutCarsDTO> parkings) {
+        if (parkings.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<CarDTO>> carsByParking = carRepository.findCarDTOsByParkingIdIn(
+                        parkings.stream().map(ParkingWithoutCarsDTO::getId).toList()).stream()
+                .collect(Collectors.groupingBy(CarDTO::getParkingId));
+        return parkings.stream()
+                .map(parking -> parkingMapper.toParkingDTO(parking, carsByParking.getOrDefault(parking.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Loads the given parkings with their cars in one query, keeping the order of {@code ids}.
+     */
+    private List<ParkingEntity> fetchWithCars(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ParkingEntity> parkingsById = new HashMap<>();
+        for (ParkingEntity parking : parkingRepository.findWithCarsByIdIn(ids)) {
+            parkingsById.put(parking.getId(), parking);
+        }
+        return ids.stream()
+                .map(parkingsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void parkCar(ParkingEntity parking, CarEntity carEntity) {
+        ParkingEntity previousParking = carEntity.getParking();
+        if (previousParking != null && previousParking.getId().equals(parking.getId())) {
+            logger.atDebug()
+                    .addKeyValue("parkingId", parking.getId())
+                    .addKeyValue("carId", carEntity.getId())
+                    .log("Car is already parked in parking");
+            return;
+        }
+
+        validateCarAddition(parking, carEntity);
+        admit(parking, carEntity);
+        ParkingSlotEntity slot = assignSlot(parking, carEntity);
+        reservationService.claim(parking.getId(), carEntity.getId());
+        if (previousParking != null) {
+            occupancyEngine.release(previousParking.getId(), carEntity.getFuelType());
+            releaseSlot(previousParking.getId(), carEntity);
+            releaseCharger(previousParking.getId(), carEntity);
+            cacheEvictor.evictParking(previousParking.getId());
+            parkingSessionLedger.recordExit(carEntity, previousParking.getId());
+        }
+        parkingSessionLedger.recordEnter(carEntity, parking.getId());
+        if (carEntity.getFuelType() == FuelType.ELECTRIC) {
+            chargerScheduler.arrive(parking.getId(), carEntity.getId());
+        }
+
+        carEntity.setParking(parking);
+        carEntity.setSlot(slot);
+        cacheEvictor.evictParking(parking.getId());
+        cacheEvictor.evictCar(carEntity.getId());
+        if (parking.getCars() != null && Hibernate.isInitialized(parking.getCars())) {
+            parking.getCars().add(carEntity);
+        }
+    }
+
+    private void unparkCar(ParkingEntity parking, CarEntity carEntity) {
+        if (carEntity.getParking() != null) {
+            occupancyEngine.release(carEntity.getParking().getId(), carEntity.getFuelType());
+            releaseSlot(carEntity.getParking().getId(), carEntity);
+            releaseCharger(carEntity.getParking().getId(), carEntity);
+            cacheEvictor.evictParking(carEntity.getParking().getId());
+            parkingSessionLedger.recordExit(carEntity, carEntity.getParking().getId());
+        }
         carEntity.setParking(null);
-        parking.getCars().remove(carEntity);
+        carEntity.setSlot(null);
+        cacheEvictor.evictParking(parking.getId());
+        cacheEvictor.evictCar(carEntity.getId());
+        if (parking.getCars() != null && Hibernate.isInitialized(parking.getCars())) {
+            parking.getCars().remove(carEntity);
+        }
+    }
 
-        ParkingEntity updatedParking = parkingRepository.save(parking);
+    /**
+     * Reserves a slot in parkings with a slot layout. Runs after {@link #admit}, whose counter
+     * update is taken back if no slot fits.
+     */
+    private ParkingSlotEntity assignSlot(ParkingEntity parking, CarEntity car) {
+        if (!slotAllocator.hasSlots(parking.getId())) {
+            return null;
+        }
+        Long slotId = slotAllocator.allocate(parking.getId(), car.getFuelType(), car.getWidth());
+        if (slotId == null) {
+            occupancyEngine.release(parking.getId(), car.getFuelType());
+            logger.error("No free slot fits car with ID: {} in parking with ID: {}", car.getId(), parking.getId());
+            throw new NoFreeSpaceParkingException("No free slot fits your car!");
+        }
+        return parkingSlotRepository.getReferenceById(slotId);
+    }
 
-        logger.info("Successfully deleted car with ID: {} to parking with ID: {}", carEntity.getId(), parkingId);
+    private void releaseSlot(Long parkingId, CarEntity car) {
+        if (car.getSlot() != null) {
+            slotAllocator.release(parkingId, car.getSlot().getId());
+        }
+    }
 
-        return updatedParking;
+    private void releaseCharger(Long parkingId, CarEntity car) {
+        if (car.getFuelType() == FuelType.ELECTRIC) {
+            chargerScheduler.leave(parkingId, car.getId());
+        }
     }
 
     private void validateCarAddition(ParkingEntity parking, CarEntity car) {
@@ -168,15 +630,27 @@ public class ParkingService {
             logger.error("Car with width {} is too wide for parking with ID: {}", car.getWidth(), parking.getId());
             throw new CarTooWideException("Your car is too wide to park here!");
         }
+    }
 
-        if (car.getFuelType().equals(FuelType.ELECTRIC)) {
-            long numberOfElectricCarsParked = parking.getCars().stream()
-                    .filter(c -> c.getFuelType().equals(FuelType.ELECTRIC))
-                    .count();
-            if (parking.getNumberOfChargers() <= numberOfElectricCarsParked) {
-                logger.error("No free chargers available in parking with ID: {}", parking.getId());
-                throw new NoFreeChargersParkingException("You can't park Electric car here, all chargers are occupied!");
-            }
+    /**
+     * Admits the car to the spaces and chargers not held by reservations of other cars right now.
+     */
+    private void admit(ParkingEntity parking, CarEntity car) {
+        Reserved reserved = reservationService.reservedForArrival(parking.getId(), car.getId());
+        Admission admission = occupancyEngine.tryAdmit(parking.getId(), car.getFuelType(),
+                parking.getTotalSpaces() - reserved.spaces(),
+                chargerScheduler.electricCarLimit(parking.getNumberOfChargers()) - reserved.chargers());
+        if (admission == Admission.NO_FREE_CHARGERS) {
+            logger.error("No free chargers available in parking with ID: {}", parking.getId());
+            throw new NoFreeChargersParkingException("You can't park Electric car here, all chargers are occupied!");
+        }
+        if (admission == Admission.NO_FREE_SPACE) {
+            logger.error("No free space available in parking with ID: {}", parking.getId());
+            throw new NoFreeSpaceParkingException("You can't park here, parking is full");
+        }
+        if (admission == Admission.NOT_RECONCILED) {
+            logger.error("Occupancy of parking with ID: {} is not reconciled yet", parking.getId());
+            throw new ServerBusyException("Parking is being recounted, please retry later.");
         }
     }
-}
\ No newline at end of file
+}
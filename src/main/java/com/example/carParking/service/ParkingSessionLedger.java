@@ -0,0 +1,294 @@
+package com.example.carParking.service;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingSessionEventEntity;
+import com.example.carParking.model.ParkingSessionEventType;
+import com.example.carParking.repository.ParkedCarsCount;
+import com.example.carParking.repository.ParkingSessionStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records every park and unpark as an immutable session event. Events of a transaction are kept
+ * aside until it commits and then handed to a bounded queue that a single writer thread drains in
+ * batches, so the request never waits for the history insert. A rolled back transaction records
+ * nothing. When the queue is full, committing threads wait for the writer rather than drop history.
+ * Registered {@link Listener}s see every committed event as it is queued.
+ * <p>
+ * The log is history for analytics, not a source of truth: events still queued when the process
+ * dies, or in a batch that fails to write, are lost although their transaction committed, and
+ * event IDs follow the order of writing rather than of commits. Occupancy is therefore never
+ * seeded from it.
+ */
+@Component
+public class ParkingSessionLedger implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParkingSessionLedger.class);
+
+    private final ParkingSessionStore parkingSessionStore;
+    private final int batchSize;
+    private final BlockingQueue<ParkingSessionEventEntity> queue;
+    private final AtomicLong pending = new AtomicLong();
+    private final Object flushMonitor = new Object();
+    private final Object transactionEventsKey = new Object();
+    private final Counter failedEvents;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    /**
+     * Called on the committing thread, in commit order per car. Listeners must be cheap: the request
+     * that committed has not returned yet.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void sessionRecorded(ParkingSessionEventEntity event);
+    }
+
+    public ParkingSessionLedger(ParkingSessionStore parkingSessionStore, MeterRegistry meterRegistry,
+                                @Value("${carparking.ledger.batch-size:500}") int batchSize,
+                                @Value("${carparking.ledger.queue-capacity:100000}") int queueCapacity) {
+        this.parkingSessionStore = parkingSessionStore;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("carparking.ledger.pending", pending, AtomicLong::get)
+                .description("Session events committed but not yet written")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("carparking.ledger.failed")
+                .description("Session events that could not be written")
+                .register(meterRegistry);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void recordEnter(CarEntity car, Long parkingId) {
+        record(car.getId(), parkingId, ParkingSessionEventType.ENTER, car.getFuelType());
+    }
+
+    public void recordExit(CarEntity car, Long parkingId) {
+        record(car.getId(), parkingId, ParkingSessionEventType.EXIT, car.getFuelType());
+    }
+
+    /**
+     * Closes the session of a parked car under its previous fuel type and opens a new one under the
+     * current type, so every session has a single fuel type.
+     */
+    public void recordFuelTypeChange(CarEntity car, Long parkingId, FuelType previousFuelType) {
+        record(car.getId(), parkingId, ParkingSessionEventType.EXIT, previousFuelType);
+        record(car.getId(), parkingId, ParkingSessionEventType.ENTER, car.getFuelType());
+    }
+
+    /**
+     * Waits until every event committed so far has been written.
+     *
+     * @return {@code false} if the timeout elapsed first
+     */
+    public boolean flush(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (flushMonitor) {
+            while (pending.get() > 0) {
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMillis <= 0) {
+                    return false;
+                }
+                flushMonitor.wait(remainingMillis);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the current occupancy from the log alone: a car is parked where its last event
+     * entered it and no exit followed. For analytics and for checking the log against the cars
+     * table; it is off by any event the log lost.
+     */
+    public List<ParkedCarsCount> replayOccupancy() {
+        Map<Long, ParkingSessionEventEntity> openSessions = new HashMap<>();
+        parkingSessionStore.forEach(event -> {
+            if (event.getType() == ParkingSessionEventType.ENTER) {
+                openSessions.put(event.getCarId(), event);
+            } else {
+                openSessions.computeIfPresent(event.getCarId(),
+                        (carId, open) -> open.getParkingId().equals(event.getParkingId()) ? null : open);
+            }
+        });
+
+        Map<List<Object>, SessionCount> counts = new HashMap<>();
+        for (ParkingSessionEventEntity open : openSessions.values()) {
+            counts.computeIfAbsent(List.of(open.getParkingId(), open.getFuelType()),
+                    key -> new SessionCount(open.getParkingId(), open.getFuelType())).carCount++;
+        }
+        logger.info("Replayed {} open parking sessions", openSessions.size());
+        return new ArrayList<>(counts.values());
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drain, "parking-session-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting new batches once the queue is drained, so events committed before shutdown
+     * are still written.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (pending.get() > 0) {
+            logger.error("Shut down with {} parking session events not written", pending.get());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void record(Long carId, Long parkingId, ParkingSessionEventType type, FuelType fuelType) {
+        ParkingSessionEventEntity event = ParkingSessionEventEntity.builder()
+                .carId(carId)
+                .parkingId(parkingId)
+                .type(type)
+                .fuelType(fuelType)
+                .occurredAt(Instant.now())
+                .build();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<ParkingSessionEventEntity> events =
+                (List<ParkingSessionEventEntity>) TransactionSynchronizationManager.getResource(transactionEventsKey);
+        if (events == null) {
+            List<ParkingSessionEventEntity> transactionEvents = new ArrayList<>();
+            events = transactionEvents;
+            TransactionSynchronizationManager.bindResource(transactionEventsKey, transactionEvents);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(transactionEvents);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(transactionEventsKey);
+                }
+            });
+        }
+        events.add(event);
+    }
+
+    private void enqueue(List<ParkingSessionEventEntity> events) {
+        for (ParkingSessionEventEntity event : events) {
+            pending.incrementAndGet();
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.decrementAndGet();
+                failedEvents.increment();
+                logger.error("Interrupted while recording parking session event for car with ID: {}", event.getCarId());
+            }
+            notifyListeners(event);
+        }
+    }
+
+    private void notifyListeners(ParkingSessionEventEntity event) {
+        for (Listener listener : listeners) {
+            try {
+                listener.sessionRecorded(event);
+            } catch (RuntimeException e) {
+                // The transaction already committed, so a failing listener must not fail the request.
+                logger.error("Parking session listener failed for car with ID: {}", event.getCarId(), e);
+            }
+        }
+    }
+
+    private void drain() {
+        List<ParkingSessionEventEntity> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ParkingSessionEventEntity first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                parkingSessionStore.appendAll(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to write {} parking session events", batch.size(), e);
+                failedEvents.increment(batch.size());
+            } finally {
+                if (!batch.isEmpty()) {
+                    pending.addAndGet(-batch.size());
+                    batch.clear();
+                    synchronized (flushMonitor) {
+                        flushMonitor.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class SessionCount implements ParkedCarsCount {
+
+        private final Long parkingId;
+        private final FuelType fuelType;
+        private long carCount;
+
+        private SessionCount(Long parkingId, FuelType fuelType) {
+            this.parkingId = parkingId;
+            this.fuelType = fuelType;
+        }
+
+        @Override
+        public Long getParkingId() {
+            return parkingId;
+        }
+
+        @Override
+        public FuelType getFuelType() {
+            return fuelType;
+        }
+
+        @Override
+        public Long getCarCount() {
+            return carCount;
+        }
+    }
+}
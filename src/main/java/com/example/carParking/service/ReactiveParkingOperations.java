@@ -0,0 +1,131 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.CarWithoutParkingDTO;
+import com.example.carParking.dto.CursorPageDTO;
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.dto.ParkingWithoutCarsDTO;
+import com.example.carParking.exceptions.ServerBusyException;
+import com.example.carParking.mapper.CarMapper;
+import com.example.carParking.mapper.ParkingMapper;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.ParkingEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking facade over {@link ParkingService} and {@link CarService}. Every operation runs
+ * the same service method, with the same validation and exceptions, on the bounded
+ * {@code jdbcScheduler}, so callers never block and the in-memory occupancy, slot and session
+ * state stays owned by one transactional code path. Results are mapped inside the transaction
+ * after a flush, because there is no open session on the caller's thread to load lazy
+ * associations later, and a lazy load before the flush would miss the operation's own changes.
+ */
+@Service
+public class ReactiveParkingOperations {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveParkingOperations.class);
+
+    private final ParkingService parkingService;
+    private final CarService carService;
+    private final CachedLookupService cachedLookupService;
+    private final ParkingMapper parkingMapper;
+    private final CarMapper carMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler jdbcScheduler;
+
+    public ReactiveParkingOperations(ParkingService parkingService, CarService carService,
+                                     CachedLookupService cachedLookupService, ParkingMapper parkingMapper,
+                                     CarMapper carMapper, TransactionTemplate transactionTemplate,
+                                     Scheduler jdbcScheduler) {
+        this.parkingService = parkingService;
+        this.carService = carService;
+        this.cachedLookupService = cachedLookupService;
+        this.parkingMapper = parkingMapper;
+        this.carMapper = carMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcScheduler = jdbcScheduler;
+    }
+
+    public Mono<ParkingWithoutCarsDTO> createParking(ParkingEntity parking) {
+        return inTransaction(() -> parkingService.createParking(parking), parkingMapper::toParkingWithoutCarsDTO);
+    }
+
+    public Mono<ParkingDTO> getParking(Long id) {
+        return inTransaction(() -> cachedLookupService.getParking(id), Function.identity());
+    }
+
+    public Mono<ParkingWithoutCarsDTO> updateParking(Long id, ParkingEntity parking) {
+        return inTransaction(() -> parkingService.updateParking(id, parking), parkingMapper::toParkingWithoutCarsDTO);
+    }
+
+    public Mono<Void> deleteParking(Long id) {
+        return inTransaction(() -> {
+            parkingService.deleteParking(id);
+            return null;
+        }, Function.identity());
+    }
+
+    public Mono<ParkingDTO> addCarToParking(Long parkingId, Long carId) {
+        return inTransaction(() -> parkingService.addCarToParking(parkingId, carId), parkingMapper::toParkingDTO);
+    }
+
+    public Mono<ParkingDTO> deleteCarFromParking(Long parkingId, Long carId) {
+        return inTransaction(() -> parkingService.deleteCarFromParking(parkingId, carId), parkingMapper::toParkingDTO);
+    }
+
+    public Mono<CarWithoutParkingDTO> createCar(CarEntity car) {
+        return inTransaction(() -> carService.createCar(car), carMapper::toCarWithoutParkingDTO);
+    }
+
+    public Mono<CarDTO> getCar(Long id) {
+        return inTransaction(() -> cachedLookupService.getCar(id), Function.identity());
+    }
+
+    public Mono<CarWithoutParkingDTO> updateCar(Long id, CarEntity car) {
+        return inTransaction(() -> carService.updateCar(id, car), carMapper::toCarWithoutParkingDTO);
+    }
+
+    public Mono<Void> deleteCar(Long id) {
+        return inTransaction(() -> {
+            carService.deleteCar(id);
+            return null;
+        }, Function.identity());
+    }
+
+    /**
+     * Streams all cars in ID order. Pages of the keyset listing are only fetched as the subscriber
+     * asks for more, so a slow reader holds at most one page.
+     */
+    public Flux<CarDTO> streamCars(int pageSize) {
+        return carPage(null, pageSize)
+                .expand(page -> page.getNextCursor() == null ? Mono.empty() : carPage(page.getNextCursor(), pageSize))
+                .concatMapIterable(CursorPageDTO::getContent);
+    }
+
+    private Mono<CursorPageDTO<CarDTO>> carPage(String cursor, int pageSize) {
+        return inTransaction(() -> carService.scrollCars(cursor, pageSize, false), Function.identity());
+    }
+
+    private <T, R> Mono<R> inTransaction(Supplier<T> work, Function<? super T, ? extends R> mapper) {
+        return Mono.<R>fromCallable(() -> transactionTemplate.execute(status -> {
+                    T result = work.get();
+                    status.flush();
+                    return result == null ? null : mapper.apply(result);
+                }))
+                .subscribeOn(jdbcScheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    logger.warn("Rejected reactive request, JDBC scheduler queue is full");
+                    return new ServerBusyException("Server is busy, please retry later.");
+                });
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.carParking.service;
+
+import com.example.carParking.model.ReservationEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Counts, per lot and minute, the spaces and chargers held by open reservations. Every lot keeps
+ * two sparse segment trees over epoch minutes, one for all its reservations and one for those
+ * that need a charger. A node stores what was added to its whole range and the peak within it,
+ * so booking, releasing and finding the peak of any window visit a path of {@link #DEPTH} levels
+ * however many reservations the lot holds. Nodes only exist for ranges that were ever booked.
+ * <p>
+ * Changes made inside a transaction are undone automatically if that transaction rolls back.
+ */
+@Component
+public class ReservationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationIndex.class);
+
+    /**
+     * Minutes since the epoch are indexed up to 2^26, early in the year 2097.
+     */
+    static final int DEPTH = 26;
+
+    public static final long MAX_EPOCH_MINUTE = 1L << DEPTH;
+
+    private static final long MILLIS_PER_MINUTE = 60_000;
+
+    public enum Outcome {
+        BOOKED,
+        CAR_ALREADY_BOOKED,
+        NO_FREE_SPACE,
+        NO_FREE_CHARGER
+    }
+
+    /**
+     * Spaces and chargers held by reservations at some point or over some window.
+     */
+    public record Reserved(int spaces, int chargers) {
+
+        public static final Reserved NONE = new Reserved(0, 0);
+    }
+
+    private final ConcurrentMap<Long, LotReservations> lots = new ConcurrentHashMap<>();
+
+    /**
+     * Books the reservation unless its car already holds an overlapping one in the lot, or some
+     * minute of its window would need more than {@code spaces} spaces or, when it needs a
+     * charger, more than {@code chargers} chargers.
+     */
+    public Outcome tryBook(ReservationEntity reservation, int spaces, int chargers) {
+        Interval interval = Interval.of(reservation);
+        LotReservations lot = lot(reservation.getParkingId());
+        Outcome outcome;
+        synchronized (lot) {
+            outcome = lot.tryBook(interval, spaces, chargers);
+        }
+        if (outcome == Outcome.BOOKED) {
+            onRollback(() -> release(lot, interval));
+        }
+        return outcome;
+    }
+
+    public void release(ReservationEntity reservation) {
+        LotReservations lot = lots.get(reservation.getParkingId());
+        if (lot == null) {
+            return;
+        }
+        Interval interval = Interval.of(reservation);
+        if (release(lot, interval)) {
+            onRollback(() -> book(lot, interval));
+        }
+    }
+
+    /**
+     * Releases the reservation of the car in the lot whose window contains {@code now}, as the car
+     * has arrived and takes a space of its own.
+     *
+     * @return the ID of the claimed reservation, or {@code null} when the car has none open now
+     */
+    public Long claim(Long parkingId, Long carId, Instant now) {
+        LotReservations lot = lots.get(parkingId);
+        if (lot == null) {
+            return null;
+        }
+        Interval claimed;
+        synchronized (lot) {
+            claimed = lot.claim(carId, epochMinute(now));
+        }
+        if (claimed == null) {
+            return null;
+        }
+        onRollback(() -> book(lot, claimed));
+        return claimed.reservationId();
+    }
+
+    /**
+     * What the reservations of cars other than {@code carId} hold at {@code at}.
+     */
+    public Reserved reservedAt(Long parkingId, Instant at, Long carId) {
+        LotReservations lot = lots.get(parkingId);
+        if (lot == null) {
+            return Reserved.NONE;
+        }
+        long minute = epochMinute(at);
+        synchronized (lot) {
+            int spaces = lot.spaces.max(minute, minute + 1);
+            int chargers = lot.chargers.max(minute, minute + 1);
+            Interval own = lot.running(carId, minute);
+            if (own != null) {
+                spaces--;
+                chargers -= own.charger() ? 1 : 0;
+            }
+            return new Reserved(spaces, chargers);
+        }
+    }
+
+    /**
+     * The most spaces and the most chargers reserved at any minute of {@code [from, to)}.
+     */
+    public Reserved peak(Long parkingId, Instant from, Instant to) {
+        return peak(parkingId, epochMinute(from), endMinute(to));
+    }
+
+    public void remove(Long parkingId) {
+        afterCommit(() -> lots.remove(parkingId));
+    }
+
+    public void rebuild(Collection<ReservationEntity> openReservations) {
+        lots.clear();
+        for (ReservationEntity reservation : openReservations) {
+            lot(reservation.getParkingId()).book(Interval.of(reservation));
+        }
+        logger.info("Rebuilt {} reservations of {} parkings", openReservations.size(), lots.size());
+    }
+
+    /**
+     * Tells whether both ends of the window fall into the indexed range of minutes.
+     */
+    public static boolean isIndexable(Instant from, Instant to) {
+        return !from.isBefore(Instant.EPOCH) && endMinute(to) <= MAX_EPOCH_MINUTE;
+    }
+
+    private Reserved peak(Long parkingId, long fromMinute, long toMinute) {
+        LotReservations lot = lots.get(parkingId);
+        if (lot == null) {
+            return Reserved.NONE;
+        }
+        synchronized (lot) {
+            return new Reserved(lot.spaces.max(fromMinute, toMinute), lot.chargers.max(fromMinute, toMinute));
+        }
+    }
+
+    private LotReservations lot(Long parkingId) {
+        return lots.computeIfAbsent(parkingId, id -> new LotReservations());
+    }
+
+    private static boolean release(LotReservations lot, Interval interval) {
+        synchronized (lot) {
+            return lot.release(interval);
+        }
+    }
+
+    private static void book(LotReservations lot, Interval interval) {
+        synchronized (lot) {
+            lot.book(interval);
+        }
+    }
+
+    private static long epochMinute(Instant instant) {
+        return Math.floorDiv(instant.toEpochMilli(), MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * The first minute after {@code instant}, so a window ending mid-minute still holds that minute.
+     */
+    private static long endMinute(Instant instant) {
+        return -Math.floorDiv(-instant.toEpochMilli(), MILLIS_PER_MINUTE);
+    }
+
+    private static void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Bookings are put back while the lot is still locked.
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * A reservation as the minutes {@code [from, to)} it holds.
+     */
+    private record Interval(long reservationId, long carId, long from, long to, boolean charger) {
+
+        static Interval of(ReservationEntity reservation) {
+            long from = epochMinute(reservation.getStartsAt());
+            long to = endMinute(reservation.getEndsAt());
+            if (from < 0 || to > MAX_EPOCH_MINUTE || from >= to) {
+                throw new IllegalArgumentException("Reservation window cannot be indexed: "
+                        + reservation.getStartsAt() + " - " + reservation.getEndsAt());
+            }
+            return new Interval(reservation.getId(), reservation.getCarId(), from, to, reservation.isNeedsCharger());
+        }
+
+        boolean overlaps(Interval other) {
+            return from < other.to && other.from < to;
+        }
+    }
+
+    /**
+     * The reservations of one lot. Callers hold the lot's monitor.
+     */
+    private static final class LotReservations {
+
+        private final CapacityTree spaces = new CapacityTree();
+        private final CapacityTree chargers = new CapacityTree();
+        private final Map<Long, List<Interval>> byCar = new HashMap<>();
+
+        Outcome tryBook(Interval interval, int spaceCapacity, int chargerCapacity) {
+            List<Interval> ofCar = byCar.getOrDefault(interval.carId(), List.of());
+            if (ofCar.stream().anyMatch(interval::overlaps)) {
+                return Outcome.CAR_ALREADY_BOOKED;
+            }
+            if (spaces.max(interval.from(), interval.to()) >= spaceCapacity) {
+                return Outcome.NO_FREE_SPACE;
+            }
+            if (interval.charger() && chargers.max(interval.from(), interval.to()) >= chargerCapacity) {
+                return Outcome.NO_FREE_CHARGER;
+            }
+            book(interval);
+            return Outcome.BOOKED;
+        }
+
+        void book(Interval interval) {
+            byCar.computeIfAbsent(interval.carId(), id -> new ArrayList<>(1)).add(interval);
+            count(interval, 1);
+        }
+
+        boolean release(Interval interval) {
+            List<Interval> ofCar = byCar.get(interval.carId());
+            if (ofCar == null || !ofCar.removeIf(booked -> booked.reservationId() == interval.reservationId())) {
+                return false;
+            }
+            if (ofCar.isEmpty()) {
+                byCar.remove(interval.carId());
+            }
+            count(interval, -1);
+            return true;
+        }
+
+        Interval running(long carId, long minute) {
+            for (Interval interval : byCar.getOrDefault(carId, List.of())) {
+                if (interval.from() <= minute && minute < interval.to()) {
+                    return interval;
+                }
+            }
+            return null;
+        }
+
+        Interval claim(long carId, long minute) {
+            Interval interval = running(carId, minute);
+            if (interval != null) {
+                release(interval);
+            }
+            return interval;
+        }
+
+        private void count(Interval interval, int delta) {
+            spaces.add(interval.from(), interval.to(), delta);
+            if (interval.charger()) {
+                chargers.add(interval.from(), interval.to(), delta);
+            }
+        }
+    }
+
+    /**
+     * A dynamically allocated segment tree over {@code [0, 2^DEPTH)} supporting "add to a range"
+     * and "maximum over a range". Additions covering a whole node stay in that node instead of
+     * being pushed to its children, so a node's maximum is its own addition plus the larger
+     * maximum of its children. Nodes live in parallel arrays; node 0 stands for every missing
+     * child and always reads 0.
+     */
+    static final class CapacityTree {
+
+        private static final int ROOT = 1;
+
+        private int[] left = new int[16];
+        private int[] right = new int[16];
+        private int[] added = new int[16];
+        private int[] max = new int[16];
+        private int nodes = 2;
+
+        void add(long from, long to, int delta) {
+            add(ROOT, 0, MAX_EPOCH_MINUTE, from, to, delta);
+        }
+
+        int max(long from, long to) {
+            return max(ROOT, 0, MAX_EPOCH_MINUTE, from, to);
+        }
+
+        int nodeCount() {
+            return nodes - 1;
+        }
+
+        private void add(int node, long low, long high, long from, long to, int delta) {
+            if (from <= low && high <= to) {
+                added[node] += delta;
+                max[node] += delta;
+                return;
+            }
+            long middle = (low + high) >>> 1;
+            if (from < middle) {
+                if (left[node] == 0) {
+                    int child = newNode();
+                    left[node] = child;
+                }
+                add(left[node], low, middle, from, to, delta);
+            }
+            if (to > middle) {
+                if (right[node] == 0) {
+                    int child = newNode();
+                    right[node] = child;
+                }
+                add(right[node], middle, high, from, to, delta);
+            }
+            max[node] = added[node] + Math.max(max[left[node]], max[right[node]]);
+        }
+
+        private int max(int node, long low, long high, long from, long to) {
+            if (node == 0) {
+                return 0;
+            }
+            if (from <= low && high <= to) {
+                return max[node];
+            }
+            long middle = (low + high) >>> 1;
+            int children = 0;
+            if (from < middle) {
+                children = max(left[node], low, middle, from, to);
+            }
+            if (to > middle) {
+                children = Math.max(children, max(right[node], middle, high, from, to));
+            }
+            return added[node] + children;
+        }
+
+        private int newNode() {
+            if (nodes == left.length) {
+                int capacity = nodes * 2;
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                added = Arrays.copyOf(added, capacity);
+                max = Arrays.copyOf(max, capacity);
+            }
+            return nodes++;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.carParking.service;
+
+import com.example.carParking.exceptions.*;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ReservationEntity;
+import com.example.carParking.repository.CarRepository;
+import com.example.carParking.repository.ParkingRepository;
+import com.example.carParking.repository.ReservationRepository;
+import com.example.carParking.service.ReservationIndex.Outcome;
+import com.example.carParking.service.ReservationIndex.Reserved;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Books spaces, and chargers for electric cars, ahead of time. Every booking is checked against
+ * the {@link ReservationIndex}: at no minute of its window may the lot's reservations exceed its
+ * total spaces or, for bookings that need one, its chargers. Windows that have already started
+ * also count the cars parked right now. A reservation is claimed when its car parks in the lot
+ * during the window; until then it holds its space against walk-ins.
+ */
+@Transactional
+@Service
+public class ReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
+    private final ReservationRepository reservationRepository;
+    private final ParkingRepository parkingRepository;
+    private final CarRepository carRepository;
+    private final ReservationIndex reservationIndex;
+    private final OccupancyEngine occupancyEngine;
+    private final ParkingLocks parkingLocks;
+    private final Clock clock;
+    private final Duration maxHorizon;
+
+    public ReservationService(ReservationRepository reservationRepository, ParkingRepository parkingRepository,
+                              CarRepository carRepository, ReservationIndex reservationIndex,
+                              OccupancyEngine occupancyEngine, ParkingLocks parkingLocks, Clock clock,
+                              @Value("${carparking.reservations.max-horizon:P365D}") Duration maxHorizon) {
+        this.reservationRepository = reservationRepository;
+        this.parkingRepository = parkingRepository;
+        this.carRepository = carRepository;
+        this.reservationIndex = reservationIndex;
+        this.occupancyEngine = occupancyEngine;
+        this.parkingLocks = parkingLocks;
+        this.clock = clock;
+        this.maxHorizon = maxHorizon;
+    }
+
+    public ReservationEntity createReservation(ReservationEntity reservation) {
+        logger.debug("Reserving parking with ID: {} for car with ID: {}", reservation.getParkingId(),
+                reservation.getCarId());
+        Instant now = clock.instant();
+        validateWindow(reservation, now);
+
+        ParkingEntity parking = parkingRepository.findById(reservation.getParkingId()).orElseThrow(() -> {
+            logger.error("Parking with ID: {} does not exist", reservation.getParkingId());
+            return new NoParkingFoundException("Parking with ID: " + reservation.getParkingId() + " does not exist!");
+        });
+        CarEntity car = carRepository.findById(reservation.getCarId()).orElseThrow(() -> {
+            logger.error("Car with ID: {} does not exist", reservation.getCarId());
+            return new NoCarFoundException("Car with ID: " + reservation.getCarId() + " not found!");
+        });
+        validateCar(parking, car, reservation);
+
+        parkingLocks.lockUntilCompletion(parking.getId());
+        int spaces = parking.getTotalSpaces();
+        int chargers = parking.getNumberOfChargers();
+        if (!reservation.getStartsAt().isAfter(now)) {
+            OccupancyEngine.OccupancyCounts counts = occupancyEngine.getCounts(parking.getId());
+            spaces -= counts.getTotal();
+            chargers -= counts.getCount(FuelType.ELECTRIC);
+        }
+
+        reservation.setId(null);
+        reservation.setClaimedAt(null);
+        ReservationEntity saved = reservationRepository.save(reservation);
+        Outcome outcome = reservationIndex.tryBook(saved, spaces, chargers);
+        if (outcome == Outcome.CAR_ALREADY_BOOKED) {
+            logger.error("Car with ID: {} already has a reservation in parking with ID: {} overlapping {} - {}",
+                    car.getId(), parking.getId(), reservation.getStartsAt(), reservation.getEndsAt());
+            throw new InvalidReservationException("Your car already has a reservation here at that time!");
+        }
+        if (outcome == Outcome.NO_FREE_SPACE) {
+            logger.error("Parking with ID: {} is fully reserved between {} and {}", parking.getId(),
+                    reservation.getStartsAt(), reservation.getEndsAt());
+            throw new ParkingFullyReservedException("All spaces are reserved at that time!");
+        }
+        if (outcome == Outcome.NO_FREE_CHARGER) {
+            logger.error("All chargers of parking with ID: {} are reserved between {} and {}", parking.getId(),
+                    reservation.getStartsAt(), reservation.getEndsAt());
+            throw new ParkingFullyReservedException("All chargers are reserved at that time!");
+        }
+
+        logger.info("Created reservation with ID: {} in parking with ID: {}", saved.getId(), parking.getId());
+        return saved;
+    }
+
+    public ReservationEntity getReservation(Long id) {
+        logger.debug("Fetching reservation with ID: {}", id);
+        return reservationRepository.findById(id).orElseThrow(() -> {
+            logger.error("Reservation with ID: {} does not exist", id);
+            return new NoReservationFoundException("Reservation with ID: " + id + " does not exist!");
+        });
+    }
+
+    /**
+     * The reservations of the parking that still hold capacity, by start.
+     */
+    public List<ReservationEntity> getReservations(Long parkingId) {
+        logger.debug("Fetching reservations of parking with ID: {}", parkingId);
+        if (!parkingRepository.existsById(parkingId)) {
+            logger.error("Parking with ID: {} does not exist", parkingId);
+            throw new NoParkingFoundException("Parking with ID: " + parkingId + " does not exist!");
+        }
+        return reservationRepository.findOpenByParkingId(parkingId, clock.instant());
+    }
+
+    public void cancelReservation(Long id) {
+        logger.debug("Cancelling reservation with ID: {}", id);
+        ReservationEntity reservation = getReservation(id);
+        reservationRepository.delete(reservation);
+        if (reservation.getClaimedAt() == null) {
+            reservationIndex.release(reservation);
+        }
+        logger.info("Cancelled reservation with ID: {}", id);
+    }
+
+    /**
+     * What the reservations of other cars hold in the parking right now; a running reservation of
+     * the car itself leaves its space to the car.
+     */
+    public Reserved reservedForArrival(Long parkingId, Long carId) {
+        return reservationIndex.reservedAt(parkingId, clock.instant(), carId);
+    }
+
+    /**
+     * Claims the car's running reservation in the parking, if it has one, once the car is parked.
+     */
+    public void claim(Long parkingId, Long carId) {
+        Instant now = clock.instant();
+        Long claimed = reservationIndex.claim(parkingId, carId, now);
+        if (claimed != null) {
+            reservationRepository.markClaimed(claimed, now);
+            logger.debug("Car with ID: {} claimed reservation with ID: {}", carId, claimed);
+        }
+    }
+
+    /**
+     * The most spaces and chargers the parking's reservations hold at any minute from now on.
+     */
+    public Reserved peak(Long parkingId) {
+        return reservationIndex.peak(parkingId, clock.instant(),
+                Instant.ofEpochSecond(ReservationIndex.MAX_EPOCH_MINUTE * 60));
+    }
+
+    public void deleteByParking(Long parkingId) {
+        reservationRepository.deleteByParkingId(parkingId);
+        reservationIndex.remove(parkingId);
+    }
+
+    public void deleteByCar(Long carId) {
+        List<ReservationEntity> reservations = reservationRepository.findByCarId(carId);
+        if (reservations.isEmpty()) {
+            return;
+        }
+        for (ReservationEntity reservation : reservations) {
+            if (reservation.getClaimedAt() == null) {
+                reservationIndex.release(reservation);
+            }
+        }
+        reservationRepository.deleteByCarId(carId);
+        logger.info("Deleted {} reservations of car with ID: {}", reservations.size(), carId);
+    }
+
+    /**
+     * Fills the {@link ReservationIndex} with the reservations that still hold capacity.
+     */
+    public void reload() {
+        reservationIndex.rebuild(reservationRepository.findOpen(clock.instant()));
+    }
+
+    private void validateWindow(ReservationEntity reservation, Instant now) {
+        if (!reservation.getStartsAt().isBefore(reservation.getEndsAt())) {
+            logger.error("Reservation starting at {} does not end after its start", reservation.getStartsAt());
+            throw new InvalidReservationException("A reservation must end after it starts!");
+        }
+        if (!reservation.getEndsAt().isAfter(now)) {
+            logger.error("Reservation ending at {} is already over", reservation.getEndsAt());
+            throw new InvalidReservationException("A reservation must end in the future!");
+        }
+        if (reservation.getEndsAt().isAfter(now.plus(maxHorizon))
+                || !ReservationIndex.isIndexable(reservation.getStartsAt(), reservation.getEndsAt())) {
+            logger.error("Reservation ending at {} is too far ahead", reservation.getEndsAt());
+            throw new InvalidReservationException("Reservations can end at most " + maxHorizon.toDays()
+                    + " days ahead!");
+        }
+    }
+
+    private void validateCar(ParkingEntity parking, CarEntity car, ReservationEntity reservation) {
+        if (car.getFuelType().equals(FuelType.LPG) && !parking.isLpgAllowed()) {
+            logger.error("LPG cars are not allowed in parking with ID: {}", parking.getId());
+            throw new LpgNotAllowedException("You can't park LPG car here!");
+        }
+
+        if (car.getWidth() > parking.getWidthOfParkingSpace()) {
+            logger.error("Car with width {} is too wide for parking with ID: {}", car.getWidth(), parking.getId());
+            throw new CarTooWideException("Your car is too wide to park here!");
+        }
+
+        if (reservation.isNeedsCharger() && car.getFuelType() != FuelType.ELECTRIC) {
+            logger.error("Car with ID: {} is not electric but asks for a charger", car.getId());
+            throw new InvalidReservationException("Only electric cars can reserve a charger!");
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.carParking.service;
+
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingSlotEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks the free slots of lots that have a slot layout. Slots with the same width, charger and
+ * LPG attributes form a class and every class keeps a bitset of its free slots, so allocation
+ * looks at one bitset per class instead of scanning slots or parked cars.
+ * <p>
+ * Changes made inside a transaction are undone in reverse order if that transaction rolls back.
+ */
+@Component
+public class SlotAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotAllocator.class);
+
+    private static final long NO_SLOT = -1;
+
+    private final ConcurrentMap<Long, LotSlots> lots = new ConcurrentHashMap<>();
+
+    private final Object compensationsKey = new Object();
+
+    public boolean hasSlots(Long parkingId) {
+        return lots.containsKey(parkingId);
+    }
+
+    /**
+     * Installs the layout of a lot, with all slots free, once the surrounding transaction commits.
+     * An empty layout turns the lot back into one without slots.
+     */
+    public void define(Long parkingId, List<ParkingSlotEntity> slots) {
+        LotSlots layout = slots.isEmpty() ? null : new LotSlots(slots);
+        afterCommit(() -> {
+            if (layout == null) {
+                lots.remove(parkingId);
+            } else {
+                lots.put(parkingId, layout);
+            }
+        });
+    }
+
+    public void remove(Long parkingId) {
+        afterCommit(() -> lots.remove(parkingId));
+    }
+
+    public void rebuild(Collection<ParkingSlotEntity> slots, Collection<Long> occupiedSlotIds) {
+        lots.clear();
+        Map<Long, List<ParkingSlotEntity>> slotsByParking = slots.stream()
+                .collect(Collectors.groupingBy(slot -> slot.getParking().getId()));
+        slotsByParking.forEach((parkingId, lotSlots) -> lots.put(parkingId, new LotSlots(lotSlots)));
+        Set<Long> occupied = new HashSet<>(occupiedSlotIds);
+        for (LotSlots lot : lots.values()) {
+            for (Long slotId : lot.slotIds()) {
+                if (occupied.contains(slotId)) {
+                    lot.occupy(slotId);
+                }
+            }
+        }
+        logger.info("Rebuilt slot occupancy for {} parkings", lots.size());
+    }
+
+    /**
+     * Replaces the layout and occupancy of one lot with ones read from the database, unless
+     * {@code unchanged} reports that the lot was touched since they were read.
+     */
+    public boolean reconcile(Long parkingId, List<ParkingSlotEntity> slots, Collection<Long> occupiedSlotIds,
+                             BooleanSupplier unchanged) {
+        LotSlots layout = slots.isEmpty() ? null : new LotSlots(slots);
+        if (layout != null) {
+            occupiedSlotIds.forEach(layout::occupy);
+        }
+        if (!unchanged.getAsBoolean()) {
+            return false;
+        }
+        if (layout == null) {
+            lots.remove(parkingId);
+        } else {
+            lots.put(parkingId, layout);
+        }
+        return true;
+    }
+
+    /**
+     * Reserves the narrowest free slot the car fits in. Plain slots are preferred over charger and
+     * LPG bays, which are only used when the car needs them or nothing else is free.
+     *
+     * @return the reserved slot ID, or {@code null} when no free slot fits the car
+     */
+    public Long allocate(Long parkingId, FuelType fuelType, double width) {
+        LotSlots lot = lots.get(parkingId);
+        if (lot == null) {
+            return null;
+        }
+        long slotId = lot.allocate(fuelType == FuelType.ELECTRIC, fuelType == FuelType.LPG, width);
+        if (slotId == NO_SLOT) {
+            return null;
+        }
+        onRollback(() -> lot.free(slotId));
+        return slotId;
+    }
+
+    public void release(Long parkingId, Long slotId) {
+        LotSlots lot = lots.get(parkingId);
+        if (lot == null || !lot.free(slotId)) {
+            return;
+        }
+        onRollback(() -> lot.occupy(slotId));
+    }
+
+    /**
+     * Tells whether {@link #allocate} would currently find a slot, without reserving it. Lots without
+     * a layout always report {@code true}.
+     */
+    public boolean hasFreeSlot(Long parkingId, FuelType fuelType, double width) {
+        LotSlots lot = lots.get(parkingId);
+        return lot == null || lot.hasFree(fuelType == FuelType.ELECTRIC, fuelType == FuelType.LPG, width);
+    }
+
+    public boolean fits(Long parkingId, Long slotId, FuelType fuelType, double width) {
+        LotSlots lot = lots.get(parkingId);
+        return lot == null || lot.fits(slotId, fuelType == FuelType.ELECTRIC, fuelType == FuelType.LPG, width);
+    }
+
+    public boolean isOccupied(Long parkingId, Long slotId) {
+        LotSlots lot = lots.get(parkingId);
+        return lot != null && lot.isOccupied(slotId);
+    }
+
+    /**
+     * Bitset operations on the same slot do not commute, so compensations of one transaction are
+     * collected in a stack and run last-in first-out.
+     */
+    private void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Deque<Runnable> compensations = (Deque<Runnable>) TransactionSynchronizationManager.getResource(compensationsKey);
+        if (compensations == null) {
+            Deque<Runnable> stack = new ArrayDeque<>();
+            compensations = stack;
+            TransactionSynchronizationManager.bindResource(compensationsKey, stack);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                // Slots are restored while the lot is still locked.
+                @Override
+                public int getOrder() {
+                    return Ordered.HIGHEST_PRECEDENCE;
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(compensationsKey);
+                    if (status != STATUS_COMMITTED) {
+                        stack.forEach(Runnable::run);
+                    }
+                }
+            });
+        }
+        compensations.push(compensation);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static final class LotSlots {
+
+        /**
+         * Narrowest first, so a car takes the tightest slot it fits; among equally wide slots
+         * plain ones come before LPG bays and those before charger bays.
+         */
+        private static final Comparator<SlotClass> PREFERENCE = Comparator
+                .comparingDouble((SlotClass slotClass) -> slotClass.width)
+                .thenComparing(slotClass -> slotClass.charger)
+                .thenComparing(slotClass -> slotClass.lpgAllowed);
+
+        private final SlotClass[] classes;
+        private final Map<Long, SlotClass> classBySlotId = new HashMap<>();
+        private final Map<Long, Integer> bitBySlotId = new HashMap<>();
+
+        private LotSlots(Collection<ParkingSlotEntity> slots) {
+            Map<List<Object>, List<ParkingSlotEntity>> slotsByClass = slots.stream()
+                    .collect(Collectors.groupingBy(slot -> List.of(slot.getWidth(), slot.isCharger(), slot.isLpgAllowed())));
+            List<SlotClass> sorted = new ArrayList<>();
+            for (List<ParkingSlotEntity> classSlots : slotsByClass.values()) {
+                ParkingSlotEntity first = classSlots.get(0);
+                SlotClass slotClass = new SlotClass(first.getWidth(), first.isCharger(), first.isLpgAllowed(), classSlots.size());
+                for (int bit = 0; bit < classSlots.size(); bit++) {
+                    Long slotId = classSlots.get(bit).getId();
+                    slotClass.slotIds[bit] = slotId;
+                    classBySlotId.put(slotId, slotClass);
+                    bitBySlotId.put(slotId, bit);
+                }
+                sorted.add(slotClass);
+            }
+            sorted.sort(PREFERENCE);
+            this.classes = sorted.toArray(new SlotClass[0]);
+        }
+
+        synchronized long allocate(boolean needsCharger, boolean needsLpg, double width) {
+            for (SlotClass slotClass : classes) {
+                if (slotClass.freeCount == 0 || slotClass.width < width
+                        || (needsCharger && !slotClass.charger) || (needsLpg && !slotClass.lpgAllowed)) {
+                    continue;
+                }
+                int bit = slotClass.free.nextSetBit(0);
+                slotClass.free.clear(bit);
+                slotClass.freeCount--;
+                return slotClass.slotIds[bit];
+            }
+            return NO_SLOT;
+        }
+
+        synchronized boolean hasFree(boolean needsCharger, boolean needsLpg, double width) {
+            for (SlotClass slotClass : classes) {
+                if (slotClass.freeCount > 0 && slotClass.width >= width
+                        && (!needsCharger || slotClass.charger) && (!needsLpg || slotClass.lpgAllowed)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean free(long slotId) {
+            SlotClass slotClass = classBySlotId.get(slotId);
+            if (slotClass == null) {
+                return false;
+            }
+            int bit = bitBySlotId.get(slotId);
+            if (slotClass.free.get(bit)) {
+                return false;
+            }
+            slotClass.free.set(bit);
+            slotClass.freeCount++;
+            return true;
+        }
+
+        synchronized void occupy(long slotId) {
+            SlotClass slotClass = classBySlotId.get(slotId);
+            if (slotClass == null) {
+                return;
+            }
+            int bit = bitBySlotId.get(slotId);
+            if (slotClass.free.get(bit)) {
+                slotClass.free.clear(bit);
+                slotClass.freeCount--;
+            }
+        }
+
+        synchronized boolean isOccupied(long slotId) {
+            SlotClass slotClass = classBySlotId.get(slotId);
+            return slotClass != null && !slotClass.free.get(bitBySlotId.get(slotId));
+        }
+
+        boolean fits(long slotId, boolean needsCharger, boolean needsLpg, double width) {
+            SlotClass slotClass = classBySlotId.get(slotId);
+            return slotClass != null && slotClass.width >= width
+                    && (!needsCharger || slotClass.charger) && (!needsLpg || slotClass.lpgAllowed);
+        }
+
+        Set<Long> slotIds() {
+            return classBySlotId.keySet();
+        }
+    }
+
+    private static final class SlotClass {
+
+        private final double width;
+        private final boolean charger;
+        private final boolean lpgAllowed;
+        private final long[] slotIds;
+        private final BitSet free;
+        private int freeCount;
+
+        private SlotClass(double width, boolean charger, boolean lpgAllowed, int size) {
+            this.width = width;
+            this.charger = charger;
+            this.lpgAllowed = lpgAllowed;
+            this.slotIds = new long[size];
+            this.free = new BitSet(size);
+            this.free.set(0, size);
+            this.freeCount = size;
+        }
+    }
+}
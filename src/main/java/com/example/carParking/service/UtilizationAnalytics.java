@@ -0,0 +1,338 @@
+package com.example.carParking.service;
+
+import com.example.carParking.dto.UtilizationBucketDTO;
+import com.example.carParking.dto.UtilizationDTO;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingSessionEventEntity;
+import com.example.carParking.model.ParkingSessionEventType;
+import com.example.carParking.model.UtilizationRollupEntity;
+import com.example.carParking.model.UtilizationWindow;
+import com.example.carParking.repository.UtilizationRollupStore;
+import com.example.carParking.service.OccupancyEngine.OccupancyCounts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps rolling utilization per lot and fuel type, fed by committed parking session events. Every
+ * lot holds a fixed ring of buckets per {@link UtilizationWindow}, so state does not grow with
+ * traffic and reads never touch the session log. Occupancy is integrated over time from the counts
+ * of the {@link OccupancyEngine}; dwell time comes from matching exits with the enter of the same car.
+ * <p>
+ * Closed hours are queued as rollups and written by {@link #flush()}.
+ */
+@Component
+public class UtilizationAnalytics {
+
+    private static final Logger logger = LoggerFactory.getLogger(UtilizationAnalytics.class);
+
+    private static final FuelType[] FUEL_TYPES = FuelType.values();
+    private static final int ALL = FUEL_TYPES.length;
+    private static final int SERIES = FUEL_TYPES.length + 1;
+
+    private final OccupancyEngine occupancyEngine;
+    private final AvailabilityService availabilityService;
+    private final UtilizationRollupStore utilizationRollupStore;
+    private final Clock clock;
+    private final ConcurrentMap<Long, LotUtilization> lots = new ConcurrentHashMap<>();
+    private final Queue<UtilizationRollupEntity> pendingRollups = new ConcurrentLinkedQueue<>();
+
+    public UtilizationAnalytics(ParkingSessionLedger parkingSessionLedger, OccupancyEngine occupancyEngine,
+                                AvailabilityService availabilityService, UtilizationRollupStore utilizationRollupStore,
+                                Clock clock) {
+        this.occupancyEngine = occupancyEngine;
+        this.availabilityService = availabilityService;
+        this.utilizationRollupStore = utilizationRollupStore;
+        this.clock = clock;
+        parkingSessionLedger.addListener(this::sessionRecorded);
+    }
+
+    /**
+     * Returns the retained buckets of a lot, oldest first. The bucket in progress is included and
+     * covers the time up to now.
+     */
+    public UtilizationDTO getUtilization(Long parkingId, UtilizationWindow window) {
+        availabilityService.getAvailability(parkingId);
+        LotUtilization lot = lot(parkingId);
+        List<UtilizationBucketDTO> buckets;
+        synchronized (lot) {
+            lot.advance(clock.millis(), pendingRollups);
+            buckets = lot.rings[window.ordinal()].buckets(lot.lastMillis);
+        }
+        return UtilizationDTO.builder()
+                .parkingId(parkingId)
+                .window(window)
+                .buckets(buckets)
+                .build();
+    }
+
+    void sessionRecorded(ParkingSessionEventEntity event) {
+        LotUtilization lot = lot(event.getParkingId());
+        synchronized (lot) {
+            // Counts are read at commit, so the commit time is when they started to hold.
+            long millis = Math.max(clock.millis(), lot.lastMillis);
+            lot.advance(millis, pendingRollups);
+            lot.updateCounts(occupancyEngine.getCounts(event.getParkingId()));
+            if (event.getType() == ParkingSessionEventType.ENTER) {
+                lot.enteredAt.put(event.getCarId(), millis);
+            } else {
+                Long enteredAt = lot.enteredAt.remove(event.getCarId());
+                if (enteredAt != null) {
+                    lot.sessionCompleted(event.getFuelType(), millis - enteredAt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes every bucket that ended, writes the rollups of closed hours and forgets deleted lots.
+     */
+    @Scheduled(fixedDelayString = "${carparking.analytics.flush-interval:PT1M}",
+            initialDelayString = "${carparking.analytics.flush-interval:PT1M}")
+    public void flush() {
+        long now = clock.millis();
+        for (Map.Entry<Long, LotUtilization> entry : lots.entrySet()) {
+            LotUtilization lot = entry.getValue();
+            synchronized (lot) {
+                lot.advance(now, pendingRollups);
+            }
+            if (availabilityService.findAvailability(entry.getKey()) == null) {
+                lots.remove(entry.getKey(), lot);
+            }
+        }
+
+        List<UtilizationRollupEntity> rollups = new ArrayList<>();
+        for (UtilizationRollupEntity rollup; (rollup = pendingRollups.poll()) != null; ) {
+            rollups.add(rollup);
+        }
+        if (rollups.isEmpty()) {
+            return;
+        }
+        try {
+            utilizationRollupStore.appendAll(rollups);
+            logger.info("Wrote {} utilization rollups", rollups.size());
+        } catch (RuntimeException e) {
+            logger.error("Failed to write {} utilization rollups", rollups.size(), e);
+        }
+    }
+
+    private LotUtilization lot(Long parkingId) {
+        return lots.computeIfAbsent(parkingId,
+                id -> new LotUtilization(id, clock.millis(), occupancyEngine.getCounts(id)));
+    }
+
+    private static final class LotUtilization {
+
+        private final Long parkingId;
+        private final int[] counts = new int[SERIES];
+        private final Ring[] rings;
+        private final Map<Long, Long> enteredAt = new HashMap<>();
+        private long lastMillis;
+
+        private LotUtilization(Long parkingId, long now, OccupancyCounts counts) {
+            this.parkingId = parkingId;
+            this.lastMillis = now;
+            setCounts(counts);
+            UtilizationWindow[] windows = UtilizationWindow.values();
+            this.rings = new Ring[windows.length];
+            for (int i = 0; i < windows.length; i++) {
+                rings[i] = new Ring(windows[i]);
+                rings[i].open(now / rings[i].length, this.counts);
+            }
+        }
+
+        void advance(long now, Queue<UtilizationRollupEntity> rollups) {
+            if (now <= lastMillis) {
+                return;
+            }
+            for (Ring ring : rings) {
+                ring.advance(lastMillis, now, counts,
+                        ring.window == UtilizationWindow.HOUR ? slot -> ring.rollups(parkingId, slot, rollups) : null);
+            }
+            lastMillis = now;
+        }
+
+        void updateCounts(OccupancyCounts occupancy) {
+            setCounts(occupancy);
+            for (Ring ring : rings) {
+                ring.raisePeaks(ring.slot(lastMillis / ring.length), counts);
+            }
+        }
+
+        void sessionCompleted(FuelType fuelType, long dwellMillis) {
+            for (Ring ring : rings) {
+                int slot = ring.slot(lastMillis / ring.length);
+                ring.sessionCompleted(slot, fuelType.ordinal(), dwellMillis);
+                ring.sessionCompleted(slot, ALL, dwellMillis);
+            }
+        }
+
+        private void setCounts(OccupancyCounts occupancy) {
+            for (FuelType fuelType : FUEL_TYPES) {
+                counts[fuelType.ordinal()] = occupancy.getCount(fuelType);
+            }
+            counts[ALL] = occupancy.getTotal();
+        }
+    }
+
+    /**
+     * The retained buckets of one window. Per-series values are laid out as
+     * {@code [slot * SERIES + series]} in primitive arrays.
+     */
+    private static final class Ring {
+
+        private final UtilizationWindow window;
+        private final long length;
+        private final int size;
+        private final long[] bucket;
+        private final long[] observedMillis;
+        private final long[] occupiedMillis;
+        private final int[] peak;
+        private final long[] completed;
+        private final long[] dwellMillis;
+
+        private Ring(UtilizationWindow window) {
+            this.window = window;
+            this.length = window.getLength().toMillis();
+            this.size = window.getRetained();
+            this.bucket = new long[size];
+            Arrays.fill(bucket, -1);
+            this.observedMillis = new long[size];
+            this.occupiedMillis = new long[size * SERIES];
+            this.peak = new int[size * SERIES];
+            this.completed = new long[size * SERIES];
+            this.dwellMillis = new long[size * SERIES];
+        }
+
+        int slot(long bucketIndex) {
+            return (int) Math.floorMod(bucketIndex, (long) size);
+        }
+
+        void open(long bucketIndex, int[] counts) {
+            int slot = slot(bucketIndex);
+            bucket[slot] = bucketIndex;
+            observedMillis[slot] = 0;
+            for (int series = 0; series < SERIES; series++) {
+                int i = slot * SERIES + series;
+                occupiedMillis[i] = 0;
+                peak[i] = counts[series];
+                completed[i] = 0;
+                dwellMillis[i] = 0;
+            }
+        }
+
+        /**
+         * Integrates the counts from {@code from} to {@code to}. Buckets older than the ring would be
+         * overwritten anyway, so a long gap only opens the last {@code size} of them.
+         */
+        void advance(long from, long to, int[] counts, ClosedBucketHandler onClosed) {
+            long fromBucket = from / length;
+            long toBucket = to / length;
+            int fromSlot = slot(fromBucket);
+            integrate(fromSlot, to > (fromBucket + 1) * length ? (fromBucket + 1) * length - from : to - from, counts);
+            if (toBucket == fromBucket) {
+                return;
+            }
+            if (onClosed != null) {
+                onClosed.closed(fromSlot);
+            }
+            for (long b = Math.max(fromBucket + 1, toBucket - size + 1); b <= toBucket; b++) {
+                open(b, counts);
+                int slot = slot(b);
+                integrate(slot, Math.min(to, (b + 1) * length) - b * length, counts);
+                if (b < toBucket && onClosed != null) {
+                    onClosed.closed(slot);
+                }
+            }
+        }
+
+        void raisePeaks(int slot, int[] counts) {
+            for (int series = 0; series < SERIES; series++) {
+                int i = slot * SERIES + series;
+                peak[i] = Math.max(peak[i], counts[series]);
+            }
+        }
+
+        void sessionCompleted(int slot, int series, long dwell) {
+            int i = slot * SERIES + series;
+            completed[i]++;
+            dwellMillis[i] += dwell;
+        }
+
+        List<UtilizationBucketDTO> buckets(long now) {
+            long current = now / length;
+            List<UtilizationBucketDTO> buckets = new ArrayList<>(size);
+            for (long b = current - size + 1; b <= current; b++) {
+                int slot = slot(b);
+                if (bucket[slot] != b || observedMillis[slot] == 0) {
+                    continue;
+                }
+                int base = slot * SERIES;
+                Map<FuelType, Double> byFuelType = new EnumMap<>(FuelType.class);
+                for (FuelType fuelType : FUEL_TYPES) {
+                    byFuelType.put(fuelType, average(occupiedMillis[base + fuelType.ordinal()], observedMillis[slot]));
+                }
+                long sessions = completed[base + ALL];
+                buckets.add(UtilizationBucketDTO.builder()
+                        .start(Instant.ofEpochMilli(b * length))
+                        .averageOccupancy(average(occupiedMillis[base + ALL], observedMillis[slot]))
+                        .peakOccupancy(peak[base + ALL])
+                        .peakChargerUsage(peak[base + FuelType.ELECTRIC.ordinal()])
+                        .completedSessions(sessions)
+                        .averageDwellSeconds(sessions == 0 ? null : dwellMillis[base + ALL] / 1000.0 / sessions)
+                        .averageOccupancyByFuelType(byFuelType)
+                        .build());
+            }
+            return buckets;
+        }
+
+        /**
+         * Queues the closed bucket as one row for the whole lot plus one per fuel type that saw any
+         * use, so quiet fuel types cost nothing.
+         */
+        void rollups(Long parkingId, int slot, Queue<UtilizationRollupEntity> rollups) {
+            if (observedMillis[slot] == 0) {
+                return;
+            }
+            for (int series = 0; series < SERIES; series++) {
+                int i = slot * SERIES + series;
+                if (series != ALL && occupiedMillis[i] == 0 && peak[i] == 0 && completed[i] == 0) {
+                    continue;
+                }
+                rollups.add(UtilizationRollupEntity.builder()
+                        .parkingId(parkingId)
+                        .fuelType(series == ALL ? null : FUEL_TYPES[series])
+                        .bucketStart(Instant.ofEpochMilli(bucket[slot] * length))
+                        .occupiedMillis(occupiedMillis[i])
+                        .peakOccupancy(peak[i])
+                        .completedSessions(completed[i])
+                        .dwellMillis(dwellMillis[i])
+                        .build());
+            }
+        }
+
+        private void integrate(int slot, long millis, int[] counts) {
+            observedMillis[slot] += millis;
+            for (int series = 0; series < SERIES; series++) {
+                occupiedMillis[slot * SERIES + series] += counts[series] * millis;
+            }
+        }
+
+        private static double average(long occupied, long observed) {
+            return (double) occupied / observed;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ClosedBucketHandler {
+        void closed(int slot);
+    }
+}
@@ -0,0 +1,510 @@
+package com.example.carParking.service;
+
+import com.example.carParking.exceptions.AssignmentsNotWrittenException;
+import com.example.carParking.model.CarAssignment;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingSlotEntity;
+import com.example.carParking.repository.AssignmentLog;
+import com.example.carParking.repository.AssignmentLog.SyncPolicy;
+import com.example.carParking.repository.CarAssignmentStore;
+import com.example.carParking.repository.CarRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind mode for parking and unparking, enabled with {@code carparking.write-behind.enabled}.
+ * Admission still runs against the in-memory lot state, but the resulting car assignment is not
+ * written in the request's transaction. It is kept here, coalesced per car, and written to the
+ * database in batches ordered by car ID every {@code flush-interval} or as soon as
+ * {@code batch-size} cars are waiting, whichever comes first.
+ * <p>
+ * With {@code carparking.write-behind.wal.enabled} every assignment is appended to a local
+ * {@link AssignmentLog} before the request commits, and by default forced to disk too (see
+ * {@code wal.fsync}), so an acknowledged move survives a crash: {@link #recover()} writes the log
+ * from its last checkpoint to the database on the next start. Each flush moves the checkpoint.
+ * Without the log, moves acknowledged since the last flush are lost on a crash.
+ * <p>
+ * The in-JVM locks and the log are local, so the mode is only for a single instance. Until a flush,
+ * reads that go to the database may show a car where it was before.
+ * <p>
+ * Only the flusher thread writes while the application runs. Requests that need rows to be current
+ * ({@link #settle}, {@link #settleAll}) wake it and wait, so they never take a second connection
+ * from the pool, and fail with {@link AssignmentsNotWrittenException} if the write fails or takes
+ * longer than {@code settle-timeout}.
+ */
+@Component
+public class WriteBehindAssignments implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindAssignments.class);
+
+    private final CarAssignmentStore carAssignmentStore;
+    private final CarRepository carRepository;
+    private final ParkingLocks parkingLocks;
+    private final CacheEvictor cacheEvictor;
+    private final EntityManager entityManager;
+    private final TransactionTemplate flushTransaction;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int batchSize;
+    private final Duration settleTimeout;
+    private final AssignmentLog assignmentLog;
+    private final SyncPolicy syncPolicy;
+    private final ConcurrentMap<Long, CarAssignment> pending = new ConcurrentHashMap<>();
+    private final Set<Long> touchedParkings = new HashSet<>();
+    private final Object appendMonitor = new Object();
+    private final Object flushSignal = new Object();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object flushDone = new Object();
+    private final Counter failedAssignments;
+
+    private volatile boolean running;
+    private Thread flusher;
+    // Guarded by flushSignal.
+    private boolean flushRequested;
+    // Guarded by flushDone.
+    private long flushesStarted;
+    private long flushesFinished;
+    private RuntimeException lastFlushFailure;
+
+    public WriteBehindAssignments(CarAssignmentStore carAssignmentStore, CarRepository carRepository,
+                                  ParkingLocks parkingLocks, CacheEvictor cacheEvictor, EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                  @Value("${carparking.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${carparking.write-behind.flush-interval:PT0.1S}") Duration flushInterval,
+                                  @Value("${carparking.write-behind.batch-size:1000}") int batchSize,
+                                  @Value("${carparking.write-behind.settle-timeout:PT5S}") Duration settleTimeout,
+                                  @Value("${carparking.write-behind.wal.enabled:true}") boolean walEnabled,
+                                  @Value("${carparking.write-behind.wal.directory:data/write-behind}") Path walDirectory,
+                                  @Value("${carparking.write-behind.wal.segment-size:64MB}") DataSize segmentSize,
+                                  @Value("${carparking.write-behind.wal.fsync:COMMIT}") SyncPolicy syncPolicy) {
+        this.carAssignmentStore = carAssignmentStore;
+        this.carRepository = carRepository;
+        this.parkingLocks = parkingLocks;
+        this.cacheEvictor = cacheEvictor;
+        this.entityManager = entityManager;
+        // Flushes must commit on their own: a caller that settles and then rolls back must not
+        // take the flushed assignments with it.
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.settleTimeout = settleTimeout;
+        this.syncPolicy = syncPolicy;
+        this.assignmentLog = enabled && walEnabled
+                ? new AssignmentLog(walDirectory, Math.toIntExact(segmentSize.toBytes()), syncPolicy)
+                : null;
+        Gauge.builder("carparking.write-behind.pending", pending, Map::size)
+                .description("Car assignments acknowledged but not yet written to the database")
+                .register(meterRegistry);
+        this.failedAssignments = Counter.builder("carparking.write-behind.failed")
+                .description("Car assignments that could not be written and were dropped")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Serializes changes to the car until the current transaction completes. Without write-behind
+     * the car's version column does that, so nothing is locked.
+     */
+    public void lockCar(Long carId) {
+        lockCars(List.of(carId));
+    }
+
+    public void lockCars(Collection<Long> carIds) {
+        if (enabled) {
+            parkingLocks.lockCarsUntilCompletion(carIds);
+        }
+    }
+
+    /**
+     * Locks the cars and has any assignment still waiting for them written, for code paths that
+     * change or check a car through JPA and need its row to be current. Call before loading the
+     * cars.
+     *
+     * @throws AssignmentsNotWrittenException if the assignments could not be written in time
+     */
+    public void settle(Collection<Long> carIds) {
+        if (!enabled) {
+            return;
+        }
+        lockCars(carIds);
+        if (carIds.stream().anyMatch(pending::containsKey)) {
+            awaitFlush();
+        }
+    }
+
+    /**
+     * @throws AssignmentsNotWrittenException if the assignments could not be written in time
+     */
+    public void settleAll() {
+        if (enabled && !pending.isEmpty()) {
+            awaitFlush();
+        }
+    }
+
+    /**
+     * Detaches the car so changing it writes nothing, and moves it to where its waiting
+     * assignment, if any, puts it.
+     */
+    public void applyPending(CarEntity car) {
+        entityManager.detach(car);
+        CarAssignment assignment = pending.get(car.getId());
+        if (assignment != null) {
+            car.setParking(assignment.getParkingId() == null ? null
+                    : entityManager.getReference(ParkingEntity.class, assignment.getParkingId()));
+            car.setSlot(assignment.getSlotId() == null ? null
+                    : entityManager.getReference(ParkingSlotEntity.class, assignment.getSlotId()));
+        }
+    }
+
+    /**
+     * The ID of the parking the car is in once its waiting assignment is written, or
+     * {@code null} when it is not parked.
+     */
+    public Long parkingIdOf(CarEntity car) {
+        CarAssignment assignment = pending.get(car.getId());
+        if (assignment != null) {
+            return assignment.getParkingId();
+        }
+        return car.getParking() != null ? car.getParking().getId() : null;
+    }
+
+    /**
+     * Detaches the parking, whose cars must already be loaded, and corrects its car list by the
+     * waiting assignments: cars that left are removed and cars that arrived are added.
+     */
+    public void applyPending(ParkingEntity parking) {
+        entityManager.detach(parking);
+        List<CarEntity> cars = parking.getCars();
+        cars.removeIf(car -> {
+            CarAssignment assignment = pending.get(car.getId());
+            return assignment != null && !parking.getId().equals(assignment.getParkingId());
+        });
+        Set<Long> present = new HashSet<>();
+        cars.forEach(car -> present.add(car.getId()));
+        List<Long> arrived = pending.values().stream()
+                .filter(assignment -> parking.getId().equals(assignment.getParkingId()))
+                .map(CarAssignment::getCarId)
+                .filter(carId -> !present.contains(carId))
+                .toList();
+        if (!arrived.isEmpty()) {
+            cars.addAll(carRepository.findAllById(arrived));
+        }
+    }
+
+    /**
+     * Takes over the move of {@code car} from {@code before} to where it is now. In a transaction
+     * the move is logged and queued just before the commit, and taken back if the transaction still
+     * rolls back. The caller holds the car's lock ({@link #lockCar}); taking the move back runs
+     * before that lock is released, so it cannot overwrite a newer move of the car.
+     */
+    public void record(CarAssignment before, CarEntity car) {
+        CarAssignment after = CarAssignment.of(car);
+        FuelType fuelType = car.getFuelType();
+        if (before.equals(after)) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(before, after, fuelType);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean enqueued;
+
+            // Completion callbacks run in order, the car lock's unlock being unordered.
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                enqueue(before, after, fuelType);
+                enqueued = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (enqueued && status != STATUS_COMMITTED) {
+                    logger.warn("Taking back the assignment of car with ID: {} after a rollback", after.getCarId());
+                    enqueue(after, before, fuelType);
+                }
+            }
+        });
+    }
+
+    /**
+     * Writes every assignment waiting so far on the calling thread, in a transaction of its own.
+     * Returns once they are in the database.
+     *
+     * @throws AssignmentsNotWrittenException if the write failed; the assignments stay queued for
+     *                                        the next attempt
+     */
+    public void flush() {
+        flushLock.lock();
+        long number;
+        RuntimeException failure = null;
+        synchronized (flushDone) {
+            number = ++flushesStarted;
+        }
+        try {
+            failure = writePending();
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            synchronized (flushDone) {
+                flushesFinished = number;
+                lastFlushFailure = failure;
+                flushDone.notifyAll();
+            }
+            flushLock.unlock();
+        }
+        if (failure != null) {
+            throw new AssignmentsNotWrittenException("Car assignments could not be written, please retry.", failure);
+        }
+    }
+
+    /**
+     * Writes the assignments left in the log by the previous run to the database. Must run before
+     * anything reads car positions from the database.
+     */
+    public void recover() {
+        if (assignmentLog == null) {
+            return;
+        }
+        Map<Long, CarAssignment> latest = new HashMap<>();
+        assignmentLog.replay(entry -> latest.put(entry.assignment().getCarId(), entry.assignment()));
+        if (!latest.isEmpty()) {
+            write(new ArrayList<>(latest.values()));
+            logger.info("Recovered {} car assignments from the write-ahead log", latest.size());
+        }
+        assignmentLog.checkpoint(assignmentLog.position());
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushPeriodically, "write-behind-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Writes whatever is still waiting before the log is closed, so a clean shutdown leaves no log
+     * to recover.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            synchronized (flushSignal) {
+                flushSignal.notifyAll();
+            }
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!pending.isEmpty()) {
+            logger.error("Shut down with {} car assignments not written", pending.size());
+        }
+        if (assignmentLog != null) {
+            assignmentLog.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Waits for a flush that starts after this call. While the flusher runs it does the writing,
+     * so the caller does not need a second connection; before it starts and after it stops the
+     * caller flushes itself.
+     */
+    private void awaitFlush() {
+        if (!running) {
+            flush();
+            return;
+        }
+        long target;
+        synchronized (flushDone) {
+            target = flushesStarted + 1;
+        }
+        synchronized (flushSignal) {
+            flushRequested = true;
+            flushSignal.notifyAll();
+        }
+        long deadline = System.nanoTime() + settleTimeout.toNanos();
+        synchronized (flushDone) {
+            while (flushesFinished < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    logger.error("Car assignments were not written within {}", settleTimeout);
+                    throw new AssignmentsNotWrittenException("Car assignments are not written yet, please retry.");
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(flushDone, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AssignmentsNotWrittenException("Interrupted waiting for car assignments to be written.");
+                }
+            }
+            if (lastFlushFailure != null) {
+                throw new AssignmentsNotWrittenException("Car assignments could not be written, please retry.",
+                        lastFlushFailure);
+            }
+        }
+    }
+
+    /**
+     * @return the failure that left the batch queued, or {@code null} once it is written
+     */
+    private RuntimeException writePending() {
+        List<CarAssignment> batch;
+        Set<Long> parkingIds;
+        long checkpoint;
+        synchronized (appendMonitor) {
+            if (pending.isEmpty()) {
+                return null;
+            }
+            checkpoint = assignmentLog == null ? 0 : assignmentLog.position();
+            batch = new ArrayList<>(pending.values());
+            parkingIds = new HashSet<>(touchedParkings);
+            touchedParkings.clear();
+        }
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            logger.error("Failed to write {} car assignments, retrying with the next flush", batch.size(), e);
+            synchronized (appendMonitor) {
+                touchedParkings.addAll(parkingIds);
+            }
+            return e;
+        }
+        // Before the assignments leave the queue: once a car has nothing queued, it may be
+        // changed through JPA, and replaying its older record must not undo that.
+        if (assignmentLog != null) {
+            assignmentLog.checkpoint(checkpoint);
+        }
+        for (CarAssignment assignment : batch) {
+            // A newer move of the car stays queued for the next flush.
+            pending.remove(assignment.getCarId(), assignment);
+            cacheEvictor.evictCar(assignment.getCarId());
+        }
+        parkingIds.forEach(cacheEvictor::evictParking);
+        return null;
+    }
+
+    private void enqueue(CarAssignment before, CarAssignment after, FuelType fuelType) {
+        long position;
+        synchronized (appendMonitor) {
+            // Appended and queued together, so a flush whose checkpoint covers the record also
+            // writes the assignment.
+            position = assignmentLog == null ? 0
+                    : assignmentLog.append(after, fuelType, System.currentTimeMillis());
+            pending.put(after.getCarId(), after);
+            if (before.getParkingId() != null) {
+                touchedParkings.add(before.getParkingId());
+            }
+            if (after.getParkingId() != null) {
+                touchedParkings.add(after.getParkingId());
+            }
+        }
+        if (assignmentLog != null) {
+            assignmentLog.sync(position);
+        }
+        if (pending.size() >= batchSize) {
+            synchronized (flushSignal) {
+                flushSignal.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes the batch in car ID order. When a row breaks a constraint, for example because its
+     * parking was deleted meanwhile, the rows are retried one by one and only the broken ones are
+     * dropped; any other failure leaves the whole batch for the next attempt.
+     */
+    private void write(List<CarAssignment> batch) {
+        batch.sort(Comparator.comparing(CarAssignment::getCarId));
+        try {
+            flushTransaction.executeWithoutResult(status -> carAssignmentStore.updateAll(batch, batchSize));
+        } catch (DataIntegrityViolationException e) {
+            for (CarAssignment assignment : batch) {
+                try {
+                    flushTransaction.executeWithoutResult(status -> carAssignmentStore.update(assignment));
+                } catch (DataIntegrityViolationException rowFailure) {
+                    logger.error("Dropping assignment of car with ID: {} to parking with ID: {}",
+                            assignment.getCarId(), assignment.getParkingId(), rowFailure);
+                    failedAssignments.increment();
+                }
+            }
+        }
+    }
+
+    private void flushPeriodically() {
+        while (running) {
+            try {
+                synchronized (flushSignal) {
+                    if (running && pending.size() < batchSize && !flushRequested) {
+                        flushSignal.wait(flushInterval.toMillis());
+                    }
+                    flushRequested = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (assignmentLog != null && syncPolicy == SyncPolicy.INTERVAL) {
+                assignmentLog.force();
+            }
+            flushLogged();
+        }
+        flushLogged();
+    }
+
+    private void flushLogged() {
+        try {
+            flush();
+        } catch (AssignmentsNotWrittenException e) {
+            // Logged by writePending(); the batch stays queued for the next run.
+        } catch (RuntimeException e) {
+            logger.error("Write-behind flush failed", e);
+        }
+    }
+}
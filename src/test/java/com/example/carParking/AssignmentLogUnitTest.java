@@ -0,0 +1,88 @@
+package com.example.carParking;
+
+import com.example.carParking.model.CarAssignment;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.repository.AssignmentLog;
+import com.example.carParking.repository.AssignmentLog.Entry;
+import com.example.carParking.repository.AssignmentLog.SyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssignmentLogUnitTest {
+
+    // Three records per segment.
+    private static final int SEGMENT_SIZE = 3 * AssignmentLog.RECORD_SIZE;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void testReplay_ReadsRecordsAcrossSegmentsAndStopsAtATornRecord() throws IOException {
+        // given
+        AssignmentLog log = new AssignmentLog(directory, SEGMENT_SIZE, SyncPolicy.COMMIT);
+        for (long carId = 1; carId <= 5; carId++) {
+            log.sync(log.append(new CarAssignment(carId, 10L, carId == 5 ? null : 100 + carId), FuelType.LPG, 1_000 + carId));
+        }
+        log.close();
+        // A crash while the sixth record was copied: its first bytes made it, the checksum did not.
+        try (RandomAccessFile lastSegment = new RandomAccessFile(segments().get(1).toFile(), "rw")) {
+            lastSegment.seek(2L * AssignmentLog.RECORD_SIZE);
+            lastSegment.write(new byte[]{0, 0, 0, 0, 0, 0, 0, 6, 0, 0, 0, 0, 0, 0, 0, 10, 1, 2, 3, 4, 5, 6, 7, 8,
+                    0, 0, 0, 0, 0, 0, 0, 0, 1});
+        }
+
+        // when
+        List<Entry> entries = replay(new AssignmentLog(directory, SEGMENT_SIZE, SyncPolicy.COMMIT));
+
+        // then
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), entries.stream().map(entry -> entry.assignment().getCarId()).toList());
+        assertEquals(new CarAssignment(4L, 10L, 104L), entries.get(3).assignment());
+        assertNull(entries.get(4).assignment().getSlotId());
+        assertEquals(FuelType.LPG, entries.get(4).fuelType());
+        assertEquals(1_005L, entries.get(4).timestamp());
+    }
+
+    @Test
+    void testCheckpoint_ReplaysOnlyTheTailAndDeletesOlderSegments() throws IOException {
+        // given
+        AssignmentLog log = new AssignmentLog(directory, SEGMENT_SIZE, SyncPolicy.NEVER);
+        for (long carId = 1; carId <= 4; carId++) {
+            log.append(new CarAssignment(carId, null, null), FuelType.PETROL, 0);
+        }
+        long checkpoint = log.position();
+        log.append(new CarAssignment(5L, 20L, null), FuelType.ELECTRIC, 0);
+        log.append(new CarAssignment(6L, 20L, null), FuelType.ELECTRIC, 0);
+
+        // when
+        log.checkpoint(checkpoint);
+        log.close();
+
+        // then
+        assertEquals(1, segments().size(), "The full first segment is wholly before the checkpoint");
+        List<Entry> entries = replay(new AssignmentLog(directory, SEGMENT_SIZE, SyncPolicy.NEVER));
+        assertEquals(List.of(5L, 6L), entries.stream().map(entry -> entry.assignment().getCarId()).toList());
+    }
+
+    private static List<Entry> replay(AssignmentLog log) {
+        List<Entry> entries = new ArrayList<>();
+        log.replay(entries::add);
+        log.close();
+        return entries;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+}
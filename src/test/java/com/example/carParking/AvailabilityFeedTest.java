@@ -0,0 +1,248 @@
+package com.example.carParking;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.AvailabilityFeed;
+import com.example.carParking.service.AvailabilityService;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:feed;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.main.allow-bean-definition-overriding=true"
+})
+@AutoConfigureMockMvc
+public class AvailabilityFeedTest {
+
+    private static final Duration MAX_SEND_TIME = Duration.ofMillis(200);
+
+    @Autowired
+    private StallingFeed stallingFeed;
+
+    @Autowired
+    private Heartbeat heartbeat;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AvailabilityFeed availabilityFeed;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void testFeed_SendsCurrentStateThenOneCoalescedMessagePerBurst() throws Exception {
+        // given
+        ParkingEntity parking = createParking(3, 1);
+        ParkingEntity other = createParking(3, 1);
+        MvcResult feed = mockMvc.perform(get("/parkings/availability/stream").param("ids", parking.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = feed.getResponse();
+        awaitContent(response, "{\"parkingId\":" + parking.getId() + ",\"freeSpaces\":3,\"freeChargers\":1}");
+
+        // when
+        parkingService.addCarToParking(parking.getId(), createCar(FuelType.ELECTRIC).getId());
+        parkingService.addCarToParking(parking.getId(), createCar(FuelType.PETROL).getId());
+        parkingService.addCarToParking(other.getId(), createCar(FuelType.PETROL).getId());
+        availabilityFeed.dispatch();
+
+        // then
+        awaitContent(response, "{\"parkingId\":" + parking.getId() + ",\"freeSpaces\":1,\"freeChargers\":0}");
+        String content = response.getContentAsString();
+        assertFalse(content.contains("\"freeSpaces\":2"), "The burst should be sent as one message");
+        assertFalse(content.contains("\"parkingId\":" + other.getId()), "Unsubscribed lots must not be sent");
+        assertEquals(2, count(content, "event:availability"));
+
+        // when
+        parkingService.deleteParking(parking.getId());
+        availabilityFeed.dispatch();
+
+        // then
+        awaitContent(response, "event:removed\ndata:{\"parkingId\":" + parking.getId() + "}");
+    }
+
+    @Test
+    void testSubscribe_RejectsUnknownLotsAndOversizedSubscriptions() throws Exception {
+        mockMvc.perform(get("/parkings/availability/stream").param("ids", "-1"))
+                .andExpect(status().isNotFound());
+
+        Long parkingId = createParking(1, 0).getId();
+        String[] tooMany = new String[101];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = String.valueOf(parkingId + i);
+        }
+        mockMvc.perform(get("/parkings/availability/stream").param("ids", tooMany))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStalledSubscriber_DoesNotHoldUpOtherSubscribersOrScheduledJobs() throws Exception {
+        // given
+        ParkingEntity parking = createParking(3, 0);
+        int beatsBefore = heartbeat.beats.get();
+        stallingFeed.stallNextSubscriber();
+        SseEmitter stalled = stallingFeed.subscribe(List.of(parking.getId()));
+        assertTrue(stallingFeed.writeBlocked.await(5, TimeUnit.SECONDS), "The stalled write should start");
+        MockHttpServletResponse response = mockMvc.perform(get("/parkings/availability/stream")
+                        .param("ids", parking.getId().toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        // when
+        Thread.sleep(MAX_SEND_TIME.toMillis() * 2);
+        assertTimeoutPreemptively(Duration.ofSeconds(1), availabilityFeed::dispatch,
+                "Dispatch must not wait for the stalled emitter");
+
+        // then
+        awaitContent(response, "{\"parkingId\":" + parking.getId() + ",\"freeSpaces\":3,\"freeChargers\":0}");
+        parkingService.addCarToParking(parking.getId(), createCar(FuelType.PETROL).getId());
+        availabilityFeed.dispatch();
+        awaitContent(response, "{\"parkingId\":" + parking.getId() + ",\"freeSpaces\":2,\"freeChargers\":0}");
+        assertTrue(heartbeat.beats.get() > beatsBefore, "Scheduled jobs should keep running");
+        assertFalse(stallingFeed.stalledCompleted, "Only the sender may complete the stalled emitter");
+
+        stallingFeed.releaseWrite.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!stallingFeed.stalledCompleted && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(stallingFeed.stalledCompleted, "The sender should complete " + stalled + " once its write returns");
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.getContentAsString().contains(expected)) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Feed did not send " + expected + ", got: " + response.getContentAsString());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static int count(String content, String token) {
+        int count = 0;
+        for (int i = content.indexOf(token); i >= 0; i = content.indexOf(token, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private ParkingEntity createParking(int totalSpaces, int numberOfChargers) {
+        return parkingService.createParking(TestDataUtil.newParking(totalSpaces, numberOfChargers).build());
+    }
+
+    @TestConfiguration
+    static class FeedTestConfig {
+
+        /**
+         * Replaces the application's feed. Dispatch is driven by the test, so every burst lands in
+         * exactly one run, and a single sender thread shows that a stalled one is replaced.
+         */
+        @Bean
+        AvailabilityFeed availabilityFeed(AvailabilityService availabilityService, MeterRegistry meterRegistry) {
+            return new StallingFeed(availabilityService, meterRegistry);
+        }
+
+        @Bean
+        Heartbeat heartbeat() {
+            return new Heartbeat();
+        }
+    }
+
+    static class Heartbeat {
+
+        private final AtomicInteger beats = new AtomicInteger();
+
+        @Scheduled(fixedDelay = 50)
+        void beat() {
+            beats.incrementAndGet();
+        }
+    }
+
+    /**
+     * A feed whose next subscriber's first write blocks, holding the emitter's monitor as a write
+     * to a stuck socket does, and ignores interrupts until the test releases it.
+     */
+    static class StallingFeed extends AvailabilityFeed {
+
+        private final CountDownLatch writeBlocked = new CountDownLatch(1);
+        private final CountDownLatch releaseWrite = new CountDownLatch(1);
+        private volatile boolean stallNext;
+        private volatile boolean stalledCompleted;
+
+        StallingFeed(AvailabilityService availabilityService, MeterRegistry meterRegistry) {
+            super(availabilityService, meterRegistry, 50_000, 100, Duration.ofMinutes(30), MAX_SEND_TIME, 1, 64,
+                    Duration.ofHours(1));
+        }
+
+        void stallNextSubscriber() {
+            stallNext = true;
+        }
+
+        @Override
+        protected SseEmitter newEmitter(long timeoutMillis) {
+            if (!stallNext) {
+                return super.newEmitter(timeoutMillis);
+            }
+            stallNext = false;
+            return new SseEmitter(timeoutMillis) {
+                @Override
+                public synchronized void send(SseEventBuilder builder) {
+                    writeBlocked.countDown();
+                    boolean interrupted = false;
+                    while (true) {
+                        try {
+                            releaseWrite.await();
+                            break;
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public synchronized void complete() {
+                    stalledCompleted = true;
+                    super.complete();
+                }
+            };
+        }
+    }
+
+    private CarEntity createCar(FuelType fuelType) {
+        return carService.createCar(TestDataUtil.newCar(fuelType).build());
+    }
+}
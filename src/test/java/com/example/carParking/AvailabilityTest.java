@@ -0,0 +1,122 @@
+package com.example.carParking;
+
+import com.example.carParking.exceptions.NoFreeChargersParkingException;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+public class AvailabilityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testAvailability_TracksParkAndUnparkWithoutQueries() throws Exception {
+        // given
+        ParkingEntity parking = parkingService.createParking(TestDataUtil.newParking(5, 2)
+                .lpgAllowed(false)
+                .widthOfParkingSpace(2.4)
+                .build());
+        Long electricCarId = createCar(FuelType.ELECTRIC).getId();
+        Long petrolCarId = createCar(FuelType.PETROL).getId();
+        parkingService.addCarToParking(parking.getId(), electricCarId);
+        parkingService.addCarToParking(parking.getId(), petrolCarId);
+
+        // when
+        statistics.clear();
+        mockMvc.perform(get("/parkings/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.parkingId == " + parking.getId() + ")].freeSpaces").value(3))
+                .andExpect(jsonPath("$[?(@.parkingId == " + parking.getId() + ")].freeChargers").value(1))
+                .andExpect(jsonPath("$[?(@.parkingId == " + parking.getId() + ")].lpgAllowed").value(false))
+                .andExpect(jsonPath("$[?(@.parkingId == " + parking.getId() + ")].widthOfParkingSpace").value(2.4));
+
+        // then
+        assertEquals(0, statistics.getPrepareStatementCount(), "Availability should not query the database");
+
+        parkingService.deleteCarFromParking(parking.getId(), electricCarId);
+        mockMvc.perform(get("/parkings/" + parking.getId() + "/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.freeSpaces").value(4))
+                .andExpect(jsonPath("$.freeChargers").value(2));
+    }
+
+    @Test
+    void testAvailability_IgnoresRolledBackUpdateAndDroppedLots() throws Exception {
+        // given
+        ParkingEntity parking = parkingService.createParking(ParkingEntity.builder()
+                .name("Profile Parking")
+                .address("2 Signage Street")
+                .totalSpaces(5)
+                .numberOfChargers(1)
+                .lpgAllowed(true)
+                .widthOfParkingSpace(2.5)
+                .build());
+        Long carId = createCar(FuelType.ELECTRIC).getId();
+        parkingService.addCarToParking(parking.getId(), carId);
+        ParkingEntity update = ParkingEntity.builder()
+                .name("Never Committed")
+                .address("2 Signage Street")
+                .totalSpaces(50)
+                .numberOfChargers(0)
+                .lpgAllowed(true)
+                .widthOfParkingSpace(2.5)
+                .build();
+
+        // when
+        assertThrows(NoFreeChargersParkingException.class, () -> parkingService.updateParking(parking.getId(), update));
+
+        // then
+        mockMvc.perform(get("/parkings/" + parking.getId() + "/availability"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Profile Parking"))
+                .andExpect(jsonPath("$.freeSpaces").value(4));
+
+        parkingService.deleteCarFromParking(parking.getId(), carId);
+        parkingService.deleteParking(parking.getId());
+        mockMvc.perform(get("/parkings/" + parking.getId() + "/availability"))
+                .andExpect(status().isNotFound());
+    }
+
+    private CarEntity createCar(FuelType fuelType) {
+        return carService.createCar(TestDataUtil.newCar(fuelType).build());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.carParking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "carparking.import.batch-size=2"
+})
+@AutoConfigureMockMvc
+public class CarImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testImportCars_FromJsonArray() throws Exception {
+        String body = """
+                [
+                  {"brand": "Tesla", "model": "Model 3", "width": 1.85, "fuelType": "electric"},
+                  {"brand": "Skoda", "model": "Octavia", "width": 1.8, "fuelType": "PETROL"},
+                  {"brand": "", "model": "Golf", "width": 1.8, "fuelType": "DIESEL"},
+                  {"brand": "Fiat", "model": "Panda", "width": 1.6, "fuelType": "HYDROGEN"},
+                  {"brand": "Dacia", "model": "Duster", "width": 1.8, "fuelType": "LPG"}
+                ]
+                """;
+
+        mockMvc.perform(post("/cars/import").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRows").value(3))
+                .andExpect(jsonPath("$.failedRows").value(2))
+                .andExpect(jsonPath("$.errors[0].row").value(3))
+                .andExpect(jsonPath("$.errors[0].message").value("Brand must be between 1 and 100 characters"))
+                .andExpect(jsonPath("$.errors[1].row").value(4));
+    }
+
+    @Test
+    void testImportCars_FromCsv() throws Exception {
+        String body = """
+                fuelType,brand,model,width
+                ELECTRIC,Tesla,Model Y,1.92
+                DIESEL,Volvo,XC90,-2
+                PETROL,Toyota,Yaris,1.7
+                """;
+
+        mockMvc.perform(post("/cars/import").contentType("text/csv").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRows").value(2))
+                .andExpect(jsonPath("$.failedRows").value(1))
+                .andExpect(jsonPath("$.errors[0].row").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Width must be a non-negative number"));
+    }
+
+    @Test
+    void testImportCars_ReadsQuotedCsvFields() throws Exception {
+        String body = """
+                brand,model,width,fuelType
+                "Mercedes-Benz","E-Class, ""Estate""\",1.85,DIESEL
+                Kia,"Niro
+                EV",1.8,ELECTRIC
+                """;
+
+        mockMvc.perform(post("/cars/import").contentType("text/csv").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRows").value(2))
+                .andExpect(jsonPath("$.failedRows").value(0));
+    }
+
+    @Test
+    void testImportCars_RejectsJsonArrayWithNonObjectRows() throws Exception {
+        String body = """
+                [
+                  {"brand": "Tesla", "model": "Model 3", "width": 1.85, "fuelType": "ELECTRIC"},
+                  {"brand": "Skoda", "model": "Octavia", "width": 1.8, "fuelType": "PETROL"},
+                  42,
+                  {"brand": "Dacia", "model": "Duster", "width": 1.8, "fuelType": "LPG"}
+                ]
+                """;
+
+        mockMvc.perform(post("/cars/import").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(
+                        "Expected a JSON object for row 3 but found '42'! 2 cars before it were already imported."));
+    }
+
+    @Test
+    void testImportCars_RejectsCsvWithoutRequiredColumns() throws Exception {
+        mockMvc.perform(post("/cars/import").contentType("text/csv").content("brand,model\nAudi,A4\n"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.carParking;
+
+import com.example.carParking.dto.ChargerAssignmentDTO;
+import com.example.carParking.dto.ChargerScheduleDTO;
+import com.example.carParking.exceptions.NoCarFoundException;
+import com.example.carParking.exceptions.NoParkingFoundException;
+import com.example.carParking.service.ChargerScheduler;
+import com.example.carParking.service.ChargerScheduler.Policy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChargerSchedulerUnitTest {
+
+    private static final Long PARKING_ID = 1L;
+    private static final Duration SLICE = Duration.ofMinutes(30);
+    private static final Instant START = Instant.parse("2024-01-01T08:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+
+    @Test
+    void testArrive_AssignsFreeChargersThenWaitlist() {
+        // given
+        ChargerScheduler scheduler = scheduler(Policy.ROUND_ROBIN, 2);
+
+        // when
+        scheduler.arrive(PARKING_ID, 1L);
+        scheduler.arrive(PARKING_ID, 2L);
+        scheduler.arrive(PARKING_ID, 3L);
+        scheduler.arrive(PARKING_ID, 4L);
+        scheduler.arrive(PARKING_ID, 5L);
+
+        // then
+        assertEquals(0, scheduler.getAssignment(PARKING_ID, 1L).getCharger());
+        assertEquals(1, scheduler.getAssignment(PARKING_ID, 2L).getCharger());
+        assertEquals(START.plus(SLICE), scheduler.getAssignment(PARKING_ID, 1L).getChargingUntil());
+        ChargerAssignmentDTO third = scheduler.getAssignment(PARKING_ID, 5L);
+        assertNull(third.getCharger());
+        assertEquals(3, third.getWaitlistPosition());
+        assertEquals(START.plus(SLICE.multipliedBy(2)), third.getEstimatedStart());
+        ChargerScheduleDTO schedule = scheduler.getSchedule(PARKING_ID);
+        assertEquals(0, schedule.getFreeChargers());
+        assertEquals(START.plus(SLICE.multipliedBy(2)), schedule.getNextChargerFreeAt());
+        assertEquals(5, schedule.getCars().size());
+    }
+
+    @Test
+    void testRotate_RoundRobinHandsExpiredChargerToLongestWaiting() {
+        // given
+        ChargerScheduler scheduler = scheduler(Policy.ROUND_ROBIN, 1);
+        scheduler.arrive(PARKING_ID, 1L);
+        clock.advance(Duration.ofMinutes(1));
+        scheduler.arrive(PARKING_ID, 2L);
+        clock.advance(Duration.ofMinutes(1));
+        scheduler.arrive(PARKING_ID, 3L);
+
+        // when
+        assertEquals(0, scheduler.rotate(clock.millis()), "No slice has ended yet");
+        clock.set(START.plus(SLICE));
+        int handedOver = scheduler.rotate(clock.millis());
+
+        // then
+        assertEquals(1, handedOver);
+        assertEquals(0, scheduler.getAssignment(PARKING_ID, 2L).getCharger());
+        assertEquals(1, scheduler.getAssignment(PARKING_ID, 3L).getWaitlistPosition());
+        assertEquals(2, scheduler.getAssignment(PARKING_ID, 1L).getWaitlistPosition());
+    }
+
+    @Test
+    void testRotate_FairShareFavoursCarThatChargedLeast() {
+        // given
+        ChargerScheduler scheduler = scheduler(Policy.FAIR_SHARE, 1);
+        scheduler.arrive(PARKING_ID, 1L);
+        scheduler.arrive(PARKING_ID, 2L);
+        clock.set(START.plus(SLICE));
+        scheduler.rotate(clock.millis());
+        // Car 1 charged one slice and waits again; car 3 arrives later but has not charged at all.
+        clock.advance(Duration.ofMinutes(1));
+        scheduler.arrive(PARKING_ID, 3L);
+
+        // when
+        clock.set(START.plus(SLICE.multipliedBy(2)));
+        scheduler.rotate(clock.millis());
+
+        // then
+        assertEquals(0, scheduler.getAssignment(PARKING_ID, 3L).getCharger());
+        assertEquals(1, scheduler.getAssignment(PARKING_ID, 1L).getWaitlistPosition());
+        assertEquals(2, scheduler.getAssignment(PARKING_ID, 2L).getWaitlistPosition());
+    }
+
+    @Test
+    void testLeaveAndDefine_HandOverAndRequeueCars() {
+        // given
+        ChargerScheduler scheduler = scheduler(Policy.DEDICATED, 1);
+        scheduler.arrive(PARKING_ID, 1L);
+        scheduler.arrive(PARKING_ID, 2L);
+        assertNull(scheduler.getAssignment(PARKING_ID, 2L).getEstimatedStart(),
+                "Dedicated chargers free up when their car leaves, which cannot be told");
+
+        // when
+        scheduler.leave(PARKING_ID, 1L);
+
+        // then
+        assertEquals(0, scheduler.getAssignment(PARKING_ID, 2L).getCharger());
+        assertNull(scheduler.getAssignment(PARKING_ID, 2L).getChargingUntil());
+        assertThrows(NoCarFoundException.class, () -> scheduler.getAssignment(PARKING_ID, 1L));
+
+        scheduler.define(PARKING_ID, 0);
+        assertEquals(1, scheduler.getAssignment(PARKING_ID, 2L).getWaitlistPosition());
+        assertNull(scheduler.getSchedule(PARKING_ID).getNextChargerFreeAt());
+        scheduler.define(PARKING_ID, 2);
+        assertEquals(0, scheduler.getAssignment(PARKING_ID, 2L).getCharger());
+        assertEquals(1, scheduler.getSchedule(PARKING_ID).getFreeChargers());
+
+        scheduler.remove(PARKING_ID);
+        assertThrows(NoParkingFoundException.class, () -> scheduler.getSchedule(PARKING_ID));
+    }
+
+    private ChargerScheduler scheduler(Policy policy, int chargers) {
+        ChargerScheduler scheduler = new ChargerScheduler(clock, policy, SLICE);
+        scheduler.define(PARKING_ID, chargers);
+        return scheduler;
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
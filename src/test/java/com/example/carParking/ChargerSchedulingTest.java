@@ -0,0 +1,72 @@
+package com.example.carParking;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:charger-scheduling;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "carparking.chargers.policy=ROUND_ROBIN"
+})
+@AutoConfigureMockMvc
+public class ChargerSchedulingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void testRotatingPolicy_AdmitsElectricCarsBeyondChargersOntoWaitlist() throws Exception {
+        // given
+        ParkingEntity parking = parkingService.createParking(TestDataUtil.newParking(5, 1).lpgAllowed(false).build());
+        Long chargingCarId = createCar(FuelType.ELECTRIC).getId();
+        Long waitingCarId = createCar(FuelType.ELECTRIC).getId();
+
+        // when
+        parkingService.addCarToParking(parking.getId(), chargingCarId);
+        parkingService.addCarToParking(parking.getId(), waitingCarId);
+
+        // then
+        mockMvc.perform(get("/parkings/" + parking.getId() + "/chargers"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.policy").value("ROUND_ROBIN"))
+                .andExpect(jsonPath("$.freeChargers").value(0))
+                .andExpect(jsonPath("$.cars[0].carId").value(chargingCarId))
+                .andExpect(jsonPath("$.cars[0].charger").value(0))
+                .andExpect(jsonPath("$.cars[1].carId").value(waitingCarId))
+                .andExpect(jsonPath("$.cars[1].waitlistPosition").value(1))
+                .andExpect(jsonPath("$.cars[1].estimatedStart").exists());
+        mockMvc.perform(get("/parkings/search").param("carId", String.valueOf(createCar(FuelType.ELECTRIC).getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].parkingId").value(parking.getId()))
+                .andExpect(jsonPath("$[0].freeChargers").value(0));
+
+        parkingService.deleteCarFromParking(parking.getId(), chargingCarId);
+        mockMvc.perform(get("/parkings/" + parking.getId() + "/chargers/" + waitingCarId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.charger").value(0));
+        mockMvc.perform(get("/parkings/" + parking.getId() + "/chargers/" + chargingCarId))
+                .andExpect(status().isNotFound());
+    }
+
+    private CarEntity createCar(FuelType fuelType) {
+        return carService.createCar(TestDataUtil.newCar(fuelType).build());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.carParking;
+
+import com.example.carParking.config.FairConnectionLimiter;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FairConnectionLimiterUnitTest {
+
+    private FairConnectionLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1");
+        limiter = new FairConnectionLimiter(h2, 2, Duration.ofMillis(200));
+    }
+
+    @Test
+    void testGetConnection_TimesOutWhenAllPermitsAreTaken() throws Exception {
+        // given
+        Connection first = limiter.getConnection();
+        Connection second = limiter.getConnection();
+
+        // when & then
+        assertThrows(SQLTransientConnectionException.class, limiter::getConnection);
+
+        first.close();
+        first.close();
+        try (Connection third = limiter.getConnection()) {
+            assertTrue(third.isValid(1), "A closed connection should hand its permit to the next caller");
+        }
+        Connection fourth = limiter.getConnection();
+        assertThrows(SQLTransientConnectionException.class, limiter::getConnection,
+                "Closing the same connection twice must not release two permits");
+        fourth.close();
+        second.close();
+    }
+
+    @Test
+    void testGetConnection_WaitingCallerGetsTheNextReleasedPermit() throws Exception {
+        // given
+        Connection first = limiter.getConnection();
+        Connection second = limiter.getConnection();
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.getConnection();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.getWaitingThreads() == 0) {
+            Thread.sleep(1);
+        }
+
+        // when
+        second.close();
+
+        // then
+        try (Connection handedOver = waiting.get(1, TimeUnit.SECONDS)) {
+            assertFalse(handedOver.isClosed());
+        }
+        first.close();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.carParking;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:keyset;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+public class KeysetPaginationTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testScrollCars_VisitsEveryCarOnceWithoutCountQuery() throws Exception {
+        // given
+        ParkingEntity parking = createParking();
+        List<Long> expectedIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            CarEntity car = carService.createCar(CarEntity.builder()
+                    .brand("Brand " + i)
+                    .model("Model " + i)
+                    .width(1.8)
+                    .fuelType(FuelType.PETROL)
+                    .build());
+            if (i % 2 == 0) {
+                parkingService.addCarToParking(parking.getId(), car.getId());
+            }
+            expectedIds.add(car.getId());
+        }
+
+        // when
+        List<Long> visitedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            statistics.clear();
+            JsonNode page = perform(get("/cars/scroll").param("size", String.valueOf(PAGE_SIZE)), cursor);
+            assertEquals(1, statistics.getPrepareStatementCount(), "A slice of cars should take one statement");
+            assertFalse(page.has("totalElements"), "Total should only be counted on request");
+            page.get("content").forEach(car -> visitedIds.add(car.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        // then
+        assertEquals(expectedIds, visitedIds.stream().filter(expectedIds::contains).toList());
+        assertEquals(visitedIds.size(), visitedIds.stream().distinct().count(), "No car should be returned twice");
+    }
+
+    @Test
+    void testScrollParkings_ReturnsCarsAndOptionalTotal() throws Exception {
+        // given
+        ParkingEntity parking = createParking();
+        CarEntity car = carService.createCar(CarEntity.builder()
+                .brand("Skoda")
+                .model("Fabia")
+                .width(1.7)
+                .fuelType(FuelType.DIESEL)
+                .build());
+        parkingService.addCarToParking(parking.getId(), car.getId());
+        createParking();
+
+        // when
+        statistics.clear();
+        mockMvc.perform(get("/parkings/scroll").param("size", "1000").param("withTotal", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").isNumber())
+                .andExpect(jsonPath("$.content[?(@.id == " + parking.getId() + ")].cars[0].id").value(car.getId().intValue()));
+
+        // then
+        assertEquals(3, statistics.getPrepareStatementCount(), "Slice, its cars and the requested count");
+    }
+
+    @Test
+    void testScroll_RejectsTamperedCursor() throws Exception {
+        mockMvc.perform(get("/cars/scroll").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode perform(MockHttpServletRequestBuilder request, String cursor) throws Exception {
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private ParkingEntity createParking() {
+        return parkingService.createParking(TestDataUtil.newParking(10, 0).build());
+    }
+}
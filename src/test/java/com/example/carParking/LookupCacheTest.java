@@ -0,0 +1,189 @@
+package com.example.carParking;
+
+import com.example.carParking.config.CacheConfig;
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.exceptions.NoCarFoundException;
+import com.example.carParking.exceptions.NoFreeChargersParkingException;
+import com.example.carParking.exceptions.NoParkingFoundException;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingAction;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingOperation;
+import com.example.carParking.service.CacheEvictor;
+import com.example.carParking.service.CachedLookupService;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class LookupCacheTest {
+
+    @Autowired
+    private CachedLookupService cachedLookupService;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CacheEvictor cacheEvictor;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private ParkingEntity parking;
+    private ParkingEntity otherParking;
+    private CarEntity car;
+
+    @BeforeEach
+    void setUp() {
+        parking = parkingService.createParking(newParking());
+        otherParking = parkingService.createParking(newParking());
+        car = carService.createCar(CarEntity.builder()
+                .brand("Tesla")
+                .model("Model 3")
+                .width(1.8)
+                .fuelType(FuelType.ELECTRIC)
+                .build());
+    }
+
+    @Test
+    void testRepeatedLookups_AreServedFromCache() {
+        CacheStats before = stats(CacheConfig.PARKINGS_CACHE);
+
+        cachedLookupService.getParking(parking.getId());
+        cachedLookupService.getParking(parking.getId());
+        cachedLookupService.getParking(parking.getId());
+
+        CacheStats after = stats(CacheConfig.PARKINGS_CACHE);
+        assertEquals(1, after.missCount() - before.missCount(), "Only the first lookup should hit the database");
+        assertEquals(2, after.hitCount() - before.hitCount(), "Later lookups should be cache hits");
+    }
+
+    @Test
+    void testParkingAndCarLookups_ReflectParkAndUnpark() {
+        warmUp();
+
+        parkingService.addCarToParking(parking.getId(), car.getId());
+        assertEquals(List.of(car.getId()), carIds(cachedLookupService.getParking(parking.getId())));
+        assertEquals(parking.getId(), cachedLookupService.getCar(car.getId()).getParkingId());
+
+        parkingService.addCarToParking(otherParking.getId(), car.getId());
+        assertTrue(carIds(cachedLookupService.getParking(parking.getId())).isEmpty(), "Previous lot must drop the car");
+        assertEquals(List.of(car.getId()), carIds(cachedLookupService.getParking(otherParking.getId())));
+        assertEquals(otherParking.getId(), cachedLookupService.getCar(car.getId()).getParkingId());
+
+        parkingService.deleteCarFromParking(otherParking.getId(), car.getId());
+        assertTrue(carIds(cachedLookupService.getParking(otherParking.getId())).isEmpty());
+        assertNull(cachedLookupService.getCar(car.getId()).getParkingId());
+    }
+
+    @Test
+    void testLookupRacingWithACommit_DoesNotCacheTheOldRow() {
+        // given
+        ParkingDTO loadedBeforeCommit = cacheEvictor.get(CacheConfig.PARKINGS_CACHE, parking.getId(), () -> {
+            ParkingDTO loaded = parkingService.getParkingDTOById(parking.getId());
+            parkingService.addCarToParking(parking.getId(), car.getId());
+            return loaded;
+        });
+
+        // when
+        ParkingDTO parkingDTO = cachedLookupService.getParking(parking.getId());
+
+        // then
+        assertTrue(carIds(loadedBeforeCommit).isEmpty());
+        assertEquals(List.of(car.getId()), carIds(parkingDTO), "The row loaded before the commit must not be cached");
+    }
+
+    @Test
+    void testBatchOperations_EvictTouchedEntries() {
+        warmUp();
+
+        parkingService.applyOperations(List.of(ParkingOperation.builder()
+                .parkingId(parking.getId())
+                .carId(car.getId())
+                .action(ParkingAction.PARK)
+                .build()));
+
+        assertEquals(List.of(car.getId()), carIds(cachedLookupService.getParking(parking.getId())));
+        assertEquals(parking.getId(), cachedLookupService.getCar(car.getId()).getParkingId());
+    }
+
+    @Test
+    void testUpdates_AreVisibleToNextLookup() {
+        parkingService.addCarToParking(parking.getId(), car.getId());
+        warmUp();
+
+        ParkingEntity update = newParking();
+        update.setName("Renamed Parking");
+        parkingService.updateParking(parking.getId(), update);
+        carService.updateCar(car.getId(), CarEntity.builder()
+                .brand("Tesla")
+                .model("Model S")
+                .width(1.9)
+                .fuelType(FuelType.ELECTRIC)
+                .build());
+
+        ParkingDTO parkingDTO = cachedLookupService.getParking(parking.getId());
+        assertEquals("Renamed Parking", parkingDTO.getName());
+        assertEquals("Model S", parkingDTO.getCars().get(0).getModel(), "Lot of the updated car must be evicted");
+        assertEquals("Model S", cachedLookupService.getCar(car.getId()).getModel());
+    }
+
+    @Test
+    void testDeletes_AreVisibleToNextLookup() {
+        parkingService.addCarToParking(parking.getId(), car.getId());
+        warmUp();
+
+        parkingService.deleteParking(parking.getId());
+        assertThrows(NoParkingFoundException.class, () -> cachedLookupService.getParking(parking.getId()));
+        assertNull(cachedLookupService.getCar(car.getId()).getParkingId(), "Cars of a deleted lot must be evicted");
+
+        carService.deleteCar(car.getId());
+        assertThrows(NoCarFoundException.class, () -> cachedLookupService.getCar(car.getId()));
+    }
+
+    @Test
+    void testFailedUpdate_KeepsCommittedValueReadable() {
+        warmUp();
+
+        ParkingEntity update = newParking();
+        update.setName("Never Committed");
+        update.setNumberOfChargers(0);
+        parkingService.addCarToParking(parking.getId(), car.getId());
+
+        assertThrows(NoFreeChargersParkingException.class, () -> parkingService.updateParking(parking.getId(), update));
+        assertEquals("Cached Parking", cachedLookupService.getParking(parking.getId()).getName());
+    }
+
+    private static ParkingEntity newParking() {
+        return TestDataUtil.newParking(10, 2).name("Cached Parking").build();
+    }
+
+    private void warmUp() {
+        cachedLookupService.getParking(parking.getId());
+        cachedLookupService.getParking(otherParking.getId());
+        cachedLookupService.getCar(car.getId());
+    }
+
+    private CacheStats stats(String cacheName) {
+        return ((CaffeineCache) cacheManager.getCache(cacheName)).getNativeCache().stats();
+    }
+
+    private static List<Long> carIds(ParkingDTO parkingDTO) {
+        return parkingDTO.getCars().stream().map(carDTO -> carDTO.getId()).toList();
+    }
+}
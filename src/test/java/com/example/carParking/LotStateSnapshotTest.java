@@ -0,0 +1,132 @@
+package com.example.carParking;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingSlotEntity;
+import com.example.carParking.service.AvailabilityService;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.LotStateSnapshots;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lot-state-snapshot;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "carparking.snapshot.enabled=true",
+        // Snapshots are written by the test.
+        "carparking.snapshot.interval=PT1H"
+})
+public class LotStateSnapshotTest {
+
+    private static final Path SNAPSHOT = createTempDirectory().resolve("lot-state.snapshot");
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) {
+        registry.add("carparking.snapshot.path", SNAPSHOT::toString);
+    }
+
+    @Autowired
+    private LotStateSnapshots lotStateSnapshots;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private OccupancyEngine occupancyEngine;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Test
+    void testLoad_RestoresTheSnapshotAndReconcileCatchesUpWithTheDatabase() {
+        // given
+        ParkingEntity slotted = createParking("Snapshot Garage");
+        List<ParkingSlotEntity> slots = parkingService.replaceSlots(slotted.getId(), List.of(
+                ParkingSlotEntity.builder().label("A1").width(2.5).build(),
+                ParkingSlotEntity.builder().label("A2").width(2.5).build()));
+        ParkingEntity deletedLater = createParking("Deleted Garage");
+        parkingService.addCarToParking(slotted.getId(), createCar().getId());
+        lotStateSnapshots.write();
+
+        // Changes the snapshot misses.
+        parkingService.addCarToParking(slotted.getId(), createCar().getId());
+        parkingService.deleteParking(deletedLater.getId());
+        ParkingEntity createdLater = createParking("New Garage");
+        parkingService.addCarToParking(createdLater.getId(), createCar().getId());
+
+        // when
+        boolean loaded = lotStateSnapshots.load();
+
+        // then
+        assertTrue(loaded);
+        assertEquals(1, occupancyEngine.getCounts(slotted.getId()).getTotal());
+        assertEquals("Snapshot Garage", availabilityService.getAvailability(slotted.getId()).getName());
+        assertEquals(1, availabilityService.getAvailability(slotted.getId()).getFreeSpaces());
+        assertEquals(1, slots.stream().filter(slot -> parkingService.isSlotOccupied(slotted.getId(), slot.getId())).count());
+        assertNotNull(availabilityService.findAvailability(deletedLater.getId()));
+        assertNull(availabilityService.findAvailability(createdLater.getId()));
+
+        // when
+        lotStateSnapshots.reconcile();
+
+        // then
+        assertEquals(2, occupancyEngine.getCounts(slotted.getId()).getTotal());
+        assertEquals(0, availabilityService.getAvailability(slotted.getId()).getFreeSpaces());
+        assertTrue(slots.stream().allMatch(slot -> parkingService.isSlotOccupied(slotted.getId(), slot.getId())));
+        assertNull(availabilityService.findAvailability(deletedLater.getId()));
+        assertEquals(1, occupancyEngine.getCounts(createdLater.getId()).getTotal());
+        assertEquals("New Garage", availabilityService.getAvailability(createdLater.getId()).getName());
+    }
+
+    @Test
+    void testLoad_IgnoresASnapshotThatFailsItsChecksum() throws IOException {
+        // given
+        createParking("Corrupt Garage");
+        lotStateSnapshots.write();
+        try (RandomAccessFile file = new RandomAccessFile(SNAPSHOT.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        // when
+        boolean loaded = lotStateSnapshots.load();
+
+        // then
+        assertFalse(loaded);
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("lot-state-snapshot");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ParkingEntity createParking(String name) {
+        return parkingService.createParking(TestDataUtil.newParking(2, 0).name(name).latitude(52.23).longitude(21.01).build());
+    }
+
+    private CarEntity createCar() {
+        return carService.createCar(TestDataUtil.newCar(FuelType.PETROL).build());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.carParking;
+
+import com.example.carParking.dto.*;
+import com.example.carParking.mapper.CarMapper;
+import com.example.carParking.mapper.CarMapperImpl;
+import com.example.carParking.mapper.ParkingMapper;
+import com.example.carParking.mapper.ParkingMapperImpl;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingAction;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingOperation;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the generated mappers against the reflective ModelMapper configuration they replaced.
+ */
+public class MapperParityTest {
+
+    private final CarMapper carMapper = new CarMapperImpl();
+    private final ParkingMapper parkingMapper = new ParkingMapperImpl(carMapper);
+    private final ModelMapper modelMapper = createModelMapper();
+
+    @Test
+    void testCarEntityToCarDTO_MatchesModelMapper() {
+        CarEntity parkedCar = TestDataUtil.createCarEntity();
+        CarEntity unparkedCar = TestDataUtil.createCarEntityWithoutParking();
+
+        assertEquals(modelMapper.map(parkedCar, CarDTO.class), carMapper.toCarDTO(parkedCar));
+        assertEquals(modelMapper.map(unparkedCar, CarDTO.class), carMapper.toCarDTO(unparkedCar));
+        assertEquals(modelMapper.map(parkedCar, CarWithoutParkingDTO.class), carMapper.toCarWithoutParkingDTO(parkedCar));
+    }
+
+    @Test
+    void testParkingEntityToParkingDTO_MatchesModelMapper() {
+        ParkingEntity parking = TestDataUtil.createParkingEntity();
+        CarEntity electricCar = TestDataUtil.createCarEntityWithElectricMotor();
+        CarEntity lpgCar = TestDataUtil.createCarEntityWithLPG();
+        electricCar.setParking(parking);
+        lpgCar.setParking(parking);
+        parking.setCars(List.of(electricCar, lpgCar));
+
+        assertEquals(modelMapper.map(parking, ParkingDTO.class), parkingMapper.toParkingDTO(parking));
+        assertEquals(modelMapper.map(parking, ParkingWithoutCarsDTO.class), parkingMapper.toParkingWithoutCarsDTO(parking));
+    }
+
+    @Test
+    void testDTOsToEntities_MatchModelMapper() {
+        CarWithoutParkingDTO carDTO = new CarWithoutParkingDTO(7L, "Brand", "Model", 1.9, FuelType.DIESEL);
+        ParkingWithoutCarsDTO parkingDTO = new ParkingWithoutCarsDTO(3L, "Name", "Address", 10, 2, true, 2.4, 52.23, 21.01);
+        ParkingOperationDTO operationDTO = new ParkingOperationDTO(3L, 7L, ParkingAction.UNPARK);
+
+        CarEntity expectedCar = modelMapper.map(carDTO, CarEntity.class);
+        // LOOSE matching also copied the DTO id into a phantom parking and slot, which the services always discarded.
+        expectedCar.setParking(null);
+        expectedCar.setSlot(null);
+        assertEquals(expectedCar, carMapper.toCarEntity(carDTO));
+        assertEquals(modelMapper.map(parkingDTO, ParkingEntity.class), parkingMapper.toParkingEntity(parkingDTO));
+        assertEquals(modelMapper.map(operationDTO, ParkingOperation.class), parkingMapper.toParkingOperation(operationDTO));
+    }
+
+    private static ModelMapper createModelMapper() {
+        ModelMapper modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
+        return modelMapper;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.carParking;
+
+import com.example.carParking.exceptions.NoFreeChargersParkingException;
+import com.example.carParking.exceptions.NoFreeSpaceParkingException;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.repository.CarRepository;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+public class ParkingAdmissionConcurrencyTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParkingAdmissionConcurrencyTest.class);
+
+    private static final int ADMITTERS = 64;
+    private static final int CARS = 640;
+    private static final int TOTAL_SPACES = 100;
+    private static final int CHARGERS = 10;
+    private static final int MOVED_CARS = 40;
+    private static final int MOVES = 400;
+    private static final int UNPARKED_SPACES = 20;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private OccupancyEngine occupancyEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testConcurrentAdmissions_DoNotOverbookParking() throws Exception {
+        // given
+        ParkingEntity parking = parkingService.createParking(ParkingEntity.builder()
+                .name("Stress Parking")
+                .address("1 Concurrency Street")
+                .totalSpaces(TOTAL_SPACES)
+                .numberOfChargers(CHARGERS)
+                .lpgAllowed(true)
+                .widthOfParkingSpace(2.5)
+                .build());
+        List<Long> carIds = new ArrayList<>();
+        for (int i = 0; i < CARS; i++) {
+            CarEntity car = carService.createCar(CarEntity.builder()
+                    .brand("Brand " + i)
+                    .model("Model " + i)
+                    .width(1.8)
+                    .fuelType(i % 4 == 0 ? FuelType.ELECTRIC : FuelType.PETROL)
+                    .build());
+            carIds.add(car.getId());
+        }
+        Collections.shuffle(carIds);
+
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(ADMITTERS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (Long carId : carIds) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    parkingService.addCarToParking(parking.getId(), carId);
+                    admitted.incrementAndGet();
+                } catch (NoFreeSpaceParkingException | NoFreeChargersParkingException e) {
+                    rejected.incrementAndGet();
+                } catch (Throwable t) {
+                    unexpected.add(t);
+                }
+                return null;
+            }));
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        // then
+        List<CarEntity> parkedCars = carRepository.findAll().stream()
+                .filter(car -> car.getParking() != null && car.getParking().getId().equals(parking.getId()))
+                .toList();
+        long parkedElectricCars = parkedCars.stream().filter(car -> car.getFuelType() == FuelType.ELECTRIC).count();
+        logger.info("{} admission attempts from {} threads in {} ms ({} attempts/s)", CARS, ADMITTERS,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), CARS * 1_000_000_000L / elapsedNanos);
+
+        assertTrue(unexpected.isEmpty(), "Unexpected errors: " + unexpected);
+        assertEquals(TOTAL_SPACES, admitted.get(), "Exactly all spaces should be handed out");
+        assertEquals(CARS - TOTAL_SPACES, rejected.get(), "All other cars should be rejected");
+        assertEquals(TOTAL_SPACES, parkedCars.size(), "Parking should not be overbooked");
+        assertTrue(parkedElectricCars <= CHARGERS, "Chargers should not be overbooked");
+    }
+
+    @Test
+    void testConcurrentMovesBetweenParkings_KeepBothCountsExact() throws Exception {
+        // given
+        List<ParkingEntity> parkings = List.of(createParking("Move Parking A"), createParking("Move Parking B"));
+        List<Long> carIds = new ArrayList<>();
+        for (int i = 0; i < MOVED_CARS; i++) {
+            CarEntity car = carService.createCar(CarEntity.builder()
+                    .brand("Moved Brand " + i)
+                    .model("Moved Model " + i)
+                    .width(1.8)
+                    .fuelType(FuelType.PETROL)
+                    .build());
+            parkingService.addCarToParking(parkings.get(i % 2).getId(), car.getId());
+            carIds.add(car.getId());
+        }
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(ADMITTERS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < MOVES; i++) {
+            Long carId = carIds.get(i % MOVED_CARS);
+            Long parkingId = parkings.get(ThreadLocalRandom.current().nextInt(2)).getId();
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    parkingService.addCarToParking(parkingId, carId);
+                } catch (NoFreeSpaceParkingException e) {
+                    // The other lot is full; the car stays where it is.
+                } catch (Throwable t) {
+                    unexpected.add(t);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // then
+        assertTrue(unexpected.isEmpty(), "Unexpected errors: " + unexpected);
+        for (ParkingEntity parking : parkings) {
+            long parkedCars = carRepository.findAll().stream()
+                    .filter(car -> car.getParking() != null && car.getParking().getId().equals(parking.getId()))
+                    .count();
+            assertEquals(parkedCars, occupancyEngine.getCounts(parking.getId()).getTotal(),
+                    "Occupancy of parking " + parking.getName() + " should match its parked cars");
+        }
+    }
+
+    @Test
+    void testUnparksRolledBackDuringAdmissions_DoNotOverbookParking() throws Exception {
+        // given
+        ParkingEntity parking = parkingService.createParking(
+                TestDataUtil.newParking(UNPARKED_SPACES, 0).name("Unpark Parking").build());
+        List<Long> parkedCarIds = new ArrayList<>();
+        for (int i = 0; i < UNPARKED_SPACES; i++) {
+            Long carId = carService.createCar(TestDataUtil.newCar(FuelType.PETROL).build()).getId();
+            parkingService.addCarToParking(parking.getId(), carId);
+            parkedCarIds.add(carId);
+        }
+        List<Long> waitingCarIds = new ArrayList<>();
+        for (int i = 0; i < UNPARKED_SPACES; i++) {
+            waitingCarIds.add(carService.createCar(TestDataUtil.newCar(FuelType.PETROL).build()).getId());
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        AtomicInteger admitted = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(UNPARKED_SPACES * 2);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < UNPARKED_SPACES; i++) {
+            Long parkedCarId = parkedCarIds.get(i);
+            Long waitingCarId = waitingCarIds.get(i);
+            futures.add(executor.submit(() -> {
+                start.await();
+                transaction.executeWithoutResult(status -> {
+                    parkingService.deleteCarFromParking(parking.getId(), parkedCarId);
+                    // Hold the freed space for a moment before the unpark rolls back.
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    status.setRollbackOnly();
+                });
+                return null;
+            }));
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    parkingService.addCarToParking(parking.getId(), waitingCarId);
+                    admitted.incrementAndGet();
+                } catch (NoFreeSpaceParkingException e) {
+                    // Every unpark rolls back, so the parking stays full.
+                } catch (Throwable t) {
+                    unexpected.add(t);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // then
+        long parkedCars = carRepository.findAll().stream()
+                .filter(car -> car.getParking() != null && car.getParking().getId().equals(parking.getId()))
+                .count();
+        assertTrue(unexpected.isEmpty(), "Unexpected errors: " + unexpected);
+        assertEquals(0, admitted.get(), "No car should take a space freed by an unpark that rolled back");
+        assertEquals(UNPARKED_SPACES, parkedCars, "Parking should not be overbooked");
+        assertEquals(UNPARKED_SPACES, occupancyEngine.getCounts(parking.getId()).getTotal());
+    }
+
+    private ParkingEntity createParking(String name) {
+        return parkingService.createParking(TestDataUtil.newParking(MOVED_CARS * 3 / 4, 0).name(name).build());
+    }
+}
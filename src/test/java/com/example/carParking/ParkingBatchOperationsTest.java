@@ -0,0 +1,168 @@
+package com.example.carParking;
+
+import com.example.carParking.exceptions.NoFreeSpaceParkingException;
+import com.example.carParking.exceptions.NoParkingFoundException;
+import com.example.carParking.model.*;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batch;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+public class ParkingBatchOperationsTest {
+
+    private static final int CARS = 100;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OccupancyEngine occupancyEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testApplyOperations_ReportsResultPerOperation() {
+        // given
+        ParkingEntity parking = createParking(1);
+        Long firstCarId = createCar().getId();
+        Long secondCarId = createCar().getId();
+        List<ParkingOperation> operations = List.of(
+                new ParkingOperation(parking.getId(), firstCarId, ParkingAction.PARK),
+                new ParkingOperation(parking.getId(), secondCarId, ParkingAction.PARK),
+                new ParkingOperation(Long.MAX_VALUE, secondCarId, ParkingAction.UNPARK));
+
+        // when
+        List<ParkingOperationResult> results = parkingService.applyOperations(operations);
+
+        // then
+        assertEquals(3, results.size(), "Every operation should get a result");
+        assertTrue(results.get(0).isSuccess(), "First car should be parked");
+        assertInstanceOf(NoFreeSpaceParkingException.class, results.get(1).getError(), "Second car should not fit");
+        assertInstanceOf(NoParkingFoundException.class, results.get(2).getError(), "Parking should not exist");
+        assertEquals(parking.getId(), carService.getCarById(firstCarId).getParking().getId(), "First car should be in the parking");
+        assertNull(carService.getCarById(secondCarId).getParking(), "Second car should not be parked");
+    }
+
+    @Test
+    void testApplyOperations_FailsOnlyTheOperationWhoseWriteFails() {
+        // given
+        ParkingEntity parking = createParking(5);
+        Long firstCarId = createCar().getId();
+        Long rejectedCarId = createCar().getId();
+        Long lastCarId = createCar().getId();
+        jdbcTemplate.execute("alter table cars add constraint rejected_car check (parking_id is null or car_id <> "
+                + rejectedCarId + ")");
+        List<ParkingOperation> operations = List.of(
+                new ParkingOperation(parking.getId(), firstCarId, ParkingAction.PARK),
+                new ParkingOperation(parking.getId(), rejectedCarId, ParkingAction.PARK),
+                new ParkingOperation(parking.getId(), lastCarId, ParkingAction.PARK));
+
+        // when
+        List<ParkingOperationResult> results;
+        try {
+            results = parkingService.applyOperations(operations);
+        } finally {
+            jdbcTemplate.execute("alter table cars drop constraint rejected_car");
+        }
+
+        // then
+        assertTrue(results.get(0).isSuccess(), "First car should be parked");
+        assertFalse(results.get(1).isSuccess(), "Write of the second car should fail");
+        assertTrue(results.get(2).isSuccess(), "Last car should be parked");
+        assertNull(carService.getCarById(rejectedCarId).getParking(), "Second car should not be parked");
+        assertEquals(parking.getId(), carService.getCarById(lastCarId).getParking().getId(), "Last car should be in the parking");
+        assertEquals(2, occupancyEngine.getCounts(parking.getId()).getTotal(), "Occupancy should count the parked cars only");
+    }
+
+    @Test
+    void testApplyOperations_RejectsOperationsWithoutRequiredFields() throws Exception {
+        // given
+        ParkingEntity parking = createParking(5);
+        Long carId = createCar().getId();
+
+        // when / then
+        mockMvc.perform(post("/parkings/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"parkingId\": " + parking.getId() + ", \"carId\": " + carId + ", \"action\": \"PARK\"},"
+                                + " {\"carId\": " + carId + ", \"action\": \"PARK\"}]"))
+                .andExpect(status().isBadRequest());
+        assertNull(carService.getCarById(carId).getParking(), "No operation of an invalid batch should be applied");
+    }
+
+    @Test
+    void testApplyOperations_UsesFewerStatementsThanSingleAdmissions() {
+        // given
+        ParkingEntity singleParking = createParking(CARS);
+        ParkingEntity batchParking = createParking(CARS);
+        List<Long> singleCarIds = new ArrayList<>();
+        List<ParkingOperation> operations = new ArrayList<>();
+        for (int i = 0; i < CARS; i++) {
+            singleCarIds.add(createCar().getId());
+            operations.add(new ParkingOperation(batchParking.getId(), createCar().getId(), ParkingAction.PARK));
+        }
+
+        // when
+        statistics.clear();
+        for (Long carId : singleCarIds) {
+            parkingService.addCarToParking(singleParking.getId(), carId);
+        }
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<ParkingOperationResult> results = parkingService.applyOperations(operations);
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        // then
+        assertTrue(results.stream().allMatch(ParkingOperationResult::isSuccess), "All cars should be parked");
+        assertTrue(batchStatements * 10 <= singleStatements,
+                "Batch used " + batchStatements + " statements, single admissions used " + singleStatements);
+    }
+
+    private ParkingEntity createParking(int totalSpaces) {
+        return parkingService.createParking(TestDataUtil.newParking(totalSpaces, 0).build());
+    }
+
+    private CarEntity createCar() {
+        return carService.createCar(TestDataUtil.newCar(FuelType.PETROL).build());
+    }
+}
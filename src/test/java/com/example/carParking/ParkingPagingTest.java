@@ -0,0 +1,104 @@
+package com.example.carParking;
+
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.service.ParkingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lists parkings from a database with 50k parkings and 500k parked cars. Every page must cost the
+ * same number of statements and loaded rows, whether it is the first or the last one.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:paging;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@DirtiesContext
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class ParkingPagingTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParkingPagingTest.class);
+
+    private static final int PARKINGS = 50_000;
+    private static final int CARS_PER_PARKING = 10;
+    private static final int PAGE_SIZE = 10;
+    private static final int SAMPLES = 15;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void setUp() {
+        jdbcTemplate.update("insert into parkings (name, address, total_spaces, number_of_chargers, lpg_allowed, " +
+                "width_of_parking_space, version) select 'Parking ' || x, 'Street ' || x, ?, 0, true, 2.5, 0 " +
+                "from system_range(1, ?)", CARS_PER_PARKING, PARKINGS);
+        Long firstParkingId = jdbcTemplate.queryForObject("select min(parking_id) from parkings", Long.class);
+        jdbcTemplate.update("insert into cars (car_id, brand, model, width, fuel_type, parking_id, version) " +
+                        "select x, 'Brand', 'Model', 1.8, 'PETROL', ? + (x - 1) / ?, 0 from system_range(1, ?)",
+                firstParkingId, CARS_PER_PARKING, PARKINGS * CARS_PER_PARKING);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void testGetAllParkings_CostDoesNotGrowWithPageNumber() {
+        int lastPage = PARKINGS / PAGE_SIZE - 1;
+        long firstPageNanos = medianNanos(0);
+        long middlePageNanos = medianNanos(lastPage / 2);
+        long lastPageNanos = medianNanos(lastPage);
+        logger.info("Median page latency: first {} us, middle {} us, last {} us",
+                TimeUnit.NANOSECONDS.toMicros(firstPageNanos), TimeUnit.NANOSECONDS.toMicros(middlePageNanos),
+                TimeUnit.NANOSECONDS.toMicros(lastPageNanos));
+
+        for (int pageNumber : new int[]{0, lastPage / 2, lastPage}) {
+            statistics.clear();
+            Page<ParkingDTO> page = parkingService.getAllParkings(PageRequest.of(pageNumber, PAGE_SIZE));
+
+            assertEquals(PARKINGS, page.getTotalElements());
+            assertEquals(PAGE_SIZE, page.getNumberOfElements());
+            assertTrue(page.getContent().stream().allMatch(parking -> parking.getCars().size() == CARS_PER_PARKING),
+                    "Every parking should come with its cars");
+            assertEquals(3, statistics.getPrepareStatementCount(), "Page, count and cars of page " + pageNumber);
+            assertEquals(0, statistics.getEntityLoadCount(), "Listings should not load entities for page " + pageNumber);
+        }
+        assertTrue(lastPageNanos < firstPageNanos * 10 + TimeUnit.MILLISECONDS.toNanos(50),
+                "Last page should not be much slower than the first one");
+    }
+
+    private long medianNanos(int pageNumber) {
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            parkingService.getAllParkings(PageRequest.of(pageNumber, PAGE_SIZE));
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
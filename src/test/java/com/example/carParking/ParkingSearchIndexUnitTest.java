@@ -0,0 +1,93 @@
+package com.example.carParking;
+
+import com.example.carParking.dto.ParkingAvailabilityDTO;
+import com.example.carParking.service.ParkingSearchIndex;
+import com.example.carParking.service.ParkingSearchIndex.Match;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParkingSearchIndexUnitTest {
+
+    private final Random random = new Random(42);
+
+    private ParkingSearchIndex searchIndex;
+    private List<ParkingAvailabilityDTO> profiles;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new ParkingSearchIndex();
+        profiles = new ArrayList<>();
+        for (long id = 1; id <= 5_000; id++) {
+            ParkingAvailabilityDTO profile = ParkingAvailabilityDTO.builder()
+                    .parkingId(id)
+                    .name("Parking " + id)
+                    .totalSpaces(10)
+                    .numberOfChargers(random.nextInt(3))
+                    .lpgAllowed(random.nextBoolean())
+                    .widthOfParkingSpace(2.0 + random.nextInt(8) * 0.1)
+                    .latitude(52.0 + random.nextDouble() * 0.5)
+                    .longitude(20.8 + random.nextDouble() * 0.5)
+                    .build();
+            profiles.add(profile);
+            searchIndex.put(profile);
+        }
+    }
+
+    @Test
+    void testSearch_MatchesLinearScan() {
+        for (int query = 0; query < 200; query++) {
+            double latitude = 51.9 + random.nextDouble() * 0.7;
+            double longitude = 20.7 + random.nextDouble() * 0.7;
+            double width = 1.8 + random.nextInt(8) * 0.1;
+            boolean needsLpg = random.nextBoolean();
+            boolean needsCharger = random.nextBoolean();
+
+            List<Match> matches = searchIndex.search(width, needsLpg, needsCharger, latitude, longitude, 5,
+                    id -> id % 3 != 0, id -> 0);
+
+            List<Long> expected = profiles.stream()
+                    .filter(profile -> profile.getWidthOfParkingSpace() >= width
+                            && (!needsLpg || profile.isLpgAllowed())
+                            && (!needsCharger || profile.getNumberOfChargers() > 0)
+                            && profile.getParkingId() % 3 != 0)
+                    .sorted(Comparator.comparingDouble(profile -> distance(profile, latitude, longitude)))
+                    .limit(5)
+                    .map(ParkingAvailabilityDTO::getParkingId)
+                    .toList();
+            assertEquals(expected, matches.stream().map(Match::parkingId).toList());
+        }
+    }
+
+    @Test
+    void testSearch_FollowsMovedAndRemovedLots() {
+        ParkingAvailabilityDTO moved = profiles.get(0).toBuilder().latitude(-33.9).longitude(151.2).build();
+        searchIndex.put(moved);
+        searchIndex.remove(2L);
+
+        List<Match> matches = searchIndex.search(1.0, false, false, -33.9, 151.2, 1, id -> true, id -> 0);
+        assertEquals(List.of(1L), matches.stream().map(Match::parkingId).toList());
+        assertEquals(0.0, matches.get(0).distanceKm(), 1e-9);
+        assertTrue(searchIndex.search(1.0, false, false, null, null, 10_000, id -> true, id -> 0).stream()
+                .noneMatch(match -> match.parkingId() == 2L));
+    }
+
+    @Test
+    void testSearch_WithoutLocationPrefersMostFreeSpaces() {
+        List<Match> matches = searchIndex.search(1.0, false, false, null, null, 3, id -> true, id -> (int) (id % 100));
+
+        assertEquals(List.of(99L, 199L, 299L), matches.stream().map(Match::parkingId).toList());
+        assertTrue(Double.isNaN(matches.get(0).distanceKm()));
+    }
+
+    private static double distance(ParkingAvailabilityDTO profile, double latitude, double longitude) {
+        double dLatitude = Math.toRadians(profile.getLatitude() - latitude);
+        double dLongitude = Math.toRadians(profile.getLongitude() - longitude);
+        double a = Math.pow(Math.sin(dLatitude / 2), 2) + Math.cos(Math.toRadians(latitude))
+                * Math.cos(Math.toRadians(profile.getLatitude())) * Math.pow(Math.sin(dLongitude / 2), 2);
+        return 2 * 6371.0 * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.carParking;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:search;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+public class ParkingSearchTest {
+
+    private static final double LATITUDE = 10.0;
+    private static final double LONGITUDE = 20.0;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void testSearch_ReturnsNearestLotsTheCarCanUse() throws Exception {
+        // given
+        createParking("No LPG", LATITUDE + 0.001, LONGITUDE, 5, 0, false, 2.5);
+        createParking("Too Narrow", LATITUDE + 0.002, LONGITUDE, 5, 0, true, 2.0);
+        ParkingEntity full = createParking("Full", LATITUDE + 0.003, LONGITUDE, 1, 0, true, 2.5);
+        ParkingEntity far = createParking("Far", LATITUDE + 0.05, LONGITUDE, 5, 0, true, 2.5);
+        ParkingEntity near = createParking("Near", LATITUDE + 0.01, LONGITUDE, 5, 0, true, 2.5);
+        parkingService.addCarToParking(full.getId(), createCar(FuelType.LPG, 2.2).getId());
+        Long carId = createCar(FuelType.LPG, 2.2).getId();
+
+        // when & then
+        mockMvc.perform(get("/parkings/search")
+                        .param("carId", carId.toString())
+                        .param("latitude", String.valueOf(LATITUDE))
+                        .param("longitude", String.valueOf(LONGITUDE))
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].parkingId").value(near.getId()))
+                .andExpect(jsonPath("$[0].distanceKm").value(closeTo(1.11, 0.01)))
+                .andExpect(jsonPath("$[1].parkingId").value(far.getId()))
+                .andExpect(jsonPath("$[1].distanceKm").value(closeTo(5.56, 0.01)));
+    }
+
+    @Test
+    void testSearch_SkipsLotsWithoutFreeChargersAndRejectsHalfLocation() throws Exception {
+        // given
+        ParkingEntity busy = createParking("Busy Chargers", -LATITUDE, LONGITUDE, 5, 1, true, 2.5);
+        ParkingEntity free = createParking("Free Chargers", -LATITUDE + 0.2, LONGITUDE, 5, 1, true, 2.5);
+        parkingService.addCarToParking(busy.getId(), createCar(FuelType.ELECTRIC, 1.8).getId());
+        Long carId = createCar(FuelType.ELECTRIC, 1.8).getId();
+
+        // when & then
+        mockMvc.perform(get("/parkings/search")
+                        .param("carId", carId.toString())
+                        .param("latitude", String.valueOf(-LATITUDE))
+                        .param("longitude", String.valueOf(LONGITUDE))
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].parkingId").value(free.getId()))
+                .andExpect(jsonPath("$[0].freeChargers").value(1));
+
+        mockMvc.perform(get("/parkings/search")
+                        .param("carId", carId.toString())
+                        .param("latitude", String.valueOf(LATITUDE)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ParkingEntity createParking(String name, double latitude, double longitude, int totalSpaces,
+                                        int numberOfChargers, boolean lpgAllowed, double width) {
+        return parkingService.createParking(TestDataUtil.newParking(totalSpaces, numberOfChargers)
+                .name(name)
+                .lpgAllowed(lpgAllowed)
+                .widthOfParkingSpace(width)
+                .latitude(latitude)
+                .longitude(longitude)
+                .build());
+    }
+
+    private CarEntity createCar(FuelType fuelType, double width) {
+        return carService.createCar(TestDataUtil.newCar(fuelType).width(width).build());
+    }
+}
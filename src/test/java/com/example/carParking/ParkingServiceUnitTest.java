@@ -1,22 +1,47 @@
 package com.example.carParking;
 
+import com.example.carParking.dto.CarDTO;
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.dto.ParkingWithoutCarsDTO;
 import com.example.carParking.exceptions.*;
+import com.example.carParking.mapper.CarMapperImpl;
+import com.example.carParking.mapper.ParkingMapper;
+import com.example.carParking.mapper.ParkingMapperImpl;
 import com.example.carParking.model.CarEntity;
 import com.example.carParking.model.ParkingEntity;
 import com.example.carParking.repository.CarRepository;
 import com.example.carParking.repository.ParkingRepository;
+import com.example.carParking.repository.ParkingSlotRepository;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.service.AvailabilityService;
+import com.example.carParking.service.CacheEvictor;
+import com.example.carParking.service.ChargerScheduler;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingLocks;
 import com.example.carParking.service.ParkingService;
+import com.example.carParking.service.ParkingSessionLedger;
+import com.example.carParking.service.ReservationIndex.Reserved;
+import com.example.carParking.service.ReservationService;
+import com.example.carParking.service.SlotAllocator;
+import com.example.carParking.service.WriteBehindAssignments;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +56,40 @@ public class ParkingServiceUnitTest {
     @Mock
     private CarRepository carRepository;
 
+    @Spy
+    private OccupancyEngine occupancyEngine = new OccupancyEngine();
+
+    @Spy
+    private ParkingLocks parkingLocks = new ParkingLocks(16);
+
+    @Mock
+    private CacheEvictor cacheEvictor;
+
+    @Mock
+    private AvailabilityService availabilityService;
+
+    @Mock
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Spy
+    private SlotAllocator slotAllocator = new SlotAllocator();
+
+    @Spy
+    private ChargerScheduler chargerScheduler = new ChargerScheduler(Clock.systemUTC(),
+            ChargerScheduler.Policy.DEDICATED, Duration.ofMinutes(30));
+
+    @Mock
+    private ParkingSessionLedger parkingSessionLedger;
+
+    @Mock
+    private WriteBehindAssignments writeBehindAssignments;
+
+    @Mock
+    private ReservationService reservationService;
+
+    @Spy
+    private ParkingMapper parkingMapper = new ParkingMapperImpl(new CarMapperImpl());
+
     @InjectMocks
     private ParkingService parkingService;
 
@@ -40,7 +99,15 @@ public class ParkingServiceUnitTest {
     void setUp() {
         //given
         parkingEntity = TestDataUtil.createParkingEntity();
+        lenient().when(reservationService.reservedForArrival(any(), any())).thenReturn(Reserved.NONE);
+        lenient().when(reservationService.peak(any())).thenReturn(Reserved.NONE);
+    }
 
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -97,20 +164,24 @@ public class ParkingServiceUnitTest {
     @Test
     void testGetAllParkings() {
         // given
-        Page<ParkingEntity> parkingPage = new PageImpl<>(Collections.singletonList(parkingEntity));
+        ParkingWithoutCarsDTO parking = ParkingWithoutCarsDTO.builder().id(parkingEntity.getId()).name("Test Parking").build();
+        CarDTO car = CarDTO.builder().id(7L).parkingId(parkingEntity.getId()).build();
 
         Pageable pageable = Pageable.unpaged();
-        when(parkingRepository.findAll(pageable)).thenReturn(parkingPage);
+        when(parkingRepository.findParkingDTOs(pageable)).thenReturn(new PageImpl<>(Collections.singletonList(parking)));
+        when(carRepository.findCarDTOsByParkingIdIn(List.of(parkingEntity.getId()))).thenReturn(List.of(car));
 
         // when
-        Page<ParkingEntity> result = parkingService.getAllParkings(pageable);
+        Page<ParkingDTO> result = parkingService.getAllParkings(pageable);
 
         // then
-        assertNotNull(result, "ParkingEntity should not be null");
+        assertNotNull(result, "Page should not be null");
         assertEquals(1, result.getTotalElements());
-        assertEquals(parkingEntity.getId(), result.getContent().get(0).getId(), "The ID of the created parking should be: " + result.getContent().get(0).getId());
-        verify(parkingRepository, times(1)).findAll(pageable);
-        verifyNoMoreInteractions(parkingRepository);
+        assertEquals(parkingEntity.getId(), result.getContent().get(0).getId(), "The ID of the listed parking should be: " + parkingEntity.getId());
+        assertEquals(List.of(car), result.getContent().get(0).getCars(), "The parking should come with its cars");
+        verify(parkingRepository, times(1)).findParkingDTOs(pageable);
+        verify(carRepository, times(1)).findCarDTOsByParkingIdIn(List.of(parkingEntity.getId()));
+        verifyNoMoreInteractions(parkingRepository, carRepository);
     }
 
     @Test
@@ -168,6 +239,43 @@ public class ParkingServiceUnitTest {
         verifyNoMoreInteractions(parkingRepository);
     }
 
+    @Test
+    void testUpdateParking_ThrowNoFreeSpaceParkingException_WhenMoreCarsAreParked() {
+        // given
+        ParkingEntity updatedParkingEntity = TestDataUtil.createParkingEntity();
+        updatedParkingEntity.setTotalSpaces(1);
+        occupancyEngine.tryAdmit(parkingEntity.getId(), FuelType.DIESEL, 10, 10);
+        occupancyEngine.tryAdmit(parkingEntity.getId(), FuelType.PETROL, 10, 10);
+        when(parkingRepository.findById(parkingEntity.getId())).thenReturn(Optional.of(parkingEntity));
+
+        // when
+        NoFreeSpaceParkingException exception = assertThrows(NoFreeSpaceParkingException.class,
+                () -> parkingService.updateParking(parkingEntity.getId(), updatedParkingEntity));
+
+        // then
+        assertEquals("There are more cars parked than the new number of spaces!", exception.getMessage(), "Exception message should match!");
+        verify(parkingRepository, never()).save(any());
+    }
+
+    @Test
+    void testDeleteParking_KeepsOccupancyUntilCommitted() {
+        // given
+        occupancyEngine.tryAdmit(parkingEntity.getId(), FuelType.DIESEL, 10, 10);
+        when(parkingRepository.findById(parkingEntity.getId())).thenReturn(Optional.of(parkingEntity));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // when
+        parkingService.deleteParking(parkingEntity.getId());
+        int beforeCommit = occupancyEngine.getCounts(parkingEntity.getId()).getTotal();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        // then
+        assertEquals(1, beforeCommit, "Occupancy should stay until the deletion commits");
+        assertEquals(0, occupancyEngine.getCounts(parkingEntity.getId()).getTotal(), "Occupancy should be removed once committed");
+    }
+
 
     @Test
     void testAddCarToParking_Success() {
@@ -282,4 +390,60 @@ public class ParkingServiceUnitTest {
         verifyNoMoreInteractions(parkingRepository);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testAddCarToParking_ThrowNoFreeSpaceParkingException_WhenOccupancyIsFull() {
+
+        // given
+        CarEntity car = TestDataUtil.createCarEntityWithoutParking();
+        parkingEntity.setTotalSpaces(1);
+        occupancyEngine.tryAdmit(parkingEntity.getId(), FuelType.DIESEL, 1, 10);
+        when(parkingRepository.findById(parkingEntity.getId())).thenReturn(Optional.of(parkingEntity));
+        when(carRepository.findById(car.getId())).thenReturn(Optional.of(car));
+
+        // when
+        NoFreeSpaceParkingException exception = assertThrows(NoFreeSpaceParkingException.class, () -> parkingService.addCarToParking(parkingEntity.getId(), car.getId()));
+
+        // then
+        assertEquals("You can't park here, parking is full", exception.getMessage(), "Exception message should match!");
+        assertEquals(1, occupancyEngine.getCounts(parkingEntity.getId()).getTotal(), "Occupancy should not change");
+        verifyNoMoreInteractions(parkingRepository);
+    }
+
+    @Test
+    void testAddCarToParking_ThrowServerBusyException_WhenOccupancyIsNotReconciled() {
+
+        // given
+        CarEntity car = TestDataUtil.createCarEntityWithoutParking();
+        occupancyEngine.markUnreconciled(parkingEntity.getId());
+        when(parkingRepository.findById(parkingEntity.getId())).thenReturn(Optional.of(parkingEntity));
+        when(carRepository.findById(car.getId())).thenReturn(Optional.of(car));
+
+        // when
+        assertThrows(ServerBusyException.class, () -> parkingService.addCarToParking(parkingEntity.getId(), car.getId()));
+        occupancyEngine.markReconciled(parkingEntity.getId());
+        parkingService.addCarToParking(parkingEntity.getId(), car.getId());
+
+        // then
+        assertEquals(1, occupancyEngine.getCounts(parkingEntity.getId()).getTotal(), "Only the second attempt should be admitted");
+    }
+
+    @Test
+    void testDeleteCarFromParking_ReleasesOccupancy() {
+
+        // given
+        CarEntity car = TestDataUtil.createCarEntityWithoutParkingWithElectricMotor();
+        when(parkingRepository.findById(parkingEntity.getId())).thenReturn(Optional.of(parkingEntity));
+        when(carRepository.findById(car.getId())).thenReturn(Optional.of(car));
+        parkingService.addCarToParking(parkingEntity.getId(), car.getId());
+
+        // when
+        parkingService.deleteCarFromParking(parkingEntity.getId(), car.getId());
+
+        // then
+        assertEquals(0, occupancyEngine.getCounts(parkingEntity.getId()).getTotal(), "Parking should be empty");
+        assertEquals(0, occupancyEngine.getCounts(parkingEntity.getId()).getCount(FuelType.ELECTRIC), "No electric car should be parked");
+        verify(cacheEvictor, times(2)).evictCar(car.getId());
+        verify(cacheEvictor, atLeast(2)).evictParking(parkingEntity.getId());
+    }
+
+}
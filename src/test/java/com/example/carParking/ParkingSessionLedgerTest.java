@@ -0,0 +1,108 @@
+package com.example.carParking;
+
+import com.example.carParking.model.*;
+import com.example.carParking.repository.CarRepository;
+import com.example.carParking.repository.ParkedCarsCount;
+import com.example.carParking.repository.ParkingSessionStore;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import com.example.carParking.service.ParkingSessionLedger;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:ledger;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+public class ParkingSessionLedgerTest {
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ParkingSessionLedger parkingSessionLedger;
+
+    @Autowired
+    private ParkingSessionStore parkingSessionStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testParkAndUnpark_AppendSessionEventsAndReplayToCurrentOccupancy() throws Exception {
+        // given
+        ParkingEntity first = createParking();
+        ParkingEntity second = createParking();
+        CarEntity mover = createCar(FuelType.PETROL);
+        CarEntity charger = createCar(FuelType.ELECTRIC);
+        CarEntity stayer = createCar(FuelType.DIESEL);
+
+        // when
+        parkingService.addCarToParking(first.getId(), mover.getId());
+        parkingService.addCarToParking(second.getId(), mover.getId());
+        parkingService.addCarToParking(first.getId(), charger.getId());
+        parkingService.addCarToParking(second.getId(), stayer.getId());
+        carService.updateCar(charger.getId(), TestDataUtil.newCar(FuelType.PETROL).build());
+        parkingService.deleteCarFromParking(second.getId(), mover.getId());
+        transactionTemplate.executeWithoutResult(status -> {
+            parkingService.addCarToParking(first.getId(), mover.getId());
+            status.setRollbackOnly();
+        });
+        assertTrue(parkingSessionLedger.flush(Duration.ofSeconds(10)), "Writer should catch up");
+
+        // then
+        List<ParkingSessionEventEntity> events = new ArrayList<>();
+        parkingSessionStore.forEach(events::add);
+        assertEquals(List.of(
+                        ParkingSessionEventType.ENTER + " " + first.getId(),
+                        ParkingSessionEventType.EXIT + " " + first.getId(),
+                        ParkingSessionEventType.ENTER + " " + second.getId(),
+                        ParkingSessionEventType.EXIT + " " + second.getId()),
+                describe(events, mover.getId()), "Rolled back park must not be recorded");
+        assertEquals(List.of(FuelType.ELECTRIC, FuelType.ELECTRIC, FuelType.PETROL),
+                events.stream().filter(event -> event.getCarId().equals(charger.getId()))
+                        .map(ParkingSessionEventEntity::getFuelType).toList(),
+                "A fuel type change closes the session and opens a new one");
+        assertTrue(events.stream().allMatch(event -> event.getOccurredAt() != null));
+
+        assertEquals(counts(carRepository.countParkedCarsByParkingAndFuelType()),
+                counts(parkingSessionLedger.replayOccupancy()));
+    }
+
+    private ParkingEntity createParking() {
+        return parkingService.createParking(TestDataUtil.newParking(10, 2).build());
+    }
+
+    private CarEntity createCar(FuelType fuelType) {
+        return carService.createCar(TestDataUtil.newCar(fuelType).build());
+    }
+
+    private static List<String> describe(List<ParkingSessionEventEntity> events, Long carId) {
+        return events.stream()
+                .filter(event -> event.getCarId().equals(carId))
+                .map(event -> event.getType() + " " + event.getParkingId())
+                .toList();
+    }
+
+    private static Set<String> counts(List<? extends ParkedCarsCount> counts) {
+        return counts.stream()
+                .map(count -> count.getParkingId() + "/" + count.getFuelType() + "=" + count.getCarCount())
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.carParking;
+
+import com.example.carParking.exceptions.InvalidSlotLayoutException;
+import com.example.carParking.exceptions.NoFreeSpaceParkingException;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingSlotEntity;
+import com.example.carParking.service.AvailabilityService;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureMockMvc
+public class ParkingSlotsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    private ParkingEntity parking;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        parking = parkingService.createParking(ParkingEntity.builder()
+                .name("Garage")
+                .address("1 Slot Street")
+                .totalSpaces(100)
+                .numberOfChargers(0)
+                .lpgAllowed(false)
+                .widthOfParkingSpace(1.0)
+                .build());
+        String slots = """
+                [
+                  {"label": "A1", "width": 2.2},
+                  {"label": "A2", "width": 2.6},
+                  {"label": "E1", "width": 2.4, "charger": true}
+                ]
+                """;
+        mockMvc.perform(put("/parkings/" + parking.getId() + "/slots").contentType(MediaType.APPLICATION_JSON).content(slots))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+    }
+
+    @Test
+    void testReplaceSlots_DerivesParkingCapacity() {
+        ParkingEntity slotted = parkingService.getParkingById(parking.getId());
+
+        assertEquals(3, slotted.getTotalSpaces());
+        assertEquals(1, slotted.getNumberOfChargers());
+        assertEquals(2.6, slotted.getWidthOfParkingSpace());
+        assertFalse(slotted.isLpgAllowed());
+        assertEquals(3, availabilityService.getAvailability(parking.getId()).getFreeSpaces());
+    }
+
+    @Test
+    void testAddCarToParking_AssignsNarrowestFittingSlot() throws Exception {
+        // given
+        List<ParkingSlotEntity> slots = parkingService.getSlots(parking.getId());
+        Long narrowSlotId = slotId(slots, "A1");
+        Long wideSlotId = slotId(slots, "A2");
+        Long chargerSlotId = slotId(slots, "E1");
+
+        // when
+        CarEntity smallCar = park(FuelType.PETROL, 1.8);
+        CarEntity electricCar = park(FuelType.ELECTRIC, 1.9);
+        CarEntity wideCar = park(FuelType.DIESEL, 2.5);
+
+        // then
+        assertEquals(narrowSlotId, carService.getCarById(smallCar.getId()).getSlot().getId());
+        assertEquals(chargerSlotId, carService.getCarById(electricCar.getId()).getSlot().getId());
+        assertEquals(wideSlotId, carService.getCarById(wideCar.getId()).getSlot().getId());
+        mockMvc.perform(get("/cars/" + wideCar.getId()))
+                .andExpect(jsonPath("$.slotId").value(wideSlotId.intValue()));
+        mockMvc.perform(get("/parkings/" + parking.getId() + "/slots"))
+                .andExpect(jsonPath("$[?(@.label == 'A1')].occupied").value(true));
+    }
+
+    @Test
+    void testAddCarToParking_RejectsCarThatFitsNoFreeSlot() {
+        // given
+        park(FuelType.PETROL, 2.5);
+        CarEntity freedCar = park(FuelType.PETROL, 1.8);
+        parkingService.deleteCarFromParking(parking.getId(), freedCar.getId());
+        CarEntity wideCar = createCar(FuelType.PETROL, 2.5);
+
+        // when
+        NoFreeSpaceParkingException exception = assertThrows(NoFreeSpaceParkingException.class,
+                () -> parkingService.addCarToParking(parking.getId(), wideCar.getId()));
+
+        // then
+        assertEquals("No free slot fits your car!", exception.getMessage());
+        assertEquals(2, availabilityService.getAvailability(parking.getId()).getFreeSpaces(),
+                "Rejected car should not be counted");
+        assertNull(carService.getCarById(wideCar.getId()).getParking());
+    }
+
+    @Test
+    void testReplaceSlots_RejectsOccupiedParking() {
+        park(FuelType.PETROL, 1.8);
+
+        List<ParkingSlotEntity> layout = new ArrayList<>();
+        layout.add(ParkingSlotEntity.builder().label("B1").width(3.0).build());
+        assertThrows(InvalidSlotLayoutException.class, () -> parkingService.replaceSlots(parking.getId(), layout));
+    }
+
+    @Test
+    void testUnparkAndDelete_FreeSlots() {
+        CarEntity car = park(FuelType.PETROL, 1.8);
+        parkingService.deleteCarFromParking(parking.getId(), car.getId());
+        assertNull(carService.getCarById(car.getId()).getSlot());
+
+        parkingService.deleteParking(parking.getId());
+        assertFalse(parkingService.getParkingById(parkingService.createParking(ParkingEntity.builder()
+                .name("Plain")
+                .address("2 Slot Street")
+                .totalSpaces(1)
+                .numberOfChargers(0)
+                .lpgAllowed(false)
+                .widthOfParkingSpace(2.0)
+                .build()).getId()).isLpgAllowed(), "Lots without slots keep the classic validation");
+    }
+
+    private CarEntity park(FuelType fuelType, double width) {
+        CarEntity car = createCar(fuelType, width);
+        parkingService.addCarToParking(parking.getId(), car.getId());
+        return car;
+    }
+
+    private CarEntity createCar(FuelType fuelType, double width) {
+        return carService.createCar(TestDataUtil.newCar(fuelType).width(width).build());
+    }
+
+    private static Long slotId(List<ParkingSlotEntity> slots, String label) {
+        return slots.stream().filter(slot -> slot.getLabel().equals(label)).findFirst().orElseThrow().getId();
+    }
+}
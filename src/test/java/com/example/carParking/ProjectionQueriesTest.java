@@ -0,0 +1,136 @@
+package com.example.carParking;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listing and detail endpoints read projections: a fixed number of statements per request,
+ * however many lots the cars are spread over, and no entities loaded.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:projections;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureMockMvc
+public class ProjectionQueriesTest {
+
+    private static final int PARKINGS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<ParkingEntity> parkings = new ArrayList<>();
+
+    private final List<CarEntity> cars = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // One car in every lot and one unparked car, so an N+1 would show as one select per lot.
+        for (int i = 0; i < PARKINGS; i++) {
+            ParkingEntity parking = createParking();
+            CarEntity car = createCar();
+            parkingService.addCarToParking(parking.getId(), car.getId());
+            parkings.add(parking);
+            cars.add(car);
+        }
+        cars.add(createCar());
+    }
+
+    @Test
+    void testGetAllCars_TakesOneQueryForAShortPage() throws Exception {
+        // when
+        statistics.clear();
+        mockMvc.perform(get("/cars").param("size", "100").param("sort", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[?(@.id == " + cars.get(0).getId() + ")].parkingId")
+                        .value(parkings.get(0).getId().intValue()))
+                .andExpect(jsonPath("$.content[?(@.id == " + cars.get(PARKINGS).getId() + ")].parkingId")
+                        .value(contains((Object) null)));
+
+        // then
+        assertEquals(1, statistics.getPrepareStatementCount(), "A short first page needs no count");
+        assertEquals(0, statistics.getEntityLoadCount(), "No car or parking entity should be loaded");
+    }
+
+    @Test
+    void testGetCarById_TakesOneQuery() throws Exception {
+        // when
+        statistics.clear();
+        mockMvc.perform(get("/cars/" + cars.get(1).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parkingId").value(parkings.get(1).getId().intValue()));
+
+        // then
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testGetAllParkings_TakesPageCountAndCarsQueries() throws Exception {
+        // when
+        statistics.clear();
+        mockMvc.perform(get("/parkings").param("size", String.valueOf(PARKINGS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(PARKINGS));
+
+        // then
+        assertEquals(3, statistics.getPrepareStatementCount(), "Page, count and the cars of the page");
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testGetParkingById_TakesParkingAndCarsQueries() throws Exception {
+        // when
+        statistics.clear();
+        mockMvc.perform(get("/parkings/" + parkings.get(2).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cars[0].id").value(cars.get(2).getId().intValue()));
+
+        // then
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    private ParkingEntity createParking() {
+        return parkingService.createParking(TestDataUtil.newParking(10, 0).build());
+    }
+
+    private CarEntity createCar() {
+        return carService.createCar(TestDataUtil.newCar(FuelType.PETROL).build());
+    }
+}
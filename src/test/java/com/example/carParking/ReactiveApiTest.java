@@ -0,0 +1,103 @@
+package com.example.carParking;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+public class ReactiveApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void testAddCar_ValidatesAndMapsErrorsLikeTheServletApi() throws Exception {
+        // given
+        ParkingEntity parking = createParking(1);
+        CarEntity first = createCar(FuelType.PETROL);
+        CarEntity second = createCar(FuelType.PETROL);
+
+        // when & then
+        perform(post("/reactive/parkings/{parkingId}/addCar/{carId}", parking.getId(), first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(parking.getId()))
+                .andExpect(jsonPath("$.cars[0].id").value(first.getId()));
+
+        String servletError = mockMvc.perform(post("/parkings/{parkingId}/addCar/{carId}", parking.getId(), second.getId()))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        String reactiveError = perform(post("/reactive/parkings/{parkingId}/addCar/{carId}", parking.getId(), second.getId()))
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(servletError.replaceAll("\"timestamp\":\"[^\"]*\"", ""),
+                reactiveError.replaceAll("\"timestamp\":\"[^\"]*\"", ""));
+
+        perform(post("/reactive/parkings/{parkingId}/addCar/{carId}", parking.getId(), -1L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCarCrud_AndStreamingListing() throws Exception {
+        // given
+        String car = "{\"brand\":\"Reactive\",\"model\":\"Stream\",\"width\":1.8,\"fuelType\":\"LPG\"}";
+
+        // when
+        MvcResult created = perform(post("/reactive/cars").contentType(MediaType.APPLICATION_JSON).content(car))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long carId = Long.valueOf(created.getResponse().getContentAsString().replaceAll(".*\"id\":(\\d+).*", "$1"));
+
+        // then
+        perform(get("/reactive/cars/{id}", carId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fuelType").value("LPG"));
+        String stream = perform(get("/reactive/cars").param("pageSize", "1").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(carService.scrollCars(null, 1000, true).getTotalElements(), stream.lines().count(),
+                "Every car should be streamed once across pages");
+
+        perform(delete("/reactive/cars/{id}", carId)).andExpect(status().isNoContent());
+        perform(get("/reactive/cars/{id}", carId)).andExpect(status().isNotFound());
+    }
+
+    private ResultActions perform(RequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private ParkingEntity createParking(int totalSpaces) {
+        return parkingService.createParking(TestDataUtil.newParking(totalSpaces, 0).build());
+    }
+
+    private CarEntity createCar(FuelType fuelType) {
+        return carService.createCar(TestDataUtil.newCar(fuelType).build());
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.carParking;
+
+import com.example.carParking.model.ReservationEntity;
+import com.example.carParking.service.ReservationIndex;
+import com.example.carParking.service.ReservationIndex.Outcome;
+import com.example.carParking.service.ReservationIndex.Reserved;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReservationIndexUnitTest {
+
+    private static final Long PARKING_ID = 1L;
+
+    private static final Instant NOON = Instant.parse("2030-06-01T12:00:00Z");
+
+    private ReservationIndex reservationIndex;
+
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        reservationIndex = new ReservationIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testTryBook_RejectsOnlyWhereOverlappingReservationsFillTheLot() {
+        // given
+        assertEquals(Outcome.BOOKED, reservationIndex.tryBook(reservation(1L, 0, 120, false), 2, 0));
+        assertEquals(Outcome.BOOKED, reservationIndex.tryBook(reservation(2L, 60, 180, false), 2, 0));
+
+        // when
+        Outcome duringBoth = reservationIndex.tryBook(reservation(3L, 90, 105, false), 2, 0);
+        Outcome afterFirst = reservationIndex.tryBook(reservation(3L, 120, 180, false), 2, 0);
+
+        // then
+        assertEquals(Outcome.NO_FREE_SPACE, duringBoth);
+        assertEquals(Outcome.BOOKED, afterFirst, "The first reservation ends when this one starts");
+        assertEquals(new Reserved(2, 0), reservationIndex.peak(PARKING_ID, NOON, NOON.plus(Duration.ofHours(4))));
+        assertEquals(new Reserved(1, 0), reservationIndex.reservedAt(PARKING_ID, NOON, 99L));
+    }
+
+    @Test
+    void testTryBook_CountsChargersAndOverlapsOfTheSameCar() {
+        // given
+        assertEquals(Outcome.BOOKED, reservationIndex.tryBook(reservation(1L, 0, 60, true), 5, 1));
+
+        // when
+        Outcome secondCharger = reservationIndex.tryBook(reservation(2L, 30, 90, true), 5, 1);
+        Outcome withoutCharger = reservationIndex.tryBook(reservation(2L, 30, 90, false), 5, 1);
+        Outcome sameCar = reservationIndex.tryBook(reservation(1L, 59, 70, false), 5, 1);
+
+        // then
+        assertEquals(Outcome.NO_FREE_CHARGER, secondCharger);
+        assertEquals(Outcome.BOOKED, withoutCharger);
+        assertEquals(Outcome.CAR_ALREADY_BOOKED, sameCar);
+    }
+
+    @Test
+    void testClaim_ReleasesTheRunningReservationOfTheCar() {
+        // given
+        ReservationEntity running = reservation(1L, -30, 30, true);
+        reservationIndex.tryBook(running, 1, 1);
+        reservationIndex.tryBook(reservation(1L, 60, 90, false), 1, 1);
+
+        // when
+        Reserved beforeClaim = reservationIndex.reservedAt(PARKING_ID, NOON, 1L);
+        Long claimed = reservationIndex.claim(PARKING_ID, 1L, NOON);
+
+        // then
+        assertEquals(Reserved.NONE, beforeClaim, "The car's own reservation leaves its space to the car");
+        assertEquals(running.getId(), claimed);
+        assertEquals(Reserved.NONE, reservationIndex.reservedAt(PARKING_ID, NOON, 2L));
+        assertNull(reservationIndex.claim(PARKING_ID, 1L, NOON), "The later reservation has not started yet");
+        assertEquals(new Reserved(1, 0), reservationIndex.reservedAt(PARKING_ID, NOON.plus(Duration.ofMinutes(75)), 2L));
+    }
+
+    @Test
+    void testTryBook_UndoneWhenTransactionRollsBack() {
+        // given
+        TransactionSynchronizationManager.initSynchronization();
+        reservationIndex.tryBook(reservation(1L, 0, 60, false), 1, 0);
+
+        // when
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        // then
+        assertEquals(Reserved.NONE, reservationIndex.peak(PARKING_ID, NOON, NOON.plus(Duration.ofHours(1))));
+    }
+
+    @Test
+    void testPeak_MatchesCountingEveryReservation() {
+        // given
+        Random random = new Random(42);
+        int[] perMinute = new int[24 * 60];
+        List<ReservationEntity> reservations = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(perMinute.length - 1);
+            int to = from + 1 + random.nextInt(Math.min(240, perMinute.length - from));
+            ReservationEntity reservation = reservation((long) i, from, Math.min(to, perMinute.length), false);
+            reservationIndex.tryBook(reservation, Integer.MAX_VALUE, 0);
+            reservations.add(reservation);
+        }
+        for (int i = 0; i < reservations.size(); i += 3) {
+            reservationIndex.release(reservations.get(i));
+        }
+        for (int i = 0; i < reservations.size(); i++) {
+            if (i % 3 != 0) {
+                ReservationEntity reservation = reservations.get(i);
+                for (long minute = minuteOf(reservation.getStartsAt()); minute < minuteOf(reservation.getEndsAt()); minute++) {
+                    perMinute[(int) minute]++;
+                }
+            }
+        }
+
+        // when / then
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(perMinute.length - 1);
+            int to = from + 1 + random.nextInt(perMinute.length - from - 1);
+            int expected = 0;
+            for (int minute = from; minute < to; minute++) {
+                expected = Math.max(expected, perMinute[minute]);
+            }
+            assertEquals(expected, reservationIndex.peak(PARKING_ID, at(from), at(to)).spaces(),
+                    "Peak of minutes " + from + " - " + to);
+        }
+    }
+
+    private ReservationEntity reservation(Long carId, int fromMinute, int toMinute, boolean needsCharger) {
+        return ReservationEntity.builder()
+                .id(++nextId)
+                .carId(carId)
+                .parkingId(PARKING_ID)
+                .startsAt(at(fromMinute))
+                .endsAt(at(toMinute))
+                .needsCharger(needsCharger)
+                .build();
+    }
+
+    private static Instant at(int minute) {
+        return NOON.plus(Duration.ofMinutes(minute));
+    }
+
+    private static long minuteOf(Instant instant) {
+        return Duration.between(NOON, instant).toMinutes();
+    }
+}
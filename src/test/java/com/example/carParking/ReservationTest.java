@@ -0,0 +1,122 @@
+package com.example.carParking;
+
+import com.example.carParking.exceptions.NoFreeSpaceParkingException;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservations;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+public class ReservationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Test
+    void testReservations_HoldSpacesAgainstWalkInsUntilClaimed() throws Exception {
+        // given
+        ParkingEntity parking = createParking(2, 1);
+        Long reservedCarId = createCar(FuelType.ELECTRIC).getId();
+        Long otherReservedCarId = createCar(FuelType.PETROL).getId();
+        Long walkInCarId = createCar(FuelType.PETROL).getId();
+        Instant now = Instant.now();
+        Instant inAnHour = now.plus(Duration.ofHours(1));
+        long reservationId = idOf(reserve(reservedCarId, parking.getId(), now, inAnHour, true)
+                .andExpect(status().isCreated()));
+        long otherReservationId = idOf(reserve(otherReservedCarId, parking.getId(), now, inAnHour, false)
+                .andExpect(status().isCreated()));
+
+        // when / then
+        reserve(walkInCarId, parking.getId(), now.plus(Duration.ofMinutes(30)), now.plus(Duration.ofHours(2)), false)
+                .andExpect(status().isBadRequest());
+        // Windows are rounded outwards to whole minutes.
+        reserve(walkInCarId, parking.getId(), inAnHour.plus(Duration.ofMinutes(1)), now.plus(Duration.ofHours(2)), false)
+                .andExpect(status().isCreated());
+        assertThrows(NoFreeSpaceParkingException.class,
+                () -> parkingService.addCarToParking(parking.getId(), walkInCarId));
+
+        parkingService.addCarToParking(parking.getId(), reservedCarId);
+        mockMvc.perform(get("/reservations/" + reservationId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.claimedAt").exists());
+        mockMvc.perform(get("/reservations").param("parkingId", String.valueOf(parking.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(otherReservationId));
+
+        mockMvc.perform(delete("/reservations/" + otherReservationId))
+                .andExpect(status().isNoContent());
+        parkingService.addCarToParking(parking.getId(), walkInCarId);
+    }
+
+    @Test
+    void testCreateReservation_RejectsInvalidRequests() throws Exception {
+        // given
+        ParkingEntity parking = createParking(5, 0);
+        Long petrolCarId = createCar(FuelType.PETROL).getId();
+        Instant now = Instant.now();
+
+        // when / then
+        reserve(petrolCarId, parking.getId(), now.plus(Duration.ofHours(2)), now.plus(Duration.ofHours(1)), false)
+                .andExpect(status().isBadRequest());
+        reserve(petrolCarId, parking.getId(), now.minus(Duration.ofHours(2)), now.minus(Duration.ofHours(1)), false)
+                .andExpect(status().isBadRequest());
+        reserve(petrolCarId, parking.getId(), now, now.plus(Duration.ofDays(400)), false)
+                .andExpect(status().isBadRequest());
+        reserve(petrolCarId, parking.getId(), now, now.plus(Duration.ofHours(1)), true)
+                .andExpect(status().isBadRequest());
+        reserve(petrolCarId, -1L, now, now.plus(Duration.ofHours(1)), false)
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/reservations/-1"))
+                .andExpect(status().isNotFound());
+    }
+
+    private ResultActions reserve(Long carId, Long parkingId, Instant startsAt, Instant endsAt, boolean needsCharger)
+            throws Exception {
+        return mockMvc.perform(post("/reservations").contentType(MediaType.APPLICATION_JSON).content("""
+                {"carId": %d, "parkingId": %d, "startsAt": "%s", "endsAt": "%s", "needsCharger": %b}
+                """.formatted(carId, parkingId, startsAt, endsAt, needsCharger)));
+    }
+
+    private long idOf(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString()).get("id").asLong();
+    }
+
+    private ParkingEntity createParking(int totalSpaces, int numberOfChargers) {
+        return parkingService.createParking(TestDataUtil.newParking(totalSpaces, numberOfChargers).lpgAllowed(false).build());
+    }
+
+    private CarEntity createCar(FuelType fuelType) {
+        return carService.createCar(TestDataUtil.newCar(fuelType).build());
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.carParking;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import com.example.carParking.config.SamplingTurboFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SamplingTurboFilterUnitTest {
+
+    private LoggerContext context;
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        context.getLogger("com.example.carParking").setLevel(Level.DEBUG);
+        filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setCategory("com.example.carParking.service");
+        filter.setRate(10);
+        filter.start();
+    }
+
+    @Test
+    void testDecide_KeepsOneInRateEventsOfTheCategory() {
+        // given
+        Logger logger = context.getLogger("com.example.carParking.service.ParkingService");
+
+        // when
+        long kept = IntStream.range(0, 100)
+                .mapToObj(i -> filter.decide(null, logger, Level.DEBUG, "Adding car with ID: {}", new Object[]{i}, null))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+
+        // then
+        assertEquals(10, kept);
+    }
+
+    @Test
+    void testDecide_PassesWarningsOtherCategoriesAndLevelChecks() {
+        // given
+        Logger service = context.getLogger("com.example.carParking.service.ParkingService");
+        Logger controller = context.getLogger("com.example.carParking.controller.ParkingController");
+        // The next sampled event of the category would be dropped.
+        filter.decide(null, service, Level.DEBUG, "Adding car with ID: {}", null, null);
+
+        // when / then
+        for (int i = 0; i < 20; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, service, Level.WARN, "Parking operation failed", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, controller, Level.DEBUG, "Fetching parking", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, service, Level.DEBUG, null, null, null));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.carParking;
+
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingSlotEntity;
+import com.example.carParking.service.SlotAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlotAllocatorUnitTest {
+
+    private static final Long PARKING_ID = 1L;
+
+    private SlotAllocator slotAllocator;
+
+    @BeforeEach
+    void setUp() {
+        ParkingEntity parking = ParkingEntity.builder().id(PARKING_ID).build();
+        slotAllocator = new SlotAllocator();
+        slotAllocator.define(PARKING_ID, List.of(
+                slot(10L, parking, 2.6, false, false),
+                slot(11L, parking, 2.2, false, false),
+                slot(12L, parking, 2.4, true, false),
+                slot(13L, parking, 2.8, true, true),
+                slot(14L, parking, 2.3, false, true)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testAllocate_PicksNarrowestFittingSlotFirst() {
+        assertEquals(11L, slotAllocator.allocate(PARKING_ID, FuelType.PETROL, 1.8));
+        assertEquals(14L, slotAllocator.allocate(PARKING_ID, FuelType.DIESEL, 1.8));
+        assertEquals(12L, slotAllocator.allocate(PARKING_ID, FuelType.PETROL, 1.8));
+        assertEquals(10L, slotAllocator.allocate(PARKING_ID, FuelType.PETROL, 1.8), "The widest plain slot comes late");
+        assertEquals(13L, slotAllocator.allocate(PARKING_ID, FuelType.PETROL, 1.8));
+        assertNull(slotAllocator.allocate(PARKING_ID, FuelType.PETROL, 1.8), "Parking should be full");
+    }
+
+    @Test
+    void testAllocate_PrefersPlainSlotsOfTheSameWidth() {
+        ParkingEntity parking = ParkingEntity.builder().id(2L).build();
+        slotAllocator.define(2L, List.of(
+                slot(20L, parking, 2.5, true, false),
+                slot(21L, parking, 2.5, false, true),
+                slot(22L, parking, 2.5, false, false)));
+
+        assertEquals(22L, slotAllocator.allocate(2L, FuelType.PETROL, 1.8));
+        assertEquals(21L, slotAllocator.allocate(2L, FuelType.PETROL, 1.8), "LPG bay before charger bay");
+        assertEquals(20L, slotAllocator.allocate(2L, FuelType.PETROL, 1.8));
+    }
+
+    @Test
+    void testAllocate_RespectsChargerLpgAndWidth() {
+        assertEquals(12L, slotAllocator.allocate(PARKING_ID, FuelType.ELECTRIC, 2.0));
+        assertEquals(13L, slotAllocator.allocate(PARKING_ID, FuelType.ELECTRIC, 2.0));
+        assertNull(slotAllocator.allocate(PARKING_ID, FuelType.ELECTRIC, 2.0), "Only two charger bays exist");
+        assertEquals(14L, slotAllocator.allocate(PARKING_ID, FuelType.LPG, 2.0));
+        assertNull(slotAllocator.allocate(PARKING_ID, FuelType.LPG, 2.0), "LPG bays are taken");
+        assertNull(slotAllocator.allocate(PARKING_ID, FuelType.PETROL, 2.7), "No free slot is wide enough");
+    }
+
+    @Test
+    void testRollback_RestoresSlotsInReverseOrder() {
+        Long slotId = slotAllocator.allocate(PARKING_ID, FuelType.PETROL, 1.8);
+
+        TransactionSynchronizationManager.initSynchronization();
+        slotAllocator.release(PARKING_ID, slotId);
+        assertEquals(slotId, slotAllocator.allocate(PARKING_ID, FuelType.PETROL, 1.8), "Freed slot should be reused");
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(slotAllocator.isOccupied(PARKING_ID, slotId), "Slot should be held by its original car again");
+    }
+
+    private static ParkingSlotEntity slot(Long id, ParkingEntity parking, double width, boolean charger, boolean lpgAllowed) {
+        return ParkingSlotEntity.builder()
+                .id(id)
+                .parking(parking)
+                .label("S" + id)
+                .width(width)
+                .charger(charger)
+                .lpgAllowed(lpgAllowed)
+                .build();
+    }
+}
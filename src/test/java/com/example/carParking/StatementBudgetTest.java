@@ -0,0 +1,204 @@
+package com.example.carParking;
+
+import com.example.carParking.config.EndpointMetricsInterceptor;
+import com.example.carParking.controller.CarController;
+import com.example.carParking.controller.ParkingController;
+import com.example.carParking.controller.ReservationController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls every endpoint of {@link CarController}, {@link ParkingController} and
+ * {@link ReservationController} and fails when one of them executes more SQL statements than {@code statement-budgets.properties} allows. A new
+ * endpoint needs a budget; lower a budget when an endpoint gets cheaper.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statement-budget;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "carparking.analytics.flush-interval=PT1H"
+})
+@AutoConfigureMockMvc
+public class StatementBudgetTest {
+
+    private static final String BUDGETS = "/statement-budgets.properties";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testEveryEndpoint_StaysWithinItsStatementBudget() throws Exception {
+        // given
+        Properties budgets = loadBudgets();
+
+        // when
+        callEveryEndpoint();
+
+        // then
+        assertEquals(instrumentedEndpoints(), new TreeSet<>(budgets.stringPropertyNames()),
+                "Every endpoint needs a statement budget");
+        List<String> regressions = new ArrayList<>();
+        for (String endpoint : budgets.stringPropertyNames()) {
+            DistributionSummary statements = meterRegistry.find("carparking.endpoint.statements")
+                    .tag("endpoint", endpoint)
+                    .summary();
+            assertNotNull(statements, endpoint + " was not called");
+            int budget = Integer.parseInt(budgets.getProperty(endpoint));
+            if (statements.max() > budget) {
+                regressions.add(endpoint + " executed " + (long) statements.max() + " statements, budget " + budget);
+            }
+        }
+        assertTrue(regressions.isEmpty(), String.join("\n", regressions));
+    }
+
+    private void callEveryEndpoint() throws Exception {
+        long parkingId = createParking("Budget Garage");
+        long emptyParkingId = createParking("Empty Garage");
+        long parkedCarId = createCar();
+        long movedCarId = createCar();
+        long batchedCarId = createCar();
+        long electricCarId = idOf(perform(post("/cars").contentType(MediaType.APPLICATION_JSON)
+                .content(carJson("Budget Model", "ELECTRIC"))));
+        perform(post("/cars/import").contentType("text/csv").content("""
+                brand,model,width,fuelType
+                Skoda,Octavia,1.8,PETROL
+                Tesla,Model 3,1.85,ELECTRIC
+                """));
+
+        perform(put("/parkings/" + emptyParkingId + "/slots").contentType(MediaType.APPLICATION_JSON).content("""
+                [{"label": "A1", "width": 2.5}, {"label": "A2", "width": 2.5}]
+                """));
+        perform(get("/parkings/" + emptyParkingId + "/slots"));
+        Instant now = Instant.now();
+        perform(post("/reservations").contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson(parkedCarId, parkingId, now, now.plus(Duration.ofHours(1)))));
+        long reservationId = idOf(perform(post("/reservations").contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson(movedCarId, parkingId, now.plus(Duration.ofDays(1)), now.plus(Duration.ofDays(2))))));
+        perform(post("/reservations").contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson(batchedCarId, emptyParkingId, now.plus(Duration.ofDays(1)), now.plus(Duration.ofDays(2)))));
+        perform(post("/reservations").contentType(MediaType.APPLICATION_JSON)
+                .content(reservationJson(movedCarId, parkingId, now.plus(Duration.ofDays(3)), now.plus(Duration.ofDays(4)))));
+        perform(get("/reservations/" + reservationId));
+        perform(get("/reservations").param("parkingId", String.valueOf(parkingId)));
+        perform(delete("/reservations/" + reservationId));
+        perform(post("/parkings/" + parkingId + "/addCar/" + parkedCarId));
+        perform(post("/parkings/" + parkingId + "/addCar/" + movedCarId));
+        perform(post("/parkings/" + parkingId + "/addCar/" + electricCarId));
+        perform(delete("/parkings/" + parkingId + "/deleteCar/" + movedCarId));
+        perform(post("/parkings/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"parkingId\": " + parkingId + ", \"carId\": " + batchedCarId + ", \"action\": \"PARK\"}]"));
+
+        perform(get("/cars").param("size", "2"));
+        perform(get("/cars/scroll").param("size", "2"));
+        perform(get("/cars/" + parkedCarId));
+        perform(patch("/cars/" + movedCarId).contentType(MediaType.APPLICATION_JSON).content(carJson("Updated")));
+        perform(delete("/cars/" + movedCarId));
+
+        perform(get("/parkings").param("size", "1"));
+        perform(get("/parkings/scroll").param("size", "1").param("withTotal", "true"));
+        perform(get("/parkings/availability"));
+        perform(get("/parkings/" + parkingId + "/availability"));
+        perform(get("/parkings/" + parkingId + "/utilization"));
+        perform(get("/parkings/" + parkingId + "/chargers"));
+        perform(get("/parkings/" + parkingId + "/chargers/" + electricCarId));
+        perform(get("/parkings/search").param("carId", String.valueOf(parkedCarId))
+                .param("latitude", "52.23").param("longitude", "21.01"));
+        perform(get("/parkings/" + parkingId));
+        perform(patch("/parkings/" + emptyParkingId).contentType(MediaType.APPLICATION_JSON)
+                .content(parkingJson("Renamed Garage")));
+        perform(delete("/parkings/" + emptyParkingId));
+    }
+
+    private long createParking(String name) throws Exception {
+        return idOf(perform(post("/parkings").contentType(MediaType.APPLICATION_JSON).content(parkingJson(name))));
+    }
+
+    private long createCar() throws Exception {
+        return idOf(perform(post("/cars").contentType(MediaType.APPLICATION_JSON).content(carJson("Budget Model"))));
+    }
+
+    private String perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private long idOf(String response) throws IOException {
+        return objectMapper.readTree(response).get("id").asLong();
+    }
+
+    private static String parkingJson(String name) {
+        return """
+                {"name": "%s", "address": "1 Budget Street", "totalSpaces": 10, "numberOfChargers": 2,
+                 "lpgAllowed": true, "widthOfParkingSpace": 2.5, "latitude": 52.23, "longitude": 21.01}
+                """.formatted(name);
+    }
+
+    private static String carJson(String model) {
+        return carJson(model, "PETROL");
+    }
+
+    private static String carJson(String model, String fuelType) {
+        return """
+                {"brand": "Budget Brand", "model": "%s", "width": 1.8, "fuelType": "%s"}
+                """.formatted(model, fuelType);
+    }
+
+    private static String reservationJson(long carId, long parkingId, Instant startsAt, Instant endsAt) {
+        return """
+                {"carId": %d, "parkingId": %d, "startsAt": "%s", "endsAt": "%s"}
+                """.formatted(carId, parkingId, startsAt, endsAt);
+    }
+
+    private static TreeSet<String> instrumentedEndpoints() {
+        TreeSet<String> endpoints = new TreeSet<>();
+        Stream.of(CarController.class, ParkingController.class, ReservationController.class)
+                .flatMap(controller -> Arrays.stream(controller.getDeclaredMethods())
+                        .filter(method -> AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class))
+                        // Streams go asynchronous and are not recorded.
+                        .filter(method -> !SseEmitter.class.isAssignableFrom(method.getReturnType()))
+                        .map(method -> EndpointMetricsInterceptor.endpointName(controller, method)))
+                .forEach(endpoints::add);
+        return endpoints;
+    }
+
+    private static Properties loadBudgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = StatementBudgetTest.class.getResourceAsStream(BUDGETS)) {
+            assertNotNull(in, BUDGETS + " is missing");
+            budgets.load(in);
+        }
+        return budgets;
+    }
+}
@@ -5,7 +5,7 @@ import com.example.carParking.model.CarEntity;
 import com.example.carParking.model.FuelType;
 import com.example.carParking.model.ParkingEntity;
 
-import java.util.Collections;
+import java.util.ArrayList;
 
 public final class TestDataUtil {
 
@@ -20,7 +20,7 @@ public final class TestDataUtil {
                 .numberOfChargers(10)
                 .lpgAllowed(true)
                 .widthOfParkingSpace(2.5)
-                .cars(Collections.emptyList())
+                .cars(new ArrayList<>())
                 .build();
     }
 
@@ -33,7 +33,7 @@ public final class TestDataUtil {
                 .numberOfChargers(10)
                 .lpgAllowed(false)
                 .widthOfParkingSpace(2.5)
-                .cars(Collections.emptyList())
+                .cars(new ArrayList<>())
                 .build();
     }
 
@@ -46,7 +46,7 @@ public final class TestDataUtil {
                 .numberOfChargers(0)
                 .lpgAllowed(false)
                 .widthOfParkingSpace(2.5)
-                .cars(Collections.emptyList())
+                .cars(new ArrayList<>())
                 .build();
     }
 
@@ -59,7 +59,7 @@ public final class TestDataUtil {
                 .numberOfChargers(12)
                 .lpgAllowed(false)
                 .widthOfParkingSpace(3.0)
-                .cars(Collections.emptyList())
+                .cars(new ArrayList<>())
                 .build();
     }
 
@@ -128,7 +128,28 @@ public final class TestDataUtil {
                 .build();
     }
 
+    // Unsaved entities, for tests that create them through the services
+
+    public static ParkingEntity.ParkingEntityBuilder newParking(int totalSpaces, int numberOfChargers) {
+        return ParkingEntity.builder()
+                .name("Test Parking")
+                .address("123 Test Address")
+                .totalSpaces(totalSpaces)
+                .numberOfChargers(numberOfChargers)
+                .lpgAllowed(true)
+                .widthOfParkingSpace(2.5);
+    }
+
+    public static CarEntity.CarEntityBuilder newCar(FuelType fuelType) {
+        return CarEntity.builder()
+                .brand("Test Brand")
+                .model("Test Model")
+                .width(1.8)
+                .fuelType(fuelType);
+    }
+
     // ParkingDTO
+
     public static ParkingDTO createParkingDTO() {
         return ParkingDTO.builder()
                 .id(1L)
@@ -138,7 +159,7 @@ public final class TestDataUtil {
                 .numberOfChargers(10)
                 .lpgAllowed(true)
                 .widthOfParkingSpace(2.5)
-                .cars(Collections.emptyList())
+                .cars(new ArrayList<>())
                 .build();
     }
 }
@@ -0,0 +1,198 @@
+package com.example.carParking;
+
+import com.example.carParking.dto.UtilizationBucketDTO;
+import com.example.carParking.dto.UtilizationDTO;
+import com.example.carParking.exceptions.NoParkingFoundException;
+import com.example.carParking.model.*;
+import com.example.carParking.repository.ParkingSessionStore;
+import com.example.carParking.repository.UtilizationRollupStore;
+import com.example.carParking.service.*;
+import com.example.carParking.service.ChargerScheduler.Policy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UtilizationAnalyticsUnitTest {
+
+    private static final Long PARKING_ID = 1L;
+    private static final Instant TEN_O_CLOCK = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final MutableClock clock = new MutableClock(TEN_O_CLOCK);
+    private final List<UtilizationRollupEntity> writtenRollups = new ArrayList<>();
+
+    private OccupancyEngine occupancyEngine;
+    private AvailabilityService availabilityService;
+    private ParkingSessionLedger parkingSessionLedger;
+    private UtilizationAnalytics utilizationAnalytics;
+
+    @BeforeEach
+    void setUp() {
+        occupancyEngine = new OccupancyEngine();
+        availabilityService = new AvailabilityService(occupancyEngine, new ParkingSearchIndex(),
+                new ChargerScheduler(Clock.systemUTC(), Policy.DEDICATED, Duration.ZERO));
+        availabilityService.reload(List.of(ParkingEntity.builder()
+                .id(PARKING_ID)
+                .name("Analytics Parking")
+                .totalSpaces(10)
+                .numberOfChargers(2)
+                .lpgAllowed(true)
+                .widthOfParkingSpace(2.5)
+                .build()));
+        parkingSessionLedger = new ParkingSessionLedger(new ParkingSessionStore(null) {
+            @Override
+            public void appendAll(List<ParkingSessionEventEntity> events) {
+            }
+        }, new SimpleMeterRegistry(), 500, 1000);
+        utilizationAnalytics = new UtilizationAnalytics(parkingSessionLedger, occupancyEngine, availabilityService,
+                new UtilizationRollupStore(null) {
+                    @Override
+                    public void appendAll(List<UtilizationRollupEntity> rollups) {
+                        writtenRollups.addAll(rollups);
+                    }
+                }, clock);
+    }
+
+    @Test
+    void testHourlyBucket_AveragesOccupancyOverTimeAndTracksPeaksAndDwell() {
+        // given
+        CarEntity electric = car(1L, FuelType.ELECTRIC);
+        CarEntity petrol = car(2L, FuelType.PETROL);
+
+        // when
+        park(electric);
+        clock.advance(Duration.ofMinutes(30));
+        park(petrol);
+        clock.advance(Duration.ofMinutes(15));
+        unpark(electric);
+        clock.advance(Duration.ofMinutes(15));
+        UtilizationDTO utilization = utilizationAnalytics.getUtilization(PARKING_ID, UtilizationWindow.HOUR);
+
+        // then
+        assertEquals(1, utilization.getBuckets().size(), "The new hour has not been observed yet");
+        UtilizationBucketDTO bucket = utilization.getBuckets().get(0);
+        assertEquals(TEN_O_CLOCK, bucket.getStart());
+        assertEquals(1.25, bucket.getAverageOccupancy(), 1e-9, "30 min of one car, 15 of two, 15 of one");
+        assertEquals(2, bucket.getPeakOccupancy());
+        assertEquals(1, bucket.getPeakChargerUsage());
+        assertEquals(1, bucket.getCompletedSessions());
+        assertEquals(2700.0, bucket.getAverageDwellSeconds(), 1e-9);
+        assertEquals(0.75, bucket.getAverageOccupancyByFuelType().get(FuelType.ELECTRIC), 1e-9);
+        assertEquals(0.5, bucket.getAverageOccupancyByFuelType().get(FuelType.PETROL), 1e-9);
+        assertEquals(0.0, bucket.getAverageOccupancyByFuelType().get(FuelType.LPG), 1e-9);
+    }
+
+    @Test
+    void testMinuteWindow_KeepsOnlyTheRetainedBuckets() {
+        // given
+        park(car(1L, FuelType.DIESEL));
+
+        // when
+        clock.advance(Duration.ofHours(3).plusSeconds(30));
+        UtilizationDTO utilization = utilizationAnalytics.getUtilization(PARKING_ID, UtilizationWindow.MINUTE);
+
+        // then
+        assertEquals(UtilizationWindow.MINUTE.getRetained(), utilization.getBuckets().size());
+        UtilizationBucketDTO last = utilization.getBuckets().get(utilization.getBuckets().size() - 1);
+        assertEquals(TEN_O_CLOCK.plus(Duration.ofHours(3)), last.getStart());
+        assertEquals(1.0, last.getAverageOccupancy(), 1e-9, "The parked car carries over into later buckets");
+        assertEquals(1, last.getPeakOccupancy());
+        assertNull(last.getAverageDwellSeconds(), "No session ended in this bucket");
+    }
+
+    @Test
+    void testFlush_WritesClosedHoursOnlyForFuelTypesInUse() {
+        // given
+        CarEntity lpg = car(1L, FuelType.LPG);
+        park(lpg);
+        clock.advance(Duration.ofMinutes(20));
+        unpark(lpg);
+
+        // when
+        utilizationAnalytics.flush();
+        assertTrue(writtenRollups.isEmpty(), "The hour is still open");
+        clock.advance(Duration.ofMinutes(50));
+        utilizationAnalytics.flush();
+
+        // then
+        Set<FuelType> fuelTypes = writtenRollups.stream()
+                .map(UtilizationRollupEntity::getFuelType)
+                .collect(Collectors.toSet());
+        assertEquals(2, writtenRollups.size());
+        assertTrue(fuelTypes.contains(null), "One row covers the whole lot");
+        assertTrue(fuelTypes.contains(FuelType.LPG));
+        UtilizationRollupEntity lot = writtenRollups.stream().filter(rollup -> rollup.getFuelType() == null).findFirst().orElseThrow();
+        assertEquals(TEN_O_CLOCK, lot.getBucketStart());
+        assertEquals(Duration.ofMinutes(20).toMillis(), lot.getOccupiedMillis());
+        assertEquals(1, lot.getCompletedSessions());
+        assertEquals(Duration.ofMinutes(20).toMillis(), lot.getDwellMillis());
+
+        utilizationAnalytics.flush();
+        assertEquals(2, writtenRollups.size(), "Rollups are written once");
+    }
+
+    @Test
+    void testUnknownParking_IsNotFound() {
+        assertThrows(NoParkingFoundException.class,
+                () -> utilizationAnalytics.getUtilization(42L, UtilizationWindow.DAY));
+    }
+
+    private void park(CarEntity car) {
+        occupancyEngine.tryAdmit(PARKING_ID, car.getFuelType(), 10, 2);
+        parkingSessionLedger.recordEnter(car, PARKING_ID);
+    }
+
+    private void unpark(CarEntity car) {
+        occupancyEngine.release(PARKING_ID, car.getFuelType());
+        parkingSessionLedger.recordExit(car, PARKING_ID);
+    }
+
+    private static CarEntity car(Long id, FuelType fuelType) {
+        return CarEntity.builder()
+                .id(id)
+                .brand("Analytics Brand")
+                .model("Analytics Model")
+                .width(1.8)
+                .fuelType(fuelType)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
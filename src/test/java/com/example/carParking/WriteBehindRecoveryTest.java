@@ -0,0 +1,208 @@
+package com.example.carParking;
+
+import com.example.carParking.exceptions.AssignmentsNotWrittenException;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.repository.AssignmentLog.SyncPolicy;
+import com.example.carParking.repository.CarAssignmentStore;
+import com.example.carParking.repository.CarRepository;
+import com.example.carParking.service.CacheEvictor;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingLocks;
+import com.example.carParking.service.ParkingService;
+import com.example.carParking.service.WriteBehindAssignments;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:write-behind;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "carparking.write-behind.enabled=true",
+        // Flushes are driven by the test, so acknowledged moves stay unwritten until it says so.
+        "carparking.write-behind.flush-interval=PT1H",
+        "carparking.write-behind.batch-size=100000",
+        "carparking.write-behind.wal.segment-size=1MB"
+})
+public class WriteBehindRecoveryTest {
+
+    private static final Path WAL_DIRECTORY = createTempDirectory("write-behind");
+
+    @DynamicPropertySource
+    static void walDirectory(DynamicPropertyRegistry registry) {
+        registry.add("carparking.write-behind.wal.directory", WAL_DIRECTORY::toString);
+    }
+
+    @Autowired
+    private ParkingService parkingService;
+
+    @Autowired
+    private CarService carService;
+
+    @Autowired
+    private WriteBehindAssignments writeBehindAssignments;
+
+    @Autowired
+    private OccupancyEngine occupancyEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CarAssignmentStore carAssignmentStore;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private ParkingLocks parkingLocks;
+
+    @Autowired
+    private CacheEvictor cacheEvictor;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testAddCar_IsAdmittedInMemoryAndWrittenWithTheNextFlush() {
+        // given
+        ParkingEntity parking = createParking(2);
+        ParkingEntity other = createParking(2);
+        CarEntity car = createCar();
+
+        // when
+        ParkingEntity response = parkingService.addCarToParking(parking.getId(), car.getId());
+
+        // then
+        assertEquals(List.of(car.getId()), response.getCars().stream().map(CarEntity::getId).toList());
+        assertEquals(1, occupancyEngine.getCounts(parking.getId()).getTotal());
+        assertNull(parkingIdInDatabase(car.getId()), "The move must not be written before a flush");
+
+        // when
+        response = parkingService.addCarToParking(other.getId(), car.getId());
+        writeBehindAssignments.flush();
+
+        // then
+        assertEquals(List.of(car.getId()), response.getCars().stream().map(CarEntity::getId).toList());
+        assertEquals(0, occupancyEngine.getCounts(parking.getId()).getTotal());
+        assertEquals(other.getId(), parkingIdInDatabase(car.getId()));
+
+        // when
+        response = parkingService.deleteCarFromParking(other.getId(), car.getId());
+        writeBehindAssignments.flush();
+
+        // then
+        assertTrue(response.getCars().isEmpty());
+        assertNull(parkingIdInDatabase(car.getId()));
+    }
+
+    @Test
+    void testSettleAll_FailsWhileTheAssignmentsCannotBeWritten() {
+        // given
+        ParkingEntity parking = createParking(2);
+        CarEntity car = createCar();
+        parkingService.addCarToParking(parking.getId(), car.getId());
+        jdbcTemplate.execute("alter table cars rename to cars_unavailable");
+
+        // when / then
+        try {
+            assertThrows(AssignmentsNotWrittenException.class, () -> writeBehindAssignments.settleAll());
+        } finally {
+            jdbcTemplate.execute("alter table cars_unavailable rename to cars");
+        }
+        assertNull(parkingIdInDatabase(car.getId()));
+
+        // when
+        writeBehindAssignments.settleAll();
+
+        // then
+        assertEquals(parking.getId(), parkingIdInDatabase(car.getId()), "The failed batch should stay queued");
+    }
+
+    @Test
+    void testRecover_WritesAcknowledgedMovesLeftInTheLogByACrash() throws IOException {
+        // given
+        ParkingEntity parking = createParking(5);
+        CarEntity parked = createCar();
+        CarEntity movedAndUnparked = createCar();
+        parkingService.addCarToParking(parking.getId(), parked.getId());
+        parkingService.addCarToParking(parking.getId(), movedAndUnparked.getId());
+        parkingService.deleteCarFromParking(parking.getId(), movedAndUnparked.getId());
+        jdbcTemplate.update("update cars set parking_id = ? where car_id = ?", parking.getId(), movedAndUnparked.getId());
+
+        // A crash image: the log and its checkpoint as they are now, none of the moves flushed.
+        Path crashImage = createTempDirectory("write-behind-crash");
+        for (Path file : files(WAL_DIRECTORY)) {
+            Files.copy(file, crashImage.resolve(file.getFileName()));
+        }
+
+        // when
+        restartOn(crashImage);
+
+        // then
+        assertEquals(parking.getId(), parkingIdInDatabase(parked.getId()));
+        assertNull(parkingIdInDatabase(movedAndUnparked.getId()), "The last move of a car must win");
+
+        // when
+        jdbcTemplate.update("update cars set parking_id = null where car_id = ?", parked.getId());
+        restartOn(crashImage);
+
+        // then
+        assertNull(parkingIdInDatabase(parked.getId()), "Recovery should checkpoint what it replayed");
+    }
+
+    private void restartOn(Path walDirectory) {
+        WriteBehindAssignments restarted = new WriteBehindAssignments(carAssignmentStore, carRepository, parkingLocks,
+                cacheEvictor, entityManager, transactionManager, new SimpleMeterRegistry(), true,
+                Duration.ofHours(1), 100_000, Duration.ofSeconds(5), true, walDirectory, DataSize.ofMegabytes(1), SyncPolicy.COMMIT);
+        restarted.recover();
+        restarted.stop();
+    }
+
+    private Long parkingIdInDatabase(Long carId) {
+        return jdbcTemplate.queryForObject("select parking_id from cars where car_id = ?", Long.class, carId);
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Path createTempDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ParkingEntity createParking(int totalSpaces) {
+        return parkingService.createParking(TestDataUtil.newParking(totalSpaces, 0).build());
+    }
+
+    private CarEntity createCar() {
+        return carService.createCar(TestDataUtil.newCar(FuelType.PETROL).build());
+    }
+}
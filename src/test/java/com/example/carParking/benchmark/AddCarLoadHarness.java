@@ -0,0 +1,203 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.CarParkingApplication;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test of {@code POST /parkings/{parkingId}/addCar/{carId}}. For every mode it
+ * starts the application on a random port, lets each client move its own car between two lots as
+ * fast as responses come back, and reports throughput and latency of the measured window. The
+ * {@code virtual} mode runs with the {@code virtual-threads} profile and needs Java 21; the
+ * {@code reactive} mode calls the same operation on {@code /reactive/parkings}.
+ * <p>
+ * Arguments: {@code <clients> <warmup> <duration> <modes>}, e.g. {@code 5000 PT10S PT30S platform,virtual,reactive}.
+ */
+public final class AddCarLoadHarness {
+
+    private static final int CARS_PER_LOT = 10;
+
+    private AddCarLoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.parseInt(args[0]);
+        Duration warmup = Duration.parse(args[1]);
+        Duration duration = Duration.parse(args[2]);
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : args[3].split(",")) {
+            boolean virtual = mode.trim().equals("virtual");
+            if (virtual && Runtime.version().feature() < 21) {
+                System.out.println("Skipping virtual mode, it needs Java 21 (build with -Pjava21)");
+                continue;
+            }
+            results.add(run(mode.trim(), virtual, clients, warmup, duration));
+        }
+
+        System.out.printf("%n%-10s %8s %12s %10s %10s %10s %8s%n",
+                "mode", "clients", "requests/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (Result result : results) {
+            System.out.printf("%-10s %8d %12.0f %10.1f %10.1f %10.1f %8d%n", result.mode, clients,
+                    result.throughput, result.p50Millis, result.p99Millis, result.maxMillis, result.errors);
+        }
+        System.exit(0);
+    }
+
+    private static Result run(String mode, boolean virtual, int clients, Duration warmup, Duration duration)
+            throws InterruptedException {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(CarParkingApplication.class);
+        if (virtual) {
+            builder.profiles("virtual-threads");
+        }
+        // Passed as arguments because they have to override application.properties.
+        try (ConfigurableApplicationContext context = builder.run("--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--logging.level.com.example.carParking=WARN")) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            long[][] moves = prepare(context, clients);
+            System.out.printf("Running %s mode with %d clients against port %d%n", mode, clients, port);
+            String basePath = mode.equals("reactive") ? "/reactive/parkings/" : "/parkings/";
+            return drive(mode, URI.create("http://localhost:" + port + basePath), moves, warmup, duration);
+        }
+    }
+
+    /**
+     * Creates one car per client and enough lots that every lot is shared by a few clients, so
+     * lot locks see some contention without serializing the whole run.
+     *
+     * @return per client: car ID and the IDs of the two lots it moves between
+     */
+    private static long[][] prepare(ConfigurableApplicationContext context, int clients) {
+        ParkingService parkingService = context.getBean(ParkingService.class);
+        CarService carService = context.getBean(CarService.class);
+        int lotCount = Math.max(2, clients / CARS_PER_LOT);
+        long[] lotIds = new long[lotCount];
+        for (int i = 0; i < lotCount; i++) {
+            lotIds[i] = parkingService.createParking(ParkingEntity.builder()
+                    .name("Load Parking " + i)
+                    .address(i + " Load Street")
+                    .totalSpaces(clients)
+                    .numberOfChargers(0)
+                    .lpgAllowed(true)
+                    .widthOfParkingSpace(2.5)
+                    .build()).getId();
+        }
+        long[][] moves = new long[clients][];
+        for (int i = 0; i < clients; i++) {
+            long carId = carService.createCar(CarEntity.builder()
+                    .brand("Load")
+                    .model("Car " + i)
+                    .width(1.8)
+                    .fuelType(FuelType.PETROL)
+                    .build()).getId();
+            moves[i] = new long[]{carId, lotIds[i % lotCount], lotIds[(i + 1) % lotCount]};
+        }
+        return moves;
+    }
+
+    private static Result drive(String mode, URI baseUri, long[][] moves, Duration warmup, Duration duration)
+            throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        AtomicLong errors = new AtomicLong();
+        Window window = new Window();
+        CountDownLatch finished = new CountDownLatch(moves.length);
+        for (long[] move : moves) {
+            new Client(httpClient, baseUri, move, latencies, errors, window, finished).next();
+        }
+
+        Thread.sleep(warmup.toMillis());
+        window.measuring = true;
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        window.measuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        window.stopped = true;
+        finished.await(1, TimeUnit.MINUTES);
+
+        return new Result(mode, latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getMaxValue() / 1000.0,
+                errors.get());
+    }
+
+    private static final class Client {
+
+        private final HttpClient httpClient;
+        private final URI baseUri;
+        private final long[] move;
+        private final Histogram latencies;
+        private final AtomicLong errors;
+        private final Window window;
+        private final CountDownLatch finished;
+        private int moveCount;
+
+        private Client(HttpClient httpClient, URI baseUri, long[] move, Histogram latencies, AtomicLong errors,
+                       Window window, CountDownLatch finished) {
+            this.httpClient = httpClient;
+            this.baseUri = baseUri;
+            this.move = move;
+            this.latencies = latencies;
+            this.errors = errors;
+            this.window = window;
+            this.finished = finished;
+        }
+
+        void next() {
+            if (window.stopped) {
+                finished.countDown();
+                return;
+            }
+            long parkingId = move[1 + (moveCount++ & 1)];
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(parkingId + "/addCar/" + move[0]))
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            long sent = System.nanoTime();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                if (window.measuring) {
+                    latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent),
+                            latencies.getHighestTrackableValue()));
+                    if (failure != null || response.statusCode() >= 300) {
+                        errors.incrementAndGet();
+                    }
+                }
+                next();
+            });
+        }
+    }
+
+    private static final class Window {
+
+        private volatile boolean measuring;
+        private volatile boolean stopped;
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, double maxMillis,
+                          long errors) {
+    }
+}
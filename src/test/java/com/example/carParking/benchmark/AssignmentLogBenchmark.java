@@ -0,0 +1,62 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.model.CarAssignment;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.repository.AssignmentLog;
+import com.example.carParking.repository.AssignmentLog.SyncPolicy;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appends write-ahead log records. With {@code syncEvery} 0 nothing is forced until a segment is
+ * full; otherwise every {@code syncEvery}-th append waits for a force, as a group commit of that
+ * many concurrent requests would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssignmentLogBenchmark {
+
+    @Param({"0", "1000"})
+    private int syncEvery;
+
+    private Path directory;
+    private AssignmentLog log;
+    private CarAssignment assignment;
+    private long appended;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("assignment-log-benchmark");
+        log = new AssignmentLog(directory, 64 << 20, syncEvery == 0 ? SyncPolicy.NEVER : SyncPolicy.COMMIT);
+        assignment = new CarAssignment(42L, 7L, 1234L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        long position = log.append(assignment, FuelType.PETROL, appended);
+        if (syncEvery > 0 && ++appended % syncEvery == 0) {
+            log.sync(position);
+        }
+        return position;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.dto.ParkingAvailabilityDTO;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.AvailabilityService;
+import com.example.carParking.service.ChargerScheduler;
+import com.example.carParking.service.ChargerScheduler.Policy;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the availability of all lots while another thread parks and unparks cars, which
+ * swaps one lot's snapshot on every operation.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+
+    @Param({"10", "1000"})
+    private int parkings;
+
+    private OccupancyEngine occupancyEngine;
+    private AvailabilityService availabilityService;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        occupancyEngine = new OccupancyEngine();
+        availabilityService = new AvailabilityService(occupancyEngine, new ParkingSearchIndex(),
+                new ChargerScheduler(Clock.systemUTC(), Policy.DEDICATED, Duration.ZERO));
+        List<ParkingEntity> lots = new ArrayList<>();
+        for (long id = 1; id <= parkings; id++) {
+            lots.add(BenchmarkData.parking(id, 100));
+        }
+        availabilityService.reload(lots);
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    public List<ParkingAvailabilityDTO> readOnly() {
+        return availabilityService.getAvailability();
+    }
+
+    @Benchmark
+    @Group("readWhileParking")
+    @GroupThreads(3)
+    public List<ParkingAvailabilityDTO> read() {
+        return availabilityService.getAvailability();
+    }
+
+    @Benchmark
+    @Group("readWhileParking")
+    @GroupThreads(1)
+    public void parkAndUnpark() {
+        Long parkingId = (long) (next++ % parkings) + 1;
+        occupancyEngine.tryAdmit(parkingId, FuelType.PETROL, 100, 10);
+        occupancyEngine.release(parkingId, FuelType.PETROL);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.carParking.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Compares a JMH JSON result file with the checked-in baseline and exits with a non-zero status
+ * when any benchmark got slower than the allowed tolerance or has no baseline.
+ * <p>
+ * The baseline holds the JMH runs together with the machine they ran on. Scores only compare on
+ * the same number of processors, operating system and Java feature release, so on any other
+ * machine the comparison is skipped with a warning. A benchmark only counts as regressed when it
+ * is more than the tolerance worse and the difference is larger than the error margins of both
+ * scores together, so single noisy iterations do not fail the build.
+ * <p>
+ * Arguments: {@code <results.json> <baseline.json> <tolerance> <updateBaseline>}. Updating merges
+ * the results into a baseline of the same machine and replaces one of another machine.
+ */
+public final class BenchmarkBaselineCheck {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Below this many processors the benchmark, JIT and GC threads compete for the same cores.
+     */
+    private static final int MIN_RELIABLE_PROCESSORS = 4;
+
+    private BenchmarkBaselineCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path results = Path.of(args[0]);
+        Path baseline = Path.of(args[1]);
+        double tolerance = Double.parseDouble(args[2]);
+        boolean updateBaseline = Boolean.parseBoolean(args[3]);
+        ObjectNode environment = environment();
+
+        if (updateBaseline) {
+            writeBaseline(results, baseline, environment);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            fail("No benchmark baseline at " + baseline + ". Record one on the reference machine with "
+                    + "-Dbenchmark.updateBaseline=true.");
+        }
+
+        JsonNode recorded = objectMapper.readTree(baseline.toFile());
+        if (!environment.equals(recorded.get("environment"))) {
+            System.out.println("Warning: benchmark baseline was recorded on " + recorded.get("environment")
+                    + ", this machine is " + environment + ". Skipping the comparison; run the benchmarks on "
+                    + "the reference machine to check for regressions.");
+            return;
+        }
+
+        Map<String, JsonNode> baselineScores = scoresByKey(recorded.get("benchmarks"));
+        List<String> regressions = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> entry : scoresByKey(objectMapper.readTree(results.toFile())).entrySet()) {
+            JsonNode current = entry.getValue();
+            JsonNode previous = baselineScores.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("MISSING    %s: %.3f %s%n", entry.getKey(), score(current), unit(current));
+                missing.add(entry.getKey());
+                continue;
+            }
+            double change = relativeChange(current.get("mode").asText(), score(previous), score(current));
+            boolean beyondNoise = Math.abs(score(current) - score(previous)) > error(previous) + error(current);
+            boolean regressed = change > tolerance && beyondNoise;
+            String verdict = regressed ? "REGRESSION" : change > tolerance ? "NOISY" : "OK";
+            System.out.printf("%-10s %s: %.3f +- %.3f -> %.3f +- %.3f %s (%+.1f%%)%n", verdict, entry.getKey(),
+                    score(previous), error(previous), score(current), error(current), unit(current), change * 100);
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            System.out.printf("%d benchmark(s) have no baseline: %s%n", missing.size(), missing);
+        }
+        if (!regressions.isEmpty()) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%: %s%n",
+                    regressions.size(), tolerance * 100, regressions);
+        }
+        if (!missing.isEmpty() || !regressions.isEmpty()) {
+            System.exit(1);
+        }
+    }
+
+    private static void writeBaseline(Path results, Path baseline, ObjectNode environment) throws IOException {
+        Map<String, JsonNode> runs = new TreeMap<>();
+        if (Files.exists(baseline)) {
+            JsonNode recorded = objectMapper.readTree(baseline.toFile());
+            if (environment.equals(recorded.get("environment"))) {
+                runs.putAll(scoresByKey(recorded.get("benchmarks")));
+            }
+        }
+        runs.putAll(scoresByKey(objectMapper.readTree(results.toFile())));
+
+        ObjectNode updated = objectMapper.createObjectNode();
+        updated.set("environment", environment);
+        ArrayNode benchmarks = updated.putArray("benchmarks");
+        runs.values().forEach(benchmarks::add);
+        Files.createDirectories(baseline.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(baseline.toFile(), updated);
+        System.out.println("Benchmark baseline of " + runs.size() + " benchmarks written to " + baseline);
+        if (environment.get("processors").asInt() < MIN_RELIABLE_PROCESSORS) {
+            System.out.println("Warning: recorded on " + environment.get("processors").asInt()
+                    + " processors, scores will be noisy.");
+        }
+    }
+
+    private static ObjectNode environment() {
+        ObjectNode environment = objectMapper.createObjectNode();
+        environment.put("processors", Runtime.getRuntime().availableProcessors());
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("jvm", "Java " + Runtime.version().feature());
+        return environment;
+    }
+
+    private static void fail(String message) {
+        System.out.println(message);
+        System.exit(1);
+    }
+
+    /**
+     * Positive values mean worse: slower for time modes, fewer operations for throughput.
+     */
+    private static double relativeChange(String mode, double previous, double current) {
+        if ("thrpt".equals(mode)) {
+            return (previous - current) / previous;
+        }
+        return (current - previous) / previous;
+    }
+
+    private static Map<String, JsonNode> scoresByKey(JsonNode runs) {
+        Map<String, JsonNode> scores = new TreeMap<>();
+        for (JsonNode run : runs) {
+            StringBuilder key = new StringBuilder(run.get("benchmark").asText());
+            JsonNode params = run.get("params");
+            if (params != null) {
+                new TreeMap<>(objectMapper.convertValue(params, Map.class))
+                        .forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            }
+            scores.put(key.toString(), run);
+        }
+        return scores;
+    }
+
+    private static double score(JsonNode run) {
+        return run.get("primaryMetric").get("score").asDouble();
+    }
+
+    /**
+     * Half the width of the 99.9% confidence interval JMH reports; NaN with a single iteration.
+     */
+    private static double error(JsonNode run) {
+        double error = run.get("primaryMetric").get("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String unit(JsonNode run) {
+        return run.get("primaryMetric").get("scoreUnit").asText();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.config.CacheConfig;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.model.ParkingSessionEventEntity;
+import com.example.carParking.model.ParkingSlotEntity;
+import com.example.carParking.repository.CarRepository;
+import com.example.carParking.repository.ParkingRepository;
+import com.example.carParking.repository.ParkingSessionStore;
+import com.example.carParking.repository.ParkingSlotRepository;
+import com.example.carParking.service.AvailabilityService;
+import com.example.carParking.service.CacheEvictor;
+import com.example.carParking.service.ChargerScheduler;
+import com.example.carParking.service.ChargerScheduler.Policy;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingLocks;
+import com.example.carParking.service.ParkingSearchIndex;
+import com.example.carParking.service.ParkingService;
+import com.example.carParking.service.ParkingSessionLedger;
+import com.example.carParking.service.ReservationIndex;
+import com.example.carParking.service.ReservationService;
+import com.example.carParking.service.SlotAllocator;
+import com.example.carParking.service.WriteBehindAssignments;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+final class BenchmarkData {
+
+    static final String[] APPLICATION_PROPERTIES = {
+            "spring.jpa.show-sql=false",
+            "logging.level.root=WARN"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static Page<ParkingEntity> parkingPage(int pageSize, int carsPerParking) {
+        List<ParkingEntity> parkings = new ArrayList<>(pageSize);
+        long carId = 1;
+        for (long parkingId = 1; parkingId <= pageSize; parkingId++) {
+            ParkingEntity parking = parking(parkingId, carsPerParking);
+            List<CarEntity> cars = new ArrayList<>(carsPerParking);
+            for (int i = 0; i < carsPerParking; i++) {
+                cars.add(car(carId++, FuelType.values()[i % FuelType.values().length], parking));
+            }
+            parking.setCars(cars);
+            parkings.add(parking);
+        }
+        return new PageImpl<>(parkings, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    static ParkingEntity parking(Long id, int totalSpaces) {
+        return ParkingEntity.builder()
+                .id(id)
+                .name("Benchmark Parking " + id)
+                .address(id + " Benchmark Street")
+                .totalSpaces(totalSpaces)
+                .numberOfChargers(totalSpaces)
+                .lpgAllowed(true)
+                .widthOfParkingSpace(2.5)
+                .cars(new ArrayList<>())
+                .build();
+    }
+
+    static CarEntity car(Long id, FuelType fuelType, ParkingEntity parking) {
+        return CarEntity.builder()
+                .id(id)
+                .brand("Brand " + id)
+                .model("Model " + id)
+                .width(1.8)
+                .fuelType(fuelType)
+                .parking(parking)
+                .build();
+    }
+
+    /**
+     * A ledger that queues and drains events as in production, but does not write the batches
+     * anywhere. Start it before use and stop it afterwards.
+     */
+    static ParkingSessionLedger discardingLedger() {
+        return new ParkingSessionLedger(new ParkingSessionStore(null) {
+            @Override
+            public void appendAll(List<ParkingSessionEventEntity> events) {
+            }
+        }, new SimpleMeterRegistry(), 500, 100_000);
+    }
+
+    /**
+     * A parking service whose repositories are in-memory stubs that always find {@code parking}
+     * and {@code car}, so admissions cost no database work.
+     */
+    static ParkingService stubbedParkingService(ParkingEntity parking, CarEntity car, OccupancyEngine occupancyEngine,
+                                                ParkingSessionLedger parkingSessionLedger) {
+        ParkingLocks parkingLocks = new ParkingLocks(64);
+        ChargerScheduler chargerScheduler = new ChargerScheduler(Clock.systemUTC(), Policy.DEDICATED, Duration.ZERO);
+        CacheEvictor cacheEvictor = new CacheEvictor(
+                new ConcurrentMapCacheManager(CacheConfig.PARKINGS_CACHE, CacheConfig.CARS_CACHE),
+                new SimpleMeterRegistry());
+        // Write-behind is disabled, as by default, so none of its persistence collaborators are used.
+        WriteBehindAssignments writeBehindAssignments = new WriteBehindAssignments(null, null, parkingLocks,
+                cacheEvictor, null, null, new SimpleMeterRegistry(), false, Duration.ofMillis(100), 1000,
+                Duration.ofSeconds(5), false, null, null, null);
+        // Nothing is reserved, so the reservation service never reaches its repositories.
+        ReservationService reservationService = new ReservationService(null, null, null, new ReservationIndex(),
+                occupancyEngine, parkingLocks, Clock.systemUTC(), Duration.ofDays(365));
+
+        return new ParkingService(stub(ParkingRepository.class, parking), stub(CarRepository.class, car),
+                occupancyEngine, parkingLocks, cacheEvictor,
+                new AvailabilityService(occupancyEngine, new ParkingSearchIndex(), chargerScheduler),
+                stub(ParkingSlotRepository.class, new ParkingSlotEntity()), new SlotAllocator(), chargerScheduler,
+                parkingSessionLedger, writeBehindAssignments, reservationService, null, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repositoryType, Object entity) {
+        Optional<Object> found = Optional.of(entity);
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> found;
+                    case "save" -> args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.service.ChargerScheduler;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One scheduler tick over 10,000 lots of 50 chargers, each with 10 cars waiting. In
+ * {@code rotate} every slice has ended, so each lot hands its chargers over; in {@code idle} no
+ * slice has, so each lot is skipped. Run with {@code -prof gc} to see that ticks allocate nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChargerSchedulerBenchmark {
+
+    private static final int LOTS = 10_000;
+    private static final int CHARGERS = 50;
+    private static final int WAITING = 10;
+    private static final long SLICE_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    @Param({"ROUND_ROBIN", "FAIR_SHARE"})
+    private ChargerScheduler.Policy policy;
+
+    private ChargerScheduler chargerScheduler;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        now = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+        chargerScheduler = new ChargerScheduler(Clock.fixed(Instant.ofEpochMilli(now), ZoneOffset.UTC), policy,
+                Duration.ofMillis(SLICE_MILLIS));
+        long carId = 1;
+        for (long parkingId = 1; parkingId <= LOTS; parkingId++) {
+            chargerScheduler.define(parkingId, CHARGERS);
+            for (int i = 0; i < CHARGERS + WAITING; i++) {
+                chargerScheduler.arrive(parkingId, carId++);
+            }
+        }
+    }
+
+    @Benchmark
+    public int rotate() {
+        now += SLICE_MILLIS;
+        return chargerScheduler.rotate(now);
+    }
+
+    @Benchmark
+    public int idle() {
+        return chargerScheduler.rotate(now);
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.carParking.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.example.carParking.config.SamplingTurboFilter;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingService;
+import com.example.carParking.service.ParkingSessionLedger;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission throughput with the request path logging off (INFO, the default), and with DEBUG on
+ * written to a file synchronously, through the asynchronous appender of the {@code async-logging}
+ * profile, and asynchronously with one in 100 events sampled. Repositories are stubbed as in
+ * {@link ValidateCarAdditionBenchmark}, so logging is the only I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN = "ts=%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} level=%level thread=%thread logger=%logger msg=\"%msg\" %kvp%n";
+
+    @Param({"off", "sync", "async", "sampled"})
+    private String logging;
+
+    private Path logFile;
+    private ParkingService parkingService;
+    private ParkingEntity parking;
+    private CarEntity car;
+    private ParkingSessionLedger parkingSessionLedger;
+
+    @Setup
+    public void setUp() throws IOException {
+        logFile = Files.createTempFile("logging-benchmark", ".log");
+        configureLogging();
+
+        parking = BenchmarkData.parking(1L, 100);
+        car = BenchmarkData.car(1L, FuelType.ELECTRIC, null);
+        parkingSessionLedger = BenchmarkData.discardingLedger();
+        parkingService = BenchmarkData.stubbedParkingService(parking, car, new OccupancyEngine(), parkingSessionLedger);
+        parkingSessionLedger.start();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        parkingSessionLedger.stop();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public ParkingEntity admitAndRelease() {
+        parkingService.addCarToParking(parking.getId(), car.getId());
+        return parkingService.deleteCarFromParking(parking.getId(), car.getId());
+    }
+
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (!logging.equals("sync")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+        if (logging.equals("sampled")) {
+            SamplingTurboFilter sampling = new SamplingTurboFilter();
+            sampling.setContext(context);
+            sampling.setCategory("com.example.carParking");
+            sampling.setRate(100);
+            sampling.start();
+            context.addTurboFilter(sampling);
+        }
+
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        context.getLogger("com.example.carParking").setLevel(logging.equals("off") ? Level.INFO : Level.DEBUG);
+    }
+}
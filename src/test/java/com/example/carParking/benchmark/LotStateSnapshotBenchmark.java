@@ -0,0 +1,87 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.model.FuelType;
+import com.example.carParking.repository.LotStateSnapshot;
+import com.example.carParking.service.AvailabilityService;
+import com.example.carParking.service.ChargerScheduler;
+import com.example.carParking.service.ChargerScheduler.Policy;
+import com.example.carParking.service.LotStateSnapshots;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingLocks;
+import com.example.carParking.service.ParkingSearchIndex;
+import com.example.carParking.service.SlotAllocator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start from a snapshot: maps the file, checks it and fills the occupancy engine, slot
+ * allocator and availability of a fresh application, which is all that stands between startup
+ * and the first admission.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LotStateSnapshotBenchmark {
+
+    private static final int PARKINGS = 1_000;
+    private static final int SLOTTED_PARKINGS = 100;
+    private static final int SLOTS_PER_PARKING = 1_000;
+
+    @Param({"1000000"})
+    private int cars;
+
+    private Path directory;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("lot-state-benchmark");
+        file = directory.resolve("lot-state.snapshot");
+        LotStateSnapshot.Builder builder = LotStateSnapshot.builder();
+        for (long parkingId = 1; parkingId <= PARKINGS; parkingId++) {
+            builder.addLot(parkingId, "Parking " + parkingId, 2_000, 200, true, 2.5, 52.0 + parkingId / 1e4, 21.0);
+        }
+        for (long slotId = 1; slotId <= (long) SLOTTED_PARKINGS * SLOTS_PER_PARKING; slotId++) {
+            builder.addSlot(slotId, (slotId - 1) / SLOTS_PER_PARKING + 1, 2.5, slotId % 10 == 0, true);
+        }
+        FuelType[] fuelTypes = FuelType.values();
+        for (long carId = 1; carId <= cars; carId++) {
+            long parkingId = carId % PARKINGS + 1;
+            Long slotId = parkingId <= SLOTTED_PARKINGS && carId / PARKINGS < SLOTS_PER_PARKING
+                    ? (parkingId - 1) * SLOTS_PER_PARKING + carId / PARKINGS + 1
+                    : null;
+            builder.addCar(carId, carId % 4 == 0 ? null : parkingId, carId % 4 == 0 ? null : slotId,
+                    fuelTypes[(int) (carId % fuelTypes.length)]);
+        }
+        builder.build(System.currentTimeMillis()).write(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public OccupancyEngine restore() {
+        OccupancyEngine occupancyEngine = new OccupancyEngine();
+        ChargerScheduler chargerScheduler = new ChargerScheduler(Clock.systemUTC(), Policy.DEDICATED, Duration.ZERO);
+        LotStateSnapshots snapshots = new LotStateSnapshots(null, null, null, null, occupancyEngine,
+                new SlotAllocator(), chargerScheduler,
+                new AvailabilityService(occupancyEngine, new ParkingSearchIndex(), chargerScheduler),
+                new ParkingLocks(64), null, null, Clock.systemUTC(), true, file);
+        if (!snapshots.load()) {
+            throw new IllegalStateException("Snapshot was not loaded");
+        }
+        return occupancyEngine;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.mapper.CarMapperImpl;
+import com.example.carParking.mapper.ParkingMapper;
+import com.example.carParking.mapper.ParkingMapperImpl;
+import com.example.carParking.model.ParkingEntity;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps one {@code Page<ParkingEntity>} to {@code Page<ParkingDTO>}, the work behind {@code GET /parkings}.
+ * Run with the GC profiler to get {@code gc.alloc.rate.norm}, the bytes allocated per mapped page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "10", "100"})
+    private int carsPerParking;
+
+    private ModelMapper modelMapper;
+    private ParkingMapper parkingMapper;
+    private Page<ParkingEntity> page;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.LOOSE);
+        parkingMapper = new ParkingMapperImpl(new CarMapperImpl());
+        page = BenchmarkData.parkingPage(PAGE_SIZE, carsPerParking);
+    }
+
+    @Benchmark
+    public Page<ParkingDTO> modelMapper() {
+        return page.map(parking -> modelMapper.map(parking, ParkingDTO.class));
+    }
+
+    @Benchmark
+    public Page<ParkingDTO> generatedMapper() {
+        return page.map(parkingMapper::toParkingDTO);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MappingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.dto.ParkingDTO;
+import com.example.carParking.mapper.CarMapperImpl;
+import com.example.carParking.mapper.ParkingMapperImpl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes a {@code Page<ParkingDTO>} the way {@code WebConfig}'s VIA_DTO mode does: the page is
+ * wrapped in a {@link PagedModel} before Jackson writes it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "10", "100"})
+    private int carsPerParking;
+
+    private ObjectMapper objectMapper;
+    private PagedModel<ParkingDTO> pagedModel;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ParkingMapperImpl parkingMapper = new ParkingMapperImpl(new CarMapperImpl());
+        pagedModel = new PagedModel<>(BenchmarkData.parkingPage(PAGE_SIZE, carsPerParking).map(parkingMapper::toParkingDTO));
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(pagedModel);
+    }
+}
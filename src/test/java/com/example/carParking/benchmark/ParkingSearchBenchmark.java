@@ -0,0 +1,69 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.dto.ParkingAvailabilityDTO;
+import com.example.carParking.service.ParkingSearchIndex;
+import com.example.carParking.service.ParkingSearchIndex.Match;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the five nearest usable lots among lots spread over a region of about 100 by 100 km,
+ * with a third of them full.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParkingSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    private int parkings;
+
+    private ParkingSearchIndex searchIndex;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        searchIndex = new ParkingSearchIndex();
+        for (long id = 1; id <= parkings; id++) {
+            searchIndex.put(ParkingAvailabilityDTO.builder()
+                    .parkingId(id)
+                    .name("Benchmark Parking " + id)
+                    .totalSpaces(100)
+                    .numberOfChargers(random.nextInt(4))
+                    .lpgAllowed(random.nextBoolean())
+                    .widthOfParkingSpace(2.2 + random.nextInt(5) * 0.1)
+                    .latitude(52.0 + random.nextDouble())
+                    .longitude(20.5 + random.nextDouble() * 1.5)
+                    .build());
+        }
+        latitudes = new double[1024];
+        longitudes = new double[1024];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = 52.0 + random.nextDouble();
+            longitudes[i] = 20.5 + random.nextDouble() * 1.5;
+        }
+    }
+
+    @Benchmark
+    public List<Match> nearestPetrol() {
+        int query = next++ & 1023;
+        return searchIndex.search(1.8, false, false, latitudes[query], longitudes[query], 5,
+                parkingId -> parkingId % 3 != 0, parkingId -> 0);
+    }
+
+    @Benchmark
+    public List<Match> nearestWideLpgElectric() {
+        int query = next++ & 1023;
+        return searchIndex.search(2.5, true, true, latitudes[query], longitudes[query], 5,
+                parkingId -> parkingId % 3 != 0, parkingId -> 0);
+    }
+}
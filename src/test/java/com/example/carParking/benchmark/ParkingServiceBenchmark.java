@@ -0,0 +1,80 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.CarParkingApplication;
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.CarService;
+import com.example.carParking.service.ParkingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@code addCarToParking} and {@code deleteCarFromParking} through the Spring proxies against
+ * the in-memory H2 database, including transactions, locking and Hibernate flushes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParkingServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ParkingService parkingService;
+    private Long parkingId;
+    private Long carId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(CarParkingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(BenchmarkData.APPLICATION_PROPERTIES)
+                .run();
+        parkingService = context.getBean(ParkingService.class);
+        CarService carService = context.getBean(CarService.class);
+
+        ParkingEntity parking = BenchmarkData.parking(null, 10);
+        parking.setCars(null);
+        parkingId = parkingService.createParking(parking).getId();
+        carId = carService.createCar(BenchmarkData.car(null, FuelType.PETROL, null)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ParkedCar {
+
+        @Setup(Level.Invocation)
+        public void park(ParkingServiceBenchmark benchmark) {
+            benchmark.parkingService.addCarToParking(benchmark.parkingId, benchmark.carId);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UnparkedCar {
+
+        @TearDown(Level.Invocation)
+        public void unpark(ParkingServiceBenchmark benchmark) {
+            benchmark.parkingService.deleteCarFromParking(benchmark.parkingId, benchmark.carId);
+        }
+    }
+
+    @Benchmark
+    public ParkingEntity addCarToParking(UnparkedCar unparkedCar) {
+        return parkingService.addCarToParking(parkingId, carId);
+    }
+
+    @Benchmark
+    public ParkingEntity deleteCarFromParking(ParkedCar parkedCar) {
+        return parkingService.deleteCarFromParking(parkingId, carId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.model.ReservationEntity;
+import com.example.carParking.service.ReservationIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking a two-hour reservation in a lot that already holds 100,000 reservations spread over a
+ * year. {@code bookAndRelease} books it through the index and cancels it again, {@code peak} only
+ * asks for the peak of a window, and {@code scan} counts the overlapping reservations one by one,
+ * which is the least a check without the index has to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationIndexBenchmark {
+
+    private static final Long PARKING_ID = 1L;
+    private static final int RESERVATIONS = 100_000;
+    private static final int YEAR_MINUTES = 365 * 24 * 60;
+    private static final Instant START = Instant.parse("2030-01-01T00:00:00Z");
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    private ReservationIndex reservationIndex;
+    private ReservationEntity[] reservations;
+    private long nextId;
+
+    @Setup
+    public void setUp() {
+        reservationIndex = new ReservationIndex();
+        reservations = new ReservationEntity[RESERVATIONS];
+        for (int i = 0; i < RESERVATIONS; i++) {
+            reservations[i] = window((long) i, random.nextInt(YEAR_MINUTES), 30 + random.nextInt(600));
+            reservationIndex.tryBook(reservations[i], Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+        nextId = RESERVATIONS;
+    }
+
+    @Benchmark
+    public ReservationIndex.Outcome bookAndRelease() {
+        ReservationEntity reservation = window(-1L, random.nextInt(YEAR_MINUTES), 120);
+        ReservationIndex.Outcome outcome = reservationIndex.tryBook(reservation, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        reservationIndex.release(reservation);
+        return outcome;
+    }
+
+    @Benchmark
+    public ReservationIndex.Reserved peak() {
+        Instant from = START.plus(Duration.ofMinutes(random.nextInt(YEAR_MINUTES)));
+        return reservationIndex.peak(PARKING_ID, from, from.plus(Duration.ofHours(2)));
+    }
+
+    @Benchmark
+    public int scan() {
+        Instant from = START.plus(Duration.ofMinutes(random.nextInt(YEAR_MINUTES)));
+        Instant to = from.plus(Duration.ofHours(2));
+        int overlapping = 0;
+        for (ReservationEntity reservation : reservations) {
+            if (reservation.getStartsAt().isBefore(to) && from.isBefore(reservation.getEndsAt())) {
+                overlapping++;
+            }
+        }
+        return overlapping;
+    }
+
+    private ReservationEntity window(Long carId, int fromMinute, int minutes) {
+        Instant startsAt = START.plus(Duration.ofMinutes(fromMinute));
+        return ReservationEntity.builder()
+                .id(nextId++)
+                .carId(carId)
+                .parkingId(PARKING_ID)
+                .startsAt(startsAt)
+                .endsAt(startsAt.plus(Duration.ofMinutes(minutes)))
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.carParking.benchmark;
+
+import com.example.carParking.model.CarEntity;
+import com.example.carParking.model.FuelType;
+import com.example.carParking.model.ParkingEntity;
+import com.example.carParking.service.OccupancyEngine;
+import com.example.carParking.service.ParkingService;
+import com.example.carParking.service.ParkingSessionLedger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits and releases one car in a lot that already holds {@code parkedCars} cars, with the
+ * repositories replaced by in-memory stubs. This isolates {@code validateCarAddition} and the
+ * occupancy check from the database: the cost must not grow with the number of parked cars.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateCarAdditionBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int parkedCars;
+
+    private ParkingService parkingService;
+    private ParkingEntity parking;
+    private CarEntity car;
+    private ParkingSessionLedger parkingSessionLedger;
+
+    @Setup
+    public void setUp() {
+        parking = BenchmarkData.parking(1L, parkedCars + 1);
+        OccupancyEngine occupancyEngine = new OccupancyEngine();
+        for (int i = 0; i < parkedCars; i++) {
+            FuelType fuelType = FuelType.values()[i % FuelType.values().length];
+            parking.getCars().add(BenchmarkData.car(i + 2L, fuelType, parking));
+            occupancyEngine.tryAdmit(parking.getId(), fuelType, parking.getTotalSpaces(), parking.getNumberOfChargers());
+        }
+        car = BenchmarkData.car(1L, FuelType.ELECTRIC, null);
+        parkingSessionLedger = BenchmarkData.discardingLedger();
+        parkingService = BenchmarkData.stubbedParkingService(parking, car, occupancyEngine, parkingSessionLedger);
+        parkingSessionLedger.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        parkingSessionLedger.stop();
+    }
+
+    @Benchmark
+    public ParkingEntity admitAndRelease() {
+        parkingService.addCarToParking(parking.getId(), car.getId());
+        return parkingService.deleteCarFromParking(parking.getId(), car.getId());
+    }
+}